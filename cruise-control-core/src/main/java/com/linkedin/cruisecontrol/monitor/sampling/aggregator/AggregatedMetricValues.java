@@ -10,9 +10,10 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
@@ -22,16 +23,40 @@ import static com.linkedin.cruisecontrol.common.utils.Utils.validateNotNull;
 
 /**
  * The aggregated metric values.
+ *
+ * The metric ids of a {@link MetricDef} are small and dense, so the metric values are indexed by their metric id in an
+ * array rather than kept in a map. This avoids boxing and hashing the metric id on each lookup, which is on the hot path
+ * of the load computations during the optimizations.
  */
 public class AggregatedMetricValues {
-  // Metric values by metric id.
-  private final Map<Short, MetricValues> _metricValues;
+  private static final MetricValues[] NO_METRIC_VALUES = new MetricValues[0];
+  // Metric values by metric id, the values of the metric ids that do not exist are null.
+  private MetricValues[] _metricValues;
+  // The number of metrics that have values.
+  private int _numMetrics;
+  // The slab to allocate new metric values from, or null to allocate them on their own.
+  private final MetricValuesSlab _slab;
 
   /**
    * Create an empty metric values.
    */
   public AggregatedMetricValues() {
-    _metricValues = new HashMap<>();
+    this((MetricValuesSlab) null);
+  }
+
+  /**
+   * Create an empty metric values, whose values for each metric will be allocated from the given slab.
+   *
+   * @param slab the slab to allocate the metric values from, or {@code null} to allocate them on their own.
+   */
+  public AggregatedMetricValues(MetricValuesSlab slab) {
+    this(NO_METRIC_VALUES, slab);
+  }
+
+  private AggregatedMetricValues(MetricValues[] metricValues, MetricValuesSlab slab) {
+    _metricValues = metricValues;
+    _numMetrics = 0;
+    _slab = slab;
   }
 
   /**
@@ -47,7 +72,10 @@ public class AggregatedMetricValues {
                                                + "different lengths of " + length + " and " + values.length());
       }
     }
-    _metricValues = valuesByMetricId;
+    _metricValues = NO_METRIC_VALUES;
+    _numMetrics = 0;
+    _slab = null;
+    valuesByMetricId.forEach(this::put);
   }
 
   /**
@@ -57,7 +85,7 @@ public class AggregatedMetricValues {
    * @return The {@link MetricValues} for the given metric id.
    */
   public MetricValues valuesFor(short metricId) {
-    return _metricValues.get(metricId);
+    return metricId >= 0 && metricId < _metricValues.length ? _metricValues[metricId] : null;
   }
 
   /**
@@ -72,18 +100,18 @@ public class AggregatedMetricValues {
    * @return An AggregatedMetricValues containing the given metric ids if they exist.
    */
   public AggregatedMetricValues valuesFor(Collection<Short> metricIds, boolean shareValueArray) {
-    AggregatedMetricValues values = new AggregatedMetricValues();
-    metricIds.forEach(id -> {
-      MetricValues valuesForId = _metricValues.get(id);
+    AggregatedMetricValues values = new AggregatedMetricValues(new MetricValues[_metricValues.length], null);
+    for (short id : metricIds) {
+      MetricValues valuesForId = valuesFor(id);
       if (valuesForId == null) {
         throw new IllegalArgumentException("Metric id " + id + " does not exist.");
       }
       if (shareValueArray) {
-        values.metricValues().put(id, valuesForId);
+        values.put(id, valuesForId);
       } else {
         values.add(id, valuesForId);
       }
-    });
+    }
     return values;
   }
 
@@ -102,11 +130,11 @@ public class AggregatedMetricValues {
   public MetricValues valuesForGroup(String group, MetricDef metricDef, boolean shareValueArray) {
     Collection<MetricInfo> metricInfos = metricDef.metricInfoForGroup(group);
     if (metricInfos.size() == 1 && shareValueArray) {
-      return _metricValues.get(metricInfos.iterator().next().id());
+      return valuesFor(metricInfos.iterator().next().id());
     } else {
       MetricValues metricValues = new MetricValues(length());
       metricInfos.forEach(info -> {
-        MetricValues valuesForId = _metricValues.get(info.id());
+        MetricValues valuesForId = valuesFor(info.id());
         if (valuesForId == null) {
           throw new IllegalArgumentException("Metric " + info + " does not exist.");
         }
@@ -120,7 +148,12 @@ public class AggregatedMetricValues {
    * @return The array length of the metric values.
    */
   public int length() {
-    return _metricValues.isEmpty() ? 0 : _metricValues.values().iterator().next().length();
+    for (MetricValues values : _metricValues) {
+      if (values != null) {
+        return values.length();
+      }
+    }
+    return 0;
   }
 
   /**
@@ -130,14 +163,20 @@ public class AggregatedMetricValues {
    * @return {@code true} the aggregated metric values is empty, {@code false} otherwise.
    */
   public boolean isEmpty() {
-    return _metricValues.isEmpty();
+    return _numMetrics == 0;
   }
 
   /**
-   * @return The ids of all the metrics in this cluster.
+   * @return The ids of all the metrics in this cluster, in ascending order.
    */
   public Set<Short> metricIds() {
-    return Collections.unmodifiableSet(_metricValues.keySet());
+    Set<Short> metricIds = new LinkedHashSet<>();
+    for (short id = 0; id < _metricValues.length; id++) {
+      if (_metricValues[id] != null) {
+        metricIds.add(id);
+      }
+    }
+    return Collections.unmodifiableSet(metricIds);
   }
 
   /**
@@ -148,11 +187,15 @@ public class AggregatedMetricValues {
    */
   public void add(short metricId, MetricValues metricValuesToAdd) {
     validateNotNull(metricValuesToAdd, "The metric values to be added cannot be null");
-    if (!_metricValues.isEmpty() && metricValuesToAdd.length() != length()) {
+    if (!isEmpty() && metricValuesToAdd.length() != length()) {
       throw new IllegalArgumentException("The existing metric length is " + length() + " which is different from the"
                                              + " metric length of " + metricValuesToAdd.length() + " that is being added.");
     }
-    MetricValues metricValues = _metricValues.computeIfAbsent(metricId, id -> new MetricValues(metricValuesToAdd.length()));
+    MetricValues metricValues = valuesFor(metricId);
+    if (metricValues == null) {
+      metricValues = newMetricValues(metricValuesToAdd.length());
+      put(metricId, metricValues);
+    }
     metricValues.add(metricValuesToAdd);
   }
 
@@ -162,10 +205,17 @@ public class AggregatedMetricValues {
    * @param other the other AggregatedMetricValues.
    */
   public void add(AggregatedMetricValues other) {
-    for (Map.Entry<Short, MetricValues> entry : other.metricValues().entrySet()) {
-      short metricId = entry.getKey();
-      MetricValues otherValuesForMetric = entry.getValue();
-      MetricValues valuesForMetric = _metricValues.computeIfAbsent(metricId, id -> new MetricValues(otherValuesForMetric.length()));
+    MetricValues[] otherMetricValues = other._metricValues;
+    for (short metricId = 0; metricId < otherMetricValues.length; metricId++) {
+      MetricValues otherValuesForMetric = otherMetricValues[metricId];
+      if (otherValuesForMetric == null) {
+        continue;
+      }
+      MetricValues valuesForMetric = valuesFor(metricId);
+      if (valuesForMetric == null) {
+        valuesForMetric = newMetricValues(otherValuesForMetric.length());
+        put(metricId, valuesForMetric);
+      }
       if (valuesForMetric.length() != otherValuesForMetric.length()) {
         throw new IllegalStateException("The two values arrays have different lengths " + valuesForMetric.length()
                                         + " and " + otherValuesForMetric.length());
@@ -180,9 +230,12 @@ public class AggregatedMetricValues {
    * @param other the other AggregatedMetricValues to subtract from this one.
    */
   public void subtract(AggregatedMetricValues other) {
-    for (Map.Entry<Short, MetricValues> entry : other.metricValues().entrySet()) {
-      short metricId = entry.getKey();
-      MetricValues otherValuesForMetric = entry.getValue();
+    MetricValues[] otherMetricValues = other._metricValues;
+    for (short metricId = 0; metricId < otherMetricValues.length; metricId++) {
+      MetricValues otherValuesForMetric = otherMetricValues[metricId];
+      if (otherValuesForMetric == null) {
+        continue;
+      }
       MetricValues valuesForMetric = valuesFor(metricId);
       if (valuesForMetric == null) {
         throw new IllegalStateException("Cannot subtract a values from a non-existing MetricValues");
@@ -199,7 +252,8 @@ public class AggregatedMetricValues {
    * Clear all the values in this AggregatedMetricValues.
    */
   public void clear() {
-    _metricValues.clear();
+    Arrays.fill(_metricValues, null);
+    _numMetrics = 0;
   }
 
   /**
@@ -211,23 +265,40 @@ public class AggregatedMetricValues {
   public void writeTo(OutputStream out) throws IOException {
     OutputStreamWriter osw = new OutputStreamWriter(out, StandardCharsets.UTF_8);
     osw.write("{%n");
-    for (Map.Entry<Short, MetricValues> entry : _metricValues.entrySet()) {
-      osw.write(String.format("metricId:\"%d\", values:\"", entry.getKey()));
-      entry.getValue().writeTo(out);
-      osw.write("}\"");
+    for (short id = 0; id < _metricValues.length; id++) {
+      if (_metricValues[id] != null) {
+        osw.write(String.format("metricId:\"%d\", values:\"", id));
+        _metricValues[id].writeTo(out);
+        osw.write("}\"");
+      }
     }
   }
 
   @Override
   public String toString() {
     StringJoiner joiner = new StringJoiner("\n", "{", "}");
-    for (Map.Entry<Short, MetricValues> entry : _metricValues.entrySet()) {
-      joiner.add(String.format("metricId:\"%d\", values:\"%s\"", entry.getKey(), entry.getValue()));
+    for (short id = 0; id < _metricValues.length; id++) {
+      if (_metricValues[id] != null) {
+        joiner.add(String.format("metricId:\"%d\", values:\"%s\"", id, _metricValues[id]));
+      }
     }
     return joiner.toString();
   }
 
-  private Map<Short, MetricValues> metricValues() {
-    return _metricValues;
+  private void put(short metricId, MetricValues values) {
+    if (metricId < 0) {
+      throw new IllegalArgumentException("Metric id " + metricId + " cannot be negative.");
+    }
+    if (metricId >= _metricValues.length) {
+      _metricValues = Arrays.copyOf(_metricValues, metricId + 1);
+    }
+    if (_metricValues[metricId] == null) {
+      _numMetrics++;
+    }
+    _metricValues[metricId] = values;
+  }
+
+  private MetricValues newMetricValues(int numWindows) {
+    return _slab == null ? new MetricValues(numWindows) : _slab.allocate(numWindows);
   }
 }
@@ -32,12 +32,14 @@ import java.util.Set;
 public class MetricSampleAggregationResult<G, E extends Entity<G>> extends LongGenerationed {
   private final Map<E, ValuesAndExtrapolations> _entityValuesAndExtrapolations;
   private final Set<E> _invalidEntities;
+  private final Set<E> _unchangedEntities;
   private final MetricSampleCompleteness<G, E> _completeness;
 
   public MetricSampleAggregationResult(long generation, MetricSampleCompleteness<G, E> completeness) {
     super(generation);
     _entityValuesAndExtrapolations = new HashMap<>();
     _invalidEntities = new HashSet<>();
+    _unchangedEntities = new HashSet<>();
     _completeness = completeness;
   }
 
@@ -77,6 +79,25 @@ public class MetricSampleAggregationResult<G, E extends Entity<G>> extends LongG
     return Collections.unmodifiableSet(_invalidEntities);
   }
 
+  /**
+   * Get the entities that are included in the aggregation, but not aggregated, because they have not been updated
+   * since the generation given to
+   * {@link MetricSampleAggregator#aggregate(long, long, AggregationOptions, long, java.util.List, java.util.function.Predicate)}.
+   * These entities have no {@link ValuesAndExtrapolations} in this result.
+   *
+   * @return The unchanged entity set for this aggregation.
+   */
+  public Set<E> unchangedEntities() {
+    return Collections.unmodifiableSet(_unchangedEntities);
+  }
+
+  /**
+   * @return The completeness of this aggregation.
+   */
+  public MetricSampleCompleteness<G, E> completeness() {
+    return _completeness;
+  }
+
   /**
    * @return The valid entity ratio of the underlying {@link #_completeness}.
    */
@@ -93,6 +114,21 @@ public class MetricSampleAggregationResult<G, E extends Entity<G>> extends LongG
     _invalidEntities.add(entity);
   }
 
+  void recordUnchangedEntity(E entity) {
+    _unchangedEntities.add(entity);
+  }
+
+  /**
+   * Merge the result of a disjoint set of entities of the same aggregation into this result.
+   *
+   * @param other the result to merge into this result.
+   */
+  void merge(MetricSampleAggregationResult<G, E> other) {
+    _entityValuesAndExtrapolations.putAll(other._entityValuesAndExtrapolations);
+    _invalidEntities.addAll(other._invalidEntities);
+    _unchangedEntities.addAll(other._unchangedEntities);
+  }
+
   @Override
   public void setGeneration(Long generation) {
     throw new RuntimeException("The generation of the MetricSampleAggregationResult is immutable.");
@@ -9,7 +9,11 @@ import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.model.Entity;
 import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -21,7 +25,10 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,11 +90,25 @@ import org.slf4j.LoggerFactory;
  */
 public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerationed {
   private static final Logger LOG = LoggerFactory.getLogger(MetricSampleAggregator.class);
+  // The maximum number of attempts to read the windows optimistically before falling back to the read lock.
+  static final int MAX_OPTIMISTIC_WINDOW_READS = 3;
+  public static final int DEFAULT_NUM_ENTITIES_PER_AGGREGATION_SHARD = 4096;
 
   private final ConcurrentMap<E, RawMetricValues> _rawMetrics;
   private final MetricSampleAggregatorState<G, E> _aggregatorState;
-  private final ReentrantLock _windowRollingLock;
+  // Window roll-outs and entity removals hold the write lock, while reads of the windows are optimistic by default.
+  private final StampedLock _windowRollingLock;
   private final ConcurrentMap<E, E> _identityEntityMap;
+  // The slab to allocate the raw metric values from, or null if each raw metric values has dedicated arrays.
+  private final RawMetricValuesSlab _rawMetricValuesSlab;
+  // The pool to aggregate the shards of entities in parallel until shutdown, or null to aggregate all entities on the
+  // caller thread.
+  private final ForkJoinPool _aggregationPool;
+  private final int _numEntitiesPerAggregationShard;
+  // Whether the aggregated values of the entities in a shard share a buffer rather than having dedicated arrays.
+  private final boolean _useSharedAggregationBuffers;
+  // Whether each raw metric values reuses the aggregation of its stable windows until a stable window changes.
+  private final boolean _summarizeStableWindows;
 
   protected final int _numWindows;
   protected final byte _minSamplesPerWindow;
@@ -115,7 +136,97 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
                                 byte minSamplesPerWindow,
                                 int completenessCacheSize,
                                 MetricDef metricDef) {
+    this(numWindows, windowMs, minSamplesPerWindow, completenessCacheSize, metricDef, false);
+  }
+
+  /**
+   * Construct the metric sample aggregator.
+   *
+   * @param numWindows the number of windows needed.
+   * @param windowMs the size of each window in milliseconds
+   * @param minSamplesPerWindow minimum samples per window.
+   * @param completenessCacheSize the completeness cache size, i.e. the number of recent completeness query result to
+   *                              cache.
+   * @param metricDef metric definitions.
+   * @param useRawMetricValuesSlab {@code true} to pack the raw metric values of all entities into a shared
+   *                               {@link RawMetricValuesSlab}, {@code false} to use dedicated arrays per entity.
+   */
+  public MetricSampleAggregator(int numWindows,
+                                long windowMs,
+                                byte minSamplesPerWindow,
+                                int completenessCacheSize,
+                                MetricDef metricDef,
+                                boolean useRawMetricValuesSlab) {
+    this(numWindows, windowMs, minSamplesPerWindow, completenessCacheSize, metricDef, useRawMetricValuesSlab, 1,
+         DEFAULT_NUM_ENTITIES_PER_AGGREGATION_SHARD, false);
+  }
+
+  /**
+   * Construct the metric sample aggregator.
+   *
+   * @param numWindows the number of windows needed.
+   * @param windowMs the size of each window in milliseconds
+   * @param minSamplesPerWindow minimum samples per window.
+   * @param completenessCacheSize the completeness cache size, i.e. the number of recent completeness query result to
+   *                              cache.
+   * @param metricDef metric definitions.
+   * @param useRawMetricValuesSlab {@code true} to pack the raw metric values of all entities into a shared
+   *                               {@link RawMetricValuesSlab}, {@code false} to use dedicated arrays per entity.
+   * @param numAggregationThreads the number of threads to aggregate the shards of entities in parallel, 1 to aggregate
+   *                              all entities on the caller thread.
+   * @param numEntitiesPerAggregationShard the maximum number of entities in a shard of a parallel aggregation.
+   * @param useSharedAggregationBuffers {@code true} to allocate the aggregated values of the entities in a shard from a
+   *                                    shared buffer, {@code false} to allocate dedicated arrays per entity.
+   */
+  public MetricSampleAggregator(int numWindows,
+                                long windowMs,
+                                byte minSamplesPerWindow,
+                                int completenessCacheSize,
+                                MetricDef metricDef,
+                                boolean useRawMetricValuesSlab,
+                                int numAggregationThreads,
+                                int numEntitiesPerAggregationShard,
+                                boolean useSharedAggregationBuffers) {
+    this(numWindows, windowMs, minSamplesPerWindow, completenessCacheSize, metricDef, useRawMetricValuesSlab,
+         numAggregationThreads, numEntitiesPerAggregationShard, useSharedAggregationBuffers, false);
+  }
+
+  /**
+   * Construct the metric sample aggregator.
+   *
+   * @param numWindows the number of windows needed.
+   * @param windowMs the size of each window in milliseconds
+   * @param minSamplesPerWindow minimum samples per window.
+   * @param completenessCacheSize the completeness cache size, i.e. the number of recent completeness query result to
+   *                              cache.
+   * @param metricDef metric definitions.
+   * @param useRawMetricValuesSlab {@code true} to pack the raw metric values of all entities into a shared
+   *                               {@link RawMetricValuesSlab}, {@code false} to use dedicated arrays per entity.
+   * @param numAggregationThreads the number of threads to aggregate the shards of entities in parallel, 1 to aggregate
+   *                              all entities on the caller thread.
+   * @param numEntitiesPerAggregationShard the maximum number of entities in a shard of a parallel aggregation.
+   * @param useSharedAggregationBuffers {@code true} to allocate the aggregated values of the entities in a shard from a
+   *                                    shared buffer, {@code false} to allocate dedicated arrays per entity.
+   * @param summarizeStableWindows {@code true} to reuse the aggregation of the stable windows of each entity until a
+   *                               window rolls out or a sample is added to a stable window, {@code false} to aggregate
+   *                               the windows of each entity on every aggregation.
+   */
+  public MetricSampleAggregator(int numWindows,
+                                long windowMs,
+                                byte minSamplesPerWindow,
+                                int completenessCacheSize,
+                                MetricDef metricDef,
+                                boolean useRawMetricValuesSlab,
+                                int numAggregationThreads,
+                                int numEntitiesPerAggregationShard,
+                                boolean useSharedAggregationBuffers,
+                                boolean summarizeStableWindows) {
     super(0);
+    if (numAggregationThreads <= 0 || numEntitiesPerAggregationShard <= 0) {
+      throw new IllegalArgumentException(String.format("The number of aggregation threads (%d) and the number of entities "
+                                                       + "per aggregation shard (%d) must be positive.",
+                                                       numAggregationThreads, numEntitiesPerAggregationShard));
+    }
     _identityEntityMap = new ConcurrentHashMap<>();
     _rawMetrics = new ConcurrentHashMap<>();
     _numWindows = numWindows;
@@ -124,8 +235,13 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
     // We keep one more window for the active window.
     _numWindowsToKeep = _numWindows + 1;
     _minSamplesPerWindow = minSamplesPerWindow;
-    _windowRollingLock = new ReentrantLock();
+    _windowRollingLock = new StampedLock();
     _metricDef = metricDef;
+    _rawMetricValuesSlab = useRawMetricValuesSlab ? new RawMetricValuesSlab(_numWindowsToKeep, metricDef.size()) : null;
+    _aggregationPool = numAggregationThreads > 1 ? new ForkJoinPool(numAggregationThreads) : null;
+    _numEntitiesPerAggregationShard = numEntitiesPerAggregationShard;
+    _useSharedAggregationBuffers = useSharedAggregationBuffers;
+    _summarizeStableWindows = summarizeStableWindows;
     _aggregatorState = new MetricSampleAggregatorState<>(numWindows, _windowMs, completenessCacheSize);
     _oldestWindowIndex = 0L;
     _currentWindowIndex = 0L;
@@ -149,31 +265,52 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
       return false;
     }
     boolean newWindowsRolledOut = maybeRollOutNewWindow(windowIndex);
-    RawMetricValues rawMetricValues =
-        _rawMetrics.computeIfAbsent(identity(sample.entity()), k -> {
-          // Need to grab the lock to make sure the raw value for this partition is updated correctly when
-          // the raw values was created in an existing window while a new window is being rolled out.
-          _windowRollingLock.lock();
-          try {
-            RawMetricValues rawValues = new RawMetricValues(_numWindowsToKeep, _minSamplesPerWindow, _metricDef.size());
-            rawValues.updateOldestWindowIndex(_oldestWindowIndex);
-            return rawValues;
-          } finally {
-            _windowRollingLock.unlock();
-          }
-        });
+    E entity = identity(sample.entity());
+    RawMetricValues rawMetricValues = _rawMetrics.get(entity);
+    if (rawMetricValues == null) {
+      rawMetricValues = createRawMetricValues(entity);
+    }
     LOG.trace("Adding sample {} to window index {}", sample, windowIndex);
     rawMetricValues.addSample(sample, windowIndex, _metricDef);
     if (newWindowsRolledOut || windowIndex != _currentWindowIndex) {
       // Either new window(s) rolled out or the data has been inserted to an old window. Both cases affect the historical
       // load information that Cruise Control is interested in. Hence, they require bumping up the generation of the
       // window index of the added sample.
-      _aggregatorState.updateWindowGeneration(windowIndex, _generation.incrementAndGet());
+      long generation = _generation.incrementAndGet();
+      rawMetricValues.setLastUpdateGeneration(generation);
+      _aggregatorState.updateWindowGeneration(windowIndex, generation);
     }
 
     return true;
   }
 
+  /**
+   * Create the raw metric values of the given entity unless another thread has created it. The raw metric values is
+   * created and put to the map under the read lock of the window rolling lock, so that a window roll-out either resets it
+   * or happens before its creation, without invalidating the optimistic reads of the windows. The entities created
+   * concurrently are resolved by the map, and the raw metric values of the losers are released.
+   *
+   * @param entity The entity to create the raw metric values for.
+   * @return The raw metric values of the entity.
+   */
+  private RawMetricValues createRawMetricValues(E entity) {
+    long stamp = _windowRollingLock.readLock();
+    try {
+      RawMetricValues rawValues = new RawMetricValues(_numWindowsToKeep, _minSamplesPerWindow, _metricDef.size(),
+                                                      _rawMetricValuesSlab, _summarizeStableWindows);
+      rawValues.updateOldestWindowIndex(_oldestWindowIndex);
+      rawValues.setLastUpdateGeneration(generation());
+      RawMetricValues existingRawValues = _rawMetrics.putIfAbsent(entity, rawValues);
+      if (existingRawValues != null) {
+        rawValues.release();
+        return existingRawValues;
+      }
+      return rawValues;
+    } finally {
+      _windowRollingLock.unlockRead(stamp);
+    }
+  }
+
   /**
    * Aggregate the metric samples in the given period into a {@link MetricSampleAggregationResult} based on the
    * specified {@link AggregationOptions}.
@@ -184,6 +321,11 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    *   all the window indices marked as {@link Extrapolation#NO_VALID_EXTRAPOLATION}.
    * </p>
    *
+   * <p>
+   *   The aggregation does not block the sample ingestion. It reads the windows optimistically, and is retried if a
+   *   window roll-out or an entity removal happens meanwhile. See {@link #readWindows(WindowsReader)}.
+   * </p>
+   *
    * @param from the starting timestamp of the aggregation period in milliseconds.
    * @param to the end timestamp of the aggregation period in milliseconds.
    * @param options the {@link AggregationOptions} used to perform the aggregation.
@@ -192,55 +334,133 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    */
   public MetricSampleAggregationResult<G, E> aggregate(long from, long to, AggregationOptions<G, E> options)
       throws NotEnoughValidWindowsException {
-    // prevent window rolling.
-    _windowRollingLock.lock();
-    try {
-      // Ensure the range is valid.
-      long fromWindowIndex = Math.max(windowIndex(from), _oldestWindowIndex);
-      long toWindowIndex = Math.min(windowIndex(to), _currentWindowIndex - 1);
-      if (fromWindowIndex > _currentWindowIndex || toWindowIndex < _oldestWindowIndex) {
-        throw new NotEnoughValidWindowsException(String.format("There is no window available in range [%d, %d] (index [%d, %d])."
-                                                               + " Window index (current: %d, oldest: %d).", from, to,
-                                                               fromWindowIndex, toWindowIndex, _currentWindowIndex, _oldestWindowIndex));
-      }
+    return aggregate(from, to, options, -1L, Collections.emptyList(), e -> true);
+  }
 
-      // Get and verify the completeness.
-      maybeUpdateAggregatorState();
-      AggregationOptions<G, E> interpretedOptions = interpretAggregationOptions(options);
-      MetricSampleCompleteness<G, E> completeness =
-          _aggregatorState.completeness(fromWindowIndex, toWindowIndex, interpretedOptions, generation());
-      // We use the original time from and to here because they are only for logging purpose.
-      validateCompleteness(from, to, completeness, interpretedOptions);
-
-      // Perform the aggregation.
-      List<Long> windows = toWindows(completeness.validWindowIndices());
-      MetricSampleAggregationResult<G, E> result = new MetricSampleAggregationResult<>(generation(), completeness);
-      Set<E> entitiesToInclude =
-          interpretedOptions.includeInvalidEntities() ? interpretedOptions.interestedEntities() : completeness.validEntities();
-      LOG.debug("Including {} entities during metric aggregation.", entitiesToInclude.size());
-      for (E entity : entitiesToInclude) {
-        RawMetricValues rawValues = _rawMetrics.get(entity);
-        if (rawValues == null) {
-          LOG.debug("Failed to find entity {} from _rawMetrics.", entity);
-          ValuesAndExtrapolations
-              valuesAndExtrapolations = ValuesAndExtrapolations.empty(completeness.validWindowIndices().size(), _metricDef);
-          valuesAndExtrapolations.setWindows(windows);
-          result.addResult(entity, valuesAndExtrapolations);
-          result.recordInvalidEntity(entity);
+  /**
+   * Aggregate the metric samples in the given period the same as {@link #aggregate(long, long, AggregationOptions)},
+   * except that the entities that have not been updated since the given generation are not aggregated, but recorded as
+   * {@link MetricSampleAggregationResult#unchangedEntities() unchanged entities}, as long as the windows of the
+   * aggregation are the same as the given windows. The aggregated values of such an entity are the same as they were
+   * upon the given generation. If the windows of the aggregation differ, all entities are aggregated.
+   *
+   * @param from the starting timestamp of the aggregation period in milliseconds.
+   * @param to the end timestamp of the aggregation period in milliseconds.
+   * @param options the {@link AggregationOptions} used to perform the aggregation.
+   * @param unchangedSinceGeneration the generation since which the unchanged entities are not aggregated.
+   * @param unchangedWindows the windows of the aggregation upon the given generation.
+   * @param mustAggregate the predicate of the entities to aggregate even if they have not been updated.
+   * @return An {@link MetricSampleAggregationResult} based on the given AggregationOptions.
+   * @throws NotEnoughValidWindowsException
+   */
+  public MetricSampleAggregationResult<G, E> aggregate(long from,
+                                                       long to,
+                                                       AggregationOptions<G, E> options,
+                                                       long unchangedSinceGeneration,
+                                                       List<Long> unchangedWindows,
+                                                       Predicate<E> mustAggregate)
+      throws NotEnoughValidWindowsException {
+    return readWindows(stamp -> doAggregate(from, to, options, unchangedSinceGeneration, unchangedWindows, mustAggregate, stamp));
+  }
+
+  private MetricSampleAggregationResult<G, E> doAggregate(long from,
+                                                          long to,
+                                                          AggregationOptions<G, E> options,
+                                                          long unchangedSinceGeneration,
+                                                          List<Long> unchangedWindows,
+                                                          Predicate<E> mustAggregate,
+                                                          long stamp)
+      throws NotEnoughValidWindowsException {
+    // Ensure the range is valid. Read the window indices once, as a window may roll out during an optimistic read.
+    long oldestWindowIndex = _oldestWindowIndex;
+    long currentWindowIndex = _currentWindowIndex;
+    long fromWindowIndex = Math.max(windowIndex(from), oldestWindowIndex);
+    long toWindowIndex = Math.min(windowIndex(to), currentWindowIndex - 1);
+    if (fromWindowIndex > currentWindowIndex || toWindowIndex < oldestWindowIndex) {
+      throw new NotEnoughValidWindowsException(String.format("There is no window available in range [%d, %d] (index [%d, %d])."
+                                                             + " Window index (current: %d, oldest: %d).", from, to,
+                                                             fromWindowIndex, toWindowIndex, currentWindowIndex, oldestWindowIndex));
+    }
+
+    // Get and verify the completeness.
+    AggregationOptions<G, E> interpretedOptions = interpretAggregationOptions(options);
+    MetricSampleCompleteness<G, E> completeness = windowCompleteness(fromWindowIndex, toWindowIndex, interpretedOptions, stamp);
+    // We use the original time from and to here because they are only for logging purpose.
+    validateCompleteness(from, to, completeness, interpretedOptions);
+
+    // Perform the aggregation.
+    List<Long> windows = toWindows(completeness.validWindowIndices());
+    Set<E> entitiesToInclude =
+        interpretedOptions.includeInvalidEntities() ? interpretedOptions.interestedEntities() : completeness.validEntities();
+    LOG.debug("Including {} entities during metric aggregation.", entitiesToInclude.size());
+    long generation = generation();
+    // The aggregated values of the entities are comparable to the ones upon the given generation only in the same windows.
+    long skipUnchangedSinceGeneration = windows.equals(unchangedWindows) ? unchangedSinceGeneration : -1L;
+    if (_aggregationPool == null || _aggregationPool.isShutdown() || entitiesToInclude.size() <= _numEntitiesPerAggregationShard) {
+      return aggregateEntities(entitiesToInclude, generation, completeness, windows, options, skipUnchangedSinceGeneration,
+                               mustAggregate, stamp);
+    }
+    List<E> entities = new ArrayList<>(entitiesToInclude);
+    return _aggregationPool.invoke(new AggregationTask(entities, 0, entities.size(), generation, completeness, windows,
+                                                       options, skipUnchangedSinceGeneration, mustAggregate, stamp));
+  }
+
+  /**
+   * Aggregate the given entities on the current thread.
+   *
+   * @param entities the entities to aggregate.
+   * @param generation the generation of the aggregation result.
+   * @param completeness the completeness of the aggregation.
+   * @param windows the windows of the aggregation.
+   * @param options the {@link AggregationOptions} used to perform the aggregation.
+   * @param unchangedSinceGeneration the generation since which the unchanged entities are not aggregated, or -1 to
+   *                                 aggregate all entities.
+   * @param mustAggregate the predicate of the entities to aggregate even if they have not been updated.
+   * @param stamp the stamp of the read of the windows.
+   * @return The aggregation result of the given entities, or {@code null} if the read of the windows is invalidated.
+   */
+  private MetricSampleAggregationResult<G, E> aggregateEntities(Collection<E> entities,
+                                                                long generation,
+                                                                MetricSampleCompleteness<G, E> completeness,
+                                                                List<Long> windows,
+                                                                AggregationOptions<G, E> options,
+                                                                long unchangedSinceGeneration,
+                                                                Predicate<E> mustAggregate,
+                                                                long stamp) {
+    MetricSampleAggregationResult<G, E> result = new MetricSampleAggregationResult<>(generation, completeness);
+    int numWindows = completeness.validWindowIndices().size();
+    MetricValuesSlab slab = null;
+    if (_useSharedAggregationBuffers && numWindows > 0 && !entities.isEmpty()) {
+      long numValues = (long) entities.size() * _metricDef.size() * numWindows;
+      slab = new MetricValuesSlab((int) Math.min(numValues, MetricValuesSlab.DEFAULT_CHUNK_SIZE));
+    }
+    for (E entity : entities) {
+      if (!_windowRollingLock.validate(stamp)) {
+        // Abandon the read early, it will be retried.
+        return null;
+      }
+      RawMetricValues rawValues = _rawMetrics.get(entity);
+      if (rawValues == null) {
+        LOG.debug("Failed to find entity {} from _rawMetrics.", entity);
+        ValuesAndExtrapolations valuesAndExtrapolations = ValuesAndExtrapolations.empty(numWindows, _metricDef);
+        valuesAndExtrapolations.setWindows(windows);
+        result.addResult(entity, valuesAndExtrapolations);
+        result.recordInvalidEntity(entity);
+      } else {
+        if (rawValues.lastUpdateGeneration() <= unchangedSinceGeneration && !mustAggregate.test(entity)) {
+          result.recordUnchangedEntity(entity);
         } else {
           ValuesAndExtrapolations
-              valuesAndExtrapolations = rawValues.aggregate(completeness.validWindowIndices(), _metricDef);
+              valuesAndExtrapolations = rawValues.aggregate(completeness.validWindowIndices(), _metricDef, slab);
           valuesAndExtrapolations.setWindows(windows);
           result.addResult(entity, valuesAndExtrapolations);
-          if (!rawValues.isValid(options.maxAllowedExtrapolationsPerEntity())) {
-            result.recordInvalidEntity(entity);
-          }
+        }
+        if (!rawValues.isValid(options.maxAllowedExtrapolationsPerEntity())) {
+          result.recordInvalidEntity(entity);
         }
       }
-      return result;
-    } finally {
-      _windowRollingLock.unlock();
     }
+    return result;
   }
 
   /**
@@ -249,20 +469,17 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @return A map from all the entities to their current metric values.
    */
   public Map<E, ValuesAndExtrapolations> peekCurrentWindow() {
-    // prevent window rolling.
-    _windowRollingLock.lock();
-    try {
+    return readWindows(stamp -> {
+      long currentWindowIndex = _currentWindowIndex;
       Map<E, ValuesAndExtrapolations> result = new HashMap<>();
       _rawMetrics.forEach((entity, rawMetric) -> {
-        ValuesAndExtrapolations vae = rawMetric.peekCurrentWindow(_currentWindowIndex, _metricDef);
-        SortedSet<Long> currentWindows = new TreeSet<>(Collections.singleton(_currentWindowIndex));
+        ValuesAndExtrapolations vae = rawMetric.peekCurrentWindow(currentWindowIndex, _metricDef);
+        SortedSet<Long> currentWindows = new TreeSet<>(Collections.singleton(currentWindowIndex));
         vae.setWindows(toWindows(currentWindows));
         result.put(entity, vae);
       });
       return result;
-    } finally {
-      _windowRollingLock.unlock();
-    }
+    });
   }
 
   /**
@@ -275,21 +492,16 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @return The {@link MetricSampleCompleteness} of the MetricSampleAggregator.
    */
   public MetricSampleCompleteness<G, E> completeness(long from, long to, AggregationOptions<G, E> options) {
-    _windowRollingLock.lock();
-    try {
-      long fromWindowIndex = Math.max(windowIndex(from), _oldestWindowIndex);
-      long toWindowIndex = Math.min(windowIndex(to), _currentWindowIndex - 1);
-      if (fromWindowIndex > _currentWindowIndex || toWindowIndex < _oldestWindowIndex) {
+    return readWindows(stamp -> {
+      long oldestWindowIndex = _oldestWindowIndex;
+      long currentWindowIndex = _currentWindowIndex;
+      long fromWindowIndex = Math.max(windowIndex(from), oldestWindowIndex);
+      long toWindowIndex = Math.min(windowIndex(to), currentWindowIndex - 1);
+      if (fromWindowIndex > currentWindowIndex || toWindowIndex < oldestWindowIndex) {
         return new MetricSampleCompleteness<>(generation(), _windowMs);
       }
-      maybeUpdateAggregatorState();
-      return _aggregatorState.completeness(fromWindowIndex,
-                                           toWindowIndex,
-                                           interpretAggregationOptions(options),
-                                           generation());
-    } finally {
-      _windowRollingLock.unlock();
-    }
+      return windowCompleteness(fromWindowIndex, toWindowIndex, interpretAggregationOptions(options), stamp);
+    });
   }
 
   /**
@@ -368,10 +580,7 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @param entities the entities to retain.
    */
   public void retainEntities(Set<E> entities) {
-    boolean anyElementsRemoved = _rawMetrics.entrySet().removeIf(entry -> !entities.contains(entry.getKey()));
-    if (anyElementsRemoved) {
-      _generation.incrementAndGet();
-    }
+    removeEntitiesIf(e -> !entities.contains(e));
   }
 
   /**
@@ -380,10 +589,7 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @param entities the entities to remove.
    */
   public void removeEntities(Set<E> entities) {
-    boolean anyElementsRemoved = _rawMetrics.entrySet().removeIf(entry -> entities.contains(entry.getKey()));
-    if (anyElementsRemoved) {
-      _generation.incrementAndGet();
-    }
+    removeEntitiesIf(e -> entities.contains(e));
   }
 
   /**
@@ -392,10 +598,7 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @param entityGroups the entity groups to retain.
    */
   public void retainEntityGroup(Set<G> entityGroups) {
-    boolean anyElementsRemoved = _rawMetrics.entrySet().removeIf(entry -> !entityGroups.contains(entry.getKey().group()));
-    if (anyElementsRemoved) {
-      _generation.incrementAndGet();
-    }
+    removeEntitiesIf(e -> !entityGroups.contains(e.group()));
   }
 
   /**
@@ -404,7 +607,33 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * @param entityGroups the entity groups to remove from the MetricSampleAggregator.
    */
   public void removeEntityGroup(Set<G> entityGroups) {
-    boolean anyElementsRemoved = _rawMetrics.entrySet().removeIf(entry -> entityGroups.contains(entry.getKey().group()));
+    removeEntitiesIf(e -> entityGroups.contains(e.group()));
+  }
+
+  /**
+   * Remove the entities matching the given predicate, and release their raw metric values. The release happens under
+   * the write lock of the window rolling lock, so that no raw metric values is created for an entity while its region is
+   * released. The raw metric values are created under the read lock, but outside any computation of the map, so the
+   * removals may update the map while holding the lock.
+   *
+   * @param predicate the predicate of the entities to remove.
+   */
+  private void removeEntitiesIf(Predicate<E> predicate) {
+    boolean anyElementsRemoved = false;
+    long stamp = _windowRollingLock.writeLock();
+    try {
+      Iterator<Map.Entry<E, RawMetricValues>> iterator = _rawMetrics.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<E, RawMetricValues> entry = iterator.next();
+        if (predicate.test(entry.getKey())) {
+          iterator.remove();
+          entry.getValue().release();
+          anyElementsRemoved = true;
+        }
+      }
+    } finally {
+      _windowRollingLock.unlockWrite(stamp);
+    }
     if (anyElementsRemoved) {
       _generation.incrementAndGet();
     }
@@ -414,29 +643,132 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
    * Clear the MetricSampleAggregator.
    */
   public void clear() {
-    _windowRollingLock.lock();
+    long stamp = _windowRollingLock.writeLock();
     try {
+      _rawMetrics.values().forEach(RawMetricValues::release);
       _rawMetrics.clear();
       _aggregatorState.clear();
       _generation.incrementAndGet();
     } finally {
-      _windowRollingLock.unlock();
+      _windowRollingLock.unlockWrite(stamp);
     }
   }
 
+  /**
+   * Shut down the pool to aggregate the shards of entities in parallel, if any. The aggregations after the shutdown
+   * aggregate all entities on the caller thread.
+   */
+  public void shutdown() {
+    if (_aggregationPool != null) {
+      _aggregationPool.shutdown();
+    }
+  }
+
+  /**
+   * Write the window range, the window generations and the raw metric values of all entities to the given output. The
+   * window roll-outs and entity removals are blocked meanwhile, while samples may still be added to the existing windows.
+   *
+   * @param out the output to write to.
+   * @param entitySerde the serde of the entities.
+   * @throws IOException If the output fails to be written.
+   */
+  void writeCheckpoint(DataOutput out, MetricSampleAggregatorCheckpoint.EntitySerde<E> entitySerde) throws IOException {
+    long stamp = _windowRollingLock.readLock();
+    try {
+      out.writeLong(generation());
+      out.writeLong(_oldestWindowIndex);
+      out.writeLong(_currentWindowIndex);
+      int numWindowGenerations = (int) (_currentWindowIndex - _oldestWindowIndex);
+      out.writeInt(numWindowGenerations);
+      for (long windowIndex = _oldestWindowIndex; windowIndex < _currentWindowIndex; windowIndex++) {
+        out.writeLong(windowIndex);
+        out.writeLong(_aggregatorState.windowGeneration(windowIndex));
+      }
+      // Raw metric values are not removed under the read lock, and the ones created meanwhile are written or not like the
+      // samples added meanwhile, so the entities are written as taken.
+      List<Map.Entry<E, RawMetricValues>> entries = new ArrayList<>(_rawMetrics.entrySet());
+      out.writeInt(entries.size());
+      for (Map.Entry<E, RawMetricValues> entry : entries) {
+        entitySerde.write(entry.getKey(), out);
+        entry.getValue().writeTo(out);
+      }
+    } finally {
+      _windowRollingLock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Restore the state written by {@link #writeCheckpoint(DataOutput, MetricSampleAggregatorCheckpoint.EntitySerde)} of an
+   * aggregator with the same windows and metrics. This aggregator must not have any sample. The window states and the
+   * completeness are recomputed upon the first query after the restore.
+   *
+   * @param in the input to read from.
+   * @param entitySerde the serde of the entities.
+   * @throws IOException If the input fails to be read, in which case this aggregator is left empty.
+   */
+  void restoreCheckpoint(DataInput in, MetricSampleAggregatorCheckpoint.EntitySerde<E> entitySerde) throws IOException {
+    long generation = in.readLong();
+    long oldestWindowIndex = in.readLong();
+    long currentWindowIndex = in.readLong();
+    int numWindowGenerations = in.readInt();
+    Map<Long, Long> windowGenerations = new HashMap<>();
+    for (int i = 0; i < numWindowGenerations; i++) {
+      windowGenerations.put(in.readLong(), in.readLong());
+    }
+    int numEntities = in.readInt();
+    Map<E, RawMetricValues> rawMetrics = new HashMap<>();
+    try {
+      for (int i = 0; i < numEntities; i++) {
+        E entity = entitySerde.read(in);
+        RawMetricValues rawValues = new RawMetricValues(_numWindowsToKeep, _minSamplesPerWindow, _metricDef.size(),
+                                                        _rawMetricValuesSlab, _summarizeStableWindows);
+        rawMetrics.put(entity, rawValues);
+        rawValues.readFrom(in);
+        rawValues.setLastUpdateGeneration(generation);
+      }
+    } catch (IOException | RuntimeException e) {
+      rawMetrics.values().forEach(RawMetricValues::release);
+      throw e;
+    }
+
+    long stamp = _windowRollingLock.writeLock();
+    try {
+      if (!_rawMetrics.isEmpty() || _currentWindowIndex != 0L) {
+        rawMetrics.values().forEach(RawMetricValues::release);
+        throw new IllegalStateException("Cannot restore a checkpoint to a metric sample aggregator with samples.");
+      }
+      rawMetrics.forEach((entity, rawValues) -> _rawMetrics.put(identity(entity), rawValues));
+      _oldestWindowIndex = oldestWindowIndex;
+      _currentWindowIndex = currentWindowIndex;
+      if (oldestWindowIndex > 0L) {
+        _aggregatorState.updateOldestWindowIndex(oldestWindowIndex);
+      }
+      windowGenerations.forEach(_aggregatorState::updateWindowGeneration);
+      _generation.set(generation);
+    } finally {
+      _windowRollingLock.unlockWrite(stamp);
+    }
+    LOG.info("{} Aggregator restored {} entities, current window range [{}, {}].", _sampleType, numEntities,
+             _oldestWindowIndex * _windowMs, _currentWindowIndex * _windowMs);
+  }
+
   /**
    * Package private for testing.
    * @return Metric sample aggregator state.
    */
   MetricSampleAggregatorState<G, E> aggregatorState() {
-    maybeUpdateAggregatorState();
+    long stamp = _windowRollingLock.readLock();
+    try {
+      maybeUpdateAggregatorState();
+    } finally {
+      _windowRollingLock.unlockRead(stamp);
+    }
     return _aggregatorState;
   }
 
   // both from and to window indices are inclusive.
   private List<Long> getWindowList(long fromWindowIndex, long toWindowIndex) {
-    _windowRollingLock.lock();
-    try {
+    return readWindows(stamp -> {
       if (_rawMetrics.isEmpty()) {
         return Collections.emptyList();
       }
@@ -445,8 +777,80 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
         windows.add(i * _windowMs);
       }
       return windows;
+    });
+  }
+
+  /**
+   * Read the windows without blocking the sample ingestion. The windows are read optimistically, i.e. without holding
+   * any lock, and the read is validated against the window epoch afterwards. The window epoch changes upon each window
+   * roll-out or entity removal, in which case the read is retried, as it may have observed the windows in the middle of
+   * the change. After {@link #MAX_OPTIMISTIC_WINDOW_READS} failed attempts, the windows are read under the read lock,
+   * which blocks window roll-outs until the read is over.
+   *
+   * Samples added to the existing windows do not change the window epoch, the same as they were not blocked by reads
+   * of the windows. Reads with side effects must keep them valid even if the read is retried, e.g. by making them under
+   * the read lock. Long reads may validate the stamp passed to them to abandon an invalidated read early.
+   *
+   * @param reader The read of the windows.
+   * @param <T> The type of the result of the read.
+   * @param <X> The type of the exception thrown by the read.
+   * @return The result of the read.
+   * @throws X If the read throws the exception over a consistent view of the windows.
+   */
+  private <T, X extends Exception> T readWindows(WindowsReader<T, X> reader) throws X {
+    for (int attempt = 0; attempt < MAX_OPTIMISTIC_WINDOW_READS; attempt++) {
+      long stamp = _windowRollingLock.tryOptimisticRead();
+      if (stamp == 0L) {
+        // Wait for the ongoing window roll-out or entity removal without blocking the subsequent ones.
+        _windowRollingLock.unlockRead(_windowRollingLock.readLock());
+        continue;
+      }
+      T result;
+      try {
+        result = reader.read(stamp);
+      } catch (Exception e) {
+        if (_windowRollingLock.validate(stamp)) {
+          throw e;
+        }
+        // The exception may stem from an inconsistent view of the windows.
+        continue;
+      }
+      if (_windowRollingLock.validate(stamp)) {
+        return result;
+      }
+    }
+    long stamp = _windowRollingLock.readLock();
+    try {
+      return reader.read(stamp);
     } finally {
-      _windowRollingLock.unlock();
+      _windowRollingLock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Get the completeness of the given windows within a read of the windows. Unlike the rest of the read, the window states
+   * updated to compute the completeness and the completeness itself are cached even if the read is retried. Hence, they
+   * are computed under the read lock, so that they do not observe a window roll-out or an entity removal in progress.
+   *
+   * @param fromWindowIndex the index of the starting window (inclusive).
+   * @param toWindowIndex the index of the end window (inclusive).
+   * @param interpretedOptions the interpreted {@link AggregationOptions}.
+   * @param stamp the stamp of the ongoing read of the windows, which may already hold the read lock.
+   * @return The {@link MetricSampleCompleteness} of the given windows.
+   */
+  private MetricSampleCompleteness<G, E> windowCompleteness(long fromWindowIndex,
+                                                            long toWindowIndex,
+                                                            AggregationOptions<G, E> interpretedOptions,
+                                                            long stamp) {
+    if (StampedLock.isReadLockStamp(stamp)) {
+      maybeUpdateAggregatorState();
+      return _aggregatorState.completeness(fromWindowIndex, toWindowIndex, interpretedOptions, generation());
+    }
+    long readStamp = _windowRollingLock.readLock();
+    try {
+      return windowCompleteness(fromWindowIndex, toWindowIndex, interpretedOptions, readStamp);
+    } finally {
+      _windowRollingLock.unlockRead(readStamp);
     }
   }
 
@@ -475,7 +879,7 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
 
   private boolean maybeRollOutNewWindow(long windowIndex) {
     if (_currentWindowIndex < windowIndex) {
-      _windowRollingLock.lock();
+      long stamp = _windowRollingLock.writeLock();
       try {
         if (_currentWindowIndex < windowIndex) {
           // find out how many windows we need to reset in the raw metrics.
@@ -501,7 +905,7 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
           return true;
         }
       } finally {
-        _windowRollingLock.unlock();
+        _windowRollingLock.unlockWrite(stamp);
       }
     }
     return false;
@@ -613,6 +1017,83 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
     return _monitoringPeriodMs;
   }
 
+  /**
+   * Aggregates a range of entities, splitting it into halves until the range fits in a shard. The results of the
+   * shards are merged into the result of the whole range.
+   */
+  private final class AggregationTask extends RecursiveTask<MetricSampleAggregationResult<G, E>> {
+    private final List<E> _entities;
+    private final int _from;
+    private final int _to;
+    private final long _generation;
+    private final MetricSampleCompleteness<G, E> _completeness;
+    private final List<Long> _windows;
+    private final AggregationOptions<G, E> _options;
+    private final long _unchangedSinceGeneration;
+    private final Predicate<E> _mustAggregate;
+    private final long _stamp;
+
+    AggregationTask(List<E> entities,
+                    int from,
+                    int to,
+                    long generation,
+                    MetricSampleCompleteness<G, E> completeness,
+                    List<Long> windows,
+                    AggregationOptions<G, E> options,
+                    long unchangedSinceGeneration,
+                    Predicate<E> mustAggregate,
+                    long stamp) {
+      _entities = entities;
+      _from = from;
+      _to = to;
+      _generation = generation;
+      _completeness = completeness;
+      _windows = windows;
+      _options = options;
+      _unchangedSinceGeneration = unchangedSinceGeneration;
+      _mustAggregate = mustAggregate;
+      _stamp = stamp;
+    }
+
+    @Override
+    protected MetricSampleAggregationResult<G, E> compute() {
+      if (_to - _from <= _numEntitiesPerAggregationShard) {
+        return aggregateEntities(_entities.subList(_from, _to), _generation, _completeness, _windows, _options,
+                                 _unchangedSinceGeneration, _mustAggregate, _stamp);
+      }
+      int mid = (_from + _to) >>> 1;
+      AggregationTask left = new AggregationTask(_entities, _from, mid, _generation, _completeness, _windows, _options,
+                                                 _unchangedSinceGeneration, _mustAggregate, _stamp);
+      AggregationTask right = new AggregationTask(_entities, mid, _to, _generation, _completeness, _windows, _options,
+                                                  _unchangedSinceGeneration, _mustAggregate, _stamp);
+      right.fork();
+      MetricSampleAggregationResult<G, E> leftResult = left.compute();
+      MetricSampleAggregationResult<G, E> rightResult = right.join();
+      if (leftResult == null || rightResult == null) {
+        return null;
+      }
+      leftResult.merge(rightResult);
+      return leftResult;
+    }
+  }
+
+  /**
+   * A read of the windows of the aggregator.
+   *
+   * @param <T> The type of the result of the read.
+   * @param <X> The type of the exception thrown by the read.
+   */
+  @FunctionalInterface
+  private interface WindowsReader<T, X extends Exception> {
+    /**
+     * @param stamp The stamp of the read, which stays valid until the read is invalidated by a window roll-out or an
+     *              entity removal.
+     * @return The result of the read, which is ignored if the read is invalidated.
+     * @throws X If the read fails.
+     */
+    T read(long stamp) throws X;
+  }
+
   /**
    * The {@link MetricSample MetricSamples} type which the aggregator collects.
    */
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.monitor.sampling.aggregator;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.model.Entity;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Writes and restores the checkpoints of the state of a {@link MetricSampleAggregator} on the local disk. A restarted
+ * aggregator restored from a checkpoint only needs the samples added after the checkpoint, instead of the samples of
+ * all the windows.
+ *
+ * A checkpoint file has the following format:
+ * <pre>
+ *   magic (int) | version (byte) | body | body length (long) | CRC32 of all the preceding bytes (long)
+ * </pre>
+ * The body starts with the number of windows, the window size and the minimum samples per window of the aggregator,
+ * and the names of its metrics in the order of their ids, followed by the state of the aggregator, and ends with the
+ * checkpoint time. A checkpoint is only restored to an aggregator with the same windows and metrics. The checkpoint is
+ * streamed to and from the file, so it is never held in memory, and the file is replaced atomically, hence a crash during
+ * a checkpoint leaves the previous checkpoint intact.
+ */
+public final class MetricSampleAggregatorCheckpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricSampleAggregatorCheckpoint.class);
+  public static final int MAGIC = 0x43434b50;
+  public static final byte CURRENT_VERSION = 1;
+  private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES;
+  private static final int TRAILER_SIZE = Long.BYTES + Long.BYTES;
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private MetricSampleAggregatorCheckpoint() {
+
+  }
+
+  /**
+   * Write a checkpoint of the given aggregator to the given file.
+   *
+   * @param aggregator the aggregator to checkpoint.
+   * @param entitySerde the serde of the entities of the aggregator.
+   * @param file the file to write the checkpoint to.
+   * @param <G> The aggregation entity group class.
+   * @param <E> The entity class.
+   * @return The checkpoint time, i.e. the time before the state of the aggregator is taken. The checkpoint includes the
+   * samples added before this time.
+   * @throws IOException If the checkpoint fails to be written, in which case the previous checkpoint is left intact.
+   */
+  public static <G, E extends Entity<G>> long write(MetricSampleAggregator<G, E> aggregator,
+                                                    EntitySerde<E> entitySerde,
+                                                    Path file) throws IOException {
+    return write(aggregator, entitySerde, file, System.currentTimeMillis());
+  }
+
+  /**
+   * Write a checkpoint of the given aggregator to the given file with the given checkpoint time. The caller must ensure
+   * that all the samples up to the checkpoint time have been added to the aggregator, and that no sample is added to the
+   * aggregator while the checkpoint is written. Otherwise the samples added concurrently are neither in the checkpoint
+   * nor loaded after restoring the checkpoint.
+   *
+   * @param aggregator the aggregator to checkpoint.
+   * @param entitySerde the serde of the entities of the aggregator.
+   * @param file the file to write the checkpoint to.
+   * @param checkpointMs the checkpoint time, the samples after which are loaded after restoring the checkpoint.
+   * @param <G> The aggregation entity group class.
+   * @param <E> The entity class.
+   * @return The checkpoint time.
+   * @throws IOException If the checkpoint fails to be written, in which case the previous checkpoint is left intact.
+   */
+  public static <G, E extends Entity<G>> long write(MetricSampleAggregator<G, E> aggregator,
+                                                    EntitySerde<E> entitySerde,
+                                                    Path file,
+                                                    long checkpointMs) throws IOException {
+    Path tempFile = file.resolveSibling(file.getFileName() + TEMP_FILE_SUFFIX);
+    long fileSize;
+    try (FileOutputStream fileOut = new FileOutputStream(tempFile.toFile())) {
+      CheckedOutputStream checkedOut = new CheckedOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE), new CRC32());
+      DataOutputStream out = new DataOutputStream(checkedOut);
+      out.writeInt(MAGIC);
+      out.writeByte(CURRENT_VERSION);
+      out.writeInt(aggregator._numWindows);
+      out.writeLong(aggregator._windowMs);
+      out.writeByte(aggregator._minSamplesPerWindow);
+      List<MetricInfo> metricInfos = aggregator._metricDef.all();
+      out.writeInt(metricInfos.size());
+      for (MetricInfo info : metricInfos) {
+        out.writeUTF(info.name());
+      }
+      aggregator.writeCheckpoint(out, entitySerde);
+      out.writeLong(checkpointMs);
+      // The size of the body is only known once it has reached the file.
+      out.flush();
+      out.writeLong(fileOut.getChannel().position() - HEADER_SIZE);
+      out.flush();
+      out.writeLong(checkedOut.getChecksum().getValue());
+      out.flush();
+      fileOut.getFD().sync();
+      fileSize = fileOut.getChannel().position();
+    }
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.debug("Wrote checkpoint of {} bytes to {}.", fileSize, file);
+    return checkpointMs;
+  }
+
+  /**
+   * Restore the checkpoint in the given file to the given aggregator, which must not have any sample. The checkpoint is
+   * verified by streaming the file once before it is restored, hence a corrupt checkpoint is never restored.
+   *
+   * @param aggregator the aggregator to restore.
+   * @param entitySerde the serde of the entities of the aggregator.
+   * @param file the file to read the checkpoint from.
+   * @param <G> The aggregation entity group class.
+   * @param <E> The entity class.
+   * @return The checkpoint time, or -1 if there is no checkpoint for the aggregator, i.e. the file does not exist or has
+   * the checkpoint of an older version or of an aggregator with different windows or metrics.
+   * @throws IOException If the checkpoint is corrupt or fails to be read, in which case the aggregator is left empty.
+   */
+  public static <G, E extends Entity<G>> long restore(MetricSampleAggregator<G, E> aggregator,
+                                                      EntitySerde<E> entitySerde,
+                                                      Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return -1L;
+    }
+    if (!verify(file)) {
+      return -1L;
+    }
+
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+      // The magic and the version have been verified.
+      in.readInt();
+      in.readByte();
+      int numWindows = in.readInt();
+      long windowMs = in.readLong();
+      byte minSamplesPerWindow = in.readByte();
+      int numMetrics = in.readInt();
+      List<String> metricNames = new ArrayList<>(numMetrics);
+      for (int i = 0; i < numMetrics; i++) {
+        metricNames.add(in.readUTF());
+      }
+      List<String> expectedMetricNames = aggregator._metricDef.all().stream().map(MetricInfo::name).collect(Collectors.toList());
+      if (numWindows != aggregator._numWindows || windowMs != aggregator._windowMs
+          || minSamplesPerWindow != aggregator._minSamplesPerWindow || !metricNames.equals(expectedMetricNames)) {
+        LOG.warn("Ignoring the checkpoint {} of an aggregator with {} windows of {} ms, {} minimum samples per window and metrics {}, "
+                 + "which differs from the aggregator to restore.", file, numWindows, windowMs, minSamplesPerWindow, metricNames);
+        return -1L;
+      }
+      aggregator.restoreCheckpoint(in, entitySerde);
+      return in.readLong();
+    }
+  }
+
+  /**
+   * Verify the magic, the version, the body length and the checksum of the checkpoint in the given file.
+   *
+   * @param file the file of the checkpoint to verify.
+   * @return {@code true} if the checkpoint can be restored, {@code false} if it has an older version.
+   * @throws IOException If the checkpoint is corrupt, has an unsupported version or fails to be read.
+   */
+  private static boolean verify(Path file) throws IOException {
+    long fileSize = Files.size(file);
+    if (fileSize < HEADER_SIZE + TRAILER_SIZE) {
+      throw new IOException("The checkpoint " + file + " is truncated.");
+    }
+    try (CheckedInputStream checkedIn = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE),
+                                                               new CRC32())) {
+      DataInputStream in = new DataInputStream(checkedIn);
+      if (in.readInt() != MAGIC) {
+        throw new IOException("The file " + file + " is not a metric sample aggregator checkpoint.");
+      }
+      byte version = in.readByte();
+      if (version > CURRENT_VERSION) {
+        throw new IOException(String.format("The checkpoint %s has unsupported version %d, the latest supported version is %d.",
+                                            file, version, CURRENT_VERSION));
+      } else if (version < CURRENT_VERSION) {
+        LOG.warn("Ignoring the checkpoint {} of the older version {}.", file, version);
+        return false;
+      }
+      long bodyLength = fileSize - HEADER_SIZE - TRAILER_SIZE;
+      byte[] buffer = new byte[BUFFER_SIZE];
+      for (long remaining = bodyLength; remaining > 0; remaining -= buffer.length) {
+        in.readFully(buffer, 0, (int) Math.min(remaining, buffer.length));
+      }
+      if (in.readLong() != bodyLength) {
+        throw new IOException("The checkpoint " + file + " is truncated.");
+      }
+      long crc = checkedIn.getChecksum().getValue();
+      if (crc != in.readLong()) {
+        throw new IOException("The checksum of the checkpoint " + file + " does not match its content.");
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The serde of the entities of an aggregator in its checkpoints.
+   *
+   * @param <E> The entity class.
+   */
+  public interface EntitySerde<E> {
+    /**
+     * @param entity the entity to write.
+     * @param out the output to write to.
+     * @throws IOException If the output fails to be written.
+     */
+    void write(E entity, DataOutput out) throws IOException;
+
+    /**
+     * @param in the input to read from.
+     * @return The entity read from the input.
+     * @throws IOException If the input fails to be read.
+     */
+    E read(DataInput in) throws IOException;
+  }
+}
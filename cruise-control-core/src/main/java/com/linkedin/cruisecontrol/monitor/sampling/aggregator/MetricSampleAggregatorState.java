@@ -197,6 +197,14 @@ class MetricSampleAggregatorState<G, E extends Entity<G>> extends WindowIndexedA
     return windowGenerations;
   }
 
+  /**
+   * @param windowIndex the index of the window to get the generation for.
+   * @return The generation of the MetricSampleAggregator when the given window was last updated.
+   */
+  long windowGeneration(long windowIndex) {
+    return _windowGenerations[arrayIndex(windowIndex)].get();
+  }
+
   /**
    * Clear all the states.
    */
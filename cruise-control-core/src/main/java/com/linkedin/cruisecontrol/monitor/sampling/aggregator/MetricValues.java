@@ -16,7 +16,10 @@ import java.util.StringJoiner;
  */
 public class MetricValues {
   // Values are sorted from the newest to the oldest -- i.e. the newest value is in index 0.
+  // The backing array may be shared with other MetricValues, see MetricValuesSlab.
   private final float[] _values;
+  private final int _offset;
+  private final int _length;
   private float _max;
   private double _sumForAvg;
 
@@ -26,7 +29,20 @@ public class MetricValues {
    * @param numWindows the number of windows the metric values should contain (i.e the length of the value array).
    */
   public MetricValues(int numWindows) {
-    _values = new float[numWindows];
+    this(new float[numWindows], 0, numWindows);
+  }
+
+  /**
+   * Construct a MetricValues as a view over the given region of a (potentially shared) backing array.
+   *
+   * @param values the backing array, which must be zero-filled in the given region.
+   * @param offset the index of the first value of this MetricValues in the backing array.
+   * @param numWindows the number of windows the metric values should contain.
+   */
+  MetricValues(float[] values, int offset, int numWindows) {
+    _values = values;
+    _offset = offset;
+    _length = numWindows;
     _sumForAvg = 0;
     _max = Float.MIN_VALUE;
   }
@@ -37,11 +53,11 @@ public class MetricValues {
    * @param value the value to use.
    */
   public void set(int index, double value) {
-    if (_max == _values[index] && value < _max) {
+    if (_max == _values[_offset + index] && value < _max) {
       _max = Float.MIN_VALUE;
     }
-    _sumForAvg += value - _values[index];
-    _values[index] = (float) value;
+    _sumForAvg += value - _values[_offset + index];
+    _values[_offset + index] = (float) value;
   }
 
   /**
@@ -52,24 +68,39 @@ public class MetricValues {
    * @return The value at the given index.
    */
   public double get(int index) {
-    return _values[index];
+    return _values[_offset + index];
   }
 
   /**
    * Clear the entire MetricValues.
    */
   public void clear() {
-    Arrays.fill(_values, 0);
+    Arrays.fill(_values, _offset, _offset + _length, 0);
     _sumForAvg = 0;
     _max = Float.MIN_VALUE;
   }
 
+  /**
+   * Overwrite the values of this MetricValues with the values of the given MetricValues of the same length.
+   *
+   * @param other the MetricValues to copy the values from.
+   */
+  void copyFrom(MetricValues other) {
+    if (other._length != _length) {
+      throw new IllegalArgumentException(String.format("The MetricValues with length %d cannot be copied to the "
+                                                       + "MetricValues with length %d", other._length, _length));
+    }
+    System.arraycopy(other._values, other._offset, _values, _offset, _length);
+    _sumForAvg = other._sumForAvg;
+    _max = other._max;
+  }
+
   /**
    * The length of the value array. i.e. the number of windows kept by this MetricValues.
    * @return The length of the value array.
    */
   public int length() {
-    return _values.length;
+    return _length;
   }
 
   /**
@@ -78,17 +109,17 @@ public class MetricValues {
    * @param values the value array to add.
    */
   public void add(double[] values) {
-    if (values.length != _values.length) {
+    if (values.length != _length) {
       throw new IllegalArgumentException(String.format("The value array of length %d cannot be added to the "
                                                            + "MetricValue with length %d",
-                                                       values.length, _values.length));
+                                                       values.length, _length));
     }
     _max = Float.MIN_VALUE;
-    for (int i = 0; i < _values.length; i++) {
+    for (int i = 0; i < _length; i++) {
       double toAdd = values[i];
-      _values[i] += toAdd;
+      _values[_offset + i] += toAdd;
       _sumForAvg += toAdd;
-      _max = Math.max(_max, _values[i]);
+      _max = Math.max(_max, _values[_offset + i]);
     }
   }
 
@@ -98,18 +129,25 @@ public class MetricValues {
    * @param metricValues the MetricValues to add.
    */
   public void add(MetricValues metricValues) {
-    if (metricValues.length() != _values.length) {
+    if (metricValues.length() != _length) {
       throw new IllegalArgumentException(String.format("The value array of length %d cannot be added to the "
                                                            + "MetricValue with length %d",
-                                                       metricValues.length(), _values.length));
+                                                       metricValues.length(), _length));
     }
-    _max = Float.MIN_VALUE;
-    for (int i = 0; i < _values.length; i++) {
-      double toAdd = metricValues.get(i);
-      _values[i] += toAdd;
-      _sumForAvg += toAdd;
-      _max = Math.max(_max, _values[i]);
+    // Work on the backing arrays directly, the values of both sides are contiguous even if they are slab allocated.
+    float[] otherValues = metricValues._values;
+    int otherOffset = metricValues._offset;
+    float max = Float.MIN_VALUE;
+    double sum = _sumForAvg;
+    for (int i = 0; i < _length; i++) {
+      float toAdd = otherValues[otherOffset + i];
+      float value = _values[_offset + i] + toAdd;
+      _values[_offset + i] = value;
+      sum += toAdd;
+      max = Math.max(max, value);
     }
+    _sumForAvg = sum;
+    _max = max;
   }
 
   /**
@@ -118,17 +156,17 @@ public class MetricValues {
    * @param values the value array to add.
    */
   public void subtract(double[] values) {
-    if (values.length != _values.length) {
+    if (values.length != _length) {
       throw new IllegalArgumentException(String.format("The value array of length %d cannot be subtracted from the "
                                                            + "MetricValue with length %d",
-                                                       values.length, _values.length));
+                                                       values.length, _length));
     }
     _max = Float.MIN_VALUE;
-    for (int i = 0; i < _values.length; i++) {
+    for (int i = 0; i < _length; i++) {
       double toDeduct = values[i];
-      _values[i] -= toDeduct;
+      _values[_offset + i] -= toDeduct;
       _sumForAvg -= toDeduct;
-      _max = Math.max(_max, _values[i]);
+      _max = Math.max(_max, _values[_offset + i]);
     }
   }
 
@@ -138,25 +176,32 @@ public class MetricValues {
    * @param metricValues the MetricValues to add.
    */
   public void subtract(MetricValues metricValues) {
-    if (metricValues.length() != _values.length) {
+    if (metricValues.length() != _length) {
       throw new IllegalArgumentException(String.format("The value array of length %d cannot be subtracted from the "
                                                            + "MetricValue with length %d",
-                                                       metricValues.length(), _values.length));
+                                                       metricValues.length(), _length));
     }
-    _max = Float.MIN_VALUE;
-    for (int i = 0; i < _values.length; i++) {
-      double toDeduct = metricValues.get(i);
-      _values[i] -= toDeduct;
-      _sumForAvg -= toDeduct;
-      _max = Math.max(_max, _values[i]);
+    // Work on the backing arrays directly, the values of both sides are contiguous even if they are slab allocated.
+    float[] otherValues = metricValues._values;
+    int otherOffset = metricValues._offset;
+    float max = Float.MIN_VALUE;
+    double sum = _sumForAvg;
+    for (int i = 0; i < _length; i++) {
+      float toDeduct = otherValues[otherOffset + i];
+      float value = _values[_offset + i] - toDeduct;
+      _values[_offset + i] = value;
+      sum -= toDeduct;
+      max = Math.max(max, value);
     }
+    _sumForAvg = sum;
+    _max = max;
   }
 
   /**
    * @return The average value of all the values in this MetricValues.
    */
   public float avg() {
-    return (float) (_sumForAvg / _values.length);
+    return (float) (_sumForAvg / _length);
   }
 
   /**
@@ -174,16 +219,16 @@ public class MetricValues {
    * @return The last value of all the values in this MetricValues.
    */
   public float latest() {
-    return _values[0];
+    return _values[_offset];
   }
 
   /**
    * @return The value array in double precision.
    */
   public double[] doubleArray() {
-    double[] result = new double[_values.length];
-    for (int i = 0; i < _values.length; i++) {
-      result[i] = _values[i];
+    double[] result = new double[_length];
+    for (int i = 0; i < _length; i++) {
+      result[i] = _values[_offset + i];
     }
     return result;
   }
@@ -195,25 +240,25 @@ public class MetricValues {
    */
   public void writeTo(OutputStream out) throws IOException {
     out.write(String.format("{avg:\"%.3f\", max:\"%.3f\", {", avg(), max()).getBytes(StandardCharsets.UTF_8));
-    for (int i = 0; i < _values.length - 1; i++) {
-      out.write((i + ":" + _values[i] + ", ").getBytes(StandardCharsets.UTF_8));
+    for (int i = 0; i < _length - 1; i++) {
+      out.write((i + ":" + _values[_offset + i] + ", ").getBytes(StandardCharsets.UTF_8));
     }
-    out.write(((_values.length - 1) + ":" + _values[_values.length - 1] + "}}").getBytes(StandardCharsets.UTF_8));
+    out.write(((_length - 1) + ":" + _values[_offset + _length - 1] + "}}").getBytes(StandardCharsets.UTF_8));
   }
 
   @Override
   public String toString() {
     StringJoiner joiner = new StringJoiner(", ", "{", "}");
-    for (int i = 0; i < _values.length; i++) {
-      joiner.add(i + ":" + _values[i]);
+    for (int i = 0; i < _length; i++) {
+      joiner.add(i + ":" + _values[_offset + i]);
     }
     return String.format("{avg:%f, max:%f, %s}", avg(), max(), joiner);
   }
 
   private float updateMax() {
-    _max = _values[0];
-    for (int i = 1; i < _values.length; i++) {
-      _max = Math.max(_max, _values[i]);
+    _max = _values[_offset];
+    for (int i = 1; i < _length; i++) {
+      _max = Math.max(_max, _values[_offset + i]);
     }
     return _max;
   }
@@ -8,8 +8,12 @@ import com.linkedin.cruisecontrol.common.WindowIndexedArrays;
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
-import java.util.BitSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -25,37 +29,117 @@ import org.slf4j.LoggerFactory;
  *   {@link MetricDef}. It also performs the {@link Extrapolation} if some of the values are missing from the
  *   metrics samples.
  * </p>
+ *
+ * <p>
+ *   The window values of all metrics, the sample counts and the window flags are kept in flat arrays, which are either
+ *   dedicated to this instance or are regions of the shared chunks of a {@link RawMetricValuesSlab}.
+ * </p>
+ *
+ * <p>
+ *   Optionally, the aggregation of the stable windows is summarized and reused by the subsequent aggregations of the
+ *   same windows until a stable window changes, i.e. until a window rolls out or a sample is added to a stable window.
+ *   Samples added to the current window do not affect the stable windows.
+ * </p>
  */
 public class RawMetricValues extends WindowIndexedArrays {
   private static final Logger LOG = LoggerFactory.getLogger(RawMetricValues.class);
+  // The flags of a window.
+  private static final byte VALID = 1;
+  private static final byte EXTRAPOLATED = 2;
   // The minimum required samples for a window to not involve any extrapolation.
   private final byte _minSamplesPerWindow;
   private final byte _halfMinRequiredSamples;
-  // The metric id to value array mapping. The array is a cyclic buffer. Each array slot represents a window.
-  private final Map<Short, float[]> _windowValuesByMetricId;
-  // The number of samples per window. The array is a cyclic buffer. Each array slot represents a window.
-  private final byte[] _counts;
-  // A bit set to indicate whether a given window has extrapolation or not.
-  private final BitSet _extrapolations;
-  // A bit set to indicate whether a given window is valid or not.
-  private final BitSet _validity;
+  private final int _numWindowsToKeep;
+  private final int _numMetrics;
+  // The slab that holds the arrays of this instance, or null if the arrays are dedicated to this instance.
+  private final RawMetricValuesSlab _slab;
+  private final int _ordinal;
+  // The window values of each metric, starting at _valuesOffset + metricId * _numWindowsToKeep. The values of each
+  // metric are a cyclic buffer. Each slot represents a window.
+  private float[] _values;
+  private int _valuesOffset;
+  // The number of samples per window starting at _countsOffset, followed by the VALID and EXTRAPOLATED flags of each
+  // window starting at _flagsOffset. Both are cyclic buffers. Each slot represents a window.
+  private byte[] _bytes;
+  private int _countsOffset;
+  private int _flagsOffset;
+  // Whether any sample has been added.
+  private boolean _hasValues;
+  private boolean _released;
+  private final boolean _summarizeStableWindows;
+  // The summary of the last aggregation of stable windows, or null if there is none or a stable window has changed since.
+  private StableWindowsSummary _summary;
+  // The generation of the aggregator upon the last change to the aggregated values of this raw metric values.
+  private volatile long _lastUpdateGeneration;
 
   /**
    * Construct a RawMetricValues.
    *
    * @param numWindowsToKeep the total number of windows to keep track of.
    * @param minSamplesPerWindow the minimum required samples for a window to not involve any {@link Extrapolation}.
-   * @param numMetricTypesInSample the total number of raw metric types stored by {@link #_windowValuesByMetricId}
+   * @param numMetricTypesInSample the total number of raw metric types stored by {@link #_values}
    */
   public RawMetricValues(int numWindowsToKeep, byte minSamplesPerWindow, int numMetricTypesInSample) {
+    this(numWindowsToKeep, minSamplesPerWindow, numMetricTypesInSample, null, false);
+  }
+
+  /**
+   * Construct a RawMetricValues whose arrays are allocated from the given slab.
+   *
+   * @param numWindowsToKeep the total number of windows to keep track of.
+   * @param minSamplesPerWindow the minimum required samples for a window to not involve any {@link Extrapolation}.
+   * @param numMetricTypesInSample the total number of raw metric types stored by {@link #_values}
+   * @param slab the slab to allocate the arrays from, or {@code null} to use dedicated arrays.
+   */
+  public RawMetricValues(int numWindowsToKeep, byte minSamplesPerWindow, int numMetricTypesInSample, RawMetricValuesSlab slab) {
+    this(numWindowsToKeep, minSamplesPerWindow, numMetricTypesInSample, slab, false);
+  }
+
+  /**
+   * Construct a RawMetricValues whose arrays are allocated from the given slab.
+   *
+   * @param numWindowsToKeep the total number of windows to keep track of.
+   * @param minSamplesPerWindow the minimum required samples for a window to not involve any {@link Extrapolation}.
+   * @param numMetricTypesInSample the total number of raw metric types stored by {@link #_values}
+   * @param slab the slab to allocate the arrays from, or {@code null} to use dedicated arrays.
+   * @param summarizeStableWindows {@code true} to reuse the aggregation of the stable windows until a stable window
+   *                               changes, {@code false} to aggregate the windows on every call.
+   */
+  public RawMetricValues(int numWindowsToKeep,
+                         byte minSamplesPerWindow,
+                         int numMetricTypesInSample,
+                         RawMetricValuesSlab slab,
+                         boolean summarizeStableWindows) {
     if (numWindowsToKeep <= 1) {
       throw new IllegalArgumentException("The number of windows should be at least 2 because at least one available"
                                          + " window and one current window are needed.");
     }
-    _windowValuesByMetricId = new HashMap<>();
-    _counts = new byte[numWindowsToKeep];
-    _extrapolations = new BitSet(numWindowsToKeep);
-    _validity = new BitSet(numWindowsToKeep);
+    _numWindowsToKeep = numWindowsToKeep;
+    _numMetrics = numMetricTypesInSample;
+    _slab = slab;
+    if (slab == null) {
+      _ordinal = -1;
+      _values = new float[numWindowsToKeep * numMetricTypesInSample];
+      _valuesOffset = 0;
+      _bytes = new byte[2 * numWindowsToKeep];
+      _countsOffset = 0;
+    } else {
+      if (slab.numWindows() != numWindowsToKeep || slab.numMetrics() != numMetricTypesInSample) {
+        throw new IllegalArgumentException(String.format("The slab of %d windows and %d metrics cannot hold raw metric values of "
+                                                         + "%d windows and %d metrics.", slab.numWindows(), slab.numMetrics(),
+                                                         numWindowsToKeep, numMetricTypesInSample));
+      }
+      _ordinal = slab.allocate();
+      _values = slab.valueChunk(_ordinal);
+      _valuesOffset = slab.valueOffset(_ordinal);
+      _bytes = slab.byteChunk(_ordinal);
+      _countsOffset = slab.byteOffset(_ordinal);
+    }
+    _flagsOffset = _countsOffset + numWindowsToKeep;
+    _hasValues = false;
+    _released = false;
+    _summarizeStableWindows = summarizeStableWindows;
+    _summary = null;
     _minSamplesPerWindow = minSamplesPerWindow;
     _halfMinRequiredSamples = (byte) Math.max(1, _minSamplesPerWindow / 2);
     _oldestWindowIndex = Long.MAX_VALUE;
@@ -63,20 +147,66 @@ public class RawMetricValues extends WindowIndexedArrays {
 
   @Override
   protected int length() {
-    return _counts.length;
+    return _numWindowsToKeep;
+  }
+
+  /**
+   * Release the arrays of this raw metric values. Samples added to a released raw metric values are ignored, and it
+   * reads as if it had no samples. The regions of a slab-backed raw metric values are returned to the slab for reuse.
+   */
+  public synchronized void release() {
+    if (_released) {
+      return;
+    }
+    _released = true;
+    _hasValues = false;
+    _summary = null;
+    if (_slab == null) {
+      Arrays.fill(_values, 0.0f);
+      Arrays.fill(_bytes, (byte) 0);
+    } else {
+      _slab.release(_ordinal);
+      // Point to the always-zero region of the slab, as the released region may be reallocated to another entity.
+      _values = _slab.zeroValues();
+      _valuesOffset = 0;
+      _bytes = _slab.zeroBytes();
+      _countsOffset = 0;
+      _flagsOffset = _numWindowsToKeep;
+    }
+  }
+
+  /**
+   * @return {@code true} if this raw metric values has been released, {@code false} otherwise.
+   */
+  public synchronized boolean isReleased() {
+    return _released;
+  }
+
+  /**
+   * @return The generation of the aggregator upon the last change to the aggregated values of this raw metric values.
+   */
+  long lastUpdateGeneration() {
+    return _lastUpdateGeneration;
+  }
+
+  /**
+   * @param lastUpdateGeneration The generation of the aggregator upon a change to the aggregated values of this raw metric values.
+   */
+  void setLastUpdateGeneration(long lastUpdateGeneration) {
+    _lastUpdateGeneration = lastUpdateGeneration;
   }
 
   /**
-   * Update {@link #_validity} and {@link #_extrapolations} for the previous and next array indices of the given arrayIndex.
+   * Update the validity and extrapolation flags for the previous and next array indices of the given arrayIndex.
    * @param arrayIndex Array index.
    */
   private void maybeUpdateValidityAndExtrapolationOfPrevAndNextFor(int arrayIndex) {
-    if (_counts[arrayIndex] >= _minSamplesPerWindow) {
+    if (count(arrayIndex) >= _minSamplesPerWindow) {
       // If this index has two left neighbour indices, we may need to update the extrapolation of the previous index
       // with AvgAdjacent. We need to exclude the current window index. It will be included when new windows get rolled out.
       if (arrayIndex != arrayIndex(currentWindowIndex()) && hasTwoLeftNeighbours(arrayIndex)) {
         int prevArrayIndex = prevArrayIndex(arrayIndex);
-        if (_counts[prevArrayIndex] == 0) {
+        if (count(prevArrayIndex) == 0) {
           updateAvgAdjacent(prevArrayIndex);
         }
       }
@@ -84,7 +214,7 @@ public class RawMetricValues extends WindowIndexedArrays {
       // Adding sample to the current window index has no next index to update.
       if (hasTwoRightNeighbours(arrayIndex)) {
         int nextArrayIndex = nextArrayIndex(arrayIndex);
-        if (_counts[nextArrayIndex] == 0) {
+        if (count(nextArrayIndex) == 0) {
           updateAvgAdjacent(nextArrayIndex);
         }
       }
@@ -97,16 +227,16 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @param sample The metric sample to add.
    * @param windowIndex the window index of the metric sample.
    * @param metricDef the metric definitions.
-   * @return Array index of the cyclic buffers used for {@link #_counts} and {@link #_windowValuesByMetricId}.
+   * @return Array index of the cyclic buffers used for the sample counts and {@link #_values}.
    */
   private int updateWindowValueAndCount(MetricSample<?, ?> sample, long windowIndex, MetricDef metricDef) {
     int arrayIndex = arrayIndex(windowIndex);
     for (Map.Entry<Short, Double> entry : sample.allMetricValues().entrySet()) {
-      _windowValuesByMetricId.computeIfAbsent(entry.getKey(), k -> new float[_counts.length]);
       updateWindowValueForMetric(entry.getValue(), metricDef.metricInfo(entry.getKey()), arrayIndex);
     }
+    _hasValues = true;
     // Update the count of samples in the window with the given index.
-    _counts[arrayIndex]++;
+    _bytes[_countsOffset + arrayIndex]++;
 
     return arrayIndex;
   }
@@ -119,14 +249,17 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @param metricDef the metric definitions.
    */
   public synchronized void addSample(MetricSample<?, ?> sample, long windowIndex, MetricDef metricDef) {
-    // This sample is being added during window rolling.
-    if (windowIndex < _oldestWindowIndex) {
+    // This sample is being added during window rolling, or to released raw metric values of a removed entity.
+    if (windowIndex < _oldestWindowIndex || _released) {
       return;
     } else if (windowIndex > currentWindowIndex()) {
       throw new IllegalArgumentException("Cannot add sample to window index " + windowIndex + ", which is larger "
                                              + "than the current window index " + currentWindowIndex());
     }
 
+    if (windowIndex != currentWindowIndex()) {
+      _summary = null;
+    }
     int arrayIndex = updateWindowValueAndCount(sample, windowIndex, metricDef);
     // Update the validity and extrapolation for this array index and the previous and next array indices.
     maybeUpdateValidityAndExtrapolationFor(arrayIndex);
@@ -134,7 +267,7 @@ public class RawMetricValues extends WindowIndexedArrays {
 
     if (LOG.isTraceEnabled()) {
       LOG.trace("Added metric sample {} to window index {}, array index is {}, current count : {}",
-                sample, windowIndex, arrayIndex, _counts[arrayIndex]);
+                sample, windowIndex, arrayIndex, count(arrayIndex));
     }
   }
 
@@ -145,8 +278,12 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @param newOldestWindowIndex the new oldest window index.
    */
   public synchronized void updateOldestWindowIndex(long newOldestWindowIndex) {
+    if (_released) {
+      return;
+    }
     long prevLastWindowIndex = lastWindowIndex();
     _oldestWindowIndex = newOldestWindowIndex;
+    _summary = null;
     // Advancing the oldest window index will make the previous current window index become available to its
     // neighbour index (i.e. the previous last index) for AVG_ADJACENT extrapolation. We don't need to update the
     // current window index because it would be up to date during the addSample call.
@@ -166,8 +303,8 @@ public class RawMetricValues extends WindowIndexedArrays {
   public synchronized boolean isValid(int maxAllowedWindowsWithExtrapolation) {
     int currentArrayIndex = arrayIndex(currentWindowIndex());
     // The total number of valid window indices should exclude the current window index.
-    int numValidIndicesAdjustment = _validity.get(currentArrayIndex) ? 1 : 0;
-    boolean allIndicesValid = _validity.cardinality() - numValidIndicesAdjustment == _counts.length - 1;
+    int numValidIndicesAdjustment = isFlagSet(currentArrayIndex, VALID) ? 1 : 0;
+    boolean allIndicesValid = numWindowsWithFlag(VALID) - numValidIndicesAdjustment == _numWindowsToKeep - 1;
     // All indices should be valid and should not have more than maxAllowedWindowsWithExtrapolation extrapolations.
     return allIndicesValid && numWindowsWithExtrapolation() <= maxAllowedWindowsWithExtrapolation;
   }
@@ -177,8 +314,8 @@ public class RawMetricValues extends WindowIndexedArrays {
    */
   public synchronized int numWindowsWithExtrapolation() {
     int currentArrayIndex = arrayIndex(currentWindowIndex());
-    int numExtrapolationAdjustment = _extrapolations.get(currentArrayIndex) ? 1 : 0;
-    return _extrapolations.cardinality() - numExtrapolationAdjustment;
+    int numExtrapolationAdjustment = isFlagSet(currentArrayIndex, EXTRAPOLATED) ? 1 : 0;
+    return numWindowsWithFlag(EXTRAPOLATED) - numExtrapolationAdjustment;
   }
 
   /**
@@ -189,7 +326,7 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return {@code true} if the given window is valid, {@code false} otherwise.
    */
   public synchronized boolean isValidAtWindowIndex(long windowIndex) {
-    return _validity.get(arrayIndex(windowIndex));
+    return isFlagSet(arrayIndex(windowIndex), VALID);
   }
 
   /**
@@ -200,7 +337,7 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return {@code true} if the window is extrapolated, {@code false} otherwise.
    */
   public synchronized boolean isExtrapolatedAtWindowIndex(long windowIndex) {
-    return _extrapolations.get(arrayIndex(windowIndex));
+    return isFlagSet(arrayIndex(windowIndex), EXTRAPOLATED);
   }
 
   /**
@@ -210,7 +347,7 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return sample counts at window index.
    */
   public synchronized byte sampleCountsAtWindowIndex(long windowIndex) {
-    return _counts[arrayIndex(windowIndex)];
+    return count(arrayIndex(windowIndex));
   }
 
   public synchronized void sanityCheckWindowIndex(long windowIndex) {
@@ -240,12 +377,16 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return Number of samples abandoned in window clearing process. The abandoned samples are samples in the windows which get reset.
    */
   public synchronized int resetWindowIndices(long startingWindowIndex, int numWindowIndicesToReset) {
+    if (_released) {
+      return 0;
+    }
     // We are not resetting all the data here. The data will be interpreted to 0 if count is 0.
+    _summary = null;
     int numAbandonedSamples = 0;
     for (long i = startingWindowIndex; i < startingWindowIndex + numWindowIndicesToReset; i++) {
       int arrayIndex = arrayIndex(i);
-      numAbandonedSamples += _counts[arrayIndex];
-      _counts[arrayIndex] = 0;
+      numAbandonedSamples += count(arrayIndex);
+      _bytes[_countsOffset + arrayIndex] = 0;
       resetValidityAndExtrapolation(arrayIndex);
     }
     if (LOG.isTraceEnabled()) {
@@ -264,21 +405,46 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return The aggregated values and extrapolations of the given sorted set of windows in that order.
    */
   public synchronized ValuesAndExtrapolations aggregate(SortedSet<Long> windowIndices, MetricDef metricDef) {
-    return aggregate(windowIndices, metricDef, true);
+    return aggregate(windowIndices, metricDef, null, true);
   }
 
-  private ValuesAndExtrapolations aggregate(SortedSet<Long> windowIndices, MetricDef metricDef, boolean checkWindow) {
-    if (_windowValuesByMetricId.isEmpty()) {
+  /**
+   * Get the aggregated values of the given sorted set of windows, allocating the aggregated values from the given slab.
+   *
+   * @param windowIndices the sorted set of windows to get values for.
+   * @param metricDef the metric definitions.
+   * @param slab the slab to allocate the aggregated values from, or {@code null} to allocate dedicated arrays.
+   * @return The aggregated values and extrapolations of the given sorted set of windows in that order.
+   */
+  public synchronized ValuesAndExtrapolations aggregate(SortedSet<Long> windowIndices, MetricDef metricDef, MetricValuesSlab slab) {
+    return aggregate(windowIndices, metricDef, slab, true);
+  }
+
+  private ValuesAndExtrapolations aggregate(SortedSet<Long> windowIndices, MetricDef metricDef, MetricValuesSlab slab,
+                                            boolean checkWindow) {
+    if (!_hasValues) {
       return ValuesAndExtrapolations.empty(windowIndices.size(), metricDef);
     }
+    // Only the stable windows are summarized, the current window changes with every sample.
+    if (!_summarizeStableWindows || !checkWindow) {
+      return doAggregate(windowIndices, metricDef, slab, checkWindow);
+    }
+    if (_summary == null || !_summary.summarizes(windowIndices)) {
+      _summary = new StableWindowsSummary(windowIndices, doAggregate(windowIndices, metricDef, null, true));
+    }
+    return _summary.toValuesAndExtrapolations(slab);
+  }
+
+  private ValuesAndExtrapolations doAggregate(SortedSet<Long> windowIndices, MetricDef metricDef, MetricValuesSlab slab,
+                                              boolean checkWindow) {
     Map<Short, MetricValues> aggValues = new HashMap<>();
     SortedMap<Integer, Extrapolation> extrapolations = new TreeMap<>();
-    for (Map.Entry<Short, float[]> entry : _windowValuesByMetricId.entrySet()) {
-      short metricId = entry.getKey();
-      float[] values = entry.getValue();
+    // Valid samples have values of all metrics, hence every metric has values once any sample has been added.
+    for (short metricId = 0; metricId < _numMetrics; metricId++) {
+      int valuesOffset = _valuesOffset + metricId * _numWindowsToKeep;
       MetricInfo info = metricDef.metricInfo(metricId);
 
-      MetricValues aggValuesForMetric = new MetricValues(windowIndices.size());
+      MetricValues aggValuesForMetric = slab == null ? new MetricValues(windowIndices.size()) : slab.allocate(windowIndices.size());
       aggValues.put(metricId, aggValuesForMetric);
 
       int resultIndex = 0;
@@ -290,38 +456,37 @@ public class RawMetricValues extends WindowIndexedArrays {
         }
         int arrayIndex = arrayIndex(windowIndex);
         // Sufficient samples
-        if (_counts[arrayIndex] >= _halfMinRequiredSamples) {
-          aggValuesForMetric.set(resultIndex, getValue(info, arrayIndex, values));
-          if (_counts[arrayIndex] < _minSamplesPerWindow) {
+        if (count(arrayIndex) >= _halfMinRequiredSamples) {
+          aggValuesForMetric.set(resultIndex, getValue(info, arrayIndex, valuesOffset));
+          if (count(arrayIndex) < _minSamplesPerWindow) {
             // Though not quite sufficient, but have some available.
             extrapolations.putIfAbsent(resultIndex, Extrapolation.AVG_AVAILABLE);
           }
           // Not sufficient, check the neighbors. The neighbors only exist when the index is not on the edge, i.e.
           // neither the first nor last index.
         } else if (arrayIndex != firstArrayIndex() && arrayIndex != lastArrayIndex()
-                   && _counts[prevArrayIndex(arrayIndex)] >= _minSamplesPerWindow
-                   && _counts[nextArrayIndex(arrayIndex)] >= _minSamplesPerWindow) {
+                   && count(prevArrayIndex(arrayIndex)) >= _minSamplesPerWindow
+                   && count(nextArrayIndex(arrayIndex)) >= _minSamplesPerWindow) {
           extrapolations.putIfAbsent(resultIndex, Extrapolation.AVG_ADJACENT);
           int prevArrayIndex = prevArrayIndex(arrayIndex);
           int nextArrayIndex = nextArrayIndex(arrayIndex);
-          double total = _windowValuesByMetricId.get(metricId)[prevArrayIndex] + (_counts[arrayIndex] == 0 ? 0 : _windowValuesByMetricId
-              .get(metricId)[arrayIndex])
-                         + _windowValuesByMetricId.get(metricId)[nextArrayIndex];
+          double total = _values[valuesOffset + prevArrayIndex] + (count(arrayIndex) == 0 ? 0 : _values[valuesOffset + arrayIndex])
+                         + _values[valuesOffset + nextArrayIndex];
           switch (info.aggregationFunction()) {
             case AVG:
-              aggValuesForMetric.set(resultIndex, total / (_counts[prevArrayIndex] + _counts[arrayIndex] + _counts[nextArrayIndex]));
+              aggValuesForMetric.set(resultIndex, total / (count(prevArrayIndex) + count(arrayIndex) + count(nextArrayIndex)));
               break;
             case MAX:
             case LATEST:
               // for max and latest, we already only keep the largest or last value.
-              aggValuesForMetric.set(resultIndex, total / (_counts[arrayIndex] > 0 ? 3 : 2));
+              aggValuesForMetric.set(resultIndex, total / (count(arrayIndex) > 0 ? 3 : 2));
               break;
             default:
               throw new IllegalStateException("Should never be here.");
           }
           // Neighbor not available, use the insufficient samples.
-        } else if (_counts[arrayIndex] > 0) {
-          aggValuesForMetric.set(resultIndex, getValue(info, arrayIndex, values));
+        } else if (count(arrayIndex) > 0) {
+          aggValuesForMetric.set(resultIndex, getValue(info, arrayIndex, valuesOffset));
           extrapolations.putIfAbsent(resultIndex, Extrapolation.FORCED_INSUFFICIENT);
           // Nothing is available, just return all 0 and NO_VALID_EXTRAPOLATION.
         } else {
@@ -344,7 +509,7 @@ public class RawMetricValues extends WindowIndexedArrays {
   public synchronized ValuesAndExtrapolations peekCurrentWindow(long currentWindowIndex, MetricDef metricDef) {
     SortedSet<Long> window = new TreeSet<>();
     window.add(currentWindowIndex);
-    return aggregate(window, metricDef, false);
+    return aggregate(window, metricDef, null, false);
   }
 
   /**
@@ -352,22 +517,82 @@ public class RawMetricValues extends WindowIndexedArrays {
    */
   public synchronized int numSamples() {
     int count = 0;
-    for (byte i : _counts) {
-      count += i;
+    for (int i = 0; i < _numWindowsToKeep; i++) {
+      count += count(i);
     }
     return count;
   }
 
-  private float getValue(MetricInfo info, int index, float[] values) {
-    if (_counts[index] == 0) {
+  /**
+   * Write the window range, the window values, the sample counts and the window flags of this raw metric values to the
+   * given output. The cyclic buffers are written as is, as the array index of a window only depends on the window index.
+   *
+   * @param out the output to write to.
+   * @throws IOException If the output fails to be written.
+   */
+  synchronized void writeTo(DataOutput out) throws IOException {
+    out.writeLong(_oldestWindowIndex);
+    out.writeBoolean(_hasValues);
+    int numValues = _numMetrics * _numWindowsToKeep;
+    for (int i = 0; i < numValues; i++) {
+      out.writeFloat(_values[_valuesOffset + i]);
+    }
+    out.write(_bytes, _countsOffset, 2 * _numWindowsToKeep);
+  }
+
+  /**
+   * Overwrite the state of this raw metric values with the state written by {@link #writeTo(DataOutput)} of a raw metric
+   * values with the same number of windows and metrics.
+   *
+   * @param in the input to read from.
+   * @throws IOException If the input fails to be read.
+   */
+  synchronized void readFrom(DataInput in) throws IOException {
+    if (_released) {
+      throw new IllegalStateException("Cannot read the state of released raw metric values.");
+    }
+    _oldestWindowIndex = in.readLong();
+    _hasValues = in.readBoolean();
+    _summary = null;
+    int numValues = _numMetrics * _numWindowsToKeep;
+    for (int i = 0; i < numValues; i++) {
+      _values[_valuesOffset + i] = in.readFloat();
+    }
+    in.readFully(_bytes, _countsOffset, 2 * _numWindowsToKeep);
+  }
+
+  private byte count(int arrayIndex) {
+    return _bytes[_countsOffset + arrayIndex];
+  }
+
+  private boolean isFlagSet(int arrayIndex, byte flag) {
+    return (_bytes[_flagsOffset + arrayIndex] & flag) != 0;
+  }
+
+  private void setFlags(int arrayIndex, byte flags) {
+    _bytes[_flagsOffset + arrayIndex] = flags;
+  }
+
+  private int numWindowsWithFlag(byte flag) {
+    int numWindows = 0;
+    for (int i = 0; i < _numWindowsToKeep; i++) {
+      if (isFlagSet(i, flag)) {
+        numWindows++;
+      }
+    }
+    return numWindows;
+  }
+
+  private float getValue(MetricInfo info, int index, int valuesOffset) {
+    if (count(index) == 0) {
       return 0;
     }
     switch (info.aggregationFunction()) {
       case AVG:
-        return values[index] / _counts[index];
+        return _values[valuesOffset + index] / count(index);
       case MAX:
       case LATEST:
-        return values[index];
+        return _values[valuesOffset + index];
       default:
         throw new IllegalStateException("Should never be here.");
     }
@@ -390,32 +615,32 @@ public class RawMetricValues extends WindowIndexedArrays {
   }
 
   private void add(double newValue, short metricId, int index) {
-    _windowValuesByMetricId.get(metricId)[index] = (float) (_counts[index] == 0 ? newValue : _windowValuesByMetricId.get(metricId)[index] + newValue);
+    int valueIndex = _valuesOffset + metricId * _numWindowsToKeep + index;
+    _values[valueIndex] = (float) (count(index) == 0 ? newValue : _values[valueIndex] + newValue);
   }
 
   private void max(double newValue, short metricId, int index) {
-    _windowValuesByMetricId.get(metricId)[index] = (float) (_counts[index] == 0 ? newValue : Math.max(
-        _windowValuesByMetricId.get(metricId)[index], newValue));
+    int valueIndex = _valuesOffset + metricId * _numWindowsToKeep + index;
+    _values[valueIndex] = (float) (count(index) == 0 ? newValue : Math.max(_values[valueIndex], newValue));
   }
 
   private void latest(double newValue, short metricId, int index) {
-    _windowValuesByMetricId.get(metricId)[index] = (float) newValue;
+    _values[_valuesOffset + metricId * _numWindowsToKeep + index] = (float) newValue;
   }
 
   /**
-   * Update {@link #_validity} and {@link #_extrapolations} for the given arrayIndex.
+   * Update the validity and extrapolation flags for the given arrayIndex.
    * @param arrayIndex Array index.
    */
   private void maybeUpdateValidityAndExtrapolationFor(int arrayIndex) {
-    if (!updateEnoughSamples(arrayIndex) && !_extrapolations.get(arrayIndex)
+    if (!updateEnoughSamples(arrayIndex) && !isFlagSet(arrayIndex, EXTRAPOLATED)
         && !updateForcedInsufficient(arrayIndex) && !updateAvgAdjacent(arrayIndex)) {
       resetValidityAndExtrapolation(arrayIndex);
     }
   }
 
   private void resetValidityAndExtrapolation(int arrayIndex) {
-    _validity.clear(arrayIndex);
-    _extrapolations.clear(arrayIndex);
+    setFlags(arrayIndex, (byte) 0);
   }
 
   /**
@@ -423,12 +648,11 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return if there are {@link #_minSamplesPerWindow}, then valid: {@code true}, extrapolation: {@code false}
    */
   private boolean updateEnoughSamples(int arrayIndex) {
-    if (_counts[arrayIndex] == _minSamplesPerWindow) {
-      _validity.set(arrayIndex);
-      _extrapolations.clear(arrayIndex);
+    if (count(arrayIndex) == _minSamplesPerWindow) {
+      setFlags(arrayIndex, VALID);
       return true;
     }
-    return _counts[arrayIndex] >= _minSamplesPerWindow;
+    return count(arrayIndex) >= _minSamplesPerWindow;
   }
 
   /**
@@ -442,9 +666,8 @@ public class RawMetricValues extends WindowIndexedArrays {
     if (prevArrayIndex == INVALID_INDEX || nextArrayIndex == INVALID_INDEX) {
       return false;
     }
-    if (_counts[prevArrayIndex] >= _minSamplesPerWindow && _counts[nextArrayIndex] >= _minSamplesPerWindow) {
-      _validity.set(arrayIndex);
-      _extrapolations.set(arrayIndex);
+    if (count(prevArrayIndex) >= _minSamplesPerWindow && count(nextArrayIndex) >= _minSamplesPerWindow) {
+      setFlags(arrayIndex, (byte) (VALID | EXTRAPOLATED));
       return true;
     }
     return false;
@@ -455,9 +678,8 @@ public class RawMetricValues extends WindowIndexedArrays {
    * @return if there is at least one sample, then valid: true, extrapolation: true
    */
   private boolean updateForcedInsufficient(int arrayIndex) {
-    if (_counts[arrayIndex] > 0) {
-      _validity.set(arrayIndex);
-      _extrapolations.set(arrayIndex);
+    if (count(arrayIndex) > 0) {
+      setFlags(arrayIndex, (byte) (VALID | EXTRAPOLATED));
       return true;
     }
     return false;
@@ -472,4 +694,49 @@ public class RawMetricValues extends WindowIndexedArrays {
     int nextIdx = nextArrayIndex(arrayIndex);
     return nextIdx != INVALID_INDEX && nextArrayIndex(nextIdx) != INVALID_INDEX;
   }
+
+  /**
+   * The aggregated values and extrapolations of a sorted set of stable windows. Aggregation results are modified in place
+   * by their users, hence each aggregation gets a copy of the summarized values, including their running sums and maxima.
+   */
+  private static final class StableWindowsSummary {
+    private final SortedSet<Long> _windowIndices;
+    private final ValuesAndExtrapolations _valuesAndExtrapolations;
+
+    StableWindowsSummary(SortedSet<Long> windowIndices, ValuesAndExtrapolations valuesAndExtrapolations) {
+      _windowIndices = new TreeSet<>(windowIndices);
+      _valuesAndExtrapolations = valuesAndExtrapolations;
+    }
+
+    /**
+     * @param windowIndices the sorted set of windows to get values for.
+     * @return {@code true} if this summary has the aggregation of the given windows in the same order, {@code false} otherwise.
+     */
+    boolean summarizes(SortedSet<Long> windowIndices) {
+      if (windowIndices.size() != _windowIndices.size()) {
+        return false;
+      }
+      // Compare in iteration order rather than with equals(), which looks up each window index.
+      Iterator<Long> iterator = _windowIndices.iterator();
+      for (long windowIndex : windowIndices) {
+        if (iterator.next() != windowIndex) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    ValuesAndExtrapolations toValuesAndExtrapolations(MetricValuesSlab slab) {
+      int numWindows = _windowIndices.size();
+      AggregatedMetricValues summarizedValues = _valuesAndExtrapolations.metricValues();
+      Map<Short, MetricValues> aggValues = new HashMap<>();
+      for (short metricId : summarizedValues.metricIds()) {
+        MetricValues metricValues = slab == null ? new MetricValues(numWindows) : slab.allocate(numWindows);
+        metricValues.copyFrom(summarizedValues.valuesFor(metricId));
+        aggValues.put(metricId, metricValues);
+      }
+      // The extrapolations are never modified, hence they are shared by the aggregations.
+      return new ValuesAndExtrapolations(new AggregatedMetricValues(aggValues), _valuesAndExtrapolations.extrapolations());
+    }
+  }
 }
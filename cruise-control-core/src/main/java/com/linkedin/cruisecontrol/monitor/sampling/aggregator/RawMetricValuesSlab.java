@@ -0,0 +1,190 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.monitor.sampling.aggregator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * A store that packs the raw metric values of many {@link RawMetricValues} into a few large shared chunks.
+ *
+ * Each {@link RawMetricValues} backed by the slab is assigned a dense entity ordinal, which addresses a fixed-size
+ * region of a {@code float[]} chunk for its window values of all metrics, and a fixed-size region of a {@code byte[]}
+ * chunk for its sample counts and window flags. Compared with the dedicated arrays of a standalone
+ * {@link RawMetricValues}, this saves the per-array object overhead of every entity, which matters for aggregators
+ * with hundreds of thousands of entities.
+ *
+ * The region of a released ordinal is zero-filled and reused by a subsequent allocation, so the slab does not grow as
+ * long as the number of live entities does not. This class is thread-safe.
+ */
+public class RawMetricValuesSlab {
+  public static final int DEFAULT_NUM_ENTITIES_PER_CHUNK = 1 << 12;
+  private final int _numWindows;
+  private final int _numMetrics;
+  private final int _numValuesPerEntity;
+  private final int _numBytesPerEntity;
+  private final int _numEntitiesPerChunk;
+  private final List<float[]> _valueChunks;
+  private final List<byte[]> _byteChunks;
+  // A region that is never allocated and stays zero, for released raw metric values to read from.
+  private final float[] _zeroValues;
+  private final byte[] _zeroBytes;
+  // The released ordinals to reuse, used as a stack.
+  private int[] _freeOrdinals;
+  private int _numFreeOrdinals;
+  private int _nextOrdinal;
+
+  /**
+   * Construct a slab with the {@link #DEFAULT_NUM_ENTITIES_PER_CHUNK}.
+   *
+   * @param numWindowsToKeep the total number of windows of each entity.
+   * @param numMetrics the number of metrics of each entity.
+   */
+  public RawMetricValuesSlab(int numWindowsToKeep, int numMetrics) {
+    this(numWindowsToKeep, numMetrics, DEFAULT_NUM_ENTITIES_PER_CHUNK);
+  }
+
+  /**
+   * Construct a slab.
+   *
+   * @param numWindowsToKeep the total number of windows of each entity.
+   * @param numMetrics the number of metrics of each entity.
+   * @param numEntitiesPerChunk the number of entities in each chunk of the slab.
+   */
+  public RawMetricValuesSlab(int numWindowsToKeep, int numMetrics, int numEntitiesPerChunk) {
+    if (numEntitiesPerChunk <= 0) {
+      throw new IllegalArgumentException("The number of entities per chunk must be positive, but is " + numEntitiesPerChunk);
+    }
+    _numWindows = numWindowsToKeep;
+    _numMetrics = numMetrics;
+    _numValuesPerEntity = numWindowsToKeep * numMetrics;
+    // One byte for the sample count and one byte for the flags of each window.
+    _numBytesPerEntity = 2 * numWindowsToKeep;
+    _numEntitiesPerChunk = numEntitiesPerChunk;
+    _valueChunks = new ArrayList<>();
+    _byteChunks = new ArrayList<>();
+    _zeroValues = new float[_numValuesPerEntity];
+    _zeroBytes = new byte[_numBytesPerEntity];
+    _freeOrdinals = new int[16];
+    _numFreeOrdinals = 0;
+    _nextOrdinal = 0;
+  }
+
+  /**
+   * Allocate a zero-filled region for an entity.
+   *
+   * @return The ordinal of the allocated region.
+   */
+  synchronized int allocate() {
+    if (_numFreeOrdinals > 0) {
+      return _freeOrdinals[--_numFreeOrdinals];
+    }
+    int ordinal = _nextOrdinal++;
+    if (ordinal / _numEntitiesPerChunk == _valueChunks.size()) {
+      _valueChunks.add(new float[_numEntitiesPerChunk * _numValuesPerEntity]);
+      _byteChunks.add(new byte[_numEntitiesPerChunk * _numBytesPerEntity]);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Release the region of the given ordinal to be reused by a subsequent allocation.
+   *
+   * @param ordinal the ordinal of the region to release.
+   */
+  synchronized void release(int ordinal) {
+    int valueOffset = valueOffset(ordinal);
+    Arrays.fill(valueChunk(ordinal), valueOffset, valueOffset + _numValuesPerEntity, 0.0f);
+    int byteOffset = byteOffset(ordinal);
+    Arrays.fill(byteChunk(ordinal), byteOffset, byteOffset + _numBytesPerEntity, (byte) 0);
+    if (_numFreeOrdinals == _freeOrdinals.length) {
+      _freeOrdinals = Arrays.copyOf(_freeOrdinals, 2 * _freeOrdinals.length);
+    }
+    _freeOrdinals[_numFreeOrdinals++] = ordinal;
+  }
+
+  /**
+   * @param ordinal the ordinal of an allocated region.
+   * @return The chunk holding the window values of the given ordinal.
+   */
+  synchronized float[] valueChunk(int ordinal) {
+    return _valueChunks.get(ordinal / _numEntitiesPerChunk);
+  }
+
+  /**
+   * @param ordinal the ordinal of an allocated region.
+   * @return The offset of the window values of the given ordinal in its chunk.
+   */
+  int valueOffset(int ordinal) {
+    return (ordinal % _numEntitiesPerChunk) * _numValuesPerEntity;
+  }
+
+  /**
+   * @param ordinal the ordinal of an allocated region.
+   * @return The chunk holding the sample counts and the window flags of the given ordinal.
+   */
+  synchronized byte[] byteChunk(int ordinal) {
+    return _byteChunks.get(ordinal / _numEntitiesPerChunk);
+  }
+
+  /**
+   * @param ordinal the ordinal of an allocated region.
+   * @return The offset of the sample counts of the given ordinal in its chunk, followed by its window flags.
+   */
+  int byteOffset(int ordinal) {
+    return (ordinal % _numEntitiesPerChunk) * _numBytesPerEntity;
+  }
+
+  /**
+   * @return A region of window values that stays zero, at offset 0.
+   */
+  float[] zeroValues() {
+    return _zeroValues;
+  }
+
+  /**
+   * @return A region of sample counts and window flags that stays zero, at offset 0.
+   */
+  byte[] zeroBytes() {
+    return _zeroBytes;
+  }
+
+  /**
+   * @return The number of windows of each entity.
+   */
+  public int numWindows() {
+    return _numWindows;
+  }
+
+  /**
+   * @return The number of metrics of each entity.
+   */
+  public int numMetrics() {
+    return _numMetrics;
+  }
+
+  /**
+   * @return The number of entities with an allocated region.
+   */
+  public synchronized int numEntities() {
+    return _nextOrdinal - _numFreeOrdinals;
+  }
+
+  /**
+   * @return The number of chunks of window values in this slab.
+   */
+  public synchronized int numChunks() {
+    return _valueChunks.size();
+  }
+
+  /**
+   * @return The number of bytes reserved by the chunks of this slab.
+   */
+  public synchronized long reservedBytes() {
+    return (long) _valueChunks.size() * _numEntitiesPerChunk * (_numValuesPerEntity * (long) Float.BYTES + _numBytesPerEntity);
+  }
+}
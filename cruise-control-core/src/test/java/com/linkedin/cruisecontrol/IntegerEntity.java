@@ -22,6 +22,10 @@ public class IntegerEntity extends Entity<String> {
     return _group;
   }
 
+  public int id() {
+    return _id;
+  }
+
   @Override
   public int hashCode() {
     return Objects.hash(_group, _id);
@@ -4,12 +4,16 @@
 
 package com.linkedin.cruisecontrol.monitor.sampling.aggregator;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 
 public class AggregatedMetricValuesTest {
@@ -60,6 +64,63 @@ public class AggregatedMetricValuesTest {
     }
   }
 
+  @Test
+  public void testAddValuesToSlabBackedAggregatedMetricValues() {
+    Map<Short, MetricValues> valuesByMetricId = getValuesByMetricId();
+    // A chunk fits exactly two metric values of 10 windows.
+    MetricValuesSlab slab = new MetricValuesSlab(20);
+
+    AggregatedMetricValues first = new AggregatedMetricValues(slab);
+    AggregatedMetricValues second = new AggregatedMetricValues(slab);
+    first.add(new AggregatedMetricValues(valuesByMetricId));
+    second.add(new AggregatedMetricValues(valuesByMetricId));
+    second.add(new AggregatedMetricValues(valuesByMetricId));
+    assertEquals(2, slab.numChunks());
+    assertEquals(40, slab.numAllocatedValues());
+
+    // Clearing the values of one metric must not affect the values sharing the same chunk.
+    first.valuesFor((short) 0).clear();
+    for (int j = 0; j < 10; j++) {
+      assertEquals(0, first.valuesFor((short) 0).get(j), 0.01);
+      assertEquals(j, first.valuesFor((short) 1).get(j), 0.01);
+      assertEquals(2 * j, second.valuesFor((short) 0).get(j), 0.01);
+      assertEquals(2 * j, second.valuesFor((short) 1).get(j), 0.01);
+    }
+    assertEquals(18, second.valuesFor((short) 1).max(), 0.01);
+    assertEquals(9, second.valuesFor((short) 1).avg(), 0.01);
+    assertEquals(0, second.valuesFor((short) 1).latest(), 0.01);
+  }
+
+  @Test
+  public void testSparseMetricIds() {
+    Map<Short, MetricValues> valuesByMetricId = getValuesByMetricId();
+    MetricValues valuesForSparseId = new MetricValues(10);
+    valuesForSparseId.set(0, 5);
+    valuesByMetricId.put((short) 7, valuesForSparseId);
+
+    AggregatedMetricValues aggregatedMetricValues = new AggregatedMetricValues();
+    aggregatedMetricValues.add(new AggregatedMetricValues(valuesByMetricId));
+    assertEquals(Arrays.asList((short) 0, (short) 1, (short) 7), Arrays.asList(aggregatedMetricValues.metricIds().toArray()));
+    assertEquals(10, aggregatedMetricValues.length());
+    assertNull(aggregatedMetricValues.valuesFor((short) 3));
+    assertNull(aggregatedMetricValues.valuesFor((short) 8));
+    assertEquals(5, aggregatedMetricValues.valuesFor((short) 7).latest(), 0.01);
+
+    AggregatedMetricValues shared = aggregatedMetricValues.valuesFor(Arrays.asList((short) 1, (short) 7), true);
+    assertEquals(2, shared.metricIds().size());
+    assertSame(aggregatedMetricValues.valuesFor((short) 7), shared.valuesFor((short) 7));
+    assertNull(shared.valuesFor((short) 0));
+
+    aggregatedMetricValues.subtract(shared);
+    assertEquals(0, aggregatedMetricValues.valuesFor((short) 7).max(), 0.01);
+    assertEquals(9, aggregatedMetricValues.valuesFor((short) 0).max(), 0.01);
+
+    aggregatedMetricValues.clear();
+    assertTrue(aggregatedMetricValues.isEmpty());
+    assertTrue(aggregatedMetricValues.metricIds().isEmpty());
+    assertEquals(0, aggregatedMetricValues.length());
+  }
+
   private Map<Short, MetricValues> getValuesByMetricId() {
     Map<Short, MetricValues> valuesMap = new TreeMap<>();
 
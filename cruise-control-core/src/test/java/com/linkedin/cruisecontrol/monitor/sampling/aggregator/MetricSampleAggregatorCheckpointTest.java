@@ -0,0 +1,248 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.monitor.sampling.aggregator;
+
+import com.linkedin.cruisecontrol.CruiseControlUnitTestUtils;
+import com.linkedin.cruisecontrol.IntegerEntity;
+import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
+import com.linkedin.cruisecontrol.metricdef.AggregationFunction;
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Unit test for {@link MetricSampleAggregatorCheckpoint}.
+ */
+public class MetricSampleAggregatorCheckpointTest {
+  private static final int NUM_WINDOWS = 5;
+  private static final long WINDOW_MS = TimeUnit.SECONDS.toMillis(1);
+  private static final byte MIN_SAMPLES_PER_WINDOW = 4;
+  private static final IntegerEntity ENTITY1 = new IntegerEntity("g1", 1234);
+  private static final IntegerEntity ENTITY2 = new IntegerEntity("g1", 5678);
+  private static final IntegerEntity ENTITY3 = new IntegerEntity("g2", 1234);
+  private static final MetricSampleAggregatorCheckpoint.EntitySerde<IntegerEntity> ENTITY_SERDE =
+      new MetricSampleAggregatorCheckpoint.EntitySerde<IntegerEntity>() {
+        @Override
+        public void write(IntegerEntity entity, DataOutput out) throws IOException {
+          out.writeUTF(entity.group());
+          out.writeInt(entity.id());
+        }
+
+        @Override
+        public IntegerEntity read(DataInput in) throws IOException {
+          return new IntegerEntity(in.readUTF(), in.readInt());
+        }
+      };
+  private final MetricDef _metricDef = CruiseControlUnitTestUtils.getMetricDef();
+  private Path _checkpoint;
+
+  /**
+   * Setup the unit test.
+   */
+  @Before
+  public void setup() throws IOException {
+    _checkpoint = Files.createTempFile("metric-sample-aggregator", ".checkpoint");
+    Files.delete(_checkpoint);
+  }
+
+  /**
+   * Cleanup the unit test.
+   */
+  @After
+  public void teardown() throws IOException {
+    Files.deleteIfExists(_checkpoint);
+  }
+
+  @Test
+  public void testRestoredAggregatorMatchesCheckpointedAggregator() throws IOException, NotEnoughValidWindowsException {
+    MetricSampleAggregator<String, IntegerEntity> aggregator = populatedAggregator();
+    long beforeMs = System.currentTimeMillis();
+    long checkpointMs = MetricSampleAggregatorCheckpoint.write(aggregator, ENTITY_SERDE, _checkpoint);
+    assertTrue(checkpointMs >= beforeMs);
+
+    // Restore to an aggregator backed by a slab, the checkpoint does not depend on the layout of the raw metric values.
+    MetricSampleAggregator<String, IntegerEntity> restored =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef, true);
+    assertEquals(checkpointMs, MetricSampleAggregatorCheckpoint.restore(restored, ENTITY_SERDE, _checkpoint));
+    assertSameState(aggregator, restored);
+
+    // The restored aggregator keeps aggregating the samples and rolling out the windows the same way.
+    CruiseControlUnitTestUtils.populateSampleAggregator(2, MIN_SAMPLES_PER_WINDOW, aggregator, ENTITY1, NUM_WINDOWS + 3,
+                                                        WINDOW_MS, _metricDef);
+    CruiseControlUnitTestUtils.populateSampleAggregator(2, MIN_SAMPLES_PER_WINDOW, restored, ENTITY1, NUM_WINDOWS + 3,
+                                                        WINDOW_MS, _metricDef);
+    assertSameState(aggregator, restored);
+  }
+
+  @Test
+  public void testRestoredAggregatorReplaysSamplesAfterCheckpoint() throws IOException, NotEnoughValidWindowsException {
+    // The samples in the sample store, which are replayed after restoring the checkpoint.
+    List<MetricSample<String, IntegerEntity>> storedSamples = new ArrayList<>();
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    for (MetricSample<String, IntegerEntity> sample : samples(ENTITY1, 0, NUM_WINDOWS + 2, 0L)) {
+      aggregator.addSample(sample);
+      storedSamples.add(sample);
+    }
+    long sampledUntilMs = storedSamples.get(storedSamples.size() - 1).sampleTime();
+    long checkpointMs = MetricSampleAggregatorCheckpoint.write(aggregator, ENTITY_SERDE, _checkpoint, sampledUntilMs);
+    assertEquals(sampledUntilMs, checkpointMs);
+
+    // The samples added after the checkpoint, including the samples of the window in which the checkpoint is written.
+    List<MetricSample<String, IntegerEntity>> samplesAfterCheckpoint =
+        samples(ENTITY2, NUM_WINDOWS + 1, NUM_WINDOWS + 2, MIN_SAMPLES_PER_WINDOW);
+    samplesAfterCheckpoint.addAll(samples(ENTITY1, NUM_WINDOWS + 2, NUM_WINDOWS + 4, 0L));
+    samplesAfterCheckpoint.addAll(samples(ENTITY2, NUM_WINDOWS + 2, NUM_WINDOWS + 4, 0L));
+    for (MetricSample<String, IntegerEntity> sample : samplesAfterCheckpoint) {
+      aggregator.addSample(sample);
+      storedSamples.add(sample);
+    }
+
+    MetricSampleAggregator<String, IntegerEntity> restored =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    assertEquals(checkpointMs, MetricSampleAggregatorCheckpoint.restore(restored, ENTITY_SERDE, _checkpoint));
+    int numReplayedSamples = 0;
+    for (MetricSample<String, IntegerEntity> sample : storedSamples) {
+      if (sample.sampleTime() > checkpointMs) {
+        restored.addSample(sample);
+        numReplayedSamples++;
+      }
+    }
+    assertEquals(samplesAfterCheckpoint.size(), numReplayedSamples);
+    assertSameState(aggregator, restored);
+  }
+
+  @Test
+  public void testCorruptCheckpointIsNotRestored() throws IOException {
+    MetricSampleAggregatorCheckpoint.write(populatedAggregator(), ENTITY_SERDE, _checkpoint);
+    byte[] bytes = Files.readAllBytes(_checkpoint);
+    bytes[bytes.length / 2] ^= 1;
+    Files.write(_checkpoint, bytes);
+
+    MetricSampleAggregator<String, IntegerEntity> restored =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    try {
+      MetricSampleAggregatorCheckpoint.restore(restored, ENTITY_SERDE, _checkpoint);
+      fail("Should have failed to restore a corrupt checkpoint.");
+    } catch (IOException ioe) {
+      // let it go.
+    }
+    assertEquals(0, restored.numSamples());
+    assertTrue(restored.allWindows().isEmpty());
+  }
+
+  @Test
+  public void testCheckpointOfDifferentAggregatorIsIgnored() throws IOException {
+    assertEquals(-1L, MetricSampleAggregatorCheckpoint.restore(populatedAggregator(), ENTITY_SERDE, _checkpoint));
+
+    MetricSampleAggregatorCheckpoint.write(populatedAggregator(), ENTITY_SERDE, _checkpoint);
+    MetricSampleAggregator<String, IntegerEntity> restored =
+        new MetricSampleAggregator<>(NUM_WINDOWS + 1, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    assertEquals(-1L, MetricSampleAggregatorCheckpoint.restore(restored, ENTITY_SERDE, _checkpoint));
+    assertEquals(0, restored.numSamples());
+  }
+
+  @Test
+  public void testCheckpointWithReorderedMetricsIsIgnored() throws IOException {
+    MetricSampleAggregatorCheckpoint.write(populatedAggregator(), ENTITY_SERDE, _checkpoint);
+    // The same number of metrics, in a different order of their ids.
+    MetricDef reorderedMetricDef = new MetricDef().define(CruiseControlUnitTestUtils.METRIC2, null, AggregationFunction.MAX.name())
+                                                  .define(CruiseControlUnitTestUtils.METRIC1, null, AggregationFunction.AVG.name())
+                                                  .define(CruiseControlUnitTestUtils.METRIC3, null, AggregationFunction.LATEST.name());
+    assertEquals(_metricDef.size(), reorderedMetricDef.size());
+    MetricSampleAggregator<String, IntegerEntity> restored =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, reorderedMetricDef);
+    assertEquals(-1L, MetricSampleAggregatorCheckpoint.restore(restored, ENTITY_SERDE, _checkpoint));
+    assertEquals(0, restored.numSamples());
+    assertTrue(restored.allWindows().isEmpty());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRestoreToAggregatorWithSamples() throws IOException {
+    MetricSampleAggregatorCheckpoint.write(populatedAggregator(), ENTITY_SERDE, _checkpoint);
+    MetricSampleAggregatorCheckpoint.restore(populatedAggregator(), ENTITY_SERDE, _checkpoint);
+  }
+
+  private MetricSampleAggregator<String, IntegerEntity> populatedAggregator() {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    // Evict a few windows, and leave some windows with insufficient samples to involve the extrapolations.
+    CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS + 3, MIN_SAMPLES_PER_WINDOW, aggregator, ENTITY1,
+                                                        0, WINDOW_MS, _metricDef);
+    CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS, MIN_SAMPLES_PER_WINDOW / 2, aggregator, ENTITY2,
+                                                        3, WINDOW_MS, _metricDef);
+    CruiseControlUnitTestUtils.populateSampleAggregator(1, 1, aggregator, ENTITY3, NUM_WINDOWS + 1, WINDOW_MS, _metricDef);
+    return aggregator;
+  }
+
+  private List<MetricSample<String, IntegerEntity>> samples(IntegerEntity entity, int fromWindow, int toWindow, long offsetMs) {
+    List<MetricSample<String, IntegerEntity>> samples = new ArrayList<>();
+    for (int i = fromWindow; i < toWindow; i++) {
+      for (int j = 0; j < MIN_SAMPLES_PER_WINDOW; j++) {
+        MetricSample<String, IntegerEntity> sample = new MetricSample<>(entity);
+        for (MetricInfo info : _metricDef.all()) {
+          sample.record(info, i * 10 + j);
+        }
+        sample.close(i * WINDOW_MS + offsetMs + j + 1);
+        samples.add(sample);
+      }
+    }
+    return samples;
+  }
+
+  private void assertSameState(MetricSampleAggregator<String, IntegerEntity> expected,
+                               MetricSampleAggregator<String, IntegerEntity> actual) throws NotEnoughValidWindowsException {
+    assertEquals(expected.allWindows(), actual.allWindows());
+    assertEquals(expected.numSamples(), actual.numSamples());
+    assertEquals(expected.generation(), actual.generation());
+    assertEquals(expected.aggregatorState().windowGenerations(), actual.aggregatorState().windowGenerations());
+    Map<IntegerEntity, ValuesAndExtrapolations> expectedCurrentWindow = expected.peekCurrentWindow();
+    Map<IntegerEntity, ValuesAndExtrapolations> actualCurrentWindow = actual.peekCurrentWindow();
+    assertEquals(expectedCurrentWindow.keySet(), actualCurrentWindow.keySet());
+
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(0, 0, 1, NUM_WINDOWS, Collections.emptySet(), AggregationOptions.Granularity.ENTITY, true);
+    MetricSampleCompleteness<String, IntegerEntity> expectedCompleteness = expected.completeness(-1, Long.MAX_VALUE, options);
+    MetricSampleCompleteness<String, IntegerEntity> actualCompleteness = actual.completeness(-1, Long.MAX_VALUE, options);
+    assertEquals(expectedCompleteness.validWindowIndices(), actualCompleteness.validWindowIndices());
+    assertEquals(expectedCompleteness.validEntities(), actualCompleteness.validEntities());
+    assertEquals(expectedCompleteness.validEntityRatio(), actualCompleteness.validEntityRatio(), 0.0);
+
+    MetricSampleAggregationResult<String, IntegerEntity> expectedResult = expected.aggregate(-1, Long.MAX_VALUE, options);
+    MetricSampleAggregationResult<String, IntegerEntity> actualResult = actual.aggregate(-1, Long.MAX_VALUE, options);
+    assertEquals(expectedResult.invalidEntities(), actualResult.invalidEntities());
+    assertEquals(expectedResult.valuesAndExtrapolations().keySet(), actualResult.valuesAndExtrapolations().keySet());
+    for (Map.Entry<IntegerEntity, ValuesAndExtrapolations> entry : expectedResult.valuesAndExtrapolations().entrySet()) {
+      ValuesAndExtrapolations expectedValues = entry.getValue();
+      ValuesAndExtrapolations actualValues = actualResult.valuesAndExtrapolations().get(entry.getKey());
+      assertEquals(expectedValues.windows(), actualValues.windows());
+      assertEquals(expectedValues.extrapolations(), actualValues.extrapolations());
+      for (MetricInfo info : _metricDef.all()) {
+        for (int i = 0; i < expectedValues.windows().size(); i++) {
+          assertEquals(expectedValues.metricValues().valuesFor(info.id()).get(i),
+                       actualValues.metricValues().valuesFor(info.id()).get(i), 0.0);
+        }
+      }
+    }
+  }
+}
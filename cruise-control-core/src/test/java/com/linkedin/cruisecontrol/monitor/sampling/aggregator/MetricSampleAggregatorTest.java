@@ -19,6 +19,9 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
 
 import static com.linkedin.cruisecontrol.monitor.sampling.aggregator.Extrapolation.FORCED_INSUFFICIENT;
@@ -421,6 +424,254 @@ public class MetricSampleAggregatorTest {
     }
   }
 
+  @Test
+  public void testAggregationDuringWindowRollOut() throws InterruptedException {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    List<IntegerEntity> entities = Arrays.asList(ENTITY1, ENTITY2, ENTITY3);
+    for (IntegerEntity entity : entities) {
+      populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator, entity);
+    }
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(1, 1, NUM_WINDOWS, 0, new HashSet<>(entities),
+                                 AggregationOptions.Granularity.ENTITY_GROUP, true);
+    short maxMetricId = _metricDef.metricInfo(CruiseControlUnitTestUtils.METRIC2).id();
+
+    // Keep aggregating while the samples roll out new windows, and verify that each aggregation is consistent.
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicInteger numAggregations = new AtomicInteger(0);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread aggregatingThread = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          MetricSampleAggregationResult<String, IntegerEntity> result = aggregator.aggregate(-1, Long.MAX_VALUE, options);
+          assertTrue(result.invalidEntities().isEmpty());
+          for (ValuesAndExtrapolations valuesAndExtrapolations : result.valuesAndExtrapolations().values()) {
+            assertEquals(NUM_WINDOWS, valuesAndExtrapolations.windows().size());
+            MetricValues maxValues = valuesAndExtrapolations.metricValues().valuesFor(maxMetricId);
+            for (int i = 0; i < NUM_WINDOWS; i++) {
+              // The samples of a window carry the window in their values.
+              long window = valuesAndExtrapolations.window(i) / WINDOW_MS - 1;
+              assertEquals(window * 10 + MIN_SAMPLES_PER_WINDOW - 1, maxValues.get(i), EPSILON);
+            }
+          }
+          numAggregations.incrementAndGet();
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    aggregatingThread.start();
+    // Start rolling out new windows once the aggregations are underway.
+    while (numAggregations.get() == 0 && failure.get() == null) {
+      Thread.sleep(1);
+    }
+    for (int window = NUM_WINDOWS + 1; window < 10 * NUM_WINDOWS && failure.get() == null; window++) {
+      for (IntegerEntity entity : entities) {
+        CruiseControlUnitTestUtils.populateSampleAggregator(1, MIN_SAMPLES_PER_WINDOW, aggregator, entity, window,
+                                                            WINDOW_MS, _metricDef);
+      }
+    }
+    done.set(true);
+    aggregatingThread.join();
+
+    assertNull(failure.get());
+    assertTrue(numAggregations.get() > 0);
+    assertEquals((NUM_WINDOWS + 1) * MIN_SAMPLES_PER_WINDOW * entities.size(), aggregator.numSamples());
+  }
+
+  @Test
+  public void testCompletenessDuringWindowRollOut() throws InterruptedException {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    List<IntegerEntity> entities = Arrays.asList(ENTITY1, ENTITY2, ENTITY3);
+    for (IntegerEntity entity : entities) {
+      populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator, entity);
+    }
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(1, 1, NUM_WINDOWS, 0, new HashSet<>(entities),
+                                 AggregationOptions.Granularity.ENTITY_GROUP, true);
+
+    // Keep checking the completeness while the samples roll out new windows, which updates the cached window states.
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicInteger numCompletenessChecks = new AtomicInteger(0);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread checkingThread = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          aggregator.completeness(-1, Long.MAX_VALUE, options);
+          numCompletenessChecks.incrementAndGet();
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    checkingThread.start();
+    while (numCompletenessChecks.get() == 0 && failure.get() == null) {
+      Thread.sleep(1);
+    }
+    for (int window = NUM_WINDOWS + 1; window < 10 * NUM_WINDOWS && failure.get() == null; window++) {
+      for (IntegerEntity entity : entities) {
+        CruiseControlUnitTestUtils.populateSampleAggregator(1, MIN_SAMPLES_PER_WINDOW, aggregator, entity, window,
+                                                            WINDOW_MS, _metricDef);
+      }
+    }
+    done.set(true);
+    checkingThread.join();
+
+    assertNull(failure.get());
+    // The window states cached during the roll-outs reflect all entities as valid in each window.
+    MetricSampleCompleteness<String, IntegerEntity> completeness = aggregator.completeness(-1, Long.MAX_VALUE, options);
+    assertEquals(NUM_WINDOWS, completeness.validWindowIndices().size());
+    assertEquals(new HashSet<>(entities), completeness.validEntities());
+    for (double validEntityRatio : completeness.validEntityRatioByWindowIndex().values()) {
+      assertEquals(1.0, validEntityRatio, EPSILON);
+    }
+  }
+
+  @Test
+  public void testAddSamplesWhileRemovingEntities() throws InterruptedException {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef, true);
+    // Keep creating the raw metric values of new entities while the entities of one group are removed.
+    int numEntities = 10000;
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread addingThread = new Thread(() -> {
+      try {
+        for (int i = 0; i < numEntities; i++) {
+          IntegerEntity entity = new IntegerEntity(i % 2 == 0 ? ENTITY_GROUP_1 : ENTITY_GROUP_2, i);
+          CruiseControlUnitTestUtils.populateSampleAggregator(1, 1, aggregator, entity, 0, WINDOW_MS, _metricDef);
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      } finally {
+        done.set(true);
+      }
+    });
+    Thread removingThread = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          aggregator.removeEntityGroup(Collections.singleton(ENTITY_GROUP_2));
+        }
+      } catch (Throwable t) {
+        failure.set(t);
+      }
+    });
+    // Daemon threads do not keep the test from exiting upon a deadlock.
+    addingThread.setDaemon(true);
+    removingThread.setDaemon(true);
+    addingThread.start();
+    removingThread.start();
+    // A deadlock between the sample ingestion and the entity removals keeps the threads alive.
+    addingThread.join(TimeUnit.SECONDS.toMillis(30));
+    removingThread.join(TimeUnit.SECONDS.toMillis(30));
+    assertFalse(addingThread.isAlive());
+    assertFalse(removingThread.isAlive());
+    assertNull(failure.get());
+
+    aggregator.removeEntityGroup(Collections.singleton(ENTITY_GROUP_2));
+    assertEquals(numEntities / 2, aggregator.numSamples());
+  }
+
+  @Test
+  public void testParallelAggregation() throws NotEnoughValidWindowsException {
+    MetricSampleAggregator<String, IntegerEntity> sequentialAggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    // Shards of at most 2 entities, whose aggregated values share a buffer.
+    MetricSampleAggregator<String, IntegerEntity> parallelAggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef, false, 4, 2, true);
+    Set<IntegerEntity> entities = new HashSet<>();
+    for (int i = 0; i < 11; i++) {
+      IntegerEntity entity = new IntegerEntity(i % 2 == 0 ? ENTITY_GROUP_1 : ENTITY_GROUP_2, i);
+      entities.add(entity);
+      // Leave some entities with insufficient samples to have extrapolations and invalid entities.
+      int numSamplesPerWindow = i % 3 == 0 ? 1 : MIN_SAMPLES_PER_WINDOW;
+      for (MetricSampleAggregator<String, IntegerEntity> aggregator : Arrays.asList(sequentialAggregator, parallelAggregator)) {
+        CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS + 1, numSamplesPerWindow, aggregator, entity, i,
+                                                            WINDOW_MS, _metricDef);
+      }
+    }
+    // An entity without samples.
+    entities.add(ENTITY2);
+
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(0.0, 0.0, 1, 5, entities, AggregationOptions.Granularity.ENTITY, true);
+    MetricSampleAggregationResult<String, IntegerEntity> expected = sequentialAggregator.aggregate(-1, Long.MAX_VALUE, options);
+    MetricSampleAggregationResult<String, IntegerEntity> actual = parallelAggregator.aggregate(-1, Long.MAX_VALUE, options);
+    assertFalse(expected.invalidEntities().isEmpty());
+    assertSameAggregationResult(entities, expected, actual);
+
+    // The aggregations after the shutdown happen on the caller thread.
+    parallelAggregator.shutdown();
+    actual = parallelAggregator.aggregate(-1, Long.MAX_VALUE, options);
+    assertSameAggregationResult(entities, expected, actual);
+  }
+
+  @Test
+  public void testAggregateUpdatedEntities() throws NotEnoughValidWindowsException {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator, ENTITY1);
+    populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator, ENTITY3);
+    Set<IntegerEntity> entities = new HashSet<>(Arrays.asList(ENTITY1, ENTITY3));
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(0.0, 0.0, 1, 5, entities, AggregationOptions.Granularity.ENTITY, true);
+    long generation = aggregator.generation();
+    List<Long> windows = aggregator.aggregate(-1, Long.MAX_VALUE, options).valuesAndExtrapolations().get(ENTITY1).windows();
+
+    // No entity has been updated since the generation.
+    MetricSampleAggregationResult<String, IntegerEntity> result =
+        aggregator.aggregate(-1, Long.MAX_VALUE, options, generation, windows, e -> false);
+    assertTrue(result.valuesAndExtrapolations().isEmpty());
+    assertEquals(entities, result.unchangedEntities());
+    result = aggregator.aggregate(-1, Long.MAX_VALUE, options, generation, windows, ENTITY3::equals);
+    assertEquals(Collections.singleton(ENTITY3), result.valuesAndExtrapolations().keySet());
+    assertEquals(Collections.singleton(ENTITY1), result.unchangedEntities());
+
+    // A sample added to a stable window updates the entity.
+    CruiseControlUnitTestUtils.populateSampleAggregator(1, 1, aggregator, ENTITY1, 5, WINDOW_MS, _metricDef);
+    result = aggregator.aggregate(-1, Long.MAX_VALUE, options, generation, windows, e -> false);
+    assertEquals(Collections.singleton(ENTITY1), result.valuesAndExtrapolations().keySet());
+    assertEquals(Collections.singleton(ENTITY3), result.unchangedEntities());
+    ValuesAndExtrapolations expectedValues =
+        aggregator.aggregate(-1, Long.MAX_VALUE, options).valuesAndExtrapolations().get(ENTITY1);
+    ValuesAndExtrapolations actualValues = result.valuesAndExtrapolations().get(ENTITY1);
+    for (MetricInfo info : _metricDef.all()) {
+      MetricValues expectedMetricValues = expectedValues.metricValues().valuesFor(info.id());
+      MetricValues actualMetricValues = actualValues.metricValues().valuesFor(info.id());
+      for (int i = 0; i < expectedMetricValues.length(); i++) {
+        assertEquals(expectedMetricValues.get(i), actualMetricValues.get(i), 0.0);
+      }
+    }
+
+    // All entities are aggregated if the windows differ.
+    result = aggregator.aggregate(-1, Long.MAX_VALUE, options, aggregator.generation(), windows.subList(1, windows.size()),
+                                  e -> false);
+    assertEquals(entities, result.valuesAndExtrapolations().keySet());
+    assertTrue(result.unchangedEntities().isEmpty());
+  }
+
+  private void assertSameAggregationResult(Set<IntegerEntity> entities,
+                                           MetricSampleAggregationResult<String, IntegerEntity> expected,
+                                           MetricSampleAggregationResult<String, IntegerEntity> actual) {
+    assertEquals(entities.size(), actual.valuesAndExtrapolations().size());
+    assertEquals(expected.invalidEntities(), actual.invalidEntities());
+    for (IntegerEntity entity : entities) {
+      ValuesAndExtrapolations expectedValues = expected.valuesAndExtrapolations().get(entity);
+      ValuesAndExtrapolations actualValues = actual.valuesAndExtrapolations().get(entity);
+      assertEquals(expectedValues.windows(), actualValues.windows());
+      assertEquals(expectedValues.extrapolations(), actualValues.extrapolations());
+      for (MetricInfo info : _metricDef.all()) {
+        MetricValues expectedMetricValues = expectedValues.metricValues().valuesFor(info.id());
+        MetricValues actualMetricValues = actualValues.metricValues().valuesFor(info.id());
+        for (int i = 0; i < expectedMetricValues.length(); i++) {
+          assertEquals(expectedMetricValues.get(i), actualMetricValues.get(i), 0.0);
+        }
+      }
+    }
+  }
+
   /**
    * Entity 1: valid in all the windows, extrapolated in window 11 and 14.
    * Entity 2: no data
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.monitor.sampling.aggregator;
+
+import com.linkedin.cruisecontrol.IntegerEntity;
+import com.linkedin.cruisecontrol.metricdef.AggregationFunction;
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link RawMetricValuesSlab}.
+ */
+public class RawMetricValuesSlabTest {
+  private static final int NUM_WINDOWS = 5;
+  private static final int NUM_WINDOWS_TO_KEEP = NUM_WINDOWS + 1;
+  private static final byte MIN_SAMPLES_PER_WINDOW = 3;
+  private static final int NUM_ENTITIES = 7;
+  private static final int NUM_ENTITIES_PER_CHUNK = 3;
+  private MetricDef _metricDef;
+
+  /**
+   * Setup the unit test.
+   */
+  @Before
+  public void setup() {
+    _metricDef = new MetricDef().define("metric1", null, AggregationFunction.AVG.name())
+                                .define("metric2", null, AggregationFunction.MAX.name())
+                                .define("metric3", null, AggregationFunction.LATEST.name());
+  }
+
+  @Test
+  public void testSlabBackedValuesMatchDedicatedValues() {
+    RawMetricValuesSlab slab = new RawMetricValuesSlab(NUM_WINDOWS_TO_KEEP, _metricDef.size(), NUM_ENTITIES_PER_CHUNK);
+    RawMetricValues[] slabBacked = new RawMetricValues[NUM_ENTITIES];
+    RawMetricValues[] dedicated = new RawMetricValues[NUM_ENTITIES];
+    for (int i = 0; i < NUM_ENTITIES; i++) {
+      slabBacked[i] = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, _metricDef.size(), slab);
+      dedicated[i] = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, _metricDef.size());
+      slabBacked[i].updateOldestWindowIndex(0);
+      dedicated[i].updateOldestWindowIndex(0);
+    }
+    assertEquals(NUM_ENTITIES, slab.numEntities());
+    assertEquals(3, slab.numChunks());
+
+    // Leave some windows with insufficient or no samples to exercise the extrapolations.
+    Random random = new Random(17);
+    for (int i = 0; i < 200; i++) {
+      int entity = random.nextInt(NUM_ENTITIES);
+      long windowIndex = random.nextInt(NUM_WINDOWS_TO_KEEP);
+      MetricSample<String, IntegerEntity> sample = getMetricSample(random.nextFloat() * 100);
+      slabBacked[entity].addSample(sample, windowIndex, _metricDef);
+      dedicated[entity].addSample(sample, windowIndex, _metricDef);
+    }
+
+    for (int i = 0; i < NUM_ENTITIES; i++) {
+      assertSameValues(dedicated[i], slabBacked[i]);
+    }
+  }
+
+  @Test
+  public void testReleasedRegionIsReusedAndZeroed() {
+    RawMetricValuesSlab slab = new RawMetricValuesSlab(NUM_WINDOWS_TO_KEEP, _metricDef.size(), NUM_ENTITIES_PER_CHUNK);
+    RawMetricValues[] rawValues = new RawMetricValues[NUM_ENTITIES_PER_CHUNK];
+    for (int i = 0; i < NUM_ENTITIES_PER_CHUNK; i++) {
+      rawValues[i] = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, _metricDef.size(), slab);
+      rawValues[i].updateOldestWindowIndex(0);
+      for (long windowIndex = 0; windowIndex < NUM_WINDOWS_TO_KEEP; windowIndex++) {
+        for (int j = 0; j < MIN_SAMPLES_PER_WINDOW; j++) {
+          rawValues[i].addSample(getMetricSample(10 * windowIndex + j), windowIndex, _metricDef);
+        }
+      }
+    }
+    RawMetricValues released = rawValues[1];
+    released.release();
+    assertTrue(released.isReleased());
+    assertEquals(NUM_ENTITIES_PER_CHUNK - 1, slab.numEntities());
+    // A released raw metric values ignores new samples and reads as empty.
+    released.addSample(getMetricSample(1), NUM_WINDOWS, _metricDef);
+    assertEquals(0, released.numSamples());
+    ValuesAndExtrapolations releasedResult = released.aggregate(allWindowIndices(), _metricDef);
+    for (int i = 0; i < NUM_WINDOWS; i++) {
+      assertEquals(Extrapolation.NO_VALID_EXTRAPOLATION, releasedResult.extrapolations().get(i));
+    }
+
+    // The released region is reused without growing the slab, and starts from a clean state.
+    RawMetricValues reused = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, _metricDef.size(), slab);
+    reused.updateOldestWindowIndex(0);
+    assertEquals(1, slab.numChunks());
+    assertEquals(0, reused.numSamples());
+    assertEquals(0, reused.numWindowsWithExtrapolation());
+    RawMetricValues dedicated = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, _metricDef.size());
+    dedicated.updateOldestWindowIndex(0);
+    MetricSample<String, IntegerEntity> sample = getMetricSample(5);
+    reused.addSample(sample, 2, _metricDef);
+    dedicated.addSample(sample, 2, _metricDef);
+    assertSameValues(dedicated, reused);
+
+    // The neighbours of the released region are intact.
+    assertEquals(NUM_WINDOWS_TO_KEEP * MIN_SAMPLES_PER_WINDOW, rawValues[0].numSamples());
+    assertEquals(NUM_WINDOWS_TO_KEEP * MIN_SAMPLES_PER_WINDOW, rawValues[2].numSamples());
+    assertTrue(rawValues[2].isValid(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMismatchedSlab() {
+    new RawMetricValues(NUM_WINDOWS_TO_KEEP + 1, MIN_SAMPLES_PER_WINDOW, _metricDef.size(),
+                        new RawMetricValuesSlab(NUM_WINDOWS_TO_KEEP, _metricDef.size()));
+  }
+
+  private void assertSameValues(RawMetricValues expected, RawMetricValues actual) {
+    assertEquals(expected.numSamples(), actual.numSamples());
+    assertEquals(expected.numWindowsWithExtrapolation(), actual.numWindowsWithExtrapolation());
+    assertEquals(expected.isValid(NUM_WINDOWS), actual.isValid(NUM_WINDOWS));
+    for (long windowIndex = 0; windowIndex < NUM_WINDOWS_TO_KEEP; windowIndex++) {
+      assertEquals(expected.isValidAtWindowIndex(windowIndex), actual.isValidAtWindowIndex(windowIndex));
+      assertEquals(expected.isExtrapolatedAtWindowIndex(windowIndex), actual.isExtrapolatedAtWindowIndex(windowIndex));
+      assertEquals(expected.sampleCountsAtWindowIndex(windowIndex), actual.sampleCountsAtWindowIndex(windowIndex));
+    }
+    ValuesAndExtrapolations expectedResult = expected.aggregate(allWindowIndices(), _metricDef);
+    ValuesAndExtrapolations actualResult = actual.aggregate(allWindowIndices(), _metricDef);
+    assertEquals(expectedResult.extrapolations(), actualResult.extrapolations());
+    for (MetricInfo info : _metricDef.all()) {
+      MetricValues expectedValues = expectedResult.metricValues().valuesFor(info.id());
+      MetricValues actualValues = actualResult.metricValues().valuesFor(info.id());
+      for (int i = 0; i < NUM_WINDOWS; i++) {
+        assertEquals(expectedValues.get(i), actualValues.get(i), 0.0);
+      }
+    }
+  }
+
+  private SortedSet<Long> allWindowIndices() {
+    SortedSet<Long> windowIndices = new TreeSet<>();
+    for (long i = 0; i < NUM_WINDOWS; i++) {
+      windowIndices.add(i);
+    }
+    return windowIndices;
+  }
+
+  private MetricSample<String, IntegerEntity> getMetricSample(float value) {
+    MetricSample<String, IntegerEntity> metricSample = new MetricSample<>(new IntegerEntity("group", 0));
+    for (MetricInfo info : _metricDef.all()) {
+      metricSample.record(info, value);
+    }
+    metricSample.close(0);
+    return metricSample;
+  }
+}
@@ -297,6 +297,59 @@ public class RawMetricValuesTest {
     assertTrue(rawValues.isValid(4));
   }
 
+  @Test
+  public void testSummarizedStableWindows() {
+    RawMetricValues summarized = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, NUM_RAW_METRICS, null, true);
+    RawMetricValues rawValues = new RawMetricValues(NUM_WINDOWS_TO_KEEP, MIN_SAMPLES_PER_WINDOW, NUM_RAW_METRICS);
+    summarized.updateOldestWindowIndex(0);
+    rawValues.updateOldestWindowIndex(0);
+    // Leave window 2 with insufficient samples, so that it is extrapolated.
+    for (int i = 0; i < NUM_WINDOWS_TO_KEEP; i++) {
+      for (int j = 0; j < (i == 2 ? 1 : MIN_SAMPLES_PER_WINDOW); j++) {
+        MetricSample<String, IntegerEntity> m = getMetricSample(10 * i + j, 10 * i + j, 10 * i + j);
+        addSample(summarized, m, i);
+        addSample(rawValues, m, i);
+      }
+    }
+    assertSameAggregation(aggregate(rawValues, allWindowIndices(0)), aggregate(summarized, allWindowIndices(0)));
+
+    // Modifying an aggregation result in place does not affect the summary.
+    aggregate(summarized, allWindowIndices(0)).metricValues().valuesFor((short) 0).set(0, 1000);
+    // A sample added to the current window does not change the stable windows.
+    MetricSample<String, IntegerEntity> m = getMetricSample(100, 100, 100);
+    addSample(summarized, m, NUM_WINDOWS);
+    addSample(rawValues, m, NUM_WINDOWS);
+    assertSameAggregation(aggregate(rawValues, allWindowIndices(0)), aggregate(summarized, allWindowIndices(0)));
+
+    // A sample added to a stable window, and a window roll-out change the stable windows.
+    addSample(summarized, m, 2);
+    addSample(rawValues, m, 2);
+    assertSameAggregation(aggregate(rawValues, allWindowIndices(0)), aggregate(summarized, allWindowIndices(0)));
+    summarized.updateOldestWindowIndex(1);
+    rawValues.updateOldestWindowIndex(1);
+    summarized.resetWindowIndices(0, 1);
+    rawValues.resetWindowIndices(0, 1);
+    assertSameAggregation(aggregate(rawValues, allWindowIndices(1)), aggregate(summarized, allWindowIndices(1)));
+    // Aggregating other windows does not use the summary.
+    SortedSet<Long> windowIndices = new TreeSet<>(Arrays.asList(2L, 4L));
+    assertSameAggregation(aggregate(rawValues, windowIndices), aggregate(summarized, windowIndices));
+  }
+
+  private void assertSameAggregation(ValuesAndExtrapolations expected, ValuesAndExtrapolations actual) {
+    assertEquals(expected.extrapolations(), actual.extrapolations());
+    for (short metricId = 0; metricId < _metricDef.all().size(); metricId++) {
+      MetricValues expectedValues = expected.metricValues().valuesFor(metricId);
+      MetricValues actualValues = actual.metricValues().valuesFor(metricId);
+      assertEquals(expectedValues.length(), actualValues.length());
+      for (int i = 0; i < expectedValues.length(); i++) {
+        assertEquals(expectedValues.get(i), actualValues.get(i), 0.0);
+      }
+      assertEquals(expectedValues.avg(), actualValues.avg(), 0.0);
+      assertEquals(expectedValues.max(), actualValues.max(), 0.0);
+      assertEquals(expectedValues.latest(), actualValues.latest(), 0.0);
+    }
+  }
+
   private void assertAggregatedValues(AggregatedMetricValues values, float[][] expectedValues, int startingIndex) {
     for (short metricId = 0; metricId < _metricDef.all().size(); metricId++) {
       MetricValues actualValues = values.valuesFor(metricId);
@@ -10,6 +10,7 @@ import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.kafka.cruisecontrol.analyzer.AnalyzerState;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizerResult;
+import com.linkedin.kafka.cruisecontrol.analyzer.ProposalCache;
 import com.linkedin.kafka.cruisecontrol.analyzer.goals.Goal;
 import com.linkedin.kafka.cruisecontrol.analyzer.GoalOptimizer;
 import com.linkedin.kafka.cruisecontrol.async.progress.OperationProgress;
@@ -207,6 +208,13 @@ public class KafkaCruiseControl {
     return _time.milliseconds();
   }
 
+  /**
+   * @return The time used by Cruise Control, e.g. by the goal optimizer.
+   */
+  public Time time() {
+    return _time;
+  }
+
   /**
    * Make the caller thread sleep for the given number of milliseconds.
    * @param ms Time to sleep in milliseconds.
@@ -570,16 +578,78 @@ public class KafkaCruiseControl {
                                      boolean isTriggeredByGoalViolation,
                                      Set<Integer> requestedDestinationBrokerIds,
                                      boolean isRebalanceDiskMode) {
+    return !isDefaultProposalRequest(goals, requirements, excludedTopics, requestedDestinationBrokerIds, isRebalanceDiskMode)
+           || !canUseProposalCache(excludeBrokers, ignoreProposalCache, isTriggeredByGoalViolation);
+  }
+
+  /**
+   * Check whether a proposal request can be served from a proposal cache -- i.e. either the cached best proposals or
+   * the cached results of requests with non-default goals or options. The proposal caches cannot be used when:
+   * <ul>
+   *   <li>The caller requested to exclude brokers (e.g. recently removed brokers), or to ignore the proposal cache.</li>
+   *   <li>There is an ongoing execution.</li>
+   *   <li>The request is triggered by goal violation detector.</li>
+   *   <li>There are offline replicas in the cluster.</li>
+   * </ul>
+   *
+   * @param excludeBrokers Exclude recently demoted brokers from proposal generation for leadership transfer.
+   * @param ignoreProposalCache {@code true} to explicitly ignore the proposal cache, {@code false} otherwise.
+   * @param isTriggeredByGoalViolation {@code true} if proposals is triggered by goal violation, {@code false} otherwise.
+   * @return {@code true} if the request can be served from a proposal cache, {@code false} otherwise.
+   */
+  public boolean canUseProposalCache(boolean excludeBrokers, boolean ignoreProposalCache, boolean isTriggeredByGoalViolation) {
+    return !hasOngoingExecution() && !ignoreProposalCache && !excludeBrokers && !isTriggeredByGoalViolation
+           && partitionWithOfflineReplicas(kafkaCluster()) == null;
+  }
+
+  /**
+   * Check whether a proposal request can use the cached best proposals, which are computed with the default goals and
+   * options. This is not the case if the caller specified goals, excluded topics, explicitly requested destination
+   * broker Ids, wants to rebalance across disks within the brokers, or provided completeness requirements that contain a
+   * weaker requirement than what is used by the cached proposal.
+   *
+   * @param goals A list of goals.
+   * @param requirements Model completeness requirements.
+   * @param excludedTopics Topics excluded from partition movement (if null, use topics.excluded.from.partition.movement)
+   * @param requestedDestinationBrokerIds Explicitly requested destination broker Ids to limit the replica movement to
+   *                                      these brokers (if empty, no explicit filter is enforced -- cannot be null).
+   * @param isRebalanceDiskMode {@code true} to generate proposal to rebalance between disks within the brokers, {@code false} otherwise.
+   * @return {@code true} if the request uses the default goals and options, {@code false} otherwise.
+   */
+  public boolean isDefaultProposalRequest(List<String> goals,
+                                          ModelCompletenessRequirements requirements,
+                                          Pattern excludedTopics,
+                                          Set<Integer> requestedDestinationBrokerIds,
+                                          boolean isRebalanceDiskMode) {
     ModelCompletenessRequirements requirementsForCache = _goalOptimizer.modelCompletenessRequirementsForPrecomputing();
     boolean hasWeakerRequirement =
         requirementsForCache.minMonitoredPartitionsPercentage() > requirements.minMonitoredPartitionsPercentage()
         || requirementsForCache.minRequiredNumWindows() > requirements.minRequiredNumWindows()
         || (requirementsForCache.includeAllTopics() && !requirements.includeAllTopics());
 
-    return hasOngoingExecution() || ignoreProposalCache || (goals != null && !goals.isEmpty())
-           || hasWeakerRequirement || excludedTopics != null || excludeBrokers || isTriggeredByGoalViolation
-           || !requestedDestinationBrokerIds.isEmpty() || isRebalanceDiskMode
-           || partitionWithOfflineReplicas(kafkaCluster()) != null;
+    return (goals == null || goals.isEmpty()) && !hasWeakerRequirement && excludedTopics == null
+           && requestedDestinationBrokerIds.isEmpty() && !isRebalanceDiskMode;
+  }
+
+  /**
+   * See {@link GoalOptimizer#cachedOptimizations(ProposalCache.Key, boolean)}.
+   *
+   * @param key The requested goals and options.
+   * @param allowCapacityEstimation Allow capacity estimation in cluster model if the requested broker capacity is unavailable.
+   * @return The cached optimization result, or {@code null} if there is no usable result.
+   */
+  public OptimizerResult cachedOptimizations(ProposalCache.Key key, boolean allowCapacityEstimation) {
+    return _goalOptimizer.cachedOptimizations(key, allowCapacityEstimation);
+  }
+
+  /**
+   * See {@link GoalOptimizer#cacheOptimizations(ProposalCache.Key, OptimizerResult)}.
+   *
+   * @param key The requested goals and options.
+   * @param result The optimization result.
+   */
+  public void cacheOptimizations(ProposalCache.Key key, OptimizerResult result) {
+    _goalOptimizer.cacheOptimizations(key, result);
   }
 
   /**
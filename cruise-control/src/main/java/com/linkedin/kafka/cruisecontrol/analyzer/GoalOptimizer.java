@@ -5,10 +5,14 @@
 package com.linkedin.kafka.cruisecontrol.analyzer;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.linkedin.kafka.cruisecontrol.common.Utils;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.AbstractGoal;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.BalancingActionEvaluator;
 import com.linkedin.kafka.cruisecontrol.analyzer.goals.Goal;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.ResourceDistributionGoal;
 import com.linkedin.kafka.cruisecontrol.config.BrokerSetResolver;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
@@ -28,12 +32,14 @@ import com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils;
 import com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner;
 import com.linkedin.kafka.cruisecontrol.servlet.response.stats.BrokerStats;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -53,9 +59,11 @@ import org.slf4j.LoggerFactory;
 import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.ADMIN_CLIENT_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.balancednessCostByGoal;
 import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.GOAL_OPTIMIZER_SENSOR;
+import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.goalsByPriority;
 import static com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.BOOTSTRAPPING;
 import static com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.LOADING;
 import static com.linkedin.kafka.cruisecontrol.servlet.KafkaCruiseControlServletUtils.KAFKA_CRUISE_CONTROL_CONFIG_OBJECT_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.servlet.parameters.ParameterUtils.DEFAULT_START_TIME_FOR_CLUSTER_MODEL;
 import static com.linkedin.cruisecontrol.common.utils.Utils.validateNotNull;
 
 
@@ -73,15 +81,22 @@ public class GoalOptimizer implements Runnable {
   private final int _numPrecomputingThreads;
   private final long _proposalExpirationMs;
   private final ExecutorService _proposalPrecomputingExecutor;
+  private final int _numSpeculativeGoalOptimizationThreads;
+  private final ExecutorService _speculativeGoalOptimizationExecutor;
+  private final BalancingActionEvaluator _balancingActionEvaluator;
   private final AtomicBoolean _progressUpdateLock;
   private final AtomicReference<Exception> _proposalGenerationException;
   private final OperationProgress _proposalPrecomputingProgress;
   private final Object _cacheLock;
   private volatile OptimizerResult _cachedProposals;
+  private final ProposalCache _proposalCache;
+  private final int _numWarmedProposalCacheEntries;
   private volatile boolean _shutdown = false;
   private Thread _proposalPrecomputingSchedulerThread;
   private final boolean _allowCapacityEstimationOnProposalPrecompute;
   private final Timer _proposalComputationTimer;
+  private final Timer _swapPhaseTimer;
+  private final Meter _swapAcceptanceCheckRate;
   private final ModelCompletenessRequirements _defaultModelCompletenessRequirements;
   private final ModelCompletenessRequirements _requirementsWithAvailableValidWindows;
   private final Executor _executor;
@@ -90,6 +105,7 @@ public class GoalOptimizer implements Runnable {
   private final double _strictnessWeight;
   private final OptimizationOptionsGenerator _optimizationOptionsGenerator;
   private volatile boolean _hasUnfixableProposalOptimization;
+  private final KafkaCruiseControlConfig _config;
 
   /**
    * Constructor for Goal Optimizer takes the goals as input. The order of the list determines the priority of goals
@@ -117,15 +133,28 @@ public class GoalOptimizer implements Runnable {
     _proposalPrecomputingExecutor =
         Executors.newScheduledThreadPool(numProposalComputingThreads(),
                                          new KafkaCruiseControlThreadFactory("ProposalPrecomputingExecutor", false, LOG));
+    _numSpeculativeGoalOptimizationThreads = config.getInt(AnalyzerConfig.NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_CONFIG);
+    _speculativeGoalOptimizationExecutor =
+        _numSpeculativeGoalOptimizationThreads > 0
+        ? Executors.newFixedThreadPool(_numSpeculativeGoalOptimizationThreads,
+                                       new KafkaCruiseControlThreadFactory("SpeculativeGoalOptimizationExecutor", true, LOG))
+        : null;
+    _balancingActionEvaluator = new BalancingActionEvaluator(config.getInt(AnalyzerConfig.NUM_BALANCING_ACTION_EVALUATION_THREADS_CONFIG));
     _loadMonitor = loadMonitor;
     _time = time;
     _cacheLock = new ReentrantLock();
     _cachedProposals = null;
+    _proposalCache = new ProposalCache(config.getInt(AnalyzerConfig.PROPOSAL_CACHE_MAX_ENTRIES_CONFIG),
+                                       config.getInt(AnalyzerConfig.PROPOSAL_CACHE_MAX_PROPOSALS_CONFIG));
+    _numWarmedProposalCacheEntries = config.getInt(AnalyzerConfig.PROPOSAL_CACHE_NUM_WARMED_ENTRIES_CONFIG);
     _progressUpdateLock = new AtomicBoolean(false);
     // A new AtomicReference with null initial value.
     _proposalGenerationException = new AtomicReference<>();
     _proposalPrecomputingProgress = new OperationProgress();
     _proposalComputationTimer = dropwizardMetricRegistry.timer(MetricRegistry.name(GOAL_OPTIMIZER_SENSOR, "proposal-computation-timer"));
+    _swapPhaseTimer = dropwizardMetricRegistry.timer(MetricRegistry.name(GOAL_OPTIMIZER_SENSOR, "swap-phase-timer"));
+    _swapAcceptanceCheckRate = dropwizardMetricRegistry.meter(MetricRegistry.name(GOAL_OPTIMIZER_SENSOR,
+                                                                                  "swap-proposal-acceptance-check-rate"));
 
     // The cluster is identified as unfixable if combined goals can not be fixed
     dropwizardMetricRegistry.register(MetricRegistry.name(GOAL_OPTIMIZER_SENSOR, "has-unfixable-proposal-optimization"),
@@ -140,6 +169,7 @@ public class GoalOptimizer implements Runnable {
     _optimizationOptionsGenerator = config.getConfiguredInstance(AnalyzerConfig.OPTIMIZATION_OPTIONS_GENERATOR_CLASS_CONFIG,
                                                                  OptimizationOptionsGenerator.class,
                                                                  overrideConfigs);
+    _config = config;
   }
 
   /**
@@ -185,6 +215,7 @@ public class GoalOptimizer implements Runnable {
             LOG.debug("Skipping proposal precomputing because the cached proposal result is still valid. "
                       + "Cached generation: {}", _cachedProposals.modelGeneration());
           }
+          warmProposalCache();
         } catch (KafkaCruiseControlException e) {
           // Check in {@value HALF_MINUTE_IN_MS} to see if the ongoing execution has finished.
           sleepTimeMs = HALF_MINUTE_IN_MS;
@@ -229,6 +260,16 @@ public class GoalOptimizer implements Runnable {
     LOG.info("Finished the precomputation proposal candidates in {} ms", _time.milliseconds() - start);
   }
 
+  /**
+   * Submit the recomputation of the stale results of the most frequently requested keys in {@link #_proposalCache}.
+   */
+  private void warmProposalCache() {
+    for (ProposalCache.Key key : _proposalCache.keysToWarm(_loadMonitor.clusterModelGeneration(), _numWarmedProposalCacheEntries)) {
+      LOG.debug("Warming the proposal cache for {}.", key);
+      _proposalPrecomputingExecutor.execute(new ProposalCacheWarmer(key));
+    }
+  }
+
   private boolean validCachedProposal() throws KafkaCruiseControlException {
     if (_executor.hasOngoingExecution()) {
       throw new KafkaCruiseControlException("Attempt to use proposal cache during ongoing execution.");
@@ -245,6 +286,10 @@ public class GoalOptimizer implements Runnable {
     LOG.info("Shutting down goal optimizer.");
     _shutdown = true;
     _proposalPrecomputingExecutor.shutdown();
+    if (_speculativeGoalOptimizationExecutor != null) {
+      _speculativeGoalOptimizationExecutor.shutdownNow();
+    }
+    _balancingActionEvaluator.shutdown();
 
     try {
       _proposalPrecomputingExecutor.awaitTermination(30000L, TimeUnit.MILLISECONDS);
@@ -351,6 +396,32 @@ public class GoalOptimizer implements Runnable {
     }
   }
 
+  /**
+   * Get the cached optimization result of a proposal request with non-default goals or options. Unlike
+   * {@link #optimizations(OperationProgress, boolean)}, this does not wait for the result to be computed.
+   *
+   * @param key The requested goals and options.
+   * @param allowCapacityEstimation Allow capacity estimation in cluster model if the requested broker capacity is unavailable.
+   * @return The cached optimization result, or {@code null} if there is no usable result.
+   */
+  public OptimizerResult cachedOptimizations(ProposalCache.Key key, boolean allowCapacityEstimation) {
+    OptimizerResult result = _proposalCache.get(key, _loadMonitor.clusterModelGeneration(), allowCapacityEstimation);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Proposal cache {} for {}.", result == null ? "miss" : "hit", key);
+    }
+    return result;
+  }
+
+  /**
+   * Cache the optimization result of a proposal request with non-default goals or options.
+   *
+   * @param key The requested goals and options.
+   * @param result The optimization result.
+   */
+  public void cacheOptimizations(ProposalCache.Key key, OptimizerResult result) {
+    _proposalCache.put(key, result);
+  }
+
   /**
    * Depending the existence of dead/decommissioned brokers in the given cluster:
    * (1) Re-balance: Generates proposals to update the state of the cluster to achieve a final balanced state.
@@ -429,7 +500,9 @@ public class GoalOptimizer implements Runnable {
    *                                                     specific topic partition's replication factor, in this case some
    *                                                     replicas are tentatively deleted/added in cluster model before
    *                                                     passing it in to generate proposals.
-   * @param optimizationOptions Optimization options.
+   * @param optimizationOptions Optimization options. If the optimization has a deadline, the goals that are not finished when
+   *                            the deadline passes are cut short, and the proposals generated so far are returned. Such
+   *                            goals are reported as violated, and if any of them is a hard goal, the optimization fails.
    * @return Results of optimization containing the proposals and stats.
    */
   public OptimizerResult optimizations(ClusterModel clusterModel,
@@ -443,57 +516,123 @@ public class GoalOptimizer implements Runnable {
     Map<TopicPartition, List<ReplicaPlacementInfo>> initReplicaDistribution = clusterModel.getReplicaDistribution();
     Map<TopicPartition, ReplicaPlacementInfo> initLeaderDistribution = clusterModel.getLeaderDistribution();
     boolean isSelfHealing = !clusterModel.selfHealingEligibleReplicas().isEmpty();
+    for (Goal goal : goalsByPriority) {
+      if (goal instanceof AbstractGoal) {
+        ((AbstractGoal) goal).setBalancingActionEvaluator(_balancingActionEvaluator);
+      }
+    }
 
     // Set of balancing proposals that will be applied to the given cluster state to satisfy goals (leadership
     // transfer AFTER partition transfer.)
     Set<Goal> optimizedGoals = new HashSet<>();
     Set<String> violatedGoalNamesBeforeOptimization = new HashSet<>();
     Set<String> violatedGoalNamesAfterOptimization = new HashSet<>();
+    Set<String> cutShortGoalNames = new HashSet<>();
     LinkedHashMap<Goal, ClusterModelStats> statsByGoalPriority = new LinkedHashMap<>(goalsByPriority.size());
     Map<TopicPartition, List<ReplicaPlacementInfo>> preOptimizedReplicaDistribution = null;
     Map<TopicPartition, ReplicaPlacementInfo> preOptimizedLeaderDistribution = null;
 
     ProvisionResponse provisionResponse = new ProvisionResponse(ProvisionStatus.UNDECIDED);
     Map<String, Duration> optimizationDurationByGoal = new HashMap<>();
-    for (Goal goal : goalsByPriority) {
-      preOptimizedReplicaDistribution = preOptimizedReplicaDistribution == null ? initReplicaDistribution : clusterModel.getReplicaDistribution();
-      preOptimizedLeaderDistribution = preOptimizedLeaderDistribution == null ? initLeaderDistribution : clusterModel.getLeaderDistribution();
-      OptimizationForGoal step = new OptimizationForGoal(goal.name());
-      operationProgress.addStep(step);
-      LOG.debug("Optimizing goal {}", goal.name());
-      long startTimeMs = _time.milliseconds();
-      boolean succeeded;
-      try {
-        succeeded = goal.optimize(clusterModel, optimizedGoals, optimizationOptions);
-      } catch (OptimizationFailureException e) {
-        setHasUnfixableProposalOptimization(true, goalsByPriority);
-        throw e;
-      }
-      optimizedGoals.add(goal);
-      statsByGoalPriority.put(goal, clusterModel.getClusterStats(_balancingConstraint, optimizationOptions));
-      optimizationDurationByGoal.put(goal.name(), Duration.ofMillis(_time.milliseconds() - startTimeMs));
+    Map<Integer, Future<SpeculativeGoalOptimization>> speculativeOptimizations = new HashMap<>();
+    int nextGoalIndexToSpeculate = 1;
+    // An unmodified copy of the cluster model, from which the speculative optimizations copy their own cluster model. It is
+    // copied once and reused by the later speculations, so it is only valid until the cluster model is first modified.
+    ClusterModel speculationBaseModel = null;
+    // Whether the cluster model has been modified so far. A cluster model never becomes unmodified again (see
+    // ClusterModel#isModified()), but the flag is sticky regardless, so a stale speculationBaseModel is never used.
+    boolean isClusterModelModified = false;
+    try {
+      for (int goalIndex = 0; goalIndex < goalsByPriority.size(); goalIndex++) {
+        Goal goal = goalsByPriority.get(goalIndex);
+        if (optimizationOptions.isOptimizationDeadlinePassed()) {
+          // Keep the proposals generated so far by the higher priority goals, and skip optimizing the remaining goals.
+          LOG.warn("Skipping optimization of goal {} because the optimization deadline has passed.", goal.name());
+          ensureNotHardGoal(goal, optimizationOptions);
+          cutShortGoalNames.add(goal.name());
+          // The goal is not known to be satisfied.
+          violatedGoalNamesAfterOptimization.add(goal.name());
+          statsByGoalPriority.put(goal, clusterModel.getClusterStats(_balancingConstraint, optimizationOptions));
+          optimizationDurationByGoal.put(goal.name(), Duration.ZERO);
+          continue;
+        }
+        preOptimizedReplicaDistribution = preOptimizedReplicaDistribution == null ? initReplicaDistribution : clusterModel.getReplicaDistribution();
+        preOptimizedLeaderDistribution = preOptimizedLeaderDistribution == null ? initLeaderDistribution : clusterModel.getLeaderDistribution();
+        OptimizationForGoal step = new OptimizationForGoal(goal.name());
+        operationProgress.addStep(step);
+        isClusterModelModified = isClusterModelModified || clusterModel.isModified();
+        // Speculatively optimize the following goals on copies of the cluster model as long as it is not modified.
+        if (_speculativeGoalOptimizationExecutor != null && !isClusterModelModified) {
+          nextGoalIndexToSpeculate = Math.max(nextGoalIndexToSpeculate, goalIndex + 1);
+          while (nextGoalIndexToSpeculate < goalsByPriority.size()
+                 && nextGoalIndexToSpeculate <= goalIndex + _numSpeculativeGoalOptimizationThreads) {
+            if (speculationBaseModel == null) {
+              // Copied once on the optimization thread; further copies are made by the speculative optimizations.
+              speculationBaseModel = clusterModel.copy();
+            }
+            SpeculativeGoalOptimization speculativeOptimization =
+                new SpeculativeGoalOptimization(goalsByPriority.get(nextGoalIndexToSpeculate), speculationBaseModel,
+                                                new HashSet<>(optimizedGoals), optimizationOptions, _time);
+            speculativeOptimizations.put(nextGoalIndexToSpeculate, _speculativeGoalOptimizationExecutor.submit(speculativeOptimization));
+            nextGoalIndexToSpeculate++;
+          }
+        }
+        SpeculativeGoalOptimization speculativeOptimization = awaitSpeculativeOptimization(speculativeOptimizations.remove(goalIndex));
+        boolean succeeded;
+        Duration optimizationDuration;
+        if (speculativeOptimization != null && speculativeOptimization.isAdoptable() && !isClusterModelModified) {
+          // Neither the higher priority goals nor the speculative optimization of this goal have changed the cluster model.
+          // Hence, optimizing this goal on the cluster model itself would not change it either.
+          LOG.debug("Adopting speculative optimization of goal {}", goal.name());
+          succeeded = speculativeOptimization.succeeded();
+          optimizationDuration = speculativeOptimization.duration();
+        } else {
+          LOG.debug("Optimizing goal {}", goal.name());
+          long startTimeMs = _time.milliseconds();
+          try {
+            succeeded = goal.optimize(clusterModel, optimizedGoals, optimizationOptions);
+          } catch (OptimizationFailureException e) {
+            setHasUnfixableProposalOptimization(true, goalsByPriority);
+            throw e;
+          }
+          optimizationDuration = Duration.ofMillis(_time.milliseconds() - startTimeMs);
+        }
+        optimizedGoals.add(goal);
+        if (goal instanceof AbstractGoal && ((AbstractGoal) goal).isCutShortByDeadline()) {
+          ensureNotHardGoal(goal, optimizationOptions);
+          cutShortGoalNames.add(goal.name());
+        }
+        statsByGoalPriority.put(goal, clusterModel.getClusterStats(_balancingConstraint, optimizationOptions));
+        optimizationDurationByGoal.put(goal.name(), optimizationDuration);
+        updateSwapSensors(goal);
 
-      boolean hasDiff = AnalyzerUtils.hasDiff(preOptimizedReplicaDistribution, preOptimizedLeaderDistribution, clusterModel);
-      if (hasDiff || !succeeded) {
-        violatedGoalNamesBeforeOptimization.add(goal.name());
-      }
-      if (!succeeded) {
-        violatedGoalNamesAfterOptimization.add(goal.name());
-      }
+        boolean hasDiff = AnalyzerUtils.hasDiff(preOptimizedReplicaDistribution, preOptimizedLeaderDistribution, clusterModel);
+        if (hasDiff || !succeeded) {
+          violatedGoalNamesBeforeOptimization.add(goal.name());
+        }
+        if (!succeeded) {
+          violatedGoalNamesAfterOptimization.add(goal.name());
+        }
 
-      step.done();
-      if (LOG.isDebugEnabled()) {
-        LOG.debug("Broker level stats after optimization: {}", clusterModel.brokerStats(null));
+        step.done();
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Broker level stats after optimization: {}", clusterModel.brokerStats(null));
+        }
+        provisionResponse.aggregate(goal.provisionResponse());
+        LOG.info("[{}/{}] Generated {} proposals for {}{}. Provision status: {}; aggregated provision status: {}",
+                 optimizedGoals.size(),
+                 _goalsByPriority.size(),
+                 hasDiff ? "some" : "no",
+                 isSelfHealing ? "self-healing " : "",
+                 goal.name(),
+                 goal.provisionResponse().status(),
+                 provisionResponse.status());
+      }
+    } finally {
+      // Goals must not be used by speculative optimizations once the optimization is over.
+      for (Future<SpeculativeGoalOptimization> future : speculativeOptimizations.values()) {
+        awaitSpeculativeOptimization(future);
       }
-      provisionResponse.aggregate(goal.provisionResponse());
-      LOG.info("[{}/{}] Generated {} proposals for {}{}. Provision status: {}; aggregated provision status: {}",
-               optimizedGoals.size(),
-               _goalsByPriority.size(),
-               hasDiff ? "some" : "no",
-               isSelfHealing ? "self-healing " : "",
-               goal.name(),
-               goal.provisionResponse().status(),
-               provisionResponse.status());
     }
 
     setHasUnfixableProposalOptimization(false, goalsByPriority);
@@ -514,6 +653,7 @@ public class GoalOptimizer implements Runnable {
     return new OptimizerResult(statsByGoalPriority,
                                violatedGoalNamesBeforeOptimization,
                                violatedGoalNamesAfterOptimization,
+                               cutShortGoalNames,
                                proposals,
                                brokerStatsBeforeOptimization,
                                clusterModel,
@@ -523,6 +663,65 @@ public class GoalOptimizer implements Runnable {
                                provisionResponse);
   }
 
+  /**
+   * Ensure that the given goal, whose optimization has been cut short or skipped due to the optimization deadline, is not
+   * a hard goal. Proposals that are not guaranteed to satisfy a hard goal must not be executed.
+   *
+   * @param goal The goal whose optimization has been cut short or skipped.
+   * @param optimizationOptions Optimization options containing the optimization deadline.
+   */
+  private static void ensureNotHardGoal(Goal goal, OptimizationOptions optimizationOptions) throws OptimizationFailureException {
+    if (goal.isHardGoal()) {
+      throw new OptimizationFailureException(String.format("[%s] Optimization of the hard goal was cut short because the optimization "
+                                                           + "deadline %d has passed. Retry with a longer optimization timeout.",
+                                                           goal.name(), optimizationOptions.optimizationDeadlineMs()));
+    }
+  }
+
+  /**
+   * Update the sensors of the swap phase with the last optimization of the given goal.
+   *
+   * @param goal The optimized goal.
+   */
+  private void updateSwapSensors(Goal goal) {
+    if (goal instanceof AbstractGoal) {
+      _swapAcceptanceCheckRate.mark(((AbstractGoal) goal).numSwapAcceptanceChecks());
+    }
+    if (goal instanceof ResourceDistributionGoal) {
+      _swapPhaseTimer.update(((ResourceDistributionGoal) goal).swapDurationMs(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Wait for the given speculative goal optimization to finish, so that its goal can be used by the caller.
+   *
+   * @param future Future of the speculative goal optimization, or {@code null} if there is none.
+   * @return The finished speculative goal optimization, or {@code null} if there is none or it has failed.
+   */
+  private static SpeculativeGoalOptimization awaitSpeculativeOptimization(Future<SpeculativeGoalOptimization> future) {
+    if (future == null) {
+      return null;
+    }
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        } catch (InterruptedException ie) {
+          // The goal must not be used until the speculative optimization is over.
+          interrupted = true;
+        } catch (ExecutionException ee) {
+          LOG.debug("Discarding failed speculative goal optimization.", ee.getCause());
+          return null;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
   private void setHasUnfixableProposalOptimization(boolean hasUnfixableProposalOptimization, List<Goal> goalsByPriority) {
     // Optimize function can be called for any of the actions like GoalViolation, Add Broker, Demote Broker, Broker Failure,
     // Manual rebalance etc
@@ -576,6 +775,109 @@ public class GoalOptimizer implements Runnable {
     clearCachedProposal(null);
   }
 
+  /**
+   * Optimization of a goal on a copy of the cluster model, while the goals with higher priority are being optimized.
+   *
+   * The optimization of the goal on the cluster model is equivalent to the speculative optimization, if (1) the cluster
+   * model has not been modified by the optimization of the higher priority goals, and (2) the speculative optimization
+   * has not modified the copy of the cluster model. The latter implies that no balancing action was acceptable to the
+   * goal even without considering the higher priority goals that were being optimized meanwhile. Hence, no balancing
+   * action would have been acceptable under the stricter acceptance of the actual optimization either. This equivalence
+   * relies on {@link Goal#actionAcceptance(BalancingAction, ClusterModel)} of the already optimized goals having no side
+   * effects, so that consulting them during the speculative optimization leaves them as they would be without it.
+   *
+   * The speculative optimization copies the given base cluster model, which must not be modified while it is running. The
+   * copy is made on the speculative optimization thread to keep it off the critical path of the actual optimization. While
+   * the speculative optimization is running, the already optimized goals may be concurrently consulted for
+   * {@link Goal#actionAcceptance(BalancingAction, ClusterModel)} by the actual optimization (see the thread-safety
+   * requirements in the {@link Goal} interface).
+   */
+  private static class SpeculativeGoalOptimization implements Callable<SpeculativeGoalOptimization> {
+    private final Goal _goal;
+    private final ClusterModel _baseClusterModel;
+    private ClusterModel _clusterModel;
+    private final Set<Goal> _optimizedGoals;
+    private final OptimizationOptions _optimizationOptions;
+    private final Time _time;
+    private boolean _succeeded;
+    private Duration _duration;
+
+    SpeculativeGoalOptimization(Goal goal,
+                                ClusterModel baseClusterModel,
+                                Set<Goal> optimizedGoals,
+                                OptimizationOptions optimizationOptions,
+                                Time time) {
+      _goal = goal;
+      _baseClusterModel = baseClusterModel;
+      _optimizedGoals = optimizedGoals;
+      _optimizationOptions = optimizationOptions;
+      _time = time;
+    }
+
+    @Override
+    public SpeculativeGoalOptimization call() throws KafkaCruiseControlException {
+      _clusterModel = _baseClusterModel.copy();
+      long startTimeMs = _time.milliseconds();
+      _succeeded = _goal.optimize(_clusterModel, _optimizedGoals, _optimizationOptions);
+      _duration = Duration.ofMillis(_time.milliseconds() - startTimeMs);
+      return this;
+    }
+
+    boolean isAdoptable() {
+      return !_clusterModel.isModified();
+    }
+
+    boolean succeeded() {
+      return _succeeded;
+    }
+
+    Duration duration() {
+      return _duration;
+    }
+  }
+
+  /**
+   * A class that recomputes the optimization result of a key in {@link #_proposalCache}.
+   */
+  private class ProposalCacheWarmer implements Runnable {
+    private final ProposalCache.Key _key;
+
+    ProposalCacheWarmer(ProposalCache.Key key) {
+      _key = key;
+    }
+
+    @Override
+    public void run() {
+      OperationProgress operationProgress = new OperationProgress();
+      try (AutoCloseable ignored = _loadMonitor.acquireForModelGeneration(operationProgress)) {
+        long startMs = _time.milliseconds();
+        List<Goal> goalsByPriority = goalsByPriority(_key.goals(), _config);
+        ClusterModel clusterModel = _loadMonitor.clusterModel(DEFAULT_START_TIME_FOR_CLUSTER_MODEL, _time.milliseconds(),
+                                                              _key.requirements(), _key.isRebalanceDiskMode(),
+                                                              _allowCapacityEstimationOnProposalPrecompute, operationProgress);
+        if (clusterModel.topics().isEmpty() || !clusterModel.isClusterAlive()) {
+          LOG.debug("Skipping the proposal cache warming for {} due to the state of the cluster model.", _key);
+          return;
+        }
+        // Requests that exclude recently demoted or removed brokers are not cached.
+        OptimizationOptions optimizationOptions = new OptimizationOptions(excludedTopics(clusterModel, _key.excludedTopics()),
+                                                                          Collections.emptySet(),
+                                                                          Collections.emptySet(),
+                                                                          false,
+                                                                          _key.destinationBrokerIds(),
+                                                                          false,
+                                                                          _key.fastMode());
+        OptimizerResult result = optimizations(clusterModel, goalsByPriority, operationProgress, null, optimizationOptions);
+        _proposalCache.put(_key, result);
+        LOG.debug("Warmed the proposal cache for {} in {} ms.", _key, _time.milliseconds() - startMs);
+      } catch (Exception e) {
+        LOG.warn("Failed to warm the proposal cache for {}.", _key, e);
+      } finally {
+        _proposalCache.finishWarming(_key);
+      }
+    }
+  }
+
   /**
    * A class that precomputes the proposal candidates and find the cached proposals.
    */
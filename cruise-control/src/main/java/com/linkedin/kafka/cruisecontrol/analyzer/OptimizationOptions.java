@@ -6,6 +6,7 @@ package com.linkedin.kafka.cruisecontrol.analyzer;
 
 import java.util.Collections;
 import java.util.Set;
+import org.apache.kafka.common.utils.Time;
 
 import static com.linkedin.cruisecontrol.common.utils.Utils.validateNotNull;
 
@@ -14,6 +15,7 @@ import static com.linkedin.cruisecontrol.common.utils.Utils.validateNotNull;
  * A class to indicate options intended to be used during optimization of goals.
  */
 public class OptimizationOptions {
+  public static final long NO_OPTIMIZATION_DEADLINE_MS = Long.MAX_VALUE;
   private final Set<String> _excludedTopics;
   private final Set<Integer> _excludedBrokersForLeadership;
   private final Set<Integer> _excludedBrokersForReplicaMove;
@@ -21,6 +23,8 @@ public class OptimizationOptions {
   private final Set<Integer> _requestedDestinationBrokerIds;
   private final boolean _onlyMoveImmigrantReplicas;
   private final boolean _fastMode;
+  private final long _optimizationDeadlineMs;
+  private final Time _time;
 
   /**
    * Default value for {@link #_isTriggeredByGoalViolation} is false.
@@ -67,7 +71,7 @@ public class OptimizationOptions {
   }
 
   /**
-   * The optimization options intended to be used during optimization of goals.
+   * Default value for {@link #_optimizationDeadlineMs} is {@link #NO_OPTIMIZATION_DEADLINE_MS}.
    */
   public OptimizationOptions(Set<String> excludedTopics,
                              Set<Integer> excludedBrokersForLeadership,
@@ -76,6 +80,23 @@ public class OptimizationOptions {
                              Set<Integer> requestedDestinationBrokerIds,
                              boolean onlyMoveImmigrantReplicas,
                              boolean fastMode) {
+    this(excludedTopics, excludedBrokersForLeadership, excludedBrokersForReplicaMove, isTriggeredByGoalViolation,
+         requestedDestinationBrokerIds, onlyMoveImmigrantReplicas, fastMode, NO_OPTIMIZATION_DEADLINE_MS, Time.SYSTEM);
+  }
+
+  /**
+   * The optimization options intended to be used during optimization of goals. The optimization deadline is tracked by
+   * the given time, which should be the time of the goal optimizer.
+   */
+  public OptimizationOptions(Set<String> excludedTopics,
+                             Set<Integer> excludedBrokersForLeadership,
+                             Set<Integer> excludedBrokersForReplicaMove,
+                             boolean isTriggeredByGoalViolation,
+                             Set<Integer> requestedDestinationBrokerIds,
+                             boolean onlyMoveImmigrantReplicas,
+                             boolean fastMode,
+                             long optimizationDeadlineMs,
+                             Time time) {
     _excludedTopics = validateNotNull(excludedTopics, "Excluded topics cannot be null.");
     _excludedBrokersForLeadership = validateNotNull(excludedBrokersForLeadership, "Excluded brokers for leadership cannot be null.");
     _excludedBrokersForReplicaMove = validateNotNull(excludedBrokersForReplicaMove, "Excluded brokers for replica move cannot be null.");
@@ -83,6 +104,8 @@ public class OptimizationOptions {
     _requestedDestinationBrokerIds = validateNotNull(requestedDestinationBrokerIds, "Requested destination broker ids cannot be null.");
     _onlyMoveImmigrantReplicas = onlyMoveImmigrantReplicas;
     _fastMode = fastMode;
+    _optimizationDeadlineMs = optimizationDeadlineMs;
+    _time = validateNotNull(time, "Time cannot be null.");
   }
 
   /**
@@ -134,11 +157,27 @@ public class OptimizationOptions {
     return _fastMode;
   }
 
+  /**
+   * @return The time in milliseconds after which goals stop optimizing and keep the proposals generated so far, or
+   * {@link #NO_OPTIMIZATION_DEADLINE_MS} if the optimization has no deadline.
+   */
+  public long optimizationDeadlineMs() {
+    return _optimizationDeadlineMs;
+  }
+
+  /**
+   * @return {@code true} if the optimization has a deadline and it has passed, {@code false} otherwise.
+   */
+  public boolean isOptimizationDeadlinePassed() {
+    return _optimizationDeadlineMs != NO_OPTIMIZATION_DEADLINE_MS && _time.milliseconds() >= _optimizationDeadlineMs;
+  }
+
   @Override
   public String toString() {
     return String.format("[excludedTopics=%s,excludedBrokersForLeadership=%s,excludedBrokersForReplicaMove=%s,"
-                         + "isTriggeredByGoalViolation=%s,requestedDestinationBrokerIds=%s,onlyMoveImmigrantReplicas=%s,fastMode=%s]",
+                         + "isTriggeredByGoalViolation=%s,requestedDestinationBrokerIds=%s,onlyMoveImmigrantReplicas=%s,fastMode=%s,"
+                         + "optimizationDeadlineMs=%d]",
                          _excludedTopics, _excludedBrokersForLeadership, _excludedBrokersForReplicaMove, _isTriggeredByGoalViolation,
-                         _requestedDestinationBrokerIds, _onlyMoveImmigrantReplicas, _fastMode);
+                         _requestedDestinationBrokerIds, _onlyMoveImmigrantReplicas, _fastMode, _optimizationDeadlineMs);
   }
 }
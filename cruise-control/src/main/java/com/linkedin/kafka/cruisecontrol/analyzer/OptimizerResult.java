@@ -60,6 +60,8 @@ public class OptimizerResult {
   private static final String PROVISION_STATUS = "provisionStatus";
   @JsonResponseField
   private static final String PROVISION_RECOMMENDATION = "provisionRecommendation";
+  @JsonResponseField
+  private static final String CUT_SHORT_GOALS = "cutShortGoals";
   private static final String VIOLATED = "VIOLATED";
   private static final String FIXED = "FIXED";
   private static final String NO_ACTION = "NO-ACTION";
@@ -68,6 +70,7 @@ public class OptimizerResult {
   private final Set<ExecutionProposal> _proposals;
   private final Set<String> _violatedGoalNamesBeforeOptimization;
   private final Set<String> _violatedGoalNamesAfterOptimization;
+  private final Set<String> _cutShortGoalNames;
   private final BrokerStats _brokerStatsBeforeOptimization;
   private final BrokerStats _brokerStatsAfterOptimization;
   private final ModelGeneration _modelGeneration;
@@ -82,6 +85,7 @@ public class OptimizerResult {
   OptimizerResult(LinkedHashMap<Goal, ClusterModelStats> statsByGoalPriority,
                   Set<String> violatedGoalNamesBeforeOptimization,
                   Set<String> violatedGoalNamesAfterOptimization,
+                  Set<String> cutShortGoalNames,
                   Set<ExecutionProposal> proposals,
                   BrokerStats brokerStatsBeforeOptimization,
                   ClusterModel clusterModel,
@@ -106,6 +110,7 @@ public class OptimizerResult {
 
     _violatedGoalNamesBeforeOptimization = violatedGoalNamesBeforeOptimization;
     _violatedGoalNamesAfterOptimization = violatedGoalNamesAfterOptimization;
+    _cutShortGoalNames = cutShortGoalNames;
     _proposals = proposals;
     _brokerStatsBeforeOptimization = brokerStatsBeforeOptimization;
     _brokerStatsAfterOptimization = clusterModel.brokerStats(null);
@@ -165,6 +170,13 @@ public class OptimizerResult {
     return Collections.unmodifiableSet(_violatedGoalNamesAfterOptimization);
   }
 
+  /**
+   * @return Goals whose optimization was cut short or skipped because the optimization deadline has passed.
+   */
+  public Set<String> cutShortGoals() {
+    return Collections.unmodifiableSet(_cutShortGoalNames);
+  }
+
   /**
    * @return The model generation.
    */
@@ -286,13 +298,14 @@ public class OptimizerResult {
     return String.format("%n%nOptimization has %d inter-broker replica(%d MB) moves, %d intra-broker replica(%d MB) moves"
                          + " and %d leadership moves with a cluster model of %d recent windows and %.3f%% of the partitions"
                          + " covered.%nExcluded Topics: %s.%nExcluded Brokers For Leadership: %s.%nExcluded Brokers For "
-                         + "Replica Move: %s.%nCounts: %s%nOn-demand Balancedness Score Before (%.3f) After(%.3f).%nProvision Status: %s.%s",
+                         + "Replica Move: %s.%nCounts: %s%nOn-demand Balancedness Score Before (%.3f) After(%.3f).%nProvision Status: %s.%s%s",
                          moveStats.get(0).intValue(), moveStats.get(1).longValue(), moveStats.get(2).intValue(),
                          moveStats.get(3).longValue(), moveStats.get(4).intValue(), _clusterModelStats.numWindows(),
                          _clusterModelStats.monitoredPartitionsPercentage(), excludedTopics(),
                          excludedBrokersForLeadership(), excludedBrokersForReplicaMove(), _clusterModelStats.toStringCounts(),
                          _onDemandBalancednessScoreBefore, _onDemandBalancednessScoreAfter, _provisionResponse.status(),
-                         recommendation.isEmpty() ? "" : String.format("%nProvision Recommendation: %s", recommendation));
+                         recommendation.isEmpty() ? "" : String.format("%nProvision Recommendation: %s", recommendation),
+                         _cutShortGoalNames.isEmpty() ? "" : String.format("%nGoals Cut Short By Optimization Deadline: %s.", _cutShortGoalNames));
   }
 
   /**
@@ -315,6 +328,7 @@ public class OptimizerResult {
     ret.put(ON_DEMAND_BALANCEDNESS_SCORE_AFTER, _onDemandBalancednessScoreAfter);
     ret.put(PROVISION_STATUS, _provisionResponse.status());
     ret.put(PROVISION_RECOMMENDATION, _provisionResponse.recommendation());
+    ret.put(CUT_SHORT_GOALS, _cutShortGoalNames);
     return ret;
   }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.analyzer;
+
+import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
+import com.linkedin.kafka.cruisecontrol.monitor.ModelGeneration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+
+/**
+ * A bounded cache of the optimization results of proposal requests with non-default goals or options. The results are
+ * cached by the requested goals and options, and a result is only used while its model generation is not stale.
+ *
+ * The cache evicts the least recently used entries if either the number of entries or the total number of proposals in
+ * the cached results exceeds its limits, starting from the entries without a result. Each entry keeps the number of
+ * requests for its key, so that the proposal precomputing threads can warm the stale results of the most frequently
+ * requested keys. Only requests count, whereas caching a result does not. A request that misses the cache only adds an
+ * entry for its key if there is room for it without evicting the entry of a key whose result has been cached.
+ */
+public class ProposalCache {
+  private final int _maxNumEntries;
+  private final int _maxNumProposals;
+  // Entries in the order of access, from the least recently used to the most recently used.
+  private final LinkedHashMap<Key, Entry> _entries;
+  private int _numProposals;
+
+  /**
+   * @param maxNumEntries The maximum number of cached entries, 0 disables the cache.
+   * @param maxNumProposals The maximum total number of proposals in the cached results.
+   */
+  public ProposalCache(int maxNumEntries, int maxNumProposals) {
+    _maxNumEntries = maxNumEntries;
+    _maxNumProposals = maxNumProposals;
+    _entries = new LinkedHashMap<>(16, 0.75f, true);
+    _numProposals = 0;
+  }
+
+  /**
+   * Get the cached optimization result for the given key and record the request for the key.
+   *
+   * @param key The requested goals and options.
+   * @param currentGeneration The current model generation.
+   * @param allowCapacityEstimation Allow capacity estimation in cluster model if the requested broker capacity is unavailable.
+   * @return The cached optimization result, or {@code null} if there is no usable result.
+   */
+  public synchronized OptimizerResult get(Key key, ModelGeneration currentGeneration, boolean allowCapacityEstimation) {
+    if (_maxNumEntries == 0) {
+      return null;
+    }
+    Entry entry = _entries.get(key);
+    if (entry == null) {
+      if (!hasRoomForEntryWithoutResult()) {
+        return null;
+      }
+      // Keep an entry without a result to retain the number of requests for the key.
+      entry = new Entry();
+      _entries.put(key, entry);
+    }
+    entry._numRequests++;
+    if (entry._result == null) {
+      return null;
+    }
+    if (entry._result.modelGeneration().isStale(currentGeneration)) {
+      // Keep the entry to retain the number of requests for the key.
+      dropResult(entry);
+      return null;
+    }
+    return !allowCapacityEstimation && entry._result.isCapacityEstimated() ? null : entry._result;
+  }
+
+  /**
+   * Cache the given optimization result for the given key. Results of optimizations that were cut short by a deadline,
+   * and results with more proposals than the cache can hold are not cached.
+   *
+   * @param key The requested goals and options.
+   * @param result The optimization result.
+   */
+  public synchronized void put(Key key, OptimizerResult result) {
+    int numProposals = result.goalProposals().size();
+    if (_maxNumEntries == 0 || numProposals > _maxNumProposals || !result.cutShortGoals().isEmpty()) {
+      return;
+    }
+    Entry entry = _entries.computeIfAbsent(key, k -> new Entry());
+    dropResult(entry);
+    entry._result = result;
+    entry._hasBeenCached = true;
+    entry._numProposals = numProposals;
+    _numProposals += numProposals;
+    evict(key);
+  }
+
+  /**
+   * Get the keys of the most frequently requested entries without a usable result to warm, and mark them as being warmed.
+   * Call {@link #finishWarming(Key)} once the warming of a key is over.
+   *
+   * @param currentGeneration The current model generation.
+   * @param maxNumKeys The maximum number of keys to warm.
+   * @return The keys to warm in descending order of the number of requests.
+   */
+  public synchronized List<Key> keysToWarm(ModelGeneration currentGeneration, int maxNumKeys) {
+    List<Map.Entry<Key, Entry>> candidates = new ArrayList<>();
+    for (Map.Entry<Key, Entry> entry : _entries.entrySet()) {
+      Entry value = entry.getValue();
+      // Keys whose result has never been cached are not warmed, e.g. if their results have too many proposals to cache.
+      if (!value._isWarming && value._hasBeenCached
+          && (value._result == null || value._result.modelGeneration().isStale(currentGeneration))) {
+        candidates.add(entry);
+      }
+    }
+    candidates.sort(Comparator.comparingLong((Map.Entry<Key, Entry> entry) -> entry.getValue()._numRequests).reversed());
+    List<Key> keys = new ArrayList<>(Math.min(maxNumKeys, candidates.size()));
+    for (Map.Entry<Key, Entry> candidate : candidates.subList(0, Math.min(maxNumKeys, candidates.size()))) {
+      candidate.getValue()._isWarming = true;
+      keys.add(candidate.getKey());
+    }
+    return keys;
+  }
+
+  /**
+   * Mark the given key as no longer being warmed.
+   *
+   * @param key The warmed key.
+   */
+  public synchronized void finishWarming(Key key) {
+    // Avoid get() to keep the access order intact.
+    for (Map.Entry<Key, Entry> entry : _entries.entrySet()) {
+      if (entry.getKey().equals(key)) {
+        entry.getValue()._isWarming = false;
+        return;
+      }
+    }
+  }
+
+  /**
+   * @return The number of cached entries, including the entries without a result.
+   */
+  public synchronized int numEntries() {
+    return _entries.size();
+  }
+
+  /**
+   * @return The total number of proposals in the cached results.
+   */
+  public synchronized int numProposals() {
+    return _numProposals;
+  }
+
+  private void dropResult(Entry entry) {
+    _numProposals -= entry._numProposals;
+    entry._result = null;
+    entry._numProposals = 0;
+  }
+
+  /**
+   * Evict the least recently used entries of keys whose result has never been cached until there is room for a new entry.
+   * The entries of keys whose result has been cached are never evicted for an entry without a result.
+   *
+   * @return {@code true} if there is room for a new entry, {@code false} otherwise.
+   */
+  private boolean hasRoomForEntryWithoutResult() {
+    Iterator<Entry> iterator = _entries.values().iterator();
+    while (_entries.size() >= _maxNumEntries && iterator.hasNext()) {
+      if (!iterator.next()._hasBeenCached) {
+        iterator.remove();
+      }
+    }
+    return _entries.size() < _maxNumEntries;
+  }
+
+  private void evict(Key keyToRetain) {
+    // Evict the least recently used entries without a result first, as they only retain the number of requests.
+    Iterator<Map.Entry<Key, Entry>> iterator = _entries.entrySet().iterator();
+    while (_entries.size() > _maxNumEntries && iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+      if (!entry.getKey().equals(keyToRetain) && entry.getValue()._result == null) {
+        iterator.remove();
+      }
+    }
+    iterator = _entries.entrySet().iterator();
+    while ((_entries.size() > _maxNumEntries || _numProposals > _maxNumProposals) && iterator.hasNext()) {
+      Map.Entry<Key, Entry> entry = iterator.next();
+      if (!entry.getKey().equals(keyToRetain)) {
+        dropResult(entry.getValue());
+        iterator.remove();
+      }
+    }
+  }
+
+  private static final class Entry {
+    private OptimizerResult _result;
+    private int _numProposals;
+    private long _numRequests;
+    private boolean _isWarming;
+    private boolean _hasBeenCached;
+
+    Entry() {
+      _result = null;
+      _numProposals = 0;
+      _numRequests = 0L;
+      _isWarming = false;
+      _hasBeenCached = false;
+    }
+  }
+
+  /**
+   * The goals and options of a proposal request that determine its optimization result.
+   */
+  public static final class Key {
+    private final List<String> _goals;
+    private final ModelCompletenessRequirements _requirements;
+    private final Pattern _excludedTopics;
+    private final Set<Integer> _destinationBrokerIds;
+    private final boolean _isRebalanceDiskMode;
+    private final boolean _fastMode;
+
+    /**
+     * @param goals The requested goals, or an empty list to use the default goals.
+     * @param requirements Model completeness requirements.
+     * @param excludedTopics Topics excluded from partition movement (if null, use topics.excluded.from.partition.movement)
+     * @param destinationBrokerIds Explicitly requested destination broker Ids (if empty, no explicit filter is enforced).
+     * @param isRebalanceDiskMode {@code true} to generate proposal to rebalance between disks within the brokers, {@code false} otherwise.
+     * @param fastMode {@code true} to compute proposals in fast mode, {@code false} otherwise.
+     */
+    public Key(List<String> goals,
+               ModelCompletenessRequirements requirements,
+               Pattern excludedTopics,
+               Set<Integer> destinationBrokerIds,
+               boolean isRebalanceDiskMode,
+               boolean fastMode) {
+      _goals = goals == null ? Collections.emptyList() : List.copyOf(goals);
+      _requirements = requirements;
+      _excludedTopics = excludedTopics;
+      _destinationBrokerIds = Set.copyOf(destinationBrokerIds);
+      _isRebalanceDiskMode = isRebalanceDiskMode;
+      _fastMode = fastMode;
+    }
+
+    public List<String> goals() {
+      return _goals;
+    }
+
+    public ModelCompletenessRequirements requirements() {
+      return _requirements;
+    }
+
+    public Pattern excludedTopics() {
+      return _excludedTopics;
+    }
+
+    public Set<Integer> destinationBrokerIds() {
+      return _destinationBrokerIds;
+    }
+
+    public boolean isRebalanceDiskMode() {
+      return _isRebalanceDiskMode;
+    }
+
+    public boolean fastMode() {
+      return _fastMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return _isRebalanceDiskMode == other._isRebalanceDiskMode
+             && _fastMode == other._fastMode
+             && _goals.equals(other._goals)
+             && _requirements.minRequiredNumWindows() == other._requirements.minRequiredNumWindows()
+             && _requirements.minMonitoredPartitionsPercentage() == other._requirements.minMonitoredPartitionsPercentage()
+             && _requirements.includeAllTopics() == other._requirements.includeAllTopics()
+             && Objects.equals(excludedTopicsRegex(), other.excludedTopicsRegex())
+             && _destinationBrokerIds.equals(other._destinationBrokerIds);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_goals, _requirements.minRequiredNumWindows(), _requirements.minMonitoredPartitionsPercentage(),
+                          _requirements.includeAllTopics(), excludedTopicsRegex(), _destinationBrokerIds, _isRebalanceDiskMode,
+                          _fastMode);
+    }
+
+    private String excludedTopicsRegex() {
+      return _excludedTopics == null ? null : _excludedTopics.pattern();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{goals=%s, requirements=%s, excludedTopics=%s, destinationBrokerIds=%s, isRebalanceDiskMode=%s, "
+                           + "fastMode=%s}", _goals, _requirements, excludedTopicsRegex(), _destinationBrokerIds,
+                           _isRebalanceDiskMode, _fastMode);
+    }
+  }
+}
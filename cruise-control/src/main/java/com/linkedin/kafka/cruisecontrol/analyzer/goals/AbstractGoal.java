@@ -13,6 +13,8 @@ import com.linkedin.kafka.cruisecontrol.analyzer.BalancingAction;
 import com.linkedin.kafka.cruisecontrol.analyzer.ActionType;
 import com.linkedin.kafka.cruisecontrol.analyzer.ProvisionResponse;
 import com.linkedin.kafka.cruisecontrol.analyzer.ProvisionStatus;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.BalancingActionEvaluator.Decision;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.BalancingActionEvaluator.Verdict;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.exception.OptimizationFailureException;
@@ -28,6 +30,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.linkedin.kafka.cruisecontrol.analyzer.ActionAcceptance.ACCEPT;
 import static com.linkedin.kafka.cruisecontrol.analyzer.ActionAcceptance.BROKER_REJECT;
@@ -50,6 +53,12 @@ public abstract class AbstractGoal implements Goal {
   protected int _numWindows;
   protected double _minMonitoredPartitionPercentage;
   protected ProvisionResponse _provisionResponse;
+  // Evaluates the candidates of the balancing actions of this goal, see setBalancingActionEvaluator(BalancingActionEvaluator).
+  private BalancingActionEvaluator _balancingActionEvaluator;
+  // The number of swap proposals checked for acceptance by the optimized goals in the last optimization.
+  private final LongAdder _numSwapAcceptanceChecks;
+  // Whether the last optimization was cut short because the optimization deadline has passed.
+  private boolean _cutShortByDeadline;
 
   /**
    * Constructor of Abstract Goal class sets the
@@ -63,6 +72,9 @@ public abstract class AbstractGoal implements Goal {
     _finished = false;
     _succeeded = true;
     _provisionResponse = new ProvisionResponse(UNDECIDED);
+    _balancingActionEvaluator = BalancingActionEvaluator.SEQUENTIAL;
+    _numSwapAcceptanceChecks = new LongAdder();
+    _cutShortByDeadline = false;
   }
 
   @Override
@@ -85,6 +97,8 @@ public abstract class AbstractGoal implements Goal {
       _succeeded = true;
       // Resetting the provision response ensures fresh provision response if the same goal is optimized multiple times.
       _provisionResponse = new ProvisionResponse(UNDECIDED);
+      _numSwapAcceptanceChecks.reset();
+      _cutShortByDeadline = false;
       LOG.debug("Starting optimization for {}.", name());
       // Initialize pre-optimized stats.
       ClusterModelStats statsBeforeOptimization = clusterModel.getClusterStats(_balancingConstraint, optimizationOptions);
@@ -97,8 +111,19 @@ public abstract class AbstractGoal implements Goal {
                                                                                                                     optimizationOptions);
       while (!_finished) {
         for (Broker broker : brokersToBalance(clusterModel)) {
+          if (optimizationOptions.isOptimizationDeadlinePassed()) {
+            _cutShortByDeadline = true;
+            break;
+          }
           rebalanceForBroker(broker, clusterModel, optimizedGoals, optimizationOptions);
         }
+        if (_cutShortByDeadline) {
+          // Keep the actions applied so far, which are acceptable by this goal and the previously optimized goals. Since the
+          // goal state is not updated, the goal cannot tell whether its requirements are satisfied.
+          LOG.warn("Optimization deadline passed before finishing optimization for {}.", name());
+          _succeeded = false;
+          break;
+        }
         updateGoalState(clusterModel, optimizationOptions);
       }
       ClusterModelStats statsAfterOptimization = clusterModel.getClusterStats(_balancingConstraint, optimizationOptions);
@@ -107,8 +132,9 @@ public abstract class AbstractGoal implements Goal {
         LOG.debug("Finished optimization for {} in {}ms.", name(), System.currentTimeMillis() - goalStartTime);
       }
       LOG.trace("Cluster after optimization is {}", clusterModel);
-      // The optimization cannot make stats worse unless the cluster has (1) broken brokers or (2) excluded brokers for replica move with replicas.
-      if (brokenBrokers.isEmpty() && !originallyHasExcludedBrokersForReplicaMoveWithReplicas) {
+      // The optimization cannot make stats worse unless the cluster has (1) broken brokers, (2) excluded brokers for replica move with
+      // replicas, or (3) the optimization was cut short by the optimization deadline.
+      if (brokenBrokers.isEmpty() && !originallyHasExcludedBrokersForReplicaMoveWithReplicas && !_cutShortByDeadline) {
         ClusterModelStatsComparator comparator = clusterModelStatsComparator();
         // Throw exception when the stats before optimization is preferred.
         if (comparator.compare(statsAfterOptimization, statsBeforeOptimization) < 0) {
@@ -143,6 +169,31 @@ public abstract class AbstractGoal implements Goal {
     return this.getClass().getSimpleName();
   }
 
+  /**
+   * Set the evaluator of the candidates of the balancing actions of this goal. By default, the candidates are evaluated
+   * sequentially. The evaluator is owned by the caller, which must not shut it down while this goal is being optimized.
+   *
+   * @param balancingActionEvaluator The evaluator of the candidates of the balancing actions of this goal.
+   */
+  public void setBalancingActionEvaluator(BalancingActionEvaluator balancingActionEvaluator) {
+    _balancingActionEvaluator = balancingActionEvaluator;
+  }
+
+  /**
+   * @return The number of swap proposals checked for acceptance by the optimized goals in the last optimization of this goal.
+   */
+  public long numSwapAcceptanceChecks() {
+    return _numSwapAcceptanceChecks.sum();
+  }
+
+  /**
+   * @return {@code true} if the last optimization of this goal was cut short because the optimization deadline has passed,
+   * {@code false} otherwise.
+   */
+  public boolean isCutShortByDeadline() {
+    return _cutShortByDeadline;
+  }
+
   @Override
   public void finish() {
     _finished = true;
@@ -173,6 +224,9 @@ public abstract class AbstractGoal implements Goal {
    * Check if requirements of this goal are not violated if this action is applied to the given cluster state,
    * {@code false} otherwise.
    *
+   * This method may be called concurrently by the threads of the {@link BalancingActionEvaluator} of this goal. Hence, the
+   * implementation must not modify the state of this goal or the given cluster model.
+   *
    * @param clusterModel The state of the cluster.
    * @param action Action containing information about potential modification to the given cluster model.
    * @return {@code true} if requirements of this goal are not violated if this action is applied to the given cluster state,
@@ -240,7 +294,7 @@ public abstract class AbstractGoal implements Goal {
       LOG.trace("Applying {} to an online replica in in self-healing mode.", action);
     }
     List<Broker> eligibleBrokers = eligibleBrokers(clusterModel, replica, candidateBrokers, action, optimizationOptions);
-    for (Broker broker : eligibleBrokers) {
+    Decision<Broker> decision = _balancingActionEvaluator.firstDecision(eligibleBrokers, broker -> {
       BalancingAction proposal = new BalancingAction(replica.topicPartition(), replica.broker().id(), broker.id(), action);
       // A replica should be moved if:
       // 0. The move is legit.
@@ -249,26 +303,29 @@ public abstract class AbstractGoal implements Goal {
 
       if (!legitMove(replica, broker, clusterModel, action)) {
         LOG.trace("Replica move to broker is not legit for {}.", proposal);
-        continue;
+        return Verdict.SKIP;
       }
 
       if (!selfSatisfied(clusterModel, proposal)) {
         LOG.trace("Unable to self-satisfy proposal {}.", proposal);
-        continue;
+        return Verdict.SKIP;
       }
 
       ActionAcceptance acceptance = AnalyzerUtils.isProposalAcceptableForOptimizedGoals(optimizedGoals, proposal, clusterModel);
       LOG.trace("Trying to apply legit and self-satisfied action {}, actionAcceptance = {}", proposal, acceptance);
-      if (acceptance == ACCEPT) {
-        if (action == ActionType.LEADERSHIP_MOVEMENT) {
-          clusterModel.relocateLeadership(replica.topicPartition(), replica.broker().id(), broker.id());
-        } else if (action == ActionType.INTER_BROKER_REPLICA_MOVEMENT) {
-          clusterModel.relocateReplica(replica.topicPartition(), replica.broker().id(), broker.id());
-        }
-        return broker;
-      }
+      return acceptance == ACCEPT ? Verdict.ACCEPT : Verdict.SKIP;
+    });
+
+    if (decision == null) {
+      return null;
     }
-    return null;
+    Broker broker = decision.candidate();
+    if (action == ActionType.LEADERSHIP_MOVEMENT) {
+      clusterModel.relocateLeadership(replica.topicPartition(), replica.broker().id(), broker.id());
+    } else if (action == ActionType.INTER_BROKER_REPLICA_MOVEMENT) {
+      clusterModel.relocateReplica(replica.topicPartition(), replica.broker().id(), broker.id());
+    }
+    return broker;
   }
 
   /**
@@ -296,7 +353,7 @@ public abstract class AbstractGoal implements Goal {
 
     Broker destinationBroker = eligibleReplicas.first().broker();
 
-    for (Replica destinationReplica : eligibleReplicas) {
+    Decision<Replica> decision = _balancingActionEvaluator.firstDecision(eligibleReplicas, destinationReplica -> {
       BalancingAction swapProposal = new BalancingAction(sourceReplica.topicPartition(),
                                                          sourceReplica.broker().id(), destinationBroker.id(),
                                                          ActionType.INTER_BROKER_REPLICA_SWAP, destinationReplica.topicPartition());
@@ -307,34 +364,41 @@ public abstract class AbstractGoal implements Goal {
       // 3. The movement is acceptable by the previously optimized goals.
       if (!legitMove(sourceReplica, destinationBroker, clusterModel, ActionType.INTER_BROKER_REPLICA_MOVEMENT)) {
         LOG.trace("Swap from source to destination broker is not legit for {}.", swapProposal);
-        return null;
+        return Verdict.STOP;
       }
 
       if (!legitMove(destinationReplica, sourceReplica.broker(), clusterModel, ActionType.INTER_BROKER_REPLICA_MOVEMENT)) {
         LOG.trace("Swap from destination to source broker is not legit for {}.", swapProposal);
-        continue;
+        return Verdict.SKIP;
       }
 
       // The current goal is expected to know whether a swap is doable between given brokers.
       if (!selfSatisfied(clusterModel, swapProposal)) {
         // Unable to satisfy proposal for this eligible replica and the remaining eligible replicas in the list.
         LOG.trace("Unable to self-satisfy swap proposal {}.", swapProposal);
-        return null;
+        return Verdict.STOP;
       }
       ActionAcceptance acceptance = AnalyzerUtils.isProposalAcceptableForOptimizedGoals(optimizedGoals, swapProposal, clusterModel);
+      _numSwapAcceptanceChecks.increment();
       LOG.trace("Trying to apply legit and self-satisfied swap {}, actionAcceptance = {}.", swapProposal, acceptance);
 
       if (acceptance == ACCEPT) {
-        Broker sourceBroker = sourceReplica.broker();
-        clusterModel.relocateReplica(sourceReplica.topicPartition(), sourceBroker.id(), destinationBroker.id());
-        clusterModel.relocateReplica(destinationReplica.topicPartition(), destinationBroker.id(), sourceBroker.id());
-        return destinationReplica;
+        return Verdict.ACCEPT;
       } else if (acceptance == BROKER_REJECT) {
         // Unable to swap the given source replica with any replicas in the destination broker.
-        return null;
+        return Verdict.STOP;
       }
+      return Verdict.SKIP;
+    });
+
+    if (decision == null || decision.verdict() != Verdict.ACCEPT) {
+      return null;
     }
-    return null;
+    Replica destinationReplica = decision.candidate();
+    Broker sourceBroker = sourceReplica.broker();
+    clusterModel.relocateReplica(sourceReplica.topicPartition(), sourceBroker.id(), destinationBroker.id());
+    clusterModel.relocateReplica(destinationReplica.topicPartition(), destinationBroker.id(), sourceBroker.id());
+    return destinationReplica;
   }
 
   /**
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.analyzer.goals;
+
+import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Evaluates the candidates of a balancing action -- e.g. the destination brokers of a replica movement -- to find the
+ * first candidate in the given order that decides the outcome of the action.
+ *
+ * The evaluation of a candidate must only read the cluster model and the goal states. This allows evaluating the
+ * candidates in parallel, while the caller commits only the first decisive candidate after all ongoing evaluations are
+ * over. Hence, the outcome is identical to evaluating the candidates one after another. Parallel evaluation requires
+ * the goals to be safe for concurrent reads (see {@link Goal#actionAcceptance} and {@link AbstractGoal#selfSatisfied}).
+ *
+ * An evaluator with more than one thread owns a thread pool, which is shared by all goals that use the evaluator, and
+ * must be {@link #shutdown() shut down} by its owner -- i.e. the {@link com.linkedin.kafka.cruisecontrol.analyzer.GoalOptimizer}.
+ */
+public final class BalancingActionEvaluator {
+  private static final Logger LOG = LoggerFactory.getLogger(BalancingActionEvaluator.class);
+  private static final int NO_DECISION = Integer.MAX_VALUE;
+  // Evaluates the candidates sequentially on the caller thread.
+  static final BalancingActionEvaluator SEQUENTIAL = new BalancingActionEvaluator(1);
+  private final int _numThreads;
+  private final ExecutorService _executor;
+
+  /**
+   * @param numThreads Number of threads to evaluate the candidates of a balancing action with. 1 evaluates the candidates
+   *                   sequentially on the caller thread.
+   */
+  public BalancingActionEvaluator(int numThreads) {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("The number of balancing action evaluation threads must be positive, got " + numThreads);
+    }
+    _numThreads = numThreads;
+    _executor = numThreads > 1 ? Executors.newFixedThreadPool(numThreads,
+                                                              new KafkaCruiseControlThreadFactory("BalancingActionEvaluator", true, LOG))
+                               : null;
+  }
+
+  /**
+   * @return Number of threads to evaluate the candidates of a balancing action with.
+   */
+  public int numThreads() {
+    return _numThreads;
+  }
+
+  /**
+   * Shutdown the thread pool of this evaluator, if any.
+   */
+  public void shutdown() {
+    if (_executor != null) {
+      _executor.shutdownNow();
+    }
+  }
+
+  /**
+   * The verdict of the evaluation of a candidate.
+   */
+  enum Verdict {
+    // The candidate is not applicable, continue with the next candidate.
+    SKIP,
+    // The candidate is applicable, the action should use it.
+    ACCEPT,
+    // Neither this nor any of the remaining candidates is applicable.
+    STOP
+  }
+
+  /**
+   * Find the first candidate whose verdict is not {@link Verdict#SKIP}. If this evaluator has more than 1 thread and the
+   * first candidate is not decisive, the caller thread and up to that many threads in total evaluate the remaining
+   * candidates in parallel. Each thread is handed over once per balancing action rather than once per candidate, so the
+   * hand-over cost does not outweigh the evaluation of cheap candidates.
+   *
+   * @param candidates Candidates in the order of evaluation.
+   * @param evaluation Evaluation of a candidate, which must not modify the cluster model or the goal states.
+   * @param <T> The type of the candidates.
+   * @return The first candidate that is not skipped along with its verdict, or {@code null} if all candidates are skipped.
+   */
+  <T> Decision<T> firstDecision(Collection<T> candidates, Function<T, Verdict> evaluation) {
+    if (_executor == null || candidates.size() <= 1) {
+      for (T candidate : candidates) {
+        Verdict verdict = evaluation.apply(candidate);
+        if (verdict != Verdict.SKIP) {
+          return new Decision<>(candidate, verdict);
+        }
+      }
+      return null;
+    }
+    return firstDecisionInParallel(new ArrayList<>(candidates), evaluation);
+  }
+
+  private <T> Decision<T> firstDecisionInParallel(List<T> candidates, Function<T, Verdict> evaluation) {
+    ParallelEvaluation<T> parallelEvaluation = new ParallelEvaluation<>(candidates, evaluation);
+    // The first candidate is often decisive, so the other threads only join the evaluation if it is not.
+    parallelEvaluation.evaluateNext();
+    if (parallelEvaluation.hasNext()) {
+      int numWorkers = Math.min(_numThreads, candidates.size()) - 1;
+      List<Future<?>> workers = new ArrayList<>(numWorkers);
+      for (int i = 0; i < numWorkers; i++) {
+        workers.add(_executor.submit(parallelEvaluation::evaluateRemainingAsWorker));
+      }
+      parallelEvaluation.evaluateRemaining();
+      // Wait for the workers that are still evaluating before returning, so that the caller can safely modify the cluster model.
+      parallelEvaluation.closeAndAwaitWorkers();
+      workers.forEach(worker -> worker.cancel(false));
+    }
+    return parallelEvaluation.decision();
+  }
+
+  /**
+   * The evaluation of the candidates of a balancing action by the caller thread and the workers of the evaluator. Each
+   * thread repeatedly claims the next candidate in the given order and evaluates it, until all candidates are claimed or
+   * a preceding candidate turns out to be decisive. Hence, a candidate is only skipped if it follows a decisive candidate,
+   * and the outcome is identical to evaluating the candidates one after another. Workers that start after the caller
+   * closed the evaluation do not evaluate any candidate.
+   */
+  private static final class ParallelEvaluation<T> {
+    // The flag of the state that indicates the evaluation is closed to the workers that have not started yet.
+    private static final int CLOSED = 1 << 30;
+    private final List<T> _candidates;
+    private final Function<T, Verdict> _evaluation;
+    private final Verdict[] _verdicts;
+    private final RuntimeException[] _failures;
+    private final AtomicInteger _nextIndex;
+    // The lowest index of a candidate whose evaluation is decisive or failed so far.
+    private final AtomicInteger _decisiveIndex;
+    // The number of workers that are evaluating candidates, along with the CLOSED flag.
+    private final AtomicInteger _state;
+
+    ParallelEvaluation(List<T> candidates, Function<T, Verdict> evaluation) {
+      _candidates = candidates;
+      _evaluation = evaluation;
+      _verdicts = new Verdict[candidates.size()];
+      _failures = new RuntimeException[candidates.size()];
+      _nextIndex = new AtomicInteger(0);
+      _decisiveIndex = new AtomicInteger(NO_DECISION);
+      _state = new AtomicInteger(0);
+    }
+
+    /**
+     * @return {@code true} if there is a candidate left to evaluate, {@code false} otherwise.
+     */
+    boolean hasNext() {
+      int index = _nextIndex.get();
+      return index < _candidates.size() && index <= _decisiveIndex.get();
+    }
+
+    /**
+     * Claim and evaluate the next candidate, unless it follows a decisive candidate.
+     *
+     * @return {@code true} if a candidate was evaluated, {@code false} otherwise.
+     */
+    boolean evaluateNext() {
+      int index = _nextIndex.getAndIncrement();
+      if (index >= _candidates.size() || index > _decisiveIndex.get()) {
+        return false;
+      }
+      try {
+        Verdict verdict = _evaluation.apply(_candidates.get(index));
+        if (verdict != Verdict.SKIP) {
+          _verdicts[index] = verdict;
+          _decisiveIndex.accumulateAndGet(index, Math::min);
+        }
+      } catch (RuntimeException re) {
+        // A failure that follows the decisive candidate would not have happened in a sequential evaluation.
+        _failures[index] = re;
+        _decisiveIndex.accumulateAndGet(index, Math::min);
+      }
+      return true;
+    }
+
+    void evaluateRemaining() {
+      while (evaluateNext()) {
+        // Continue with the next candidate.
+      }
+    }
+
+    void evaluateRemainingAsWorker() {
+      int state;
+      do {
+        state = _state.get();
+        if ((state & CLOSED) != 0) {
+          return;
+        }
+      } while (!_state.compareAndSet(state, state + 1));
+      try {
+        evaluateRemaining();
+      } finally {
+        if (_state.decrementAndGet() == CLOSED) {
+          synchronized (this) {
+            notifyAll();
+          }
+        }
+      }
+    }
+
+    /**
+     * Close the evaluation to the workers that have not started yet, and wait for the started workers to finish.
+     */
+    synchronized void closeAndAwaitWorkers() {
+      _state.addAndGet(CLOSED);
+      boolean interrupted = false;
+      while (_state.get() != CLOSED) {
+        try {
+          wait();
+        } catch (InterruptedException ie) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Must be called after the workers are done with the evaluation.
+     *
+     * @return The first candidate that is not skipped along with its verdict, or {@code null} if all candidates are skipped.
+     */
+    Decision<T> decision() {
+      int decisiveIndex = _decisiveIndex.get();
+      if (decisiveIndex == NO_DECISION) {
+        return null;
+      }
+      if (_failures[decisiveIndex] != null) {
+        throw _failures[decisiveIndex];
+      }
+      return new Decision<>(_candidates.get(decisiveIndex), _verdicts[decisiveIndex]);
+    }
+  }
+
+  /**
+   * The first decisive candidate and its verdict.
+   */
+  static final class Decision<T> {
+    private final T _candidate;
+    private final Verdict _verdict;
+
+    Decision(T candidate, Verdict verdict) {
+      _candidate = candidate;
+      _verdict = verdict;
+    }
+
+    T candidate() {
+      return _candidate;
+    }
+
+    Verdict verdict() {
+      return _verdict;
+    }
+  }
+}
@@ -74,6 +74,13 @@ public interface Goal extends CruiseControlConfigurable {
    * requirements. The return value indicates whether the action is accepted or why it is rejected.
    * It is assumed that the given action does not involve replicas regarding excluded topics.
    *
+   * Once this goal has been optimized, this method may be called concurrently by multiple threads, e.g. by the optimization
+   * of a lower priority goal and by the speculative optimizations of the following goals (see
+   * {@link com.linkedin.kafka.cruisecontrol.config.constants.AnalyzerConfig#NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_CONFIG}),
+   * or by the parallel evaluation of the candidates of a balancing action (see {@link BalancingActionEvaluator}).
+   * Hence, the implementation must not modify the state of this goal, and should only read the state set up during
+   * its optimization and the given cluster model.
+   *
    * @param action Action to be checked for acceptance.
    * @param clusterModel State of the cluster before application of the action.
    * @return The action acceptance indicating whether an action is accepted, or why it is rejected.
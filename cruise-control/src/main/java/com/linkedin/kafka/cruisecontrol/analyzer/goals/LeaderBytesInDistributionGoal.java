@@ -77,8 +77,6 @@ public class LeaderBytesInDistributionGoal extends AbstractGoal {
     Replica sourceReplica = clusterModel.broker(action.sourceBrokerId()).replica(action.topicPartition());
     Broker destinationBroker = clusterModel.broker(action.destinationBrokerId());
 
-    initMeanLeaderBytesIn(clusterModel);
-
     if (!sourceReplica.isLeader()) {
       switch (action.balancingAction()) {
         case INTER_BROKER_REPLICA_SWAP:
@@ -176,7 +174,10 @@ public class LeaderBytesInDistributionGoal extends AbstractGoal {
           .numBrokers(clusterModel.maxReplicationFactor()).build();
       throw new OptimizationFailureException(String.format("[%s] All alive brokers are excluded from replica moves.", name()), recommendation);
     }
-    _meanLeaderBytesIn = 0.0;
+    // Balancing actions move the leader bytes in between the alive brokers without changing their sum, hence the mean.
+    double bytesIn = clusterModel.aliveBrokers().stream().mapToDouble(b -> b.leadershipLoadForNwResources()
+                                                                            .expectedUtilizationFor(Resource.NW_IN)).sum();
+    _meanLeaderBytesIn = bytesIn / _brokersAllowedReplicaMove.size();
     _overLimitBrokerIds = new HashSet<>();
     // Sort leader replicas for each broker.
     Set<String> excludedTopics = optimizationOptions.excludedTopics();
@@ -232,14 +233,6 @@ public class LeaderBytesInDistributionGoal extends AbstractGoal {
     }
   }
 
-  private void initMeanLeaderBytesIn(ClusterModel clusterModel) {
-    if (_meanLeaderBytesIn == 0.0) {
-      double bytesIn = clusterModel.aliveBrokers().stream().mapToDouble(b -> b.leadershipLoadForNwResources()
-                                                                              .expectedUtilizationFor(Resource.NW_IN)).sum();
-      _meanLeaderBytesIn = bytesIn / _brokersAllowedReplicaMove.size();
-    }
-  }
-
   /**
    * In this context of this goal the balance threshold can not be measured against an absolute number since leader bytes
    * in is constrained by network capacity but also depends on follower bytes in. We also reuse the NW_IN low utilization
@@ -249,7 +242,6 @@ public class LeaderBytesInDistributionGoal extends AbstractGoal {
    * @return A non-negative value
    */
   private double balanceThreshold(ClusterModel clusterModel, int brokerId) {
-    initMeanLeaderBytesIn(clusterModel);
     double lowUtilizationThreshold =
         _balancingConstraint.lowUtilizationThreshold(Resource.NW_IN) * clusterModel.broker(brokerId).capacityFor(Resource.NW_IN);
     // We only balance leader bytes in rate of the brokers whose leader bytes in rate is higher than the minimum
@@ -5,6 +5,7 @@
 
 package com.linkedin.kafka.cruisecontrol.analyzer.goals;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
 import com.linkedin.kafka.cruisecontrol.analyzer.ProvisionRecommendation;
 import com.linkedin.kafka.cruisecontrol.analyzer.ProvisionResponse;
@@ -55,6 +56,8 @@ import static com.linkedin.kafka.cruisecontrol.analyzer.goals.ResourceDistributi
 public abstract class ResourceDistributionGoal extends AbstractGoal {
   private static final Logger LOG = LoggerFactory.getLogger(ResourceDistributionGoal.class);
   public static final double BALANCE_MARGIN = 0.9;
+  // Relative tolerance of the range of swap utilization deltas against floating point errors in the balance limit checks.
+  private static final double SWAP_DELTA_RANGE_TOLERANCE = 1E-9;
   // Flag to indicate whether the self healing failed to relocate all offline replicas away from dead brokers or broken
   // disks in its initial attempt and currently omitting the resource balance limit to relocate remaining replicas.
   private boolean _fixOfflineReplicasOnly;
@@ -67,6 +70,11 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
   private boolean _isLowUtilization;
   // The recommendation to be used in case the cluster is overprovisioned
   private ProvisionRecommendation _overProvisionedRecommendation;
+  // The time spent in swapping replicas during the last optimization.
+  private long _swapDurationMs;
+  // Whether to skip the swaps of source replicas that no candidate replica can swap with within the balance limits.
+  @VisibleForTesting
+  boolean _swapCandidatePruningEnabled = true;
 
   /**
    * Constructor for Resource Distribution Goal.
@@ -85,6 +93,13 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
 
   protected abstract Resource resource();
 
+  /**
+   * @return The time spent in swapping replicas during the last optimization of this goal.
+   */
+  public long swapDurationMs() {
+    return _swapDurationMs;
+  }
+
   /**
    * Check whether given action is acceptable by this goal. An action is acceptable by this goal if it satisfies the
    * following: (1) if both source and destination brokers were within the limit before the action, the corresponding
@@ -242,6 +257,7 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
       throw new OptimizationFailureException(String.format("[%s] All alive brokers are excluded from replica moves.", name()), recommendation);
     }
     _fixOfflineReplicasOnly = false;
+    _swapDurationMs = 0L;
     double resourceUtilization = clusterModel.load().expectedUtilizationFor(resource());
     double capacity = clusterModel.capacityWithAllowedReplicaMovesFor(resource(), optimizationOptions);
     // Cluster utilization excludes the capacity of brokers excluded for replica moves.
@@ -420,12 +436,17 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
     boolean unbalanced = false;
     if (requireLessLoad) {
       if (rebalanceByMovingLoadOut(broker, clusterModel, optimizedGoals, INTER_BROKER_REPLICA_MOVEMENT, optimizationOptions)) {
+        long swapStartTimeMs = System.currentTimeMillis();
         unbalanced = rebalanceBySwappingLoadOut(broker, clusterModel, optimizedGoals, optimizationOptions, moveImmigrantsOnly);
+        _swapDurationMs += System.currentTimeMillis() - swapStartTimeMs;
       }
     }
     if (requireMoreLoad) {
-      if (rebalanceByMovingLoadIn(broker, clusterModel, optimizedGoals, INTER_BROKER_REPLICA_MOVEMENT, optimizationOptions, moveImmigrantsOnly)) {
-        unbalanced = unbalanced || rebalanceBySwappingLoadIn(broker, clusterModel, optimizedGoals, optimizationOptions, moveImmigrantsOnly);
+      if (rebalanceByMovingLoadIn(broker, clusterModel, optimizedGoals, INTER_BROKER_REPLICA_MOVEMENT, optimizationOptions, moveImmigrantsOnly)
+          && !unbalanced) {
+        long swapStartTimeMs = System.currentTimeMillis();
+        unbalanced = rebalanceBySwappingLoadIn(broker, clusterModel, optimizedGoals, optimizationOptions, moveImmigrantsOnly);
+        _swapDurationMs += System.currentTimeMillis() - swapStartTimeMs;
       }
     }
 
@@ -643,6 +664,7 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
       candidateBrokerPQ.add(candidate);
     }
 
+    double[] sourceReplicaLoads = loads(sourceReplicas);
     long perBrokerSwapTimeoutMs = 2 * _balancingConstraint.fastModePerBrokerMoveTimeoutMs();
     while (!candidateBrokerPQ.isEmpty()) {
       if (remainingTimeMs(perBrokerSwapTimeoutMs, swapStartTimeMs) <= 0) {
@@ -651,12 +673,24 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
       }
 
       Broker cb = candidateBrokerPQ.poll();
+      SortedSet<Replica> candidateReplicas = cb.trackedSortedReplicas(candidateReplicaSortName).sortedReplicas(false);
+      if (_swapCandidatePruningEnabled && candidateReplicas.isEmpty()) {
+        continue;
+      }
+      SwapDeltaRange swapDeltaRange = swapDeltaRange(broker, cb);
+      double[] candidateReplicaLoadRange = loadRange(candidateReplicas);
       Replica swappedInReplica = null;
+      int sourceReplicaIndex = 0;
       for (Replica sourceReplica : sourceReplicas) {
+        double sourceReplicaLoad = sourceReplicaLoads[sourceReplicaIndex++];
+        if (_swapCandidatePruningEnabled && !swapDeltaRange.overlaps(candidateReplicaLoadRange, sourceReplicaLoad)) {
+          // No candidate replica can be swapped with this source replica without violating the balance limits.
+          continue;
+        }
         // Try swapping the source with the candidate replicas. Get the swapped in replica if successful, null otherwise.
         Replica swappedIn = maybeApplySwapAction(clusterModel,
                                                  sourceReplica,
-                                                 cb.trackedSortedReplicas(candidateReplicaSortName).sortedReplicas(false),
+                                                 candidateReplicas,
                                                  optimizedGoals,
                                                  optimizationOptions);
         if (swappedIn != null) {
@@ -677,6 +711,7 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
 
       if (swappedInReplica != null) {
         sourceReplicas = broker.trackedSortedReplicas(sourceReplicaSortName).sortedReplicas(false);
+        sourceReplicaLoads = loads(sourceReplicas);
         // The broker is still considered as an eligible candidate replica, because the swap was successful -- i.e. there
         // might be other potential candidate replicas on it to swap with.
         candidateBrokerPQ.add(cb);
@@ -732,6 +767,7 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
       candidateBrokerPQ.add(candidate);
     }
 
+    double[] sourceReplicaLoads = loads(sourceReplicas);
     long perBrokerSwapTimeoutMs = 2 * _balancingConstraint.fastModePerBrokerMoveTimeoutMs();
     while (!candidateBrokerPQ.isEmpty()) {
       if (remainingTimeMs(perBrokerSwapTimeoutMs, swapStartTimeMs) <= 0) {
@@ -739,11 +775,21 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
         break;
       }
       Broker cb = candidateBrokerPQ.poll();
-
+      SortedSet<Replica> candidateReplicas = cb.trackedSortedReplicas(candidateReplicaSortName).sortedReplicas(false);
+      if (_swapCandidatePruningEnabled && candidateReplicas.isEmpty()) {
+        continue;
+      }
+      SwapDeltaRange swapDeltaRange = swapDeltaRange(broker, cb);
+      double[] candidateReplicaLoadRange = loadRange(candidateReplicas);
       Replica swappedInReplica = null;
+      int sourceReplicaIndex = 0;
       for (Replica sourceReplica : sourceReplicas) {
+        double sourceReplicaLoad = sourceReplicaLoads[sourceReplicaIndex++];
+        if (_swapCandidatePruningEnabled && !swapDeltaRange.overlaps(candidateReplicaLoadRange, sourceReplicaLoad)) {
+          // No candidate replica can be swapped with this source replica without violating the balance limits.
+          continue;
+        }
         // Try swapping the source with the candidate replicas. Get the swapped in replica if successful, null otherwise.
-        SortedSet<Replica> candidateReplicas = cb.trackedSortedReplicas(candidateReplicaSortName).sortedReplicas(false);
         Replica swappedIn = maybeApplySwapAction(clusterModel,
                                                  sourceReplica,
                                                  candidateReplicas,
@@ -767,6 +813,7 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
 
       if (swappedInReplica != null) {
         sourceReplicas = broker.trackedSortedReplicas(sourceReplicaSortName).sortedReplicas(false);
+        sourceReplicaLoads = loads(sourceReplicas);
         // The broker is still considered as an eligible candidate replica, because the swap was successful -- i.e. there
         // might be other potential candidate replicas on it to swap with.
         candidateBrokerPQ.add(cb);
@@ -776,6 +823,26 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
     return true;
   }
 
+  private double[] loads(SortedSet<Replica> replicas) {
+    double[] loads = new double[replicas.size()];
+    int index = 0;
+    for (Replica replica : replicas) {
+      loads[index++] = replica.load().expectedUtilizationFor(resource());
+    }
+    return loads;
+  }
+
+  private double[] loadRange(SortedSet<Replica> replicas) {
+    double minLoad = Double.MAX_VALUE;
+    double maxLoad = -Double.MAX_VALUE;
+    for (Replica replica : replicas) {
+      double load = replica.load().expectedUtilizationFor(resource());
+      minLoad = Math.min(minLoad, load);
+      maxLoad = Math.max(maxLoad, load);
+    }
+    return new double[]{minLoad, maxLoad};
+  }
+
   private boolean rebalanceByMovingLoadOut(Broker broker,
                                            ClusterModel clusterModel,
                                            Set<Goal> optimizedGoals,
@@ -1036,6 +1103,67 @@ public abstract class ResourceDistributionGoal extends AbstractGoal {
     return !isContainerAboveLowerLimit;
   }
 
+  /**
+   * Get the range of source utilization deltas -- i.e. the utilization of a destination replica minus the utilization of
+   * a source replica -- with which a swap between the given brokers may satisfy {@link #isSwapViolatingLimit(Replica, Replica)}.
+   * Swaps with a delta out of this range violate the balance limits.
+   *
+   * @param sourceBroker Source broker of the swap.
+   * @param destinationBroker Destination broker of the swap.
+   * @return The range of source utilization deltas with which a swap between the given brokers may be self-satisfied.
+   */
+  private SwapDeltaRange swapDeltaRange(Broker sourceBroker, Broker destinationBroker) {
+    SwapDeltaRange brokerRange = containerSwapDeltaRange(sourceBroker.load().expectedUtilizationFor(resource()),
+                                                         sourceBroker.capacityFor(resource()),
+                                                         destinationBroker.load().expectedUtilizationFor(resource()),
+                                                         destinationBroker.capacityFor(resource()));
+    if (!resource().isHostResource()) {
+      return brokerRange;
+    }
+    // A swap that violates the broker limits does not violate the limit if it satisfies the host limits.
+    SwapDeltaRange hostRange = containerSwapDeltaRange(sourceBroker.host().load().expectedUtilizationFor(resource()),
+                                                       sourceBroker.host().capacityFor(resource()),
+                                                       destinationBroker.host().load().expectedUtilizationFor(resource()),
+                                                       destinationBroker.host().capacityFor(resource()));
+    return new SwapDeltaRange(Math.min(brokerRange._minDelta, hostRange._minDelta), Math.max(brokerRange._maxDelta, hostRange._maxDelta));
+  }
+
+  private SwapDeltaRange containerSwapDeltaRange(double sourceContainerUtilization,
+                                                 double sourceContainerCapacity,
+                                                 double destinationContainerUtilization,
+                                                 double destinationContainerCapacity) {
+    // A positive delta must keep the source under the balance upper limit and the destination above the balance lower limit.
+    double maxDelta = Math.min(sourceContainerCapacity * _balanceUpperThreshold - sourceContainerUtilization,
+                               destinationContainerUtilization - destinationContainerCapacity * _balanceLowerThreshold);
+    // A negative delta must keep the destination under the balance upper limit and the source above the balance lower limit.
+    double minDelta = -Math.min(destinationContainerCapacity * _balanceUpperThreshold - destinationContainerUtilization,
+                                sourceContainerUtilization - sourceContainerCapacity * _balanceLowerThreshold);
+    double tolerance = SWAP_DELTA_RANGE_TOLERANCE * Math.max(1.0, Math.max(sourceContainerCapacity, destinationContainerCapacity));
+    return new SwapDeltaRange(Math.min(minDelta, 0.0) - tolerance, Math.max(maxDelta, 0.0) + tolerance);
+  }
+
+  /**
+   * The range of source utilization deltas with which a swap between two brokers may be within the balance limits.
+   */
+  private static final class SwapDeltaRange {
+    private final double _minDelta;
+    private final double _maxDelta;
+
+    SwapDeltaRange(double minDelta, double maxDelta) {
+      _minDelta = minDelta;
+      _maxDelta = maxDelta;
+    }
+
+    /**
+     * @param candidateReplicaLoadRange The minimum and the maximum load of the candidate replicas to swap with.
+     * @param sourceReplicaLoad The load of the source replica.
+     * @return {@code true} if a swap of the source replica with a candidate replica may have a delta within this range.
+     */
+    boolean overlaps(double[] candidateReplicaLoadRange, double sourceReplicaLoad) {
+      return candidateReplicaLoadRange[1] - sourceReplicaLoad >= _minDelta && candidateReplicaLoadRange[0] - sourceReplicaLoad <= _maxDelta;
+    }
+  }
+
   private class ResourceDistributionGoalStatsComparator implements ClusterModelStatsComparator {
     private String _reasonForLastNegativeResult;
 
@@ -460,6 +460,57 @@ public final class AnalyzerConfig {
       String.format("The class implements %s interface and is used to generate replica to broker set mapping.",
                     ReplicaToBrokerSetMappingPolicy.class.getName());
 
+  /**
+   * <code>num.speculative.goal.optimization.threads</code>
+   */
+  public static final String NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_CONFIG = "num.speculative.goal.optimization.threads";
+  public static final int DEFAULT_NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS = 0;
+  public static final String NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_DOC = "The number of threads used to speculatively "
+      + "optimize the goals that follow the goal being optimized on copies of the cluster model. A speculative optimization "
+      + "is used only if neither it nor the optimization of any higher priority goal has relocated a replica or leadership, "
+      + "so the result is identical to optimizing the goals one after another. The more threads are used, the more memory "
+      + "and CPU resource will be used. Enabling it requires the goals' action acceptance checks to be thread-safe and free of "
+      + "side effects, which holds for the goals shipped with Cruise Control. 0 disables speculative goal optimization.";
+
+  /**
+   * <code>num.balancing.action.evaluation.threads</code>
+   */
+  public static final String NUM_BALANCING_ACTION_EVALUATION_THREADS_CONFIG = "num.balancing.action.evaluation.threads";
+  public static final int DEFAULT_NUM_BALANCING_ACTION_EVALUATION_THREADS = 1;
+  public static final String NUM_BALANCING_ACTION_EVALUATION_THREADS_DOC = "The number of threads used by a goal to evaluate the candidate "
+      + "destination brokers or replicas of a balancing action in parallel. The evaluation only reads the cluster model and "
+      + "the first acceptable candidate in the original order is applied, so the optimization result is the same as with "
+      + "a single thread. The threads are shared by all goals optimized by the goal optimizer. Using more than 1 thread requires "
+      + "the goals' action acceptance and self-satisfaction checks to be thread-safe, which holds for the goals shipped with "
+      + "Cruise Control. 1 evaluates the candidates sequentially.";
+
+  /**
+   * <code>proposal.cache.max.entries</code>
+   */
+  public static final String PROPOSAL_CACHE_MAX_ENTRIES_CONFIG = "proposal.cache.max.entries";
+  public static final int DEFAULT_PROPOSAL_CACHE_MAX_ENTRIES = 8;
+  public static final String PROPOSAL_CACHE_MAX_ENTRIES_DOC = "The maximum number of optimization results cached for proposal "
+      + "requests with non-default goals or options, such as requested goals, excluded topics or destination brokers. The least "
+      + "recently used result is evicted once the cache is full. 0 disables caching these results.";
+
+  /**
+   * <code>proposal.cache.max.proposals</code>
+   */
+  public static final String PROPOSAL_CACHE_MAX_PROPOSALS_CONFIG = "proposal.cache.max.proposals";
+  public static final int DEFAULT_PROPOSAL_CACHE_MAX_PROPOSALS = 100000;
+  public static final String PROPOSAL_CACHE_MAX_PROPOSALS_DOC = "The maximum total number of proposals in the optimization results "
+      + "cached for proposal requests with non-default goals or options. The least recently used results are evicted until the "
+      + "cached proposals fit in this limit.";
+
+  /**
+   * <code>proposal.cache.num.warmed.entries</code>
+   */
+  public static final String PROPOSAL_CACHE_NUM_WARMED_ENTRIES_CONFIG = "proposal.cache.num.warmed.entries";
+  public static final int DEFAULT_PROPOSAL_CACHE_NUM_WARMED_ENTRIES = 2;
+  public static final String PROPOSAL_CACHE_NUM_WARMED_ENTRIES_DOC = "The number of most frequently requested optimization results "
+      + "for non-default goals or options that the proposal precomputing threads recompute once the cached results become "
+      + "stale. 0 disables warming these results.";
+
   private AnalyzerConfig() {
   }
 
@@ -700,6 +751,36 @@ public final class AnalyzerConfig {
                     .define(REPLICA_TO_BROKER_SET_MAPPING_POLICY_CLASS_CONFIG,
                             ConfigDef.Type.CLASS, DEFAULT_REPLICA_TO_BROKER_SET_MAPPING_POLICY_CLASS,
                             ConfigDef.Importance.LOW,
-                            REPLICA_TO_BROKER_SET_MAPPING_POLICY_CLASS_DOC);
+                            REPLICA_TO_BROKER_SET_MAPPING_POLICY_CLASS_DOC)
+                    .define(NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_DOC)
+                    .define(NUM_BALANCING_ACTION_EVALUATION_THREADS_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_NUM_BALANCING_ACTION_EVALUATION_THREADS,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            NUM_BALANCING_ACTION_EVALUATION_THREADS_DOC)
+                    .define(PROPOSAL_CACHE_MAX_ENTRIES_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_PROPOSAL_CACHE_MAX_ENTRIES,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            PROPOSAL_CACHE_MAX_ENTRIES_DOC)
+                    .define(PROPOSAL_CACHE_MAX_PROPOSALS_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_PROPOSAL_CACHE_MAX_PROPOSALS,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            PROPOSAL_CACHE_MAX_PROPOSALS_DOC)
+                    .define(PROPOSAL_CACHE_NUM_WARMED_ENTRIES_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_PROPOSAL_CACHE_NUM_WARMED_ENTRIES,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            PROPOSAL_CACHE_NUM_WARMED_ENTRIES_DOC);
   }
 }
@@ -118,6 +118,15 @@ public final class AnomalyDetectorConfig {
   public static final String SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_DOC = "True if recently removed brokers "
       + "are excluded from optimizations during self healing, false otherwise.";
 
+  /**
+   * <code>self.healing.optimization.timeout.ms</code>
+   */
+  public static final String SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG = "self.healing.optimization.timeout.ms";
+  public static final Long DEFAULT_SELF_HEALING_OPTIMIZATION_TIMEOUT_MS = null;
+  public static final String SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_DOC = "The maximum time in milliseconds to optimize the goals "
+      + "during self healing. Goals that are not optimized when the timeout passes are cut short. If a hard goal is cut short, "
+      + "the self healing fails without executing any proposal. If not set, the optimization is not bounded.";
+
   /**
    * @deprecated
    * <code>failed.brokers.zk.path</code>
@@ -377,6 +386,11 @@ public final class AnomalyDetectorConfig {
                             DEFAULT_SELF_HEALING_EXCLUDE_RECENT_BROKERS_CONFIG,
                             ConfigDef.Importance.MEDIUM,
                             SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_DOC)
+                    .define(SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_SELF_HEALING_OPTIMIZATION_TIMEOUT_MS,
+                            ConfigDef.Importance.LOW,
+                            SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_DOC)
                     .define(FAILED_BROKERS_ZK_PATH_CONFIG,
                             ConfigDef.Type.STRING,
                             DEFAULT_FAILED_BROKERS_ZK_PATH,
@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.config.constants;
 import com.linkedin.kafka.cruisecontrol.executor.ExecutorNoopNotifier;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PostponeUrpReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeBottleneckBrokerReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeLargeReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeMinIsrWithOfflineReplicasStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeOneAboveMinIsrWithOfflineReplicasStrategy;
@@ -216,6 +217,7 @@ public final class ExecutorConfig {
       .add(PrioritizeSmallReplicaMovementStrategy.class.getName())
       .add(PrioritizeMinIsrWithOfflineReplicasStrategy.class.getName())
       .add(PrioritizeOneAboveMinIsrWithOfflineReplicasStrategy.class.getName())
+      .add(PrioritizeBottleneckBrokerReplicaMovementStrategy.class.getName())
       .add(BaseReplicaMovementStrategy.class.getName()).toString();
   public static final String REPLICA_MOVEMENT_STRATEGIES_DOC = "A list of supported strategies used to determine execution"
       + " order for generated partition movement tasks.";
@@ -610,6 +612,49 @@ public final class ExecutorConfig {
   public static final String AUTO_STOP_EXTERNAL_AGENT_DOC = "When starting a new proposal execution while external agent is reassigning partitions,"
       + " automatically stop the external agent and start the execution."
       + " Set to false to keep the external agent reassignment and skip starting the execution.";
+
+  /**
+   * <code>inter.broker.replica.movement.streaming.enabled</code>
+   */
+  public static final String INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_CONFIG = "inter.broker.replica.movement.streaming.enabled";
+  public static final boolean DEFAULT_INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED = false;
+  public static final String INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_DOC = "If true, while waiting for the ongoing inter-broker"
+      + " partition movements, the executor polls the ongoing partition reassignments every"
+      + " inter.broker.replica.movement.streaming.check.interval.ms and checks the execution progress as soon as any of the"
+      + " movements is no longer being reassigned. The concurrency freed by the finished movements is then used by the next"
+      + " movements right away, instead of after the execution progress check interval.";
+
+  /**
+   * <code>inter.broker.replica.movement.streaming.check.interval.ms</code>
+   */
+  public static final String INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_CONFIG =
+      "inter.broker.replica.movement.streaming.check.interval.ms";
+  public static final long DEFAULT_INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(1);
+  public static final String INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_DOC = "The interval in milliseconds to poll the"
+      + " ongoing partition reassignments for finished inter-broker partition movements, if"
+      + " inter.broker.replica.movement.streaming.enabled is true.";
+
+  /**
+   * <code>early.leadership.movement.enabled</code>
+   */
+  public static final String EARLY_LEADERSHIP_MOVEMENT_ENABLED_CONFIG = "early.leadership.movement.enabled";
+  public static final boolean DEFAULT_EARLY_LEADERSHIP_MOVEMENT_ENABLED = false;
+  public static final String EARLY_LEADERSHIP_MOVEMENT_ENABLED_DOC = "If true, the executor moves the leadership of the partitions"
+      + " that have no inter-broker or intra-broker replica movement before starting the replica movements, instead of after all"
+      + " the replica movements finish. The replicas of these partitions are reordered before their leadership moves. The"
+      + " leadership movement concurrency of each broker and of the cluster still applies.";
+
+  /**
+   * <code>max.inter.broker.data.in.flight.per.broker.mb</code>
+   */
+  public static final String MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB_CONFIG = "max.inter.broker.data.in.flight.per.broker.mb";
+  public static final long DEFAULT_MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB = -1L;
+  public static final String MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB_DOC = "The maximum size in MB of the ongoing inter-broker"
+      + " partition movements that each broker sends or receives. A broker without any ongoing inter-broker partition movement"
+      + " can always start one, so a partition larger than this limit is still moved. Once the large movements fill the limit"
+      + " of a broker, the smaller movements that still fit are started alongside them. The per-broker inter-broker partition"
+      + " movement concurrency still applies. A non-positive value disables this limit.";
+
   private ExecutorConfig() {
   }
 
@@ -990,6 +1035,27 @@ public final class ExecutorConfig {
                             ConfigDef.Type.BOOLEAN,
                             DEFAULT_AUTO_STOP_EXTERNAL_AGENT,
                             ConfigDef.Importance.MEDIUM,
-                            AUTO_STOP_EXTERNAL_AGENT_DOC);
+                            AUTO_STOP_EXTERNAL_AGENT_DOC)
+                    .define(INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED,
+                            ConfigDef.Importance.MEDIUM,
+                            INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_DOC)
+                    .define(INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_DOC)
+                    .define(EARLY_LEADERSHIP_MOVEMENT_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_EARLY_LEADERSHIP_MOVEMENT_ENABLED,
+                            ConfigDef.Importance.MEDIUM,
+                            EARLY_LEADERSHIP_MOVEMENT_ENABLED_DOC)
+                    .define(MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB,
+                            ConfigDef.Importance.MEDIUM,
+                            MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB_DOC);
   }
 }
@@ -365,6 +365,93 @@ public final class MonitorConfig {
   public static final String METADATA_FACTOR_EXPONENT_DOC = "The exponent for the metadata factor, which corresponds to "
       + "(number of replicas) * (number of brokers with replicas) ^ exponent.";
 
+  /**
+   * <code>use.slab.for.replica.load</code>
+   */
+  public static final String USE_SLAB_FOR_REPLICA_LOAD_CONFIG = "use.slab.for.replica.load";
+  public static final boolean DEFAULT_USE_SLAB_FOR_REPLICA_LOAD = false;
+  public static final String USE_SLAB_FOR_REPLICA_LOAD_DOC = "Whether to pack the metric values of all replica loads "
+      + "in a cluster model into a few large shared arrays rather than allocating a value array per replica and metric. "
+      + "Enabling it reduces the heap usage and the garbage collection overhead of generating cluster models for large clusters.";
+
+  /**
+   * <code>use.cluster.model.snapshot</code>
+   */
+  public static final String USE_CLUSTER_MODEL_SNAPSHOT_CONFIG = "use.cluster.model.snapshot";
+  public static final boolean DEFAULT_USE_CLUSTER_MODEL_SNAPSHOT = false;
+  public static final String USE_CLUSTER_MODEL_SNAPSHOT_DOC = "If true, the load monitor keeps the latest cluster model populated from the "
+      + "metric samples as a snapshot and hands out copies of it until either the cluster metadata or the aggregated metric "
+      + "samples change. This avoids re-aggregating the metric samples and re-resolving the broker capacities for each request "
+      + "to the latest cluster model. Upon such changes, only the partitions whose replica placement or load has changed are "
+      + "repopulated in the snapshot, unless the brokers, their states or the metric windows have changed.";
+
+  /**
+   * <code>partition.metric.sample.aggregator.slab.enabled</code>
+   */
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED_CONFIG = "partition.metric.sample.aggregator.slab.enabled";
+  public static final boolean DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED = false;
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED_DOC = "Whether the partition metric sample "
+      + "aggregator packs the raw metric values of all partitions into a few large shared arrays rather than keeping "
+      + "dedicated arrays for each partition. Enabling it reduces the heap footprint and the garbage collection overhead "
+      + "of clusters with many partitions.";
+
+  /**
+   * <code>num.partition.metric.sample.aggregation.threads</code>
+   */
+  public static final String NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS_CONFIG = "num.partition.metric.sample.aggregation.threads";
+  public static final int DEFAULT_NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS = 1;
+  public static final String NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS_DOC = "The number of threads to aggregate "
+      + "the partition metric samples with. With more than one thread, the partitions are split into shards, which are "
+      + "aggregated in parallel.";
+
+  /**
+   * <code>partition.metric.sample.aggregation.shard.size</code>
+   */
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE_CONFIG = "partition.metric.sample.aggregation.shard.size";
+  public static final int DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE = 4096;
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE_DOC = "The maximum number of partitions in "
+      + "a shard of a parallel partition metric sample aggregation.";
+
+  /**
+   * <code>partition.metric.sample.aggregation.shared.buffers.enabled</code>
+   */
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED_CONFIG =
+      "partition.metric.sample.aggregation.shared.buffers.enabled";
+  public static final boolean DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED = false;
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED_DOC = "Whether the aggregated "
+      + "metric values of the partitions in a shard of a partition metric sample aggregation share a buffer rather than "
+      + "having dedicated arrays for each partition and metric.";
+
+  /**
+   * <code>partition.metric.sample.aggregator.window.summary.enabled</code>
+   */
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED_CONFIG =
+      "partition.metric.sample.aggregator.window.summary.enabled";
+  public static final boolean DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED = false;
+  public static final String PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED_DOC = "Whether the partition "
+      + "metric sample aggregator keeps a summary of the aggregated stable windows of each partition and reuses it until a "
+      + "window rolls out or a sample is added to a stable window. This speeds up the repeated aggregations of the same "
+      + "windows at the cost of keeping a copy of the aggregated metric values of each partition.";
+
+  /**
+   * <code>metric.sample.aggregator.checkpoint.dir</code>
+   */
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG = "metric.sample.aggregator.checkpoint.dir";
+  public static final String DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR = "";
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_DOC = "The local directory to periodically write the "
+      + "checkpoints of the state of the partition and broker metric sample aggregators to. Upon startup, the aggregators are "
+      + "restored from their checkpoints, and only the samples added after the checkpoints are loaded from the sample store. "
+      + "An empty value disables the checkpoints.";
+
+  /**
+   * <code>metric.sample.aggregator.checkpoint.interval.ms</code>
+   */
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG =
+      "metric.sample.aggregator.checkpoint.interval.ms";
+  public static final long DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_DOC = "The interval in milliseconds between "
+      + "the checkpoints of the state of the metric sample aggregators, if metric.sample.aggregator.checkpoint.dir is set.";
+
   private MonitorConfig() {
   }
 
@@ -607,6 +694,54 @@ public final class MonitorConfig {
                             DEFAULT_METADATA_FACTOR_EXPONENT,
                             atLeast(1.0),
                             ConfigDef.Importance.LOW,
-                            METADATA_FACTOR_EXPONENT_DOC);
+                            METADATA_FACTOR_EXPONENT_DOC)
+                    .define(USE_SLAB_FOR_REPLICA_LOAD_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_USE_SLAB_FOR_REPLICA_LOAD,
+                            ConfigDef.Importance.LOW,
+                            USE_SLAB_FOR_REPLICA_LOAD_DOC)
+                    .define(USE_CLUSTER_MODEL_SNAPSHOT_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_USE_CLUSTER_MODEL_SNAPSHOT,
+                            ConfigDef.Importance.LOW,
+                            USE_CLUSTER_MODEL_SNAPSHOT_DOC)
+                    .define(PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED,
+                            ConfigDef.Importance.LOW,
+                            PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED_DOC)
+                    .define(NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS_DOC)
+                    .define(PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE_DOC)
+                    .define(PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED,
+                            ConfigDef.Importance.LOW,
+                            PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED_DOC)
+                    .define(PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED,
+                            ConfigDef.Importance.LOW,
+                            PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED_DOC)
+                    .define(METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG,
+                            ConfigDef.Type.STRING,
+                            DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR,
+                            ConfigDef.Importance.LOW,
+                            METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_DOC)
+                    .define(METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_DOC);
   }
 }
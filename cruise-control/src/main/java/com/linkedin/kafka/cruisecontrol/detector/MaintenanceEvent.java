@@ -28,6 +28,7 @@ import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorC
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.RF_SELF_HEALING_SKIP_RACK_AWARENESS_CHECK_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_EXCLUDE_RECENTLY_DEMOTED_BROKERS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.getSelfHealingGoalNames;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyUtils.extractKafkaCruiseControlObjectFromConfig;
 import static com.linkedin.kafka.cruisecontrol.detector.notifier.KafkaAnomalyType.MAINTENANCE_EVENT;
@@ -152,6 +153,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
     boolean allowCapacityEstimation = config.getBoolean(ANOMALY_DETECTION_ALLOW_CAPACITY_ESTIMATION_CONFIG);
     boolean excludeRecentlyDemotedBrokers = config.getBoolean(SELF_HEALING_EXCLUDE_RECENTLY_DEMOTED_BROKERS_CONFIG);
     boolean excludeRecentlyRemovedBrokers = config.getBoolean(SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_CONFIG);
+    Long optimizationTimeoutMs = config.getLong(SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG);
     boolean skipRackAwarenessCheck = config.getBoolean(RF_SELF_HEALING_SKIP_RACK_AWARENESS_CHECK_CONFIG);
     _optimizationResult = null;
     _maintenanceEventType = (MaintenanceEventType) configs.get(MAINTENANCE_EVENT_TYPE_CONFIG);
@@ -165,6 +167,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                              allowCapacityEstimation,
                                                              excludeRecentlyDemotedBrokers,
                                                              excludeRecentlyRemovedBrokers,
+                                                             optimizationTimeoutMs,
                                                              _anomalyId.toString(),
                                                              reasonSupplier(),
                                                              stopOngoingExecution());
@@ -177,6 +180,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                                 allowCapacityEstimation,
                                                                 excludeRecentlyDemotedBrokers,
                                                                 excludeRecentlyRemovedBrokers,
+                                                                optimizationTimeoutMs,
                                                                 _anomalyId.toString(),
                                                                 reasonSupplier(),
                                                                 stopOngoingExecution());
@@ -187,6 +191,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                                      allowCapacityEstimation,
                                                                      excludeRecentlyDemotedBrokers,
                                                                      excludeRecentlyRemovedBrokers,
+                                                                     optimizationTimeoutMs,
                                                                      _anomalyId.toString(),
                                                                      reasonSupplier(),
                                                                      stopOngoingExecution());
@@ -197,6 +202,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                             allowCapacityEstimation,
                                                             excludeRecentlyDemotedBrokers,
                                                             excludeRecentlyRemovedBrokers,
+                                                            optimizationTimeoutMs,
                                                             _anomalyId.toString(),
                                                             reasonSupplier(),
                                                             stopOngoingExecution());
@@ -207,6 +213,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                                _brokers,
                                                                allowCapacityEstimation,
                                                                excludeRecentlyDemotedBrokers,
+                                                               optimizationTimeoutMs,
                                                                _anomalyId.toString(),
                                                                reasonSupplier(),
                                                                stopOngoingExecution());
@@ -219,6 +226,7 @@ public class MaintenanceEvent extends KafkaAnomaly {
                                                                            allowCapacityEstimation,
                                                                            excludeRecentlyDemotedBrokers,
                                                                            excludeRecentlyRemovedBrokers,
+                                                                           optimizationTimeoutMs,
                                                                            _anomalyId.toString(),
                                                                            reasonSupplier(),
                                                                            stopOngoingExecution(),
@@ -19,6 +19,7 @@ import java.util.stream.Collectors;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.ANOMALY_DETECTION_ALLOW_CAPACITY_ESTIMATION_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_EXCLUDE_RECENTLY_DEMOTED_BROKERS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.getSelfHealingGoalNames;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyUtils.extractKafkaCruiseControlObjectFromConfig;
 
@@ -77,6 +78,7 @@ public class SlowBrokers extends KafkaMetricAnomaly {
       boolean allowCapacityEstimation = config.getBoolean(ANOMALY_DETECTION_ALLOW_CAPACITY_ESTIMATION_CONFIG);
       boolean excludeRecentlyDemotedBrokers = config.getBoolean(SELF_HEALING_EXCLUDE_RECENTLY_DEMOTED_BROKERS_CONFIG);
       boolean excludeRecentlyRemovedBrokers = config.getBoolean(SELF_HEALING_EXCLUDE_RECENTLY_REMOVED_BROKERS_CONFIG);
+      Long optimizationTimeoutMs = config.getLong(SELF_HEALING_OPTIMIZATION_TIMEOUT_MS_CONFIG);
       if (removeSlowBroker) {
         _removeBrokersRunnable =
             new RemoveBrokersRunnable(kafkaCruiseControl,
@@ -86,6 +88,7 @@ public class SlowBrokers extends KafkaMetricAnomaly {
                                       allowCapacityEstimation,
                                       excludeRecentlyDemotedBrokers,
                                       excludeRecentlyRemovedBrokers,
+                                      optimizationTimeoutMs,
                                       _anomalyId.toString(),
                                       reasonSupplier(),
                                       stopOngoingExecution());
@@ -96,6 +99,7 @@ public class SlowBrokers extends KafkaMetricAnomaly {
                                                                        .collect(Collectors.toSet()),
                                      allowCapacityEstimation,
                                      excludeRecentlyDemotedBrokers,
+                                     optimizationTimeoutMs,
                                      _anomalyId.toString(),
                                      reasonSupplier(),
                                      stopOngoingExecution());
@@ -227,6 +227,14 @@ public class ExecutionProposal {
     return _replicasToAdd.size() * _partitionSize;
   }
 
+  /**
+   * @return The data in MB that each destination broker receives from the inter-broker replica movements of this
+   * proposal. The source broker sends all the {@link #interBrokerDataToMoveInMB()}.
+   */
+  public long interBrokerDataToMoveInMBPerDestination() {
+    return _replicasToAdd.isEmpty() ? 0L : interBrokerDataToMoveInMB() / _replicasToAdd.size();
+  }
+
   /**
    * @return The total number of bytes to move across disks within the broker involved in this proposal.
    *         Note for intra-broker replica movement on a broker, the amount of data to move across disk is
@@ -6,6 +6,7 @@ package com.linkedin.kafka.cruisecontrol.executor;
 
 import com.codahale.metrics.MetricRegistry;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.executor.concurrency.ExecutionConcurrencyManager;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.StrategyOptions;
@@ -15,6 +16,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.Time;
@@ -28,21 +30,24 @@ import static com.linkedin.kafka.cruisecontrol.executor.ExecutionTaskTracker.Exe
  * It does the following things:
  * 1. Keep track of the in progress partition movements between each pair of source-destination disk or broker.
  * 2. When one partition movement finishes, it checks the involved brokers to see if we can run more partition movements.
- * We only keep track of the number of concurrent partition movements but not the sizes of the partitions.
- * Because the concurrent level determines how much impact the balancing process would have on the involved
- * brokers. And the size of partitions only affect how long the impact would last.
+ * We keep track of the number of concurrent partition movements, because the concurrent level determines how much
+ * impact the balancing process would have on the involved brokers. The size of the concurrent inter-broker partition
+ * movements is also tracked, so the data in flight of each broker can optionally be capped as well.
  *
  * The execution task manager is thread-safe.
  */
 public class ExecutionTaskManager {
   private static final Logger LOG = LoggerFactory.getLogger(ExecutionTaskManager.class);
+  private static final long BYTES_IN_MB = 1024L * 1024L;
   private final Map<Integer, Integer> _inProgressInterBrokerReplicaMovementsByBrokerId;
+  private final Map<Integer, Long> _inProgressInterBrokerDataToMoveInMBByBrokerId;
   private final Map<Integer, Integer> _inProgressIntraBrokerReplicaMovementsByBrokerId;
   private final Set<TopicPartition> _inProgressPartitionsForInterBrokerMovement;
   private final ExecutionTaskTracker _executionTaskTracker;
   private final ExecutionTaskPlanner _executionTaskPlanner;
   private final ExecutionConcurrencyManager _executionConcurrencyManager;
   private final Set<Integer> _brokersToSkipConcurrencyCheck;
+  private final long _maxInterBrokerDataInFlightInMBPerBroker;
   private boolean _isKafkaAssignerMode;
 
   /**
@@ -58,12 +63,14 @@ public class ExecutionTaskManager {
                               Time time,
                               KafkaCruiseControlConfig config) {
     _inProgressInterBrokerReplicaMovementsByBrokerId = new HashMap<>();
+    _inProgressInterBrokerDataToMoveInMBByBrokerId = new HashMap<>();
     _inProgressIntraBrokerReplicaMovementsByBrokerId = new HashMap<>();
     _inProgressPartitionsForInterBrokerMovement = new HashSet<>();
     _executionTaskTracker = new ExecutionTaskTracker(dropwizardMetricRegistry, time);
     _executionTaskPlanner = new ExecutionTaskPlanner(adminClient, config);
     _executionConcurrencyManager = new ExecutionConcurrencyManager(config);
     _brokersToSkipConcurrencyCheck = new HashSet<>();
+    _maxInterBrokerDataInFlightInMBPerBroker = config.getLong(ExecutorConfig.MAX_INTER_BROKER_DATA_IN_FLIGHT_PER_BROKER_MB_CONFIG);
     _isKafkaAssignerMode = false;
   }
 
@@ -79,7 +86,22 @@ public class ExecutionTaskManager {
                                                                                           ConcurrencyType.INTER_BROKER_REPLICA);
     return _executionTaskPlanner.getInterBrokerReplicaMovementTasks(
         brokersReadyForReplicaMovement, _inProgressPartitionsForInterBrokerMovement,
-        _executionConcurrencyManager.maxClusterInterBrokerPartitionMovements());
+        _executionConcurrencyManager.maxClusterInterBrokerPartitionMovements(),
+        new HashMap<>(_inProgressInterBrokerDataToMoveInMBByBrokerId), _maxInterBrokerDataInFlightInMBPerBroker);
+  }
+
+  /**
+   * Estimate the remaining time of the inter-broker replica movements as their makespan, i.e. the time it takes the most
+   * loaded broker to send and receive its remaining and ongoing inter-broker replica movements at the given rate.
+   *
+   * @param replicationThrottle The replication rate in bytes per second.
+   * @return The estimated remaining time in milliseconds of the inter-broker replica movements.
+   */
+  public synchronized long estimatedRemainingInterBrokerReplicaMovementTimeMs(long replicationThrottle) {
+    Map<Integer, Long> dataToMoveInMBByBroker = _executionTaskPlanner.remainingInterBrokerDataToMoveInMBByBroker();
+    _inProgressInterBrokerDataToMoveInMBByBrokerId.forEach((broker, dataInMB) -> dataToMoveInMBByBroker.merge(broker, dataInMB, Long::sum));
+    long maxDataToMoveInMB = dataToMoveInMBByBroker.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+    return maxDataToMoveInMB * BYTES_IN_MB * TimeUnit.SECONDS.toMillis(1) / replicationThrottle;
   }
 
   /**
@@ -120,6 +142,21 @@ public class ExecutionTaskManager {
     return _executionTaskPlanner.getLeadershipMovementTasks(_executionConcurrencyManager);
   }
 
+  /**
+   * @return A list of execution tasks that only change the replica order of partitions.
+   */
+  public synchronized List<ExecutionTask> getInterBrokerReplicaReorderTasks() {
+    return _executionTaskPlanner.getInterBrokerReplicaReorderTasks(_executionConcurrencyManager.maxClusterInterBrokerPartitionMovements());
+  }
+
+  /**
+   * @return A list of execution tasks that move the leadership of partitions without inter-broker or intra-broker
+   * replica movements. The partitions may still have an inter-broker task that only changes their replica order.
+   */
+  public synchronized List<ExecutionTask> getLeadershipMovementTasksWithoutReplicaMovement() {
+    return _executionTaskPlanner.getLeadershipMovementTasks(_executionConcurrencyManager, true);
+  }
+
   /**
    * Add a collection of execution proposals for execution. The method allows users to skip the concurrency check
    * on some given brokers. Notice that this method will replace the existing brokers that were in the concurrency
@@ -142,6 +179,8 @@ public class ExecutionTaskManager {
                                             .forEach(broker -> _inProgressIntraBrokerReplicaMovementsByBrokerId.putIfAbsent(broker, 0));
       _inProgressInterBrokerReplicaMovementsByBrokerId.putIfAbsent(p.oldLeader().brokerId(), 0);
       p.replicasToAdd().forEach(r -> _inProgressInterBrokerReplicaMovementsByBrokerId.putIfAbsent(r.brokerId(), 0));
+      _inProgressInterBrokerDataToMoveInMBByBrokerId.putIfAbsent(p.oldLeader().brokerId(), 0L);
+      p.replicasToAdd().forEach(r -> _inProgressInterBrokerDataToMoveInMBByBrokerId.putIfAbsent(r.brokerId(), 0L));
     }
     // Set the execution mode for tasks.
     _executionTaskTracker.setExecutionMode(_isKafkaAssignerMode);
@@ -181,6 +220,7 @@ public class ExecutionTaskManager {
           task.proposal().replicasToAdd().forEach(
               r -> _inProgressInterBrokerReplicaMovementsByBrokerId.put(r.brokerId(),
                                                                         _inProgressInterBrokerReplicaMovementsByBrokerId.get(r.brokerId()) + 1));
+          updateInProgressInterBrokerDataToMove(task, false);
           break;
         case INTRA_BROKER_REPLICA_ACTION:
           _inProgressIntraBrokerReplicaMovementsByBrokerId.put(task.brokerId(),
@@ -228,6 +268,22 @@ public class ExecutionTaskManager {
     }
   }
 
+  /**
+   * Add the data to move of the task to the in-progress inter-broker data to move of its source and destination brokers,
+   * or remove it for a completed task. The source broker sends all the data, each destination broker receives its share.
+   * @param task Inter-broker replica movement task.
+   * @param isCompleted {@code true} if the task is completed, {@code false} if it is started.
+   */
+  private void updateInProgressInterBrokerDataToMove(ExecutionTask task, boolean isCompleted) {
+    int sign = isCompleted ? -1 : 1;
+    ExecutionProposal proposal = task.proposal();
+    _inProgressInterBrokerDataToMoveInMBByBrokerId.merge(proposal.oldLeader().brokerId(), sign * proposal.interBrokerDataToMoveInMB(),
+                                                         Long::sum);
+    long dataToMoveInMBPerDestination = sign * proposal.interBrokerDataToMoveInMBPerDestination();
+    proposal.replicasToAdd().forEach(r -> _inProgressInterBrokerDataToMoveInMBByBrokerId.merge(r.brokerId(), dataToMoveInMBPerDestination,
+                                                                                             Long::sum));
+  }
+
   /**
    * Mark a given tasks as completed.
    * @param task Execution task to mark.
@@ -243,6 +299,7 @@ public class ExecutionTaskManager {
             .replicasToAdd()
             .forEach(r -> _inProgressInterBrokerReplicaMovementsByBrokerId.put(r.brokerId(),
                           _inProgressInterBrokerReplicaMovementsByBrokerId.get(r.brokerId()) - 1));
+        updateInProgressInterBrokerDataToMove(task, true);
         break;
       case INTRA_BROKER_REPLICA_ACTION:
         _inProgressIntraBrokerReplicaMovementsByBrokerId.put(task.brokerId(),
@@ -359,6 +416,7 @@ public class ExecutionTaskManager {
   public synchronized void clear() {
     _brokersToSkipConcurrencyCheck.clear();
     _inProgressInterBrokerReplicaMovementsByBrokerId.clear();
+    _inProgressInterBrokerDataToMoveInMBByBrokerId.clear();
     _inProgressIntraBrokerReplicaMovementsByBrokerId.clear();
     _inProgressPartitionsForInterBrokerMovement.clear();
     _executionTaskPlanner.clear();
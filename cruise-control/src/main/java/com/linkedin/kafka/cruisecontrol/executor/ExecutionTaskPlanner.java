@@ -53,6 +53,9 @@ import static org.apache.kafka.clients.admin.DescribeReplicaLogDirsResult.Replic
  * intra-broker partition movement tasks. Each task is assigned an execution id and managed in two ways.
  * <ul>
  * <li>All leadership movement tasks are put into the same list and will be executed together.
+ * <li>Partitions with an inter-broker or intra-broker partition movement task are tracked, so the leadership movement tasks of
+ * the other partitions can be executed before the partition movements. An inter-broker task that only changes the replica
+ * order of a partition does not move any replica, and can be executed before the leadership movements as well.
  * <li>Partition movement tasks are tracked by broker and execution Id.
  * </ul>
  * <p>
@@ -73,6 +76,7 @@ public class ExecutionTaskPlanner {
   private final Set<ExecutionTask> _remainingInterBrokerReplicaMovements;
   private final Set<ExecutionTask> _remainingIntraBrokerReplicaMovements;
   private final Map<Long, ExecutionTask> _remainingLeadershipMovements;
+  private final Set<TopicPartition> _partitionsWithReplicaMovements;
   private long _executionId;
   private ReplicaMovementStrategy _defaultReplicaMovementTaskStrategy;
   private final AdminClient _adminClient;
@@ -96,6 +100,7 @@ public class ExecutionTaskPlanner {
     _remainingInterBrokerReplicaMovements = new HashSet<>();
     _remainingIntraBrokerReplicaMovements = new HashSet<>();
     _remainingLeadershipMovements = new HashMap<>();
+    _partitionsWithReplicaMovements = new HashSet<>();
     _config = config;
     _taskExecutionAlertingThresholdMs = config.getLong(TASK_EXECUTION_ALERTING_THRESHOLD_MS_CONFIG);
     _interBrokerReplicaMovementRateAlertingThreshold = config.getDouble(INTER_BROKER_REPLICA_MOVEMENT_RATE_ALERTING_THRESHOLD_CONFIG);
@@ -143,6 +148,10 @@ public class ExecutionTaskPlanner {
     maybeAddLeaderChangeTasks(proposals, strategyOptions.cluster());
     sanityCheckExecutionTasks();
     maybeDropReplicaSwapTasks();
+    _remainingInterBrokerReplicaMovements.stream()
+                                         .filter(task -> task.proposal().hasReplicaAction())
+                                         .forEach(task -> _partitionsWithReplicaMovements.add(task.proposal().topicPartition()));
+    _remainingIntraBrokerReplicaMovements.forEach(task -> _partitionsWithReplicaMovements.add(task.proposal().topicPartition()));
   }
 
   /**
@@ -204,8 +213,13 @@ public class ExecutionTaskPlanner {
     ReplicaMovementStrategy chosenReplicaMovementTaskStrategy = replicaMovementStrategy == null
                                                                 ? _defaultReplicaMovementTaskStrategy
                                                                 : replicaMovementStrategy.chainBaseReplicaMovementStrategyIfAbsent();
-    _interPartMoveTasksByBrokerId = chosenReplicaMovementTaskStrategy.applyStrategy(_remainingInterBrokerReplicaMovements, strategyOptions);
-    _interPartMoveBrokerComparator = brokerComparator(strategyOptions, chosenReplicaMovementTaskStrategy);
+    // Let the strategy know which brokers have the most data to move.
+    StrategyOptions strategyOptionsWithDataToMove = new StrategyOptions.Builder(strategyOptions)
+        .dataToMoveInMBByBrokerId(remainingInterBrokerDataToMoveInMBByBroker())
+        .build();
+    _interPartMoveTasksByBrokerId = chosenReplicaMovementTaskStrategy.applyStrategy(_remainingInterBrokerReplicaMovements,
+                                                                                    strategyOptionsWithDataToMove);
+    _interPartMoveBrokerComparator = brokerComparator(strategyOptionsWithDataToMove, chosenReplicaMovementTaskStrategy);
   }
 
   /**
@@ -293,6 +307,20 @@ public class ExecutionTaskPlanner {
     return _remainingLeadershipMovements.values();
   }
 
+  /**
+   * @return The size in MB of the remaining inter-broker replica movements that each broker sends or receives.
+   */
+  public Map<Integer, Long> remainingInterBrokerDataToMoveInMBByBroker() {
+    Map<Integer, Long> dataToMoveInMBByBroker = new HashMap<>();
+    for (ExecutionTask task : _remainingInterBrokerReplicaMovements) {
+      ExecutionProposal proposal = task.proposal();
+      dataToMoveInMBByBroker.merge(proposal.oldLeader().brokerId(), proposal.interBrokerDataToMoveInMB(), Long::sum);
+      proposal.replicasToAdd().forEach(r -> dataToMoveInMBByBroker.merge(r.brokerId(), proposal.interBrokerDataToMoveInMBPerDestination(),
+                                                                         Long::sum));
+    }
+    return dataToMoveInMBByBroker;
+  }
+
   /**
    * Get the leadership movement tasks, and remove them from _remainingLeadershipMovements.
    *
@@ -300,6 +328,20 @@ public class ExecutionTaskPlanner {
    * @return The leadership movement tasks.
    */
   public List<ExecutionTask> getLeadershipMovementTasks(ExecutionConcurrencyManager executionConcurrencyManager) {
+    return getLeadershipMovementTasks(executionConcurrencyManager, false);
+  }
+
+  /**
+   * Get the leadership movement tasks, and remove them from _remainingLeadershipMovements.
+   *
+   * @param executionConcurrencyManager the execution concurrency manager
+   * @param withoutReplicaMovementOnly {@code true} to get only the leadership movement tasks of partitions that have no
+   *                                   inter-broker or intra-broker partition movement task other than a replica reorder,
+   *                                   {@code false} otherwise.
+   * @return The leadership movement tasks.
+   */
+  public List<ExecutionTask> getLeadershipMovementTasks(ExecutionConcurrencyManager executionConcurrencyManager,
+                                                        boolean withoutReplicaMovementOnly) {
     Map<Integer, Integer> brokerLeadershipConcurrency =
             new HashMap<>(executionConcurrencyManager.getExecutionConcurrencyPerBroker(ConcurrencyType.LEADERSHIP_BROKER));
     List<ExecutionTask> leadershipMovementsList = new ArrayList<>();
@@ -307,6 +349,9 @@ public class ExecutionTaskPlanner {
     int taskQuota = executionConcurrencyManager.maxClusterLeadershipMovements();
     while (leadershipMovementIter.hasNext() && taskQuota > 0) {
       ExecutionTask leadershipMovementTask = leadershipMovementIter.next();
+      if (withoutReplicaMovementOnly && _partitionsWithReplicaMovements.contains(leadershipMovementTask.proposal().topicPartition())) {
+        continue;
+      }
       Set<Integer> replicas = leadershipMovementTask.proposal().newReplicas().stream().map(ReplicaPlacementInfo::brokerId).collect(
           Collectors.toSet());
       boolean canSchedule = true;
@@ -334,6 +379,28 @@ public class ExecutionTaskPlanner {
     return leadershipMovementsList;
   }
 
+  /**
+   * Get the inter-broker replica movement tasks that only change the replica order of their partitions, and remove them
+   * from the execution plan. These tasks move no replica, so they can be executed before the leadership movements of
+   * partitions without replica movements -- i.e. before the preferred leader election that relies on the new replica order.
+   *
+   * @param maxInterBrokerPartitionMovements Maximum cap for number of partitions to reorder at once.
+   * @return The inter-broker replica reorder tasks.
+   */
+  public List<ExecutionTask> getInterBrokerReplicaReorderTasks(int maxInterBrokerPartitionMovements) {
+    List<ExecutionTask> reorderTasks = new ArrayList<>();
+    for (ExecutionTask task : _remainingInterBrokerReplicaMovements) {
+      if (reorderTasks.size() >= maxInterBrokerPartitionMovements) {
+        break;
+      }
+      if (!task.proposal().hasReplicaAction()) {
+        reorderTasks.add(task);
+      }
+    }
+    reorderTasks.forEach(this::removeInterBrokerReplicaActionForExecution);
+    return reorderTasks;
+  }
+
   /**
    * Get a list of executable inter-broker replica movements that comply with the concurrency constraint
    * and partitions in move constraint provided.
@@ -348,6 +415,29 @@ public class ExecutionTaskPlanner {
   public List<ExecutionTask> getInterBrokerReplicaMovementTasks(Map<Integer, Integer> readyBrokers,
                                                                 Set<TopicPartition> inProgressPartitions,
                                                                 int maxInterBrokerPartitionMovements) {
+    return getInterBrokerReplicaMovementTasks(readyBrokers, inProgressPartitions, maxInterBrokerPartitionMovements, new HashMap<>(), -1L);
+  }
+
+  /**
+   * Get a list of executable inter-broker replica movements that comply with the concurrency constraint, the partitions
+   * in move constraint and the data in flight constraint provided.
+   *
+   * @param readyBrokers The brokers that is ready to execute more movements.
+   * @param inProgressPartitions Topic partitions of replicas that are already in progress. This is needed because the
+   *                             controller does not allow updating the ongoing replica reassignment for a partition
+   *                             whose replica is being reassigned.
+   * @param maxInterBrokerPartitionMovements Maximum cap for number of partitions to move at any time
+   * @param dataInFlightInMBByBroker The size in MB of the ongoing inter-broker replica movements of each broker, which is
+   *                                 updated with the returned movements.
+   * @param maxDataInFlightInMBPerBroker Maximum cap for the size in MB of the ongoing inter-broker replica movements of
+   *                                     each broker, or a non-positive value for no cap.
+   * @return A list of movements that is executable for the ready brokers.
+   */
+  public List<ExecutionTask> getInterBrokerReplicaMovementTasks(Map<Integer, Integer> readyBrokers,
+                                                                Set<TopicPartition> inProgressPartitions,
+                                                                int maxInterBrokerPartitionMovements,
+                                                                Map<Integer, Long> dataInFlightInMBByBroker,
+                                                                long maxDataInFlightInMBPerBroker) {
     LOG.trace("Getting inter-broker replica movement tasks for brokers with concurrency {}", readyBrokers);
     List<ExecutionTask> executableReplicaMovements = new ArrayList<>();
     SortedSet<Integer> interPartMoveBrokerIds = new TreeSet<>(_interPartMoveBrokerComparator);
@@ -405,6 +495,7 @@ public class ExecutionTaskPlanner {
           TopicPartition tp = task.proposal().topicPartition();
           // Check if the proposal is executable.
           if (isExecutableProposal(task.proposal(), readyBrokers)
+              && fitsDataInFlightCap(task.proposal(), dataInFlightInMBByBroker, maxDataInFlightInMBPerBroker)
               && !inProgressPartitions.contains(tp)
               && !partitionsInvolved.contains(tp)) {
             partitionsInvolved.add(tp);
@@ -425,6 +516,11 @@ public class ExecutionTaskPlanner {
             for (int broker : destinationBrokers) {
               readyBrokers.put(broker, readyBrokers.get(broker) - 1);
             }
+            // Add the data to move to the data in flight of both source and destination brokers
+            dataInFlightInMBByBroker.merge(sourceBroker, task.proposal().interBrokerDataToMoveInMB(), Long::sum);
+            for (int broker : destinationBrokers) {
+              dataInFlightInMBByBroker.merge(broker, task.proposal().interBrokerDataToMoveInMBPerDestination(), Long::sum);
+            }
             // Mark proposal added to true so we will have another round of check.
             newTaskAdded = true;
             numInProgressPartitions++;
@@ -474,6 +570,7 @@ public class ExecutionTaskPlanner {
     _remainingLeadershipMovements.clear();
     _remainingInterBrokerReplicaMovements.clear();
     _remainingIntraBrokerReplicaMovements.clear();
+    _partitionsWithReplicaMovements.clear();
   }
 
   /**
@@ -495,6 +592,41 @@ public class ExecutionTaskPlanner {
     return true;
   }
 
+  /**
+   * A proposal fits the data in flight cap if the source broker and all the destination brokers either have no ongoing
+   * inter-broker replica movement, or can add the data to move of the proposal to their data in flight within the cap.
+   * Hence, a partition larger than the cap is still moved by an idle broker, and a broker busy with large movements can
+   * still take the small movements that fit.
+   *
+   * @param proposal Proposal to check whether it fits the data in flight cap or not.
+   * @param dataInFlightInMBByBroker The size in MB of the ongoing inter-broker replica movements of each broker.
+   * @param maxDataInFlightInMBPerBroker Maximum cap for the size in MB of the ongoing inter-broker replica movements of
+   *                                     each broker, or a non-positive value for no cap.
+   * @return {@code true} if the proposal fits the data in flight cap, {@code false} otherwise.
+   */
+  private static boolean fitsDataInFlightCap(ExecutionProposal proposal,
+                                             Map<Integer, Long> dataInFlightInMBByBroker,
+                                             long maxDataInFlightInMBPerBroker) {
+    if (maxDataInFlightInMBPerBroker <= 0) {
+      return true;
+    }
+    if (!fitsDataInFlightCap(dataInFlightInMBByBroker.getOrDefault(proposal.oldLeader().brokerId(), 0L),
+                             proposal.interBrokerDataToMoveInMB(), maxDataInFlightInMBPerBroker)) {
+      return false;
+    }
+    for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
+      if (!fitsDataInFlightCap(dataInFlightInMBByBroker.getOrDefault(destinationBroker.brokerId(), 0L),
+                               proposal.interBrokerDataToMoveInMBPerDestination(), maxDataInFlightInMBPerBroker)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean fitsDataInFlightCap(long dataInFlightInMB, long dataToMoveInMB, long maxDataInFlightInMBPerBroker) {
+    return dataInFlightInMB == 0 || dataInFlightInMB + dataToMoveInMB <= maxDataInFlightInMBPerBroker;
+  }
+
   private void removeInterBrokerReplicaActionForExecution(ExecutionTask task) {
     int sourceBroker = task.proposal().oldLeader().brokerId();
     _interPartMoveTasksByBrokerId.get(sourceBroker).remove(task);
@@ -132,6 +132,9 @@ public class Executor {
   private final TopicMinIsrCache _topicMinIsrCache;
   private final long _minExecutionProgressCheckIntervalMs;
   private final long _slowTaskAlertingBackoffTimeMs;
+  private final boolean _interBrokerReplicaMovementStreamingEnabled;
+  private final long _interBrokerReplicaMovementStreamingCheckIntervalMs;
+  private final boolean _earlyLeadershipMovementEnabled;
   private final KafkaCruiseControlConfig _config;
   private final AtomicDouble _partitionMovementCountPerSec;
   private final AtomicDouble _partitionMovementMbPerSec;
@@ -171,6 +174,23 @@ public class Executor {
            MetadataClient metadataClient,
            ExecutorNotifier executorNotifier,
            AnomalyDetectorManager anomalyDetectorManager) {
+    this(config, time, dropwizardMetricRegistry, metadataClient, null, executorNotifier, anomalyDetectorManager);
+  }
+
+  /**
+   * The executor class that execute the proposals generated by optimizer.
+   * Package private for unit test.
+   *
+   * @param config The configurations for Cruise Control.
+   * @param adminClient The adminClient to execute the proposals with, or {@code null} to create one from the given configs.
+   */
+  Executor(KafkaCruiseControlConfig config,
+           Time time,
+           MetricRegistry dropwizardMetricRegistry,
+           MetadataClient metadataClient,
+           AdminClient adminClient,
+           ExecutorNotifier executorNotifier,
+           AnomalyDetectorManager anomalyDetectorManager) {
     _numExecutionStopped = new AtomicInteger(0);
     _numExecutionStoppedByUser = new AtomicInteger(0);
     _executionStoppedByUser = new AtomicBoolean(false);
@@ -185,7 +205,8 @@ public class Executor {
     _config = config;
 
     _time = time;
-    _adminClient = KafkaCruiseControlUtils.createAdminClient(KafkaCruiseControlUtils.parseAdminClientConfigs(config));
+    _adminClient = adminClient != null ? adminClient
+                                       : KafkaCruiseControlUtils.createAdminClient(KafkaCruiseControlUtils.parseAdminClientConfigs(config));
     _executionTaskManager = new ExecutionTaskManager(_adminClient, dropwizardMetricRegistry, time, config);
     // Register gauge sensors.
     registerGaugeSensors(dropwizardMetricRegistry);
@@ -225,6 +246,10 @@ public class Executor {
     _removalHistoryRetentionTimeMs = config.getLong(ExecutorConfig.REMOVAL_HISTORY_RETENTION_TIME_MS_CONFIG);
     _minExecutionProgressCheckIntervalMs = config.getLong(ExecutorConfig.MIN_EXECUTION_PROGRESS_CHECK_INTERVAL_MS_CONFIG);
     _slowTaskAlertingBackoffTimeMs = config.getLong(ExecutorConfig.SLOW_TASK_ALERTING_BACKOFF_TIME_MS_CONFIG);
+    _interBrokerReplicaMovementStreamingEnabled = config.getBoolean(ExecutorConfig.INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_CONFIG);
+    _interBrokerReplicaMovementStreamingCheckIntervalMs =
+        config.getLong(ExecutorConfig.INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_CONFIG);
+    _earlyLeadershipMovementEnabled = config.getBoolean(ExecutorConfig.EARLY_LEADERSHIP_MOVEMENT_ENABLED_CONFIG);
     _concurrencyAdjusterEnabled = new ConcurrentHashMap<>(ConcurrencyType.cachedValues().size());
     _concurrencyAdjusterEnabled.put(ConcurrencyType.INTER_BROKER_REPLICA,
                                     config.getBoolean(ExecutorConfig.CONCURRENCY_ADJUSTER_INTER_BROKER_REPLICA_ENABLED_CONFIG));
@@ -1285,6 +1310,14 @@ public class Executor {
     return _concurrencyAdjuster.isStarted();
   }
 
+  /**
+   * Package private for unit test.
+   * @return The concurrency adjuster of this executor.
+   */
+  ConcurrencyAdjuster concurrencyAdjuster() {
+    return _concurrencyAdjuster;
+  }
+
   /**
    * This class is thread safe.
    *
@@ -1429,6 +1462,8 @@ public class Executor {
     /**
      * Start the actual execution of the proposals in order:
      * <ol>
+     *   <li>Reorder replicas and transfer leadership of partitions without replica movements, if early leadership movement is
+     *   enabled.</li>
      *   <li>Inter-broker move replicas.</li>
      *   <li>Intra-broker move replicas.</li>
      *   <li>Transfer leadership.</li>
@@ -1442,8 +1477,26 @@ public class Executor {
         // and enable the collection of broker metric samples during an ongoing execution.
         adjustSamplingModeBeforeExecution();
 
+        // 0. Reorder replicas and transfer leadership of partitions without replica movements if enabled.
+        boolean canMoveReplicas = _executorState.state() == STARTING_EXECUTION;
+        if (canMoveReplicas && _earlyLeadershipMovementEnabled) {
+          _executorState = ExecutorState.operationInProgress(LEADER_MOVEMENT_TASK_IN_PROGRESS,
+                                                             _executionTaskManager.getExecutionTasksSummary(
+                                                                 Collections.singleton(LEADER_ACTION)),
+                                                             _executionTaskManager.getExecutionConcurrencyManager()
+                                                                                  .getExecutionConcurrencySummary(),
+                                                             _uuid,
+                                                             _reasonSupplier.get(),
+                                                             _recentlyDemotedBrokers,
+                                                             _recentlyRemovedBrokers,
+                                                             _isTriggeredByUserRequest);
+          moveLeadershipsWithoutReplicaMovement();
+          updateOngoingExecutionState();
+          canMoveReplicas = _executorState.state() == LEADER_MOVEMENT_TASK_IN_PROGRESS;
+        }
+
         // 1. Inter-broker move replicas if possible.
-        if (_executorState.state() == STARTING_EXECUTION) {
+        if (canMoveReplicas) {
           _executorState = ExecutorState.operationInProgress(INTER_BROKER_REPLICA_MOVEMENT_TASK_IN_PROGRESS,
                                                              _executionTaskManager.getExecutionTasksSummary(
                                                                  Collections.singleton(INTER_BROKER_REPLICA_ACTION)),
@@ -1607,12 +1660,13 @@ public class Executor {
       Set<Integer> currentDeadBrokersWithReplicas = _loadMonitor.deadBrokersWithReplicas(MAX_METADATA_WAIT_MS);
       ReplicationThrottleHelper throttleHelper = new ReplicationThrottleHelper(_adminClient, _replicationThrottle,
           currentDeadBrokersWithReplicas);
-      int numTotalPartitionMovements = _executionTaskManager.numRemainingInterBrokerPartitionMovements();
+      int partitionsToMove = _executionTaskManager.numRemainingInterBrokerPartitionMovements();
+      // Replica reorders may have finished before the leadership movements of partitions without replica movements.
+      int numTotalPartitionMovements = partitionsToMove + _executionTaskManager.numFinishedInterBrokerPartitionMovements();
       long totalDataToMoveInMB = _executionTaskManager.remainingInterBrokerDataToMoveInMB();
       long startTime = System.currentTimeMillis();
-      LOG.info("Starting {} inter-broker partition movements.", numTotalPartitionMovements);
+      LOG.info("Starting {} inter-broker partition movements.", partitionsToMove);
 
-      int partitionsToMove = numTotalPartitionMovements;
       // Exhaust all the pending partition movements.
       while ((partitionsToMove > 0 || !inExecutionTasks().isEmpty()) && _stopSignal.get() == NO_STOP_EXECUTION) {
         // Get tasks to execute.
@@ -1638,6 +1692,11 @@ public class Executor {
                  finishedDataMovementInMB, totalDataToMoveInMB,
                  totalDataToMoveInMB == 0 ? 100 : String.format("%.2f", finishedDataMovementInMB * UNIT_INTERVAL_TO_PERCENTAGE
                                                                         / totalDataToMoveInMB));
+        if (_replicationThrottle != null && _replicationThrottle > 0) {
+          LOG.info("Inter-broker partition movements are estimated to finish in {} at the replication throttle of {} bytes/sec.",
+                   toPrettyDuration(_executionTaskManager.estimatedRemainingInterBrokerReplicaMovementTimeMs(_replicationThrottle)),
+                   _replicationThrottle);
+        }
         List<ExecutionTask> inProgressTasks = tasksToExecute.stream()
             .filter(t -> t.state() == ExecutionTaskState.IN_PROGRESS)
             .collect(Collectors.toList());
@@ -1738,7 +1797,7 @@ public class Executor {
       int numFinishedLeadershipMovements = 0;
       while (_executionTaskManager.numRemainingLeadershipMovements() != 0 && _stopSignal.get() == NO_STOP_EXECUTION) {
         updateOngoingExecutionState();
-        numFinishedLeadershipMovements += moveLeadershipInBatch();
+        numFinishedLeadershipMovements += moveLeadershipInBatch(_executionTaskManager.getLeadershipMovementTasks());
         LOG.info("{}/{} ({}%) leadership movements completed.", numFinishedLeadershipMovements,
                  numTotalLeadershipMovements, numFinishedLeadershipMovements * 100 / numTotalLeadershipMovements);
       }
@@ -1758,8 +1817,52 @@ public class Executor {
       }
     }
 
-    private int moveLeadershipInBatch() {
-      List<ExecutionTask> leadershipMovementTasks = _executionTaskManager.getLeadershipMovementTasks();
+    /**
+     * Executes the leadership movement tasks of partitions that have no inter-broker or intra-broker replica movement.
+     * The inter-broker tasks that only change the replica order of partitions are executed first, so the preferred leader
+     * election moves the leadership to the new first replica of these partitions.
+     * The rest of the leadership movement tasks are left to {@link #moveLeaderships()} after the replica movements.
+     */
+    private void moveLeadershipsWithoutReplicaMovement() throws InterruptedException, ExecutionException, TimeoutException {
+      reorderReplicasWithoutReplicaMovement();
+      LOG.info("Starting leadership movements of partitions without replica movements.");
+      int numFinishedLeadershipMovements = 0;
+      while (_stopSignal.get() == NO_STOP_EXECUTION) {
+        updateOngoingExecutionState();
+        int numLeadershipMoved = moveLeadershipInBatch(_executionTaskManager.getLeadershipMovementTasksWithoutReplicaMovement());
+        if (numLeadershipMoved == 0) {
+          break;
+        }
+        numFinishedLeadershipMovements += numLeadershipMoved;
+        LOG.info("{} leadership movements of partitions without replica movements completed.", numFinishedLeadershipMovements);
+      }
+    }
+
+    /**
+     * Executes the inter-broker tasks that only change the replica order of partitions, in batches capped by the maximum
+     * number of partitions to move in the cluster. Each batch is waited for before the next one, as reorders move no data.
+     */
+    private void reorderReplicasWithoutReplicaMovement() throws InterruptedException, ExecutionException, TimeoutException {
+      int numFinishedReorders = 0;
+      List<ExecutionTask> reorderTasks = _executionTaskManager.getInterBrokerReplicaReorderTasks();
+      while (!reorderTasks.isEmpty() && _stopSignal.get() == NO_STOP_EXECUTION) {
+        LOG.debug("Executing {} replica reorders in a batch.", reorderTasks.size());
+        _executionTaskManager.markTasksInProgress(reorderTasks);
+        AlterPartitionReassignmentsResult result = ExecutionUtils.submitReplicaReassignmentTasks(_adminClient, reorderTasks);
+        // Stopped tasks are marked dead while waiting, so the wait ends on stop as well.
+        do {
+          waitForInterBrokerReplicaTasksToFinish(result);
+          result = null;
+        } while (!inExecutionTasks().isEmpty());
+        numFinishedReorders += reorderTasks.size();
+        LOG.info("{} replica reorders of partitions without replica movements completed.", numFinishedReorders);
+        reorderTasks = _executionTaskManager.getInterBrokerReplicaReorderTasks();
+      }
+      // The progress check interval is adjusted while waiting for the reorders, so reset it for the following phases.
+      resetExecutionProgressCheckIntervalMs();
+    }
+
+    private int moveLeadershipInBatch(List<ExecutionTask> leadershipMovementTasks) {
       int numLeadershipToMove = leadershipMovementTasks.size();
       LOG.debug("Executing {} leadership movements in a batch.", numLeadershipToMove);
       // Execute the leadership movements.
@@ -1788,12 +1891,74 @@ public class Executor {
       } catch (InterruptedException e) {
         // let it go
       }
+      return clusterForProgressCheck();
+    }
+
+    /**
+     * @return The current cluster state for the progress check.
+     */
+    private Cluster clusterForProgressCheck() {
       if (LOG.isDebugEnabled()) {
         LOG.debug("Tasks in execution: {}", inExecutionTasks());
       }
       return _metadataClient.refreshMetadata().cluster();
     }
 
+    /**
+     * Waits for up to {@link #executionProgressCheckIntervalMs} for the inter-broker replica movements to make progress.
+     * If the streaming of inter-broker replica movements is enabled, the ongoing partition reassignments are polled every
+     * {@link #_interBrokerReplicaMovementStreamingCheckIntervalMs}, and the wait ends as soon as the partition of an
+     * in-execution task is no longer being reassigned. So the concurrency of the finished tasks can be used by the next
+     * tasks without waiting for the rest of the interval.
+     *
+     * @return {@code true} if the wait ended before the end of the interval, {@code false} otherwise.
+     */
+    private boolean awaitInterBrokerReplicaProgress() {
+      if (!_interBrokerReplicaMovementStreamingEnabled) {
+        try {
+          Thread.sleep(executionProgressCheckIntervalMs());
+        } catch (InterruptedException e) {
+          // let it go
+        }
+        return false;
+      }
+      long remainingMs = executionProgressCheckIntervalMs();
+      while (remainingMs > 0 && _stopSignal.get() == NO_STOP_EXECUTION) {
+        long waitMs = Math.min(remainingMs, _interBrokerReplicaMovementStreamingCheckIntervalMs);
+        try {
+          Thread.sleep(waitMs);
+        } catch (InterruptedException e) {
+          // let it go
+        }
+        remainingMs -= waitMs;
+        if (remainingMs > 0 && hasInterBrokerReplicaTaskLeftReassignment()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return {@code true} if the partition of an in-execution inter-broker replica task is no longer being reassigned,
+     * {@code false} otherwise or if the ongoing partition reassignments cannot be retrieved.
+     */
+    private boolean hasInterBrokerReplicaTaskLeftReassignment() {
+      Set<TopicPartition> partitionsBeingReassigned;
+      try {
+        partitionsBeingReassigned = ExecutionUtils.partitionsBeingReassigned(_adminClient);
+      } catch (InterruptedException | ExecutionException | TimeoutException e) {
+        LOG.debug("Failed to retrieve the partitions being reassigned to check the inter-broker replica movement progress.", e);
+        return false;
+      }
+      for (ExecutionTask task : inExecutionTasks()) {
+        if (task.type() == INTER_BROKER_REPLICA_ACTION && !partitionsBeingReassigned.contains(task.proposal().topicPartition())) {
+          LOG.debug("Partition {} of task {} is no longer being reassigned.", task.proposal().topicPartition(), task);
+          return true;
+        }
+      }
+      return false;
+    }
+
     /**
      * Periodically checks the metadata to see if inter-broker replica reassignment has finished or not.
      * @param result the result of a request to alter partition reassignments -- can be {@code null} if no new tasks
@@ -1820,7 +1985,8 @@ public class Executor {
 
       boolean retry;
       do {
-        Cluster cluster = getClusterForExecutionProgressCheck();
+        boolean progressCheckEndedEarly = awaitInterBrokerReplicaProgress();
+        Cluster cluster = clusterForProgressCheck();
         List<ExecutionTask> deadInterBrokerReplicaTasks = new ArrayList<>();
         List<ExecutionTask> stoppedInterBrokerReplicaTasks = new ArrayList<>();
         List<ExecutionTask> slowTasksToReport = new ArrayList<>();
@@ -1865,10 +2031,13 @@ public class Executor {
         // Dynamically adjust the _executionProgressCheckIntervalMs based on execution result
         // 1. If all inExecutionTasks are completed check interval, then we should reduce the interval to avoid unnecessary wait time.
         // 2. Else, we should increase the interval, to give the tasks more time to complete.
-        if (numFinishedOrDeletedTasks == numInExecutionTasks) {
-          setExecutionProgressCheckIntervalMs(_executionProgressCheckIntervalMs - EXECUTION_PROGRESS_CHECK_INTERVAL_ADJUSTING_MS);
-        } else {
-          setExecutionProgressCheckIntervalMs(_executionProgressCheckIntervalMs + EXECUTION_PROGRESS_CHECK_INTERVAL_ADJUSTING_MS);
+        // The interval is kept as is if the wait ended early due to the streaming, since the tasks had less time to complete.
+        if (!progressCheckEndedEarly) {
+          if (numFinishedOrDeletedTasks == numInExecutionTasks) {
+            setExecutionProgressCheckIntervalMs(_executionProgressCheckIntervalMs - EXECUTION_PROGRESS_CHECK_INTERVAL_ADJUSTING_MS);
+          } else {
+            setExecutionProgressCheckIntervalMs(_executionProgressCheckIntervalMs + EXECUTION_PROGRESS_CHECK_INTERVAL_ADJUSTING_MS);
+          }
         }
 
         sendSlowExecutionAlert(slowTasksToReport);
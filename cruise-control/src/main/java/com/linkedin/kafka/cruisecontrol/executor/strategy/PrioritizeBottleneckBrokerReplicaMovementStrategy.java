@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor.strategy;
+
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionTask;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Comparator;
+import java.util.Map;
+import org.apache.kafka.common.Cluster;
+
+/**
+ * The strategy, which tries to minimize the total execution time (i.e. makespan) of the replica movements in the style
+ * of longest-processing-time scheduling. The brokers with the most data to send and receive are the bottleneck of the
+ * execution, so their movements are started first, and among the movements of a broker the largest ones are started first.
+ * <ul>
+ *   <li>The task whose most loaded broker (i.e. source or destination) has more data to move is prioritized.</li>
+ *   <li>Otherwise, the task with more data to move is prioritized.</li>
+ * </ul>
+ * The data to move by each broker is retrieved from {@link StrategyOptions#dataToMoveInMBByBrokerId()}. If it is not
+ * available, this strategy prioritizes the larger movements as {@link PrioritizeLargeReplicaMovementStrategy} does.
+ */
+public class PrioritizeBottleneckBrokerReplicaMovementStrategy extends AbstractReplicaMovementStrategy {
+
+  @Override
+  public Comparator<ExecutionTask> taskComparator(StrategyOptions strategyOptions) {
+    Map<Integer, Long> dataToMoveInMBByBrokerId = strategyOptions.dataToMoveInMBByBrokerId();
+    return (task1, task2) -> {
+      int compareBottleneck = Long.compare(bottleneckDataToMoveInMB(task2.proposal(), dataToMoveInMBByBrokerId),
+                                           bottleneckDataToMoveInMB(task1.proposal(), dataToMoveInMBByBrokerId));
+      return compareBottleneck != 0 ? compareBottleneck
+                                    : Long.compare(task2.proposal().dataToMoveInMB(), task1.proposal().dataToMoveInMB());
+    };
+  }
+
+  @Override
+  public Comparator<ExecutionTask> taskComparator(Cluster cluster) {
+    return taskComparator(new StrategyOptions.Builder(cluster).build());
+  }
+
+  /**
+   * @param proposal Execution proposal.
+   * @param dataToMoveInMBByBrokerId Data to move in MB by each broker.
+   * @return The data to move in MB by the most loaded one of the source and destination brokers of the given proposal.
+   */
+  private static long bottleneckDataToMoveInMB(ExecutionProposal proposal, Map<Integer, Long> dataToMoveInMBByBrokerId) {
+    long bottleneckDataToMoveInMB = dataToMoveInMBByBrokerId.getOrDefault(proposal.oldLeader().brokerId(), 0L);
+    for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
+      bottleneckDataToMoveInMB = Math.max(bottleneckDataToMoveInMB, dataToMoveInMBByBrokerId.getOrDefault(destinationBroker.brokerId(), 0L));
+    }
+    return bottleneckDataToMoveInMB;
+  }
+
+  /**
+   * Get the name of this strategy. Name of a strategy provides an identification for the strategy in human readable format.
+   */
+  @Override
+  public String name() {
+    return PrioritizeBottleneckBrokerReplicaMovementStrategy.class.getSimpleName();
+  }
+}
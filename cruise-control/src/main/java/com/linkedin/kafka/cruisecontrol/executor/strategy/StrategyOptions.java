@@ -17,18 +17,32 @@ import static com.linkedin.cruisecontrol.common.utils.Utils.validateNotNull;
 public final class StrategyOptions {
   protected final Cluster _cluster;
   protected final Map<String, MinIsrWithTime> _minIsrWithTimeByTopic;
+  protected final Map<Integer, Long> _dataToMoveInMBByBrokerId;
 
   public static class Builder {
     // Required parameters
     private final Cluster _cluster;
     // Optional parameters - initialized to default values
     private Map<String, MinIsrWithTime> _minIsrWithTimeByTopic = Collections.emptyMap();
+    private Map<Integer, Long> _dataToMoveInMBByBrokerId = Collections.emptyMap();
 
     public Builder(Cluster cluster) {
       validateNotNull(cluster, "The cluster cannot be null.");
       _cluster = cluster;
     }
 
+    /**
+     * Create a builder initialized with the options of the given strategy options.
+     *
+     * @param strategyOptions Strategy options to copy.
+     */
+    public Builder(StrategyOptions strategyOptions) {
+      validateNotNull(strategyOptions, "The strategyOptions cannot be null.");
+      _cluster = strategyOptions._cluster;
+      _minIsrWithTimeByTopic = strategyOptions._minIsrWithTimeByTopic;
+      _dataToMoveInMBByBrokerId = strategyOptions._dataToMoveInMBByBrokerId;
+    }
+
     /**
      * (Optional) Set value and capture time of {@link org.apache.kafka.common.config.TopicConfig#MIN_IN_SYNC_REPLICAS_CONFIG} by topic.
      *
@@ -41,6 +55,19 @@ public final class StrategyOptions {
       return this;
     }
 
+    /**
+     * (Optional) Set the data to move in MB by each broker, i.e. the total size of the replica movements that each broker
+     * sends or receives.
+     *
+     * @param dataToMoveInMBByBrokerId Data to move in MB by broker id.
+     * @return this builder.
+     */
+    public Builder dataToMoveInMBByBrokerId(Map<Integer, Long> dataToMoveInMBByBrokerId) {
+      validateNotNull(dataToMoveInMBByBrokerId, "The dataToMoveInMBByBrokerId cannot be null.");
+      _dataToMoveInMBByBrokerId = dataToMoveInMBByBrokerId;
+      return this;
+    }
+
     public StrategyOptions build() {
       return new StrategyOptions(this);
     }
@@ -49,6 +76,7 @@ public final class StrategyOptions {
   private StrategyOptions(Builder builder) {
     _cluster = builder._cluster;
     _minIsrWithTimeByTopic = builder._minIsrWithTimeByTopic;
+    _dataToMoveInMBByBrokerId = builder._dataToMoveInMBByBrokerId;
   }
 
   public Cluster cluster() {
@@ -58,4 +86,8 @@ public final class StrategyOptions {
   public Map<String, MinIsrWithTime> minIsrWithTimeByTopic() {
     return Collections.unmodifiableMap(_minIsrWithTimeByTopic);
   }
+
+  public Map<Integer, Long> dataToMoveInMBByBrokerId() {
+    return Collections.unmodifiableMap(_dataToMoveInMBByBrokerId);
+  }
 }
@@ -41,6 +41,8 @@ public class Broker implements Serializable, Comparable<Broker> {
   private final int _id;
   private final Host _host;
   private final double[] _brokerCapacity;
+  private final BrokerCapacityInfo _capacityInfo;
+  private final boolean _populateReplicaPlacementInfo;
   private final Set<Replica> _replicas;
   private final Set<Replica> _leaderReplicas;
   /** A map of cached sorted replicas using different user defined score functions. */
@@ -69,6 +71,8 @@ public class Broker implements Serializable, Comparable<Broker> {
             () -> "Attempt to create broker " + id + " on host " + host.name() + " with null capacity.");
     _host = host;
     _id = id;
+    _capacityInfo = brokerCapacityInfo;
+    _populateReplicaPlacementInfo = populateReplicaPlacementInfo;
     _brokerCapacity = new double[Resource.cachedValues().size()];
     for (Map.Entry<Resource, Double> entry : brokerCapacity.entrySet()) {
       Resource resource = entry.getKey();
@@ -117,6 +121,20 @@ public class Broker implements Serializable, Comparable<Broker> {
     return _id;
   }
 
+  /**
+   * @return The capacity information this broker was created with.
+   */
+  BrokerCapacityInfo capacityInfo() {
+    return _capacityInfo;
+  }
+
+  /**
+   * @return {@code true} if replica placement over disk information is populated for this broker, {@code false} otherwise.
+   */
+  boolean populateReplicaPlacementInfo() {
+    return _populateReplicaPlacementInfo;
+  }
+
   /**
    * Get broker capacity for the requested resource.
    *
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.model;
 
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValuesSlab;
 import com.linkedin.kafka.cruisecontrol.analyzer.AnalyzerUtils;
 import com.linkedin.kafka.cruisecontrol.analyzer.BalancingConstraint;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
@@ -72,9 +73,14 @@ public class ClusterModel implements Serializable {
   // The replication factor that each topic in the cluster created with ().
   private final Map<String, Integer> _replicationFactorByTopic;
   private final Map<String, Integer> _numReplicasByTopic;
+  private final TopicReplicaDistribution _topicReplicaDistribution;
   private final Map<Integer, Load> _potentialLeadershipLoadByBrokerId;
   private int _unknownHostId;
   private final Map<Integer, String> _capacityEstimationInfoByBrokerId;
+  // If non-null, the load of replicas are packed into this slab rather than allocated per replica.
+  private final MetricValuesSlab _replicaLoadSlab;
+  // Whether the replica distribution or the load of this cluster model deviates from the one it was populated with.
+  private boolean _isModified;
 
   /**
    * Constructor for the cluster class. It creates data structures to hold a list of racks, a map for partitions by
@@ -84,6 +90,19 @@ public class ClusterModel implements Serializable {
    * @param monitoredPartitionsRatio Monitored partitions ratio
    */
   public ClusterModel(ModelGeneration generation, double monitoredPartitionsRatio) {
+    this(generation, monitoredPartitionsRatio, false);
+  }
+
+  /**
+   * Constructor for the cluster class. It creates data structures to hold a list of racks, a map for partitions by
+   * topic partition, topic replica collocation by topic.
+   *
+   * @param generation Model generation of the cluster
+   * @param monitoredPartitionsRatio Monitored partitions ratio
+   * @param useReplicaLoadSlab {@code true} to pack the metric values of all replica loads into shared slabs (see
+   * {@link MetricValuesSlab}) instead of allocating a value array per replica and metric, {@code false} otherwise.
+   */
+  public ClusterModel(ModelGeneration generation, double monitoredPartitionsRatio, boolean useReplicaLoadSlab) {
     _generation = generation;
     _racksById = new HashMap<>();
     _brokerIdToRack = new HashMap<>();
@@ -107,10 +126,13 @@ public class ClusterModel implements Serializable {
     _maxReplicationFactor = 1;
     _replicationFactorByTopic = new HashMap<>();
     _numReplicasByTopic = new HashMap<>();
+    _topicReplicaDistribution = new TopicReplicaDistribution();
     _potentialLeadershipLoadByBrokerId = new HashMap<>();
     _monitoredPartitionsRatio = monitoredPartitionsRatio;
     _unknownHostId = 0;
     _capacityEstimationInfoByBrokerId = new HashMap<>();
+    _replicaLoadSlab = useReplicaLoadSlab ? new MetricValuesSlab() : null;
+    _isModified = false;
   }
 
   /**
@@ -120,6 +142,13 @@ public class ClusterModel implements Serializable {
     return _generation;
   }
 
+  /**
+   * @return The number of bytes reserved for replica loads if they are packed into a slab, {@code 0} otherwise.
+   */
+  public long replicaLoadSlabBytes() {
+    return _replicaLoadSlab == null ? 0L : _replicaLoadSlab.reservedBytes();
+  }
+
   /**
    * @return The coverage of this cluster model via monitored partitions ratio, showing how representative the cluster is.
    */
@@ -127,6 +156,97 @@ public class ClusterModel implements Serializable {
     return _monitoredPartitionsRatio;
   }
 
+  /**
+   * Once modified, a cluster model remains modified, i.e. this never changes from {@code true} to {@code false}.
+   *
+   * @return {@code true} if replicas, leadership or load of this cluster model have been changed after it was populated,
+   * {@code false} otherwise.
+   */
+  public boolean isModified() {
+    return _isModified;
+  }
+
+  /**
+   * Create an independent copy of this cluster model. The copy has the same generation, topology, replica distribution,
+   * replica loads, broker and disk states as this cluster model. Changes made to either model (e.g. by the goals during
+   * an optimization) are not visible to the other one.
+   *
+   * The copy is created by replaying the population of this cluster model, which is much cheaper than populating a cluster
+   * model from the metric sample aggregator, because neither the aggregation nor the capacity resolution is repeated. Hence,
+   * only a cluster model that is not {@link #isModified() modified} can be copied.
+   *
+   * Copying only reads this cluster model, so multiple threads may copy the same cluster model concurrently as long as
+   * none of them modifies it.
+   *
+   * @return A copy of this cluster model.
+   */
+  public ClusterModel copy() {
+    return copy(_generation, _monitoredPartitionsRatio);
+  }
+
+  /**
+   * Create an independent copy of this cluster model with the given generation and monitored partitions ratio, e.g. to
+   * bring the copy up-to-date via {@link #removePartition(TopicPartition)} and repopulating the changed partitions.
+   * See {@link #copy()} for details.
+   *
+   * @param generation Model generation of the copy.
+   * @param monitoredPartitionsRatio Monitored partitions ratio of the copy.
+   * @return A copy of this cluster model.
+   */
+  public ClusterModel copy(ModelGeneration generation, double monitoredPartitionsRatio) {
+    if (_isModified) {
+      throw new IllegalStateException("Cannot copy the cluster model of generation " + _generation + " after it has been modified.");
+    }
+    ClusterModel copy = new ClusterModel(generation, monitoredPartitionsRatio, _replicaLoadSlab != null);
+    for (Broker broker : _brokers) {
+      String rackId = broker.rack().id();
+      if (copy.rack(rackId) == null) {
+        copy.createRack(rackId);
+      }
+      copy.createBroker(rackId, broker.host().name(), broker.id(), broker.capacityInfo(), broker.populateReplicaPlacementInfo());
+    }
+    copy._unknownHostId = _unknownHostId;
+
+    // Create all replicas first, so the leadership load of each partition is propagated to all of its replicas.
+    for (Partition partition : _partitionsByTopicPartition.values()) {
+      List<Replica> replicas = partition.replicas();
+      for (int index = 0; index < replicas.size(); index++) {
+        Replica replica = replicas.get(index);
+        String logdir = replica.disk() == null ? null : replica.disk().logDir();
+        copy.createReplica(replica.broker().rack().id(), replica.broker().id(), partition.topicPartition(), index,
+                           replica.isLeader(), replica.isOriginalOffline(), logdir, false);
+      }
+    }
+    for (Partition partition : _partitionsByTopicPartition.values()) {
+      for (Replica replica : partition.replicas()) {
+        Load load = replica.load();
+        if (load.windows() != null) {
+          copy.setReplicaLoad(replica.broker().rack().id(), replica.broker().id(), partition.topicPartition(),
+                              load.loadByWindows(), load.windows());
+        }
+      }
+    }
+
+    // Replay the disk and broker states. Dead brokers go first, as in the population of the original cluster model.
+    for (Broker broker : _aliveBrokers) {
+      for (Disk disk : broker.disks()) {
+        Disk copiedDisk = copy.broker(broker.id()).disk(disk.logDir());
+        if (disk.state() == Disk.State.DEAD && copiedDisk.state() != Disk.State.DEAD) {
+          copy.markDiskDead(broker.id(), disk.logDir());
+        }
+      }
+    }
+    for (Broker broker : _deadBrokers) {
+      copy.setBrokerState(broker.id(), Broker.State.DEAD);
+    }
+    for (Broker broker : _brokers) {
+      if (broker.isAlive() && broker.state() != Broker.State.ALIVE) {
+        copy.setBrokerState(broker.id(), broker.state());
+      }
+    }
+    return copy;
+  }
+
   /**
    * Populate the analysis stats with this cluster, given balancing constraint, and optimization options.
    *
@@ -360,6 +480,7 @@ public class ClusterModel implements Serializable {
    * @param destinationLogdir Destination logdir.
    */
   public void relocateReplica(TopicPartition tp, int brokerId, String destinationLogdir) {
+    _isModified = true;
     Replica replicaToMove = _partitionsByTopicPartition.get(tp).replica(brokerId);
     // Move replica from the source disk to destination disk on the same broker.
     replicaToMove.broker().moveReplicaBetweenDisks(tp, replicaToMove.disk().logDir(), destinationLogdir);
@@ -390,6 +511,7 @@ public class ClusterModel implements Serializable {
     replica.broker().rack().addReplica(replica);
     // Increment the number of replicas per this topic.
     _numReplicasByTopic.merge(tp.topic(), 1, Integer::sum);
+    _topicReplicaDistribution.onReplicaAdded(tp.topic(), replica.broker().numReplicasOfTopicInBroker(tp.topic()));
     _load.addLoad(replica.load());
     // Add leadership load to the destination replica.
     _potentialLeadershipLoadByBrokerId.get(destinationBrokerId).addLoad(partition(tp).leader().load());
@@ -427,6 +549,7 @@ public class ClusterModel implements Serializable {
     // (2) Add the outbound network load and CPU load associated with leadership to the given replica.
     //
     // Remove the load from the source rack.
+    _isModified = true;
     Rack rack = broker(sourceBrokerId).rack();
     AggregatedMetricValues leadershipLoadDelta = rack.makeFollower(sourceBrokerId, tp);
     // Add the load to the destination rack.
@@ -531,6 +654,7 @@ public class ClusterModel implements Serializable {
    * the old topology.
    */
   public void clearLoad() {
+    _isModified = true;
     _racksById.values().forEach(Rack::clearLoad);
     _load.clearLoad();
   }
@@ -544,6 +668,7 @@ public class ClusterModel implements Serializable {
    * otherwise.
    */
   public Replica removeReplica(int brokerId, TopicPartition tp) {
+    _isModified = true;
     for (Rack rack : _racksById.values()) {
       // Remove the replica and the associated load from the rack that it resides in.
       Replica removedReplica = rack.removeReplica(brokerId, tp);
@@ -553,6 +678,7 @@ public class ClusterModel implements Serializable {
         if (_numReplicasByTopic.get(tp.topic()) == 0) {
           _numReplicasByTopic.remove(tp.topic());
         }
+        _topicReplicaDistribution.onReplicaRemoved(tp.topic(), removedReplica.broker().numReplicasOfTopicInBroker(tp.topic()));
         // Remove the load of the removed replica from the recent load of the cluster.
         _load.subtractLoad(removedReplica.load());
         _potentialLeadershipLoadByBrokerId.get(brokerId).subtractLoad(partition(tp).leader().load());
@@ -563,6 +689,41 @@ public class ClusterModel implements Serializable {
     return null;
   }
 
+  /**
+   * Remove the given partition along with all of its replicas and their load from the cluster model, so that the partition
+   * can be repopulated after its replica placement or load has changed. This is a part of populating the cluster model,
+   * hence it does not mark the cluster model as {@link #isModified() modified}.
+   *
+   * The replication factor of the topic is not decreased by the removal. The caller is expected to repopulate the
+   * partition with at least as many replicas, or to populate a new cluster model otherwise.
+   *
+   * @param tp Topic partition to remove.
+   * @return {@code true} if the partition was in the cluster model, {@code false} otherwise.
+   */
+  public boolean removePartition(TopicPartition tp) {
+    Partition partition = _partitionsByTopicPartition.remove(tp);
+    if (partition == null) {
+      return false;
+    }
+    Replica leader = partition.leader();
+    for (Replica replica : partition.replicas()) {
+      int brokerId = replica.broker().id();
+      replica.broker().rack().removeReplica(brokerId, tp);
+      _numReplicasByTopic.merge(tp.topic(), -1, Integer::sum);
+      if (_numReplicasByTopic.get(tp.topic()) == 0) {
+        _numReplicasByTopic.remove(tp.topic());
+        _replicationFactorByTopic.remove(tp.topic());
+      }
+      _topicReplicaDistribution.onReplicaRemoved(tp.topic(), replica.broker().numReplicasOfTopicInBroker(tp.topic()));
+      _load.subtractLoad(replica.load());
+      if (leader != null) {
+        _potentialLeadershipLoadByBrokerId.get(brokerId).subtractLoad(leader.load());
+      }
+      _selfHealingEligibleReplicas.remove(replica);
+    }
+    return true;
+  }
+
   /**
    * @return The unmodifiable view of set of brokers in the cluster.
    */
@@ -641,6 +802,7 @@ public class ClusterModel implements Serializable {
     _maxReplicationFactor = 1;
     _replicationFactorByTopic.clear();
     _numReplicasByTopic.clear();
+    _topicReplicaDistribution.clear();
     _capacityEstimationInfoByBrokerId.clear();
   }
 
@@ -671,6 +833,13 @@ public class ClusterModel implements Serializable {
     return _numReplicasByTopic.getOrDefault(topic, 0);
   }
 
+  /**
+   * @return The running accumulators of the distribution of the replicas of each topic over the brokers.
+   */
+  TopicReplicaDistribution topicReplicaDistribution() {
+    return _topicReplicaDistribution;
+  }
+
   /**
    * Get the number of leader replicas in cluster.
    *
@@ -842,14 +1011,16 @@ public class ClusterModel implements Serializable {
           }
         }
       }
-      replica = new Replica(tp, broker, isLeader, isOffline, disk);
+      replica = new Replica(tp, broker, isLeader, isOffline, disk, _replicaLoadSlab);
     } else {
-      replica = new Replica(tp, GENESIS_BROKER, false);
+      _isModified = true;
+      replica = new Replica(tp, GENESIS_BROKER, false, false, null, _replicaLoadSlab);
       replica.setBroker(broker);
     }
     rack(rackId).addReplica(replica);
     // Increment the number of replicas per this topic.
     _numReplicasByTopic.merge(tp.topic(), 1, Integer::sum);
+    _topicReplicaDistribution.onReplicaAdded(tp.topic(), replica.broker().numReplicasOfTopicInBroker(tp.topic()));
 
     // Add replica to its partition.
     if (!_partitionsByTopicPartition.containsKey(tp)) {
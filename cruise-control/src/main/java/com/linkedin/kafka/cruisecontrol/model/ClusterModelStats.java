@@ -12,9 +12,11 @@ import com.linkedin.kafka.cruisecontrol.analyzer.BalancingConstraint;
 import com.linkedin.kafka.cruisecontrol.common.Statistic;
 import com.linkedin.kafka.cruisecontrol.servlet.response.JsonResponseField;
 import com.linkedin.kafka.cruisecontrol.servlet.response.JsonResponseClass;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
@@ -439,40 +441,52 @@ public class ClusterModelStats {
    * Generate statistics for topic replicas in the given cluster.
    * Average and standard deviation calculations are based on brokers not excluded for replica moves.
    *
+   * The stats of each topic are derived from the running accumulators of the topic replica distribution, after excluding
+   * the dead brokers and the brokers excluded for replica moves. Hence, only these brokers are scanned for each topic.
+   *
    * @param clusterModel The state of the cluster.
    * @param brokers Brokers in the cluster -- passed to this function to avoid recomputing them using cluster model.
    * @param topics Topics in the cluster -- passed to this function to avoid recomputing them using cluster model.
    */
   private void numForAvgTopicReplicas(ClusterModel clusterModel, SortedSet<Broker> brokers, Set<String> topics) {
-    _topicReplicaStats.put(Statistic.AVG, 0.0);
-    _topicReplicaStats.put(Statistic.MAX, 0);
-    _topicReplicaStats.put(Statistic.MIN, Integer.MAX_VALUE);
-    _topicReplicaStats.put(Statistic.ST_DEV, 0.0);
+    List<Broker> brokersDisallowedReplicaMove = new ArrayList<>();
+    for (Broker broker : brokers) {
+      if (!broker.isAlive() || !_brokersAllowedReplicaMove.contains(broker.id())) {
+        brokersDisallowedReplicaMove.add(broker);
+      }
+    }
+    TopicReplicaDistribution topicReplicaDistribution = clusterModel.topicReplicaDistribution();
+    long numBrokersAllowedReplicaMove = _brokersAllowedReplicaMove.size();
+    double sumOfAvgTopicReplicas = 0.0;
+    int maxTopicReplicasInBroker = 0;
+    int minTopicReplicasInBroker = Integer.MAX_VALUE;
+    double sumOfStDevTopicReplicas = 0.0;
     for (String topic : topics) {
-      int maxTopicReplicasInBroker = 0;
-      int minTopicReplicasInBroker = Integer.MAX_VALUE;
-      double avgTopicReplicas = ((double) clusterModel.numTopicReplicas(topic)) / _brokersAllowedReplicaMove.size();
-      double variance = 0.0;
-      for (Broker broker : brokers) {
-        int numTopicReplicasInBroker = broker.numReplicasOfTopicInBroker(topic);
-        maxTopicReplicasInBroker = Math.max(maxTopicReplicasInBroker, numTopicReplicasInBroker);
-        minTopicReplicasInBroker = Math.min(minTopicReplicasInBroker, numTopicReplicasInBroker);
-        if (broker.isAlive() && _brokersAllowedReplicaMove.contains(broker.id())) {
-          // Standard deviation of replicas in brokers allowed replica move.
-          variance += (Math.pow(numTopicReplicasInBroker - avgTopicReplicas, 2) / _brokersAllowedReplicaMove.size());
-        }
+      long numTopicReplicas = clusterModel.numTopicReplicas(topic);
+      // Sum and sum of squares of the number of topic replicas in brokers allowed replica move.
+      long sum = numTopicReplicas;
+      long sumOfSquares = topicReplicaDistribution.sumOfSquares(topic);
+      for (Broker broker : brokersDisallowedReplicaMove) {
+        long numTopicReplicasInBroker = broker.numReplicasOfTopicInBroker(topic);
+        sum -= numTopicReplicasInBroker;
+        sumOfSquares -= numTopicReplicasInBroker * numTopicReplicasInBroker;
+      }
+      sumOfAvgTopicReplicas += ((double) numTopicReplicas) / numBrokersAllowedReplicaMove;
+      maxTopicReplicasInBroker = Math.max(maxTopicReplicasInBroker, topicReplicaDistribution.maxReplicasInBroker(topic));
+      minTopicReplicasInBroker = Math.min(minTopicReplicasInBroker, topicReplicaDistribution.minReplicasInBroker(topic, brokers.size()));
+      if (numBrokersAllowedReplicaMove > 0) {
+        // With n brokers, t topic replicas and avg = t / n, the sum of (x - avg)^2 over brokers allowed replica move is
+        // (n * sumOfSquares - 2 * t * sum + t^2) / n, whose numerator is computed exactly.
+        long scaledSumOfSquaredDeviations = numBrokersAllowedReplicaMove * sumOfSquares - 2 * numTopicReplicas * sum
+                                            + numTopicReplicas * numTopicReplicas;
+        sumOfStDevTopicReplicas += Math.sqrt(scaledSumOfSquaredDeviations) / numBrokersAllowedReplicaMove;
       }
-
-      _topicReplicaStats.put(Statistic.AVG, _topicReplicaStats.get(Statistic.AVG).doubleValue() + avgTopicReplicas);
-      _topicReplicaStats.put(Statistic.MAX,
-                             Math.max(_topicReplicaStats.get(Statistic.MAX).intValue(), maxTopicReplicasInBroker));
-      _topicReplicaStats.put(Statistic.MIN,
-                             Math.min(_topicReplicaStats.get(Statistic.MIN).intValue(), minTopicReplicasInBroker));
-      _topicReplicaStats.put(Statistic.ST_DEV, (Double) _topicReplicaStats.get(Statistic.ST_DEV) + Math.sqrt(variance));
     }
 
-    _topicReplicaStats.put(Statistic.AVG, _topicReplicaStats.get(Statistic.AVG).doubleValue() / _numTopics);
-    _topicReplicaStats.put(Statistic.ST_DEV, _topicReplicaStats.get(Statistic.ST_DEV).doubleValue() / _numTopics);
+    _topicReplicaStats.put(Statistic.AVG, sumOfAvgTopicReplicas / _numTopics);
+    _topicReplicaStats.put(Statistic.MAX, maxTopicReplicasInBroker);
+    _topicReplicaStats.put(Statistic.MIN, minTopicReplicasInBroker);
+    _topicReplicaStats.put(Statistic.ST_DEV, sumOfStDevTopicReplicas / _numTopics);
   }
 
   /**
@@ -8,6 +8,7 @@ import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValuesSlab;
 import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import java.io.IOException;
@@ -15,9 +16,12 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.lang.Math.max;
 
@@ -25,18 +29,56 @@ import static java.lang.Math.max;
 /**
  * A class for representing load information for each resource. Each Load in a cluster must have the same number of
  * windows.
+ *
+ * The expected utilization of each resource is cached until the metric values of the load change. The metric values
+ * may be read by multiple threads at a time, but must not be changed while being read.
  */
 public class Load implements Serializable {
+  // The expected utilization modes cached for each resource: the default, the max load and the avg load.
+  private static final int NUM_UTILIZATION_MODES = 3;
+  private static final int DEFAULT_UTILIZATION = 0;
+  private static final int MAX_UTILIZATION = 1;
+  private static final int AVG_UTILIZATION = 2;
+  private static final AtomicReferenceFieldUpdater<Load, double[]> CACHED_UTILIZATION_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(Load.class, double[].class, "_cachedUtilization");
+  private static final LongAdder CACHED_UTILIZATION_HITS = new LongAdder();
+  private static final LongAdder CACHED_UTILIZATION_MISSES = new LongAdder();
   // load by their time.
   private List<Long> _windows;
   private final AggregatedMetricValues _metricValues;
+  // The expected utilization by resource and mode, NaN if not computed yet. Null after the metric values change.
+  private transient volatile double[] _cachedUtilization;
 
   /**
    * Package constructor for load with given load properties.
    */
   public Load() {
+    this(null);
+  }
+
+  /**
+   * Package constructor for load whose metric values are allocated from the given slab.
+   *
+   * @param slab The slab to allocate the metric values from, or {@code null} to allocate them on heap individually.
+   */
+  Load(MetricValuesSlab slab) {
     _windows = null;
-    _metricValues = new AggregatedMetricValues();
+    _metricValues = new AggregatedMetricValues(slab);
+    _cachedUtilization = null;
+  }
+
+  /**
+   * @return The number of expected utilization lookups of all loads served from the cache since the start.
+   */
+  public static long numCachedUtilizationHits() {
+    return CACHED_UTILIZATION_HITS.sum();
+  }
+
+  /**
+   * @return The number of expected utilization lookups of all loads computed from the metric values since the start.
+   */
+  public static long numCachedUtilizationMisses() {
+    return CACHED_UTILIZATION_MISSES.sum();
   }
 
   /**
@@ -85,17 +127,73 @@ public class Load implements Serializable {
     if (_metricValues.isEmpty()) {
       return 0.0;
     }
+    int mode = wantMaxLoad ? MAX_UTILIZATION : (wantAvgLoad ? AVG_UTILIZATION : DEFAULT_UTILIZATION);
+    double[] cachedUtilization = _cachedUtilization;
+    int index = resource.id() * NUM_UTILIZATION_MODES + mode;
+    if (cachedUtilization != null && !Double.isNaN(cachedUtilization[index])) {
+      CACHED_UTILIZATION_HITS.increment();
+      return cachedUtilization[index];
+    }
     double result = 0;
     for (MetricInfo info : KafkaMetricDef.resourceToMetricInfo(resource)) {
       MetricValues valuesForId = _metricValues.valuesFor(info.id());
       result += wantMaxLoad ? valuesForId.max()
                             : (resource == Resource.DISK && !wantAvgLoad ? valuesForId.latest() : valuesForId.avg());
     }
-    return max(result, 0.0);
+    return cacheUtilization(cachedUtilization, index, max(result, 0.0));
   }
 
+  /**
+   * Get a single snapshot value that is representative for the given resource, see
+   * {@link ModelUtils#expectedUtilizationFor(Resource, AggregatedMetricValues)}.
+   *
+   * @param resource Resource for which the expected utilization will be provided.
+   * @return A single representative utilization value on a resource.
+   */
   public double expectedUtilizationFor(Resource resource) {
-    return ModelUtils.expectedUtilizationFor(resource, _metricValues);
+    if (resource == null || _metricValues.isEmpty()) {
+      // Let the utils validate the arguments.
+      return ModelUtils.expectedUtilizationFor(resource, _metricValues);
+    }
+    double[] cachedUtilization = _cachedUtilization;
+    int index = resource.id() * NUM_UTILIZATION_MODES + DEFAULT_UTILIZATION;
+    if (cachedUtilization != null && !Double.isNaN(cachedUtilization[index])) {
+      CACHED_UTILIZATION_HITS.increment();
+      return cachedUtilization[index];
+    }
+    return cacheUtilization(cachedUtilization, index, ModelUtils.expectedUtilizationFor(resource, _metricValues));
+  }
+
+  /**
+   * Cache the given expected utilization computed from the current metric values. If the cache was invalidated since it
+   * was read, a new cache is only installed if no other cache has been installed, and a cache installed before the metric
+   * values change is discarded once the change is done. So a value computed from the metric values before or during the
+   * change is never returned after the change.
+   *
+   * @param cachedUtilization The cached utilization read before the utilization was computed, or {@code null} if none.
+   * @param index The index of the resource and mode of the utilization in the cache.
+   * @param utilization The expected utilization to cache.
+   * @return The given expected utilization.
+   */
+  private double cacheUtilization(double[] cachedUtilization, int index, double utilization) {
+    CACHED_UTILIZATION_MISSES.increment();
+    if (cachedUtilization == null) {
+      double[] newCachedUtilization = new double[Resource.cachedValues().size() * NUM_UTILIZATION_MODES];
+      Arrays.fill(newCachedUtilization, Double.NaN);
+      newCachedUtilization[index] = utilization;
+      CACHED_UTILIZATION_UPDATER.compareAndSet(this, null, newCachedUtilization);
+    } else {
+      cachedUtilization[index] = utilization;
+    }
+    return utilization;
+  }
+
+  /**
+   * Invalidate the cached expected utilization. This must be called after (not before) each change to the metric values,
+   * including the changes made through the shared metric values of {@link #loadFor(Resource, boolean)}.
+   */
+  void invalidateCachedUtilization() {
+    _cachedUtilization = null;
   }
 
   /**
@@ -169,6 +267,7 @@ public class Load implements Serializable {
         values.set(i, (float) valuesToSet.get(i));
       }
     });
+    invalidateCachedUtilization();
   }
 
   /**
@@ -186,6 +285,7 @@ public class Load implements Serializable {
     for (int i = 0; i < loadToSet.length(); i++) {
       values.set(i, (float) loadToSet.get(i));
     }
+    invalidateCachedUtilization();
   }
 
   /**
@@ -195,6 +295,7 @@ public class Load implements Serializable {
    */
   void clearLoadFor(Resource resource) {
     KafkaMetricDef.resourceToMetricIds(resource).forEach(id -> _metricValues.valuesFor(id).clear());
+    invalidateCachedUtilization();
   }
 
   /**
@@ -210,6 +311,7 @@ public class Load implements Serializable {
     }
     _windows = windows;
     _metricValues.add(aggregatedMetricValues);
+    invalidateCachedUtilization();
   }
 
   /**
@@ -222,6 +324,7 @@ public class Load implements Serializable {
       _windows = windows;
     }
     _metricValues.add(aggregatedMetricValues);
+    invalidateCachedUtilization();
   }
 
   /**
@@ -231,6 +334,7 @@ public class Load implements Serializable {
    */
   void addLoad(Load loadToAdd) {
     _metricValues.add(loadToAdd.loadByWindows());
+    invalidateCachedUtilization();
   }
 
   /**
@@ -241,6 +345,7 @@ public class Load implements Serializable {
   void addLoad(AggregatedMetricValues loadToAdd) {
     if (!_metricValues.isEmpty()) {
       _metricValues.add(loadToAdd);
+      invalidateCachedUtilization();
     }
   }
 
@@ -251,6 +356,7 @@ public class Load implements Serializable {
    */
   void subtractLoad(Load loadToSubtract) {
     _metricValues.subtract(loadToSubtract.loadByWindows());
+    invalidateCachedUtilization();
   }
 
   /**
@@ -261,6 +367,7 @@ public class Load implements Serializable {
   void subtractLoad(AggregatedMetricValues loadToSubtract) {
     if (!_metricValues.isEmpty()) {
       _metricValues.subtract(loadToSubtract);
+      invalidateCachedUtilization();
     }
   }
 
@@ -269,6 +376,7 @@ public class Load implements Serializable {
    */
   void clearLoad() {
     _metricValues.clear();
+    invalidateCachedUtilization();
   }
 
   /**
@@ -278,7 +386,8 @@ public class Load implements Serializable {
    * @param resource Resource for which the load will be provided.
    * @param shareValueArray Whether the returned result should share the value array with this class or not. When this
    *                  value is set to true, the returned result share the same value array with this object.
-   *                  Otherwise, data copy will be made and a dedicated result will be returned.
+   *                  Otherwise, data copy will be made and a dedicated result will be returned. A change to the shared
+   *                  values must be followed by {@link #invalidateCachedUtilization()}.
    *
    * @return Load of the requested resource as a mapping from snapshot time to utilization for the given resource.
    */
@@ -6,6 +6,7 @@ package com.linkedin.kafka.cruisecontrol.model;
 
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValuesSlab;
 import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import java.io.IOException;
@@ -56,8 +57,22 @@ public class Replica implements Serializable, Comparable<Replica> {
    * @param disk The disk of the replica. If replica placement over disk information is not populated, this parameter is null.
    */
   Replica(TopicPartition tp, Broker broker, boolean isLeader, boolean isOriginalOffline, Disk disk) {
+    this(tp, broker, isLeader, isOriginalOffline, disk, null);
+  }
+
+  /**
+   * A constructor for a replica whose load is allocated from the given slab.
+   *
+   * @param tp Topic partition information of the replica.
+   * @param broker The broker of the replica.
+   * @param isLeader A flag to represent whether the replica is the isLeader or not.
+   * @param isOriginalOffline {@code true} if the replica is offline in its original location, {@code false} otherwise.
+   * @param disk The disk of the replica. If replica placement over disk information is not populated, this parameter is null.
+   * @param loadSlab The slab to allocate the replica load from, or {@code null} to allocate it on heap individually.
+   */
+  Replica(TopicPartition tp, Broker broker, boolean isLeader, boolean isOriginalOffline, Disk disk, MetricValuesSlab loadSlab) {
     _tp = tp;
-    _load = new Load();
+    _load = new Load(loadSlab);
     _originalBroker = broker;
     _broker = broker;
     _isLeader = isLeader;
@@ -293,6 +308,9 @@ public class Replica implements Serializable, Comparable<Replica> {
         cpuLoad.set(i, newCpuLoad);
       }
     }
+    if (updateLoad) {
+      _load.invalidateCachedUtilization();
+    }
     return cpuLoadChange;
   }
 
@@ -5,9 +5,14 @@
 
 package com.linkedin.kafka.cruisecontrol.model;
 
+import java.util.AbstractSet;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -43,15 +48,23 @@ import java.util.function.Function;
  *   The SortedReplicas are initialized lazily, i.e. until one of {@link #sortedReplicas(boolean)} is invoked, the sorted replicas
  *   will not be populated.
  * </p>
+ *
+ * <p>
+ *   The priorities and the score of a replica are evaluated once when the replica is added, and kept as primitives in a
+ *   sort key. Hence, comparing two replicas does not re-evaluate the functions -- e.g. recompute the expected utilization
+ *   of a replica over all windows. The brokers and disks remove a replica from their sorted replicas before changing the
+ *   state that these functions depend on, and add it back afterwards.
+ * </p>
  */
 public class SortedReplicas {
+  private static final int[] NO_PRIORITIES = new int[0];
+  private static final Comparator<SortKey> SORT_KEY_COMPARATOR = SortedReplicas::compare;
   private final Broker _broker;
   private final Disk _disk;
-  private final SortedSet<Replica> _sortedReplicas;
+  private final ReplicaSet _sortedReplicas;
   private final Set<Function<Replica, Boolean>> _selectionFuncs;
   private final List<Function<Replica, Integer>> _priorityFuncs;
   private final Function<Replica, Double> _scoreFunc;
-  private final Comparator<Replica> _replicaComparator;
   private boolean _initialized;
 
   SortedReplicas(Broker broker,
@@ -72,23 +85,7 @@ public class SortedReplicas {
     _selectionFuncs = selectionFuncs;
     _scoreFunc = scoreFunc;
     _priorityFuncs = priorityFuncs;
-    _replicaComparator = (Replica r1, Replica r2) -> {
-      // First apply priority functions.
-      int result = comparePriority(r1, r2);
-      if (result != 0) {
-        return result;
-      }
-      // Then apply score function.
-      if (_scoreFunc != null) {
-        result = Double.compare(_scoreFunc.apply(r1), _scoreFunc.apply(r2));
-        if (result != 0) {
-          return result;
-        }
-      }
-      // Fall back to replica's own comparing method.
-      return r1.compareTo(r2);
-    };
-    _sortedReplicas = new TreeSet<>(_replicaComparator);
+    _sortedReplicas = new ReplicaSet(this, new TreeSet<>(SORT_KEY_COMPARATOR), new IdentityHashMap<>());
     // If the sorted replicas need to be initialized, we set the initialized to false and initialize the replicas
     // lazily. If the sorted replicas do not need to be initialized, we simply set the initialized to true, so that
     // all the methods will function normally.
@@ -106,9 +103,7 @@ public class SortedReplicas {
   public SortedSet<Replica> sortedReplicas(boolean clone) {
     ensureInitialize();
     if (clone) {
-      SortedSet<Replica> result = new TreeSet<>(_replicaComparator);
-      result.addAll(_sortedReplicas);
-      return result;
+      return new ReplicaSet(this, new TreeSet<>(_sortedReplicas._sortKeys), new IdentityHashMap<>(_sortedReplicas._sortKeyByReplica));
     }
     return Collections.unmodifiableSortedSet(_sortedReplicas);
   }
@@ -141,10 +136,8 @@ public class SortedReplicas {
    * @param replica the replica to add.
    */
   public void add(Replica replica) {
-    if (_initialized) {
-      if (_selectionFuncs == null || _selectionFuncs.stream().allMatch(func -> func.apply(replica))) {
-        _sortedReplicas.add(replica);
-      }
+    if (_initialized && isSelected(replica)) {
+      _sortedReplicas.add(replica);
     }
   }
 
@@ -176,18 +169,173 @@ public class SortedReplicas {
     }
   }
 
-  private int comparePriority(Replica replica1, Replica replica2) {
-    if (_priorityFuncs != null) {
-      // Apply priority functions one by one until the priority is resolved.
+  private boolean isSelected(Replica replica) {
+    if (_selectionFuncs != null) {
+      for (Function<Replica, Boolean> selectionFunc : _selectionFuncs) {
+        if (!selectionFunc.apply(replica)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Evaluate the priority functions and the score function for the given replica.
+   *
+   * @param replica The replica to get the sort key for.
+   * @return The sort key of the replica.
+   */
+  private SortKey sortKey(Replica replica) {
+    int[] priorities = NO_PRIORITIES;
+    if (_priorityFuncs != null && !_priorityFuncs.isEmpty()) {
+      priorities = new int[_priorityFuncs.size()];
+      int i = 0;
       for (Function<Replica, Integer> priorityFunction : _priorityFuncs) {
-        int p1 = priorityFunction.apply(replica1);
-        int p2 = priorityFunction.apply(replica2);
-        int result = Integer.compare(p1, p2);
-        if (result != 0) {
-          return result;
+        priorities[i++] = priorityFunction.apply(replica);
+      }
+    }
+    return new SortKey(replica, priorities, _scoreFunc == null ? 0.0 : _scoreFunc.apply(replica));
+  }
+
+  private static int compare(SortKey key1, SortKey key2) {
+    // First apply priorities one by one until the priority is resolved.
+    for (int i = 0; i < key1._priorities.length; i++) {
+      int result = Integer.compare(key1._priorities[i], key2._priorities[i]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    // Then apply score.
+    int result = Double.compare(key1._score, key2._score);
+    if (result != 0) {
+      return result;
+    }
+    // Fall back to replica's own comparing method.
+    return key1._replica.compareTo(key2._replica);
+  }
+
+  /**
+   * The priorities and the score of a replica at the time it was added to the sorted replicas.
+   */
+  private static final class SortKey {
+    private final Replica _replica;
+    private final int[] _priorities;
+    private final double _score;
+
+    SortKey(Replica replica, int[] priorities, double score) {
+      _replica = replica;
+      _priorities = priorities;
+      _score = score;
+    }
+  }
+
+  /**
+   * A sorted set of replicas backed by the sort keys of the replicas. Range views share the sort keys by replica with the
+   * set they are created from.
+   */
+  private static final class ReplicaSet extends AbstractSet<Replica> implements SortedSet<Replica> {
+    private final SortedReplicas _sortedReplicas;
+    private final NavigableSet<SortKey> _sortKeys;
+    private final Map<Replica, SortKey> _sortKeyByReplica;
+
+    ReplicaSet(SortedReplicas sortedReplicas, NavigableSet<SortKey> sortKeys, Map<Replica, SortKey> sortKeyByReplica) {
+      _sortedReplicas = sortedReplicas;
+      _sortKeys = sortKeys;
+      _sortKeyByReplica = sortKeyByReplica;
+    }
+
+    private SortKey sortKeyOf(Replica replica) {
+      SortKey sortKey = _sortKeyByReplica.get(replica);
+      return sortKey != null ? sortKey : _sortedReplicas.sortKey(replica);
+    }
+
+    @Override
+    public Iterator<Replica> iterator() {
+      Iterator<SortKey> sortKeyIterator = _sortKeys.iterator();
+      return new Iterator<>() {
+        private SortKey _last = null;
+
+        @Override
+        public boolean hasNext() {
+          return sortKeyIterator.hasNext();
+        }
+
+        @Override
+        public Replica next() {
+          _last = sortKeyIterator.next();
+          return _last._replica;
+        }
+
+        @Override
+        public void remove() {
+          sortKeyIterator.remove();
+          _sortKeyByReplica.remove(_last._replica);
         }
+      };
+    }
+
+    @Override
+    public int size() {
+      return _sortKeys.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      SortKey sortKey = _sortKeyByReplica.get(o);
+      return sortKey != null && _sortKeys.contains(sortKey);
+    }
+
+    @Override
+    public boolean add(Replica replica) {
+      if (_sortKeyByReplica.containsKey(replica)) {
+        return false;
+      }
+      SortKey sortKey = _sortedReplicas.sortKey(replica);
+      _sortKeys.add(sortKey);
+      _sortKeyByReplica.put(replica, sortKey);
+      return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+      SortKey sortKey = _sortKeyByReplica.get(o);
+      if (sortKey != null && _sortKeys.remove(sortKey)) {
+        _sortKeyByReplica.remove(o);
+        return true;
       }
+      return false;
+    }
+
+    @Override
+    public Comparator<? super Replica> comparator() {
+      return (r1, r2) -> compare(sortKeyOf(r1), sortKeyOf(r2));
+    }
+
+    @Override
+    public SortedSet<Replica> subSet(Replica fromElement, Replica toElement) {
+      return new ReplicaSet(_sortedReplicas, _sortKeys.subSet(sortKeyOf(fromElement), true, sortKeyOf(toElement), false),
+                            _sortKeyByReplica);
+    }
+
+    @Override
+    public SortedSet<Replica> headSet(Replica toElement) {
+      return new ReplicaSet(_sortedReplicas, _sortKeys.headSet(sortKeyOf(toElement), false), _sortKeyByReplica);
+    }
+
+    @Override
+    public SortedSet<Replica> tailSet(Replica fromElement) {
+      return new ReplicaSet(_sortedReplicas, _sortKeys.tailSet(sortKeyOf(fromElement), true), _sortKeyByReplica);
+    }
+
+    @Override
+    public Replica first() {
+      return _sortKeys.first()._replica;
+    }
+
+    @Override
+    public Replica last() {
+      return _sortKeys.last()._replica;
     }
-    return 0;
   }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Running accumulators of the distribution of the replicas of each topic over the brokers of a cluster model. The
+ * accumulators are maintained as replicas are created, relocated and removed, so that {@link ClusterModelStats} can
+ * compute the topic replica stats without scanning every broker for every topic.
+ *
+ * For each topic, it keeps the number of brokers with a replica of the topic, the sum of squares of the number of
+ * replicas of the topic in each broker, and the number of brokers by the number of replicas of the topic in a broker.
+ */
+final class TopicReplicaDistribution {
+  private static final int INITIAL_MAX_REPLICAS_IN_BROKER = 8;
+  private final Map<String, Counts> _countsByTopic;
+
+  TopicReplicaDistribution() {
+    _countsByTopic = new HashMap<>();
+  }
+
+  /**
+   * Update the distribution after a replica of the given topic has been added to a broker.
+   *
+   * @param topic Topic of the added replica.
+   * @param numTopicReplicasInBroker Number of replicas of the topic in the broker after the addition.
+   */
+  void onReplicaAdded(String topic, int numTopicReplicasInBroker) {
+    _countsByTopic.computeIfAbsent(topic, t -> new Counts()).increment(numTopicReplicasInBroker);
+  }
+
+  /**
+   * Update the distribution after a replica of the given topic has been removed from a broker.
+   *
+   * @param topic Topic of the removed replica.
+   * @param numTopicReplicasInBroker Number of replicas of the topic in the broker after the removal.
+   */
+  void onReplicaRemoved(String topic, int numTopicReplicasInBroker) {
+    Counts counts = _countsByTopic.get(topic);
+    if (counts == null) {
+      throw new IllegalStateException("Topic " + topic + " has no replicas to remove.");
+    }
+    counts.decrement(numTopicReplicasInBroker);
+    if (counts._numBrokersWithReplicas == 0) {
+      _countsByTopic.remove(topic);
+    }
+  }
+
+  /**
+   * Clear the distribution of all topics.
+   */
+  void clear() {
+    _countsByTopic.clear();
+  }
+
+  /**
+   * @param topic Topic name.
+   * @return The sum of squares of the number of replicas of the given topic in each broker.
+   */
+  long sumOfSquares(String topic) {
+    Counts counts = _countsByTopic.get(topic);
+    return counts == null ? 0L : counts._sumOfSquares;
+  }
+
+  /**
+   * @param topic Topic name.
+   * @return The maximum number of replicas of the given topic in a broker.
+   */
+  int maxReplicasInBroker(String topic) {
+    Counts counts = _countsByTopic.get(topic);
+    return counts == null ? 0 : counts._maxReplicasInBroker;
+  }
+
+  /**
+   * @param topic Topic name.
+   * @param numBrokers Number of brokers in the cluster model.
+   * @return The minimum number of replicas of the given topic in a broker.
+   */
+  int minReplicasInBroker(String topic, int numBrokers) {
+    Counts counts = _countsByTopic.get(topic);
+    if (counts == null || counts._numBrokersWithReplicas < numBrokers) {
+      return 0;
+    }
+    for (int numReplicas = 1; numReplicas <= counts._maxReplicasInBroker; numReplicas++) {
+      if (counts._numBrokersByNumReplicas[numReplicas] > 0) {
+        return numReplicas;
+      }
+    }
+    return 0;
+  }
+
+  private static final class Counts {
+    private int _numBrokersWithReplicas;
+    private long _sumOfSquares;
+    private int _maxReplicasInBroker;
+    // The number of brokers by the number of replicas of the topic in a broker, ignoring the brokers without a replica.
+    private int[] _numBrokersByNumReplicas;
+
+    Counts() {
+      _numBrokersWithReplicas = 0;
+      _sumOfSquares = 0L;
+      _maxReplicasInBroker = 0;
+      _numBrokersByNumReplicas = new int[INITIAL_MAX_REPLICAS_IN_BROKER + 1];
+    }
+
+    void increment(int numReplicas) {
+      if (numReplicas > 1) {
+        _numBrokersByNumReplicas[numReplicas - 1]--;
+      } else {
+        _numBrokersWithReplicas++;
+      }
+      if (numReplicas >= _numBrokersByNumReplicas.length) {
+        _numBrokersByNumReplicas = Arrays.copyOf(_numBrokersByNumReplicas, 2 * numReplicas);
+      }
+      _numBrokersByNumReplicas[numReplicas]++;
+      // n^2 - (n - 1)^2 = 2n - 1
+      _sumOfSquares += 2L * numReplicas - 1;
+      _maxReplicasInBroker = Math.max(_maxReplicasInBroker, numReplicas);
+    }
+
+    void decrement(int numReplicas) {
+      _numBrokersByNumReplicas[numReplicas + 1]--;
+      if (numReplicas > 0) {
+        _numBrokersByNumReplicas[numReplicas]++;
+      } else {
+        _numBrokersWithReplicas--;
+      }
+      // (n + 1)^2 - n^2 = 2n + 1
+      _sumOfSquares -= 2L * numReplicas + 1;
+      while (_maxReplicasInBroker > 0 && _numBrokersByNumReplicas[_maxReplicasInBroker] == 0) {
+        _maxReplicasInBroker--;
+      }
+    }
+  }
+}
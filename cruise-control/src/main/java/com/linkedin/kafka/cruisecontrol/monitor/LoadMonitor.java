@@ -5,11 +5,13 @@
 package com.linkedin.kafka.cruisecontrol.monitor;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleCompleteness;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
 import com.linkedin.kafka.cruisecontrol.analyzer.AnalyzerUtils;
@@ -53,6 +55,7 @@ import org.apache.kafka.clients.Metadata;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.internals.ClusterResourceListeners;
 import org.apache.kafka.common.utils.LogContext;
@@ -65,6 +68,7 @@ import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.SK
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.MAX_METADATA_WAIT_MS;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.getRackHandleNull;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.getReplicaPlacementInfo;
+import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.partitionPlacementChanged;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.populatePartitionLoad;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.setBadBrokerState;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUtils.BROKER_CAPACITY_FETCH_TIMEOUT_MS;
@@ -100,6 +104,9 @@ public class LoadMonitor {
   private final Timer _clusterModelCreationTimer;
   private final ThreadLocal<Boolean> _acquiredClusterModelSemaphore;
   private final ModelCompletenessRequirements _defaultModelCompletenessRequirements;
+  private final boolean _useSlabForReplicaLoad;
+  private final boolean _useClusterModelSnapshot;
+  private final Meter _clusterModelSnapshotHitRate;
   private final Time _time;
 
   // Sensor values
@@ -112,6 +119,7 @@ public class LoadMonitor {
 
   private volatile ModelGeneration _cachedBrokerLoadGeneration;
   private volatile BrokerStats _cachedBrokerLoadStats;
+  private volatile ClusterModelSnapshot _clusterModelSnapshot;
 
   /**
    * Construct a load monitor.
@@ -170,12 +178,17 @@ public class LoadMonitor {
 
     _defaultModelCompletenessRequirements =
         MonitorUtils.combineLoadRequirementOptions(AnalyzerUtils.getDefaultGoalsByPriority(config));
+    _useSlabForReplicaLoad = config.getBoolean(MonitorConfig.USE_SLAB_FOR_REPLICA_LOAD_CONFIG);
+    _useClusterModelSnapshot = config.getBoolean(MonitorConfig.USE_CLUSTER_MODEL_SNAPSHOT_CONFIG);
+    _clusterModelSnapshot = null;
 
     _loadMonitorTaskRunner =
         new LoadMonitorTaskRunner(config, _partitionMetricSampleAggregator, _brokerMetricSampleAggregator, _metadataClient,
                                   metricDef, time, dropwizardMetricRegistry, _brokerCapacityConfigResolver);
     _clusterModelCreationTimer = dropwizardMetricRegistry.timer(MetricRegistry.name(LOAD_MONITOR_SENSOR,
                                                                                     "cluster-model-creation-timer"));
+    _clusterModelSnapshotHitRate = dropwizardMetricRegistry.meter(MetricRegistry.name(LOAD_MONITOR_SENSOR,
+                                                                                      "cluster-model-snapshot-hit-rate"));
     _loadMonitorExecutor = Executors.newScheduledThreadPool(2,
                                                             new KafkaCruiseControlThreadFactory("LoadMonitorExecutor", true, LOG));
     _loadMonitorExecutor.scheduleAtFixedRate(new SensorUpdater(), 0, monitorStateUpdateIntervalMs, TimeUnit.MILLISECONDS);
@@ -225,6 +238,8 @@ public class LoadMonitor {
       LOG.warn("Received exception when closing broker capacity resolver.", e);
     }
     _loadMonitorTaskRunner.shutdown();
+    _partitionMetricSampleAggregator.shutdown();
+    _brokerMetricSampleAggregator.shutdown();
     _metadataClient.close();
     KafkaCruiseControlUtils.closeAdminClientWithTimeout(_adminClient);
     LOG.info("Load Monitor shutdown completed.");
@@ -244,6 +259,8 @@ public class LoadMonitor {
       case NOT_STARTED:
         return LoadMonitorState.notStarted();
       case RUNNING:
+      case CHECKPOINTING:
+        // Checkpointing the metric sample aggregators is short and does not affect the served load.
         return LoadMonitorState.running(numValidSnapshotWindows(),
                                         validPartitionRatio,
                                         monitoredPartitionsPercentage(),
@@ -425,6 +442,10 @@ public class LoadMonitor {
   /**
    * Get the most recent cluster load model before the given timestamp.
    *
+   * If {@link MonitorConfig#USE_CLUSTER_MODEL_SNAPSHOT_CONFIG} is enabled, the returned cluster model is a copy of the
+   * latest populated cluster model, as long as neither the cluster metadata nor the aggregated metric samples have changed
+   * since then. The returned cluster model is owned by the caller, who is free to modify it.
+   *
    * @param nowMs The current time in millisecond.
    * @param requirements the load requirements for getting the cluster model.
    * @param allowCapacityEstimation whether allow capacity estimation in cluster model if the underlying live broker capacity is unavailable.
@@ -439,7 +460,10 @@ public class LoadMonitor {
                                    boolean allowCapacityEstimation,
                                    OperationProgress operationProgress)
       throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
-    ClusterModel clusterModel = clusterModel(DEFAULT_START_TIME_FOR_CLUSTER_MODEL, nowMs, requirements, allowCapacityEstimation, operationProgress);
+    ClusterModel clusterModel = _useClusterModelSnapshot
+                                ? clusterModelFromSnapshot(nowMs, requirements, allowCapacityEstimation, operationProgress)
+                                : clusterModel(DEFAULT_START_TIME_FOR_CLUSTER_MODEL, nowMs, requirements, allowCapacityEstimation,
+                                               operationProgress);
     // Micro optimization: put the broker stats construction out of the lock.
     BrokerStats brokerStats = clusterModel.brokerStats(_config);
     // update the cached brokerLoadStats
@@ -496,11 +520,33 @@ public class LoadMonitor {
     long startMs = _time.milliseconds();
 
     MetadataClient.ClusterAndGeneration clusterAndGeneration = refreshClusterAndGeneration();
-    Cluster cluster = clusterAndGeneration.cluster();
 
     // Get the metric aggregation result.
     MetricSampleAggregationResult<String, PartitionEntity> partitionMetricSampleAggregationResult =
-        _partitionMetricSampleAggregator.aggregate(cluster, from, to, requirements, operationProgress);
+        _partitionMetricSampleAggregator.aggregate(clusterAndGeneration.cluster(), from, to, requirements, operationProgress);
+    return populateClusterModel(startMs, clusterAndGeneration, partitionMetricSampleAggregationResult, populateReplicaPlacementInfo,
+                                allowCapacityEstimation, operationProgress);
+  }
+
+  /**
+   * Populate a cluster model from the given cluster and the metric aggregation result.
+   *
+   * @param startMs The time in millisecond when the retrieval of the cluster model has started.
+   * @param clusterAndGeneration The cluster and its generation to populate the cluster model from.
+   * @param partitionMetricSampleAggregationResult The partition metric aggregation result to populate the load from.
+   * @param populateReplicaPlacementInfo whether populate replica placement information.
+   * @param allowCapacityEstimation whether allow capacity estimation in cluster model if the underlying live broker capacity is unavailable.
+   * @param operationProgress the progress of the job to report.
+   * @return A cluster model populated from the given cluster and the metric aggregation result.
+   */
+  private ClusterModel populateClusterModel(long startMs,
+                                            MetadataClient.ClusterAndGeneration clusterAndGeneration,
+                                            MetricSampleAggregationResult<String, PartitionEntity> partitionMetricSampleAggregationResult,
+                                            boolean populateReplicaPlacementInfo,
+                                            boolean allowCapacityEstimation,
+                                            OperationProgress operationProgress)
+      throws TimeoutException, BrokerCapacityResolutionException {
+    Cluster cluster = clusterAndGeneration.cluster();
     Map<PartitionEntity, ValuesAndExtrapolations> partitionValuesAndExtrapolations = partitionMetricSampleAggregationResult.valuesAndExtrapolations();
     LOG.info("Fetched {} partition values and extrapolations from aggregated metrics", partitionValuesAndExtrapolations.size());
     GeneratingClusterModel step = new GeneratingClusterModel(partitionValuesAndExtrapolations.size());
@@ -509,7 +555,8 @@ public class LoadMonitor {
     // Create an empty cluster model first.
     long currentLoadGeneration = partitionMetricSampleAggregationResult.generation();
     ModelGeneration modelGeneration = new ModelGeneration(clusterAndGeneration.generation(), currentLoadGeneration);
-    ClusterModel clusterModel = new ClusterModel(modelGeneration, partitionMetricSampleAggregationResult.validEntityRatioOfCompleteness());
+    ClusterModel clusterModel = new ClusterModel(modelGeneration, partitionMetricSampleAggregationResult.validEntityRatioOfCompleteness(),
+                                                 _useSlabForReplicaLoad);
 
     final Timer.Context ctx = _clusterModelCreationTimer.time();
     try {
@@ -532,7 +579,8 @@ public class LoadMonitor {
       setBadBrokerState(clusterModel, cluster);
 
       if (LOG.isDebugEnabled()) {
-        LOG.debug("Generated cluster model in {} ms", _time.milliseconds() - startMs);
+        LOG.debug("Generated cluster model in {} ms (replica load slab: {} bytes)", _time.milliseconds() - startMs,
+                  clusterModel.replicaLoadSlabBytes());
       }
     } finally {
       ctx.stop();
@@ -540,6 +588,170 @@ public class LoadMonitor {
     return clusterModel;
   }
 
+  /**
+   * Get a copy of the cluster model snapshot if it is still up-to-date and has been populated with the same requirements.
+   * Otherwise, bring the snapshot up-to-date -- incrementally if possible, or by populating a new cluster model -- and keep
+   * the result as the new snapshot. The snapshot itself is never handed out, so it remains unmodified and can be copied
+   * concurrently.
+   *
+   * @param nowMs The current time in millisecond.
+   * @param requirements the load requirements for getting the cluster model.
+   * @param allowCapacityEstimation whether allow capacity estimation in cluster model if the underlying live broker capacity is unavailable.
+   * @param operationProgress the progress to report.
+   * @return A copy of the up-to-date cluster model snapshot.
+   */
+  private ClusterModel clusterModelFromSnapshot(long nowMs,
+                                                ModelCompletenessRequirements requirements,
+                                                boolean allowCapacityEstimation,
+                                                OperationProgress operationProgress)
+      throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
+    long startMs = _time.milliseconds();
+    MetadataClient.ClusterAndGeneration clusterAndGeneration = refreshClusterAndGeneration();
+    // The load generation must be retrieved before the aggregation, so that any change during the population of the
+    // cluster model invalidates the snapshot.
+    ModelGeneration generation = new ModelGeneration(clusterAndGeneration.generation(), _partitionMetricSampleAggregator.generation());
+    ClusterModelSnapshot snapshot = _clusterModelSnapshot;
+    if (snapshot != null && snapshot.isValidFor(generation, requirements, allowCapacityEstimation)) {
+      _clusterModelSnapshotHitRate.mark();
+      return snapshot.clusterModel().copy();
+    }
+
+    Cluster cluster = clusterAndGeneration.cluster();
+    Set<TopicPartition> partitionsToRepopulate = null;
+    if (snapshot != null && snapshot.isPopulatedWith(requirements, allowCapacityEstimation)) {
+      partitionsToRepopulate = partitionsToRepopulate(snapshot, cluster);
+    }
+    MetricSampleAggregationResult<String, PartitionEntity> partitionMetricSampleAggregationResult;
+    ClusterModel clusterModel = null;
+    if (partitionsToRepopulate != null) {
+      // Aggregate only the partitions updated since the snapshot, unless the windows of the aggregation have changed.
+      Set<TopicPartition> mustAggregate = partitionsToRepopulate;
+      partitionMetricSampleAggregationResult =
+          _partitionMetricSampleAggregator.aggregate(cluster, DEFAULT_START_TIME_FOR_CLUSTER_MODEL, nowMs, requirements,
+                                                     operationProgress, snapshot.generation().loadGeneration(), snapshot.windows(),
+                                                     entity -> mustAggregate.contains(entity.tp()));
+      clusterModel = refreshClusterModel(snapshot, clusterAndGeneration, partitionMetricSampleAggregationResult, allowCapacityEstimation,
+                                         operationProgress);
+    } else {
+      partitionMetricSampleAggregationResult =
+          _partitionMetricSampleAggregator.aggregate(cluster, DEFAULT_START_TIME_FOR_CLUSTER_MODEL, nowMs, requirements, operationProgress);
+    }
+    Set<TopicPartition> partitions = new HashSet<>();
+    partitionMetricSampleAggregationResult.valuesAndExtrapolations().keySet().forEach(entity -> partitions.add(entity.tp()));
+    if (clusterModel == null) {
+      // There is no snapshot to refresh, or the windows have changed since the snapshot and all partitions are aggregated.
+      clusterModel = populateClusterModel(startMs, clusterAndGeneration, partitionMetricSampleAggregationResult, false,
+                                          allowCapacityEstimation, operationProgress);
+    } else {
+      partitionMetricSampleAggregationResult.unchangedEntities().forEach(entity -> partitions.add(entity.tp()));
+    }
+    _clusterModelSnapshot = new ClusterModelSnapshot(generation, requirements, allowCapacityEstimation, clusterModel, cluster,
+                                                     windows(partitionMetricSampleAggregationResult), partitions);
+    return clusterModel.copy();
+  }
+
+  /**
+   * Get the partitions to repopulate in order to bring the given cluster model snapshot up-to-date with the given cluster,
+   * regardless of the load changes: the partitions whose replica placement has changed and the partitions that are not in
+   * the snapshot.
+   *
+   * @param snapshot The cluster model snapshot to refresh.
+   * @param cluster The current cluster.
+   * @return The partitions to repopulate, or {@code null} if the changes cannot be applied incrementally -- i.e. the
+   * brokers or their states have changed, or a partition lost replicas.
+   */
+  private static Set<TopicPartition> partitionsToRepopulate(ClusterModelSnapshot snapshot, Cluster cluster) {
+    Cluster snapshotCluster = snapshot.cluster();
+    if (!new HashSet<>(snapshotCluster.nodes()).equals(new HashSet<>(cluster.nodes()))
+        || !MonitorUtils.deadBrokersWithReplicas(snapshotCluster).equals(MonitorUtils.deadBrokersWithReplicas(cluster))
+        || !MonitorUtils.brokersWithOfflineReplicas(snapshotCluster).equals(MonitorUtils.brokersWithOfflineReplicas(cluster))) {
+      return null;
+    }
+    Set<TopicPartition> partitionsToRepopulate = new HashSet<>();
+    for (String topic : cluster.topics()) {
+      for (PartitionInfo partitionInfo : cluster.partitionsForTopic(topic)) {
+        TopicPartition tp = new TopicPartition(partitionInfo.topic(), partitionInfo.partition());
+        PartitionInfo snapshotPartitionInfo = snapshotCluster.partition(tp);
+        if (snapshotPartitionInfo != null && partitionInfo.replicas().length < snapshotPartitionInfo.replicas().length) {
+          return null;
+        }
+        if (!snapshot.partitions().contains(tp) || partitionPlacementChanged(snapshotPartitionInfo, partitionInfo)) {
+          partitionsToRepopulate.add(tp);
+        }
+      }
+    }
+    return partitionsToRepopulate;
+  }
+
+  /**
+   * Bring a copy of the cluster model in the given snapshot up-to-date by repopulating only the aggregated partitions,
+   * i.e. the partitions whose load has been updated or whose replica placement has changed since the snapshot was
+   * populated, so the cost scales with the churn rather than with the size of the cluster. The partitions that are
+   * neither aggregated nor unchanged are no longer monitored, and are removed.
+   *
+   * @param snapshot The cluster model snapshot to refresh.
+   * @param clusterAndGeneration The current cluster and its generation.
+   * @param partitionMetricSampleAggregationResult The metric aggregation result of the changed partitions.
+   * @param allowCapacityEstimation whether allow capacity estimation in cluster model if the underlying live broker capacity is unavailable.
+   * @param operationProgress the progress to report.
+   * @return The up-to-date cluster model, or {@code null} if the windows of the aggregated load have changed, in which
+   * case the given metric aggregation result contains all partitions and is left intact.
+   */
+  private ClusterModel refreshClusterModel(ClusterModelSnapshot snapshot,
+                                           MetadataClient.ClusterAndGeneration clusterAndGeneration,
+                                           MetricSampleAggregationResult<String, PartitionEntity> partitionMetricSampleAggregationResult,
+                                           boolean allowCapacityEstimation,
+                                           OperationProgress operationProgress)
+      throws TimeoutException {
+    if (!windows(partitionMetricSampleAggregationResult).equals(snapshot.windows())) {
+      return null;
+    }
+    long startMs = _time.milliseconds();
+    Cluster cluster = clusterAndGeneration.cluster();
+    Map<PartitionEntity, ValuesAndExtrapolations> changedPartitions = partitionMetricSampleAggregationResult.valuesAndExtrapolations();
+    Set<PartitionEntity> unchangedPartitions = partitionMetricSampleAggregationResult.unchangedEntities();
+    ModelGeneration modelGeneration = new ModelGeneration(clusterAndGeneration.generation(),
+                                                          partitionMetricSampleAggregationResult.generation());
+    ClusterModel clusterModel = snapshot.clusterModel().copy(modelGeneration,
+                                                             partitionMetricSampleAggregationResult.validEntityRatioOfCompleteness());
+    GeneratingClusterModel step = new GeneratingClusterModel(changedPartitions.size());
+    operationProgress.addStep(step);
+    final Timer.Context ctx = _clusterModelCreationTimer.time();
+    try {
+      // Remove the partitions that are no longer monitored.
+      int numRemovedPartitions = 0;
+      for (TopicPartition tp : snapshot.partitions()) {
+        PartitionEntity entity = new PartitionEntity(tp);
+        if (!changedPartitions.containsKey(entity) && !unchangedPartitions.contains(entity) && clusterModel.removePartition(tp)) {
+          numRemovedPartitions++;
+        }
+      }
+      for (Map.Entry<PartitionEntity, ValuesAndExtrapolations> entry : changedPartitions.entrySet()) {
+        TopicPartition tp = entry.getKey().tp();
+        clusterModel.removePartition(tp);
+        populatePartitionLoad(cluster, clusterModel, tp, entry.getValue(), null, _brokerCapacityConfigResolver, allowCapacityEstimation);
+        step.incrementPopulatedNumPartitions();
+      }
+      if (numRemovedPartitions > 0 || !changedPartitions.isEmpty()) {
+        clusterModel.refreshClusterMaxReplicationFactor();
+      }
+      // Replicas of the repopulated partitions may be on bad brokers.
+      setBadBrokerState(clusterModel, cluster);
+      LOG.info("Refreshed cluster model snapshot in {} ms by repopulating {} and removing {} out of {} partitions.",
+               _time.milliseconds() - startMs, changedPartitions.size(), numRemovedPartitions, snapshot.partitions().size());
+    } finally {
+      ctx.stop();
+    }
+    return clusterModel;
+  }
+
+  private static List<Long> windows(MetricSampleAggregationResult<String, PartitionEntity> partitionMetricSampleAggregationResult) {
+    MetricSampleCompleteness<String, PartitionEntity> completeness = partitionMetricSampleAggregationResult.completeness();
+    List<Long> windows = new ArrayList<>(completeness.validWindowIndices().size());
+    completeness.validWindowIndices().forEach(windowIndex -> windows.add(windowIndex * completeness.windowMs()));
+    return windows;
+  }
+
   /**
    * Get cluster capacity, and skip populating cluster load. Enables quick retrieval of capacity without the load.
    * @return Cluster capacity without cluster load.
@@ -826,6 +1038,67 @@ public class LoadMonitor {
     }
   }
 
+  /**
+   * An unmodified cluster model along with the generation and the parameters it has been populated with, as well as the
+   * cluster, the load windows and the populated partitions to refresh it incrementally.
+   */
+  private static class ClusterModelSnapshot {
+    private final ModelGeneration _generation;
+    private final ModelCompletenessRequirements _requirements;
+    private final boolean _allowCapacityEstimation;
+    private final ClusterModel _clusterModel;
+    private final Cluster _cluster;
+    private final List<Long> _windows;
+    private final Set<TopicPartition> _partitions;
+
+    ClusterModelSnapshot(ModelGeneration generation,
+                         ModelCompletenessRequirements requirements,
+                         boolean allowCapacityEstimation,
+                         ClusterModel clusterModel,
+                         Cluster cluster,
+                         List<Long> windows,
+                         Set<TopicPartition> partitions) {
+      _generation = generation;
+      _requirements = requirements;
+      _allowCapacityEstimation = allowCapacityEstimation;
+      _clusterModel = clusterModel;
+      _cluster = cluster;
+      _windows = windows;
+      _partitions = partitions;
+    }
+
+    ModelGeneration generation() {
+      return _generation;
+    }
+
+    ClusterModel clusterModel() {
+      return _clusterModel;
+    }
+
+    Cluster cluster() {
+      return _cluster;
+    }
+
+    List<Long> windows() {
+      return _windows;
+    }
+
+    Set<TopicPartition> partitions() {
+      return _partitions;
+    }
+
+    boolean isPopulatedWith(ModelCompletenessRequirements requirements, boolean allowCapacityEstimation) {
+      return _allowCapacityEstimation == allowCapacityEstimation
+             && _requirements.minRequiredNumWindows() == requirements.minRequiredNumWindows()
+             && _requirements.minMonitoredPartitionsPercentage() == requirements.minMonitoredPartitionsPercentage()
+             && _requirements.includeAllTopics() == requirements.includeAllTopics();
+    }
+
+    boolean isValidFor(ModelGeneration generation, ModelCompletenessRequirements requirements, boolean allowCapacityEstimation) {
+      return _generation.equals(generation) && isPopulatedWith(requirements, allowCapacityEstimation);
+    }
+  }
+
   public class AutoCloseableSemaphore implements AutoCloseable {
     private final AtomicBoolean _closed = new AtomicBoolean(false);
     @Override
@@ -161,6 +161,26 @@ public final class MonitorUtils {
     return false;
   }
 
+  /**
+   * Check whether the placement of the given partition has changed -- i.e. the partition has been created or deleted,
+   * or its leader, replica list, or offline replicas have changed.
+   *
+   * @param prevPartInfo Previous partition info, or {@code null} if the partition did not exist.
+   * @param currPartInfo Current partition info, or {@code null} if the partition does not exist.
+   * @return {@code true} if the placement of the partition has changed, {@code false} otherwise.
+   */
+  static boolean partitionPlacementChanged(PartitionInfo prevPartInfo, PartitionInfo currPartInfo) {
+    if (prevPartInfo == null || currPartInfo == null) {
+      return prevPartInfo != currPartInfo;
+    }
+    if (leaderChanged(prevPartInfo, currPartInfo) || replicaListChanged(prevPartInfo, currPartInfo)) {
+      return true;
+    }
+    Set<Integer> prevOfflineReplicas = Arrays.stream(prevPartInfo.offlineReplicas()).map(Node::id).collect(Collectors.toSet());
+    Set<Integer> currOfflineReplicas = Arrays.stream(currPartInfo.offlineReplicas()).map(Node::id).collect(Collectors.toSet());
+    return !prevOfflineReplicas.equals(currOfflineReplicas);
+  }
+
   /**
    * Combine load requirement options.
    *
@@ -7,6 +7,8 @@ import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetricsUtils;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
@@ -20,6 +22,7 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.slf4j.Logger;
 
@@ -33,10 +36,17 @@ public abstract class AbstractKafkaSampleStore implements SampleStore {
   protected static final Duration PRODUCER_CLOSE_TIMEOUT = Duration.ofMinutes(3);
   protected static final short DEFAULT_SAMPLE_STORE_TOPIC_REPLICATION_FACTOR = 2;
   protected static final int DEFAULT_PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT = 32;
+  // The maximum number of partition metric samples serialized in a single record, keeping the records well below the
+  // default max message size even with long topic names.
+  protected static final int MAX_PARTITION_METRIC_SAMPLES_PER_RECORD = 1000;
+  // Keep writing a single sample per record by default, which the older versions of Cruise Control can read.
+  protected static final byte DEFAULT_PARTITION_METRIC_SAMPLE_WRITER_VERSION = PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION;
+  public static final String PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG = "partition.metric.sample.writer.version";
 
   protected volatile boolean _shutdown = false;
   protected Short _sampleStoreTopicReplicationFactor;
   protected Producer<byte[], byte[]> _producer;
+  protected byte _partitionMetricSampleWriterVersion = DEFAULT_PARTITION_METRIC_SAMPLE_WRITER_VERSION;
 
   protected void createProducer(Map<String, ?> config, String producerClientId) {
     Properties producerProps = new Properties();
@@ -105,23 +115,92 @@ public abstract class AbstractKafkaSampleStore implements SampleStore {
     }
   }
 
+  /**
+   * Get the version to serialize the partition metric samples with from the given configs.
+   *
+   * @param config The configurations of the sample store.
+   * @return The version to serialize the partition metric samples with.
+   */
+  protected static byte partitionMetricSampleWriterVersion(Map<String, ?> config) {
+    String writerVersionString = (String) config.get(PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG);
+    if (writerVersionString == null || writerVersionString.isEmpty()) {
+      return DEFAULT_PARTITION_METRIC_SAMPLE_WRITER_VERSION;
+    }
+    String supportedVersions = String.format("The supported versions are %d and %d.", PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION,
+                                             PartitionMetricSample.LATEST_SUPPORTED_VERSION);
+    byte writerVersion;
+    try {
+      writerVersion = Byte.parseByte(writerVersionString);
+    } catch (NumberFormatException e) {
+      throw new ConfigException(PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG, writerVersionString, supportedVersions);
+    }
+    if (writerVersion != PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION
+        && writerVersion != PartitionMetricSample.LATEST_SUPPORTED_VERSION) {
+      throw new ConfigException(PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG, writerVersionString, supportedVersions);
+    }
+    return writerVersion;
+  }
+
+  /**
+   * Store the given partition metric samples to the given topic. Version {@link PartitionMetricSample#LATEST_SINGLE_SAMPLE_VERSION}
+   * produces a record per sample, the later versions produce a record per batch of up to
+   * {@link #MAX_PARTITION_METRIC_SAMPLES_PER_RECORD} samples, which only the Cruise Control versions supporting them can read.
+   *
+   * @param samples The samples to store.
+   * @param producer The producer to store the samples with.
+   * @param partitionMetricSampleStoreTopic The topic to store the samples to.
+   * @param writerVersion The version to serialize the samples with.
+   * @param log The logger of the sample store.
+   * @return The number of samples stored, which is updated as the records are acknowledged.
+   */
   static AtomicInteger storePartitionMetricSamples(MetricSampler.Samples samples, Producer<byte[], byte[]> producer,
-                                                   String partitionMetricSampleStoreTopic, Logger log) {
+                                                   String partitionMetricSampleStoreTopic, byte writerVersion, Logger log) {
     final AtomicInteger metricSampleCount = new AtomicInteger(0);
+    if (writerVersion <= PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION) {
+      for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
+        producer.send(new ProducerRecord<>(partitionMetricSampleStoreTopic, null, sample.sampleTime(), null, sample.toBytes()),
+                      (recordMetadata, e) -> {
+                        if (e == null) {
+                          metricSampleCount.incrementAndGet();
+                        } else {
+                          log.error("Failed to produce partition metric sample for {} of timestamp {} due to exception",
+                                    sample.entity().tp(), sample.sampleTime(), e);
+                        }
+                      });
+      }
+      return metricSampleCount;
+    }
+    List<PartitionMetricSample> batch = new ArrayList<>(MAX_PARTITION_METRIC_SAMPLES_PER_RECORD);
     for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
-      producer.send(new ProducerRecord<>(partitionMetricSampleStoreTopic, null, sample.sampleTime(), null, sample.toBytes()),
-                    (recordMetadata, e) -> {
-                      if (e == null) {
-                        metricSampleCount.incrementAndGet();
-                      } else {
-                        log.error("Failed to produce partition metric sample for {} of timestamp {} due to exception",
-                                  sample.entity().tp(), sample.sampleTime(), e);
-                      }
-                    });
+      batch.add(sample);
+      if (batch.size() == MAX_PARTITION_METRIC_SAMPLES_PER_RECORD) {
+        sendPartitionMetricSamples(batch, producer, partitionMetricSampleStoreTopic, metricSampleCount, log);
+        batch = new ArrayList<>(MAX_PARTITION_METRIC_SAMPLES_PER_RECORD);
+      }
+    }
+    if (!batch.isEmpty()) {
+      sendPartitionMetricSamples(batch, producer, partitionMetricSampleStoreTopic, metricSampleCount, log);
     }
     return metricSampleCount;
   }
 
+  private static void sendPartitionMetricSamples(List<PartitionMetricSample> batch, Producer<byte[], byte[]> producer,
+                                                 String partitionMetricSampleStoreTopic, AtomicInteger metricSampleCount,
+                                                 Logger log) {
+    // The record timestamp is the latest sample time in the batch, so seeking to a timestamp does not skip any sample after it.
+    long maxSampleTime = batch.stream().mapToLong(PartitionMetricSample::sampleTime).max().getAsLong();
+    producer.send(new ProducerRecord<>(partitionMetricSampleStoreTopic, null, maxSampleTime, null,
+                                       PartitionMetricSample.toBatchBytes(batch)),
+                  (recordMetadata, e) -> {
+                    if (e == null) {
+                      metricSampleCount.addAndGet(batch.size());
+                    } else {
+                      log.error("Failed to produce a batch of {} partition metric samples of timestamp up to {} due to exception",
+                                batch.size(), maxSampleTime, e);
+                    }
+                  });
+  }
+
   @Override
   public void evictSamplesBefore(long timestamp) {
     //TODO: use the deleteMessageBefore method to delete old samples.
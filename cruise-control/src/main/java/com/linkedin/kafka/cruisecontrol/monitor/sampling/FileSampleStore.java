@@ -0,0 +1,408 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
+import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The sample store that implements the {@link SampleStore}. It appends the partition metric samples and broker metric
+ * samples to segment files on the local disk, one segment per metric window and sample type, and loads the segments
+ * with memory-mapped reads at startup. Compared with {@link KafkaSampleStore}, loading does not replay the sample
+ * store topics, hence the metric sample aggregators have valid windows shortly after a restart.
+ *
+ * A segment holds the serialized samples of a window, each preceded by its length. A record that was only partially
+ * written, e.g. due to a crash, ends the segment: it is skipped while loading, and truncated before the next append.
+ * The segments of the windows that are older than the windows kept by the metric sample aggregators are deleted.
+ *
+ * Required configurations for this class.
+ * <ul>
+ *   <li>{@link #FILE_SAMPLE_STORE_DIR_CONFIG}: The config for the directory to store the segment files in.</li>
+ *   <li>{@link #NUM_SAMPLE_LOADING_THREADS_CONFIG}: The config for the number of threads to load the segments with, default
+ *   value is set to {@link #DEFAULT_NUM_SAMPLE_LOADING_THREADS}.</li>
+ * </ul>
+ */
+public class FileSampleStore implements SampleStore {
+  private static final Logger LOG = LoggerFactory.getLogger(FileSampleStore.class);
+  protected static final int DEFAULT_NUM_SAMPLE_LOADING_THREADS = 8;
+  // The number of loaded samples to add to the metric sample aggregators at once.
+  protected static final int SAMPLE_LOADING_BATCH_SIZE = 10000;
+  protected static final String SEGMENT_FILE_SUFFIX = ".segment";
+  protected static final String PARTITION_SEGMENT_DIR = "partition";
+  protected static final String BROKER_SEGMENT_DIR = "broker";
+
+  public static final String FILE_SAMPLE_STORE_DIR_CONFIG = "file.sample.store.dir";
+  public static final String NUM_SAMPLE_LOADING_THREADS_CONFIG = "num.sample.loading.threads";
+
+  protected Segments _partitionSegments;
+  protected Segments _brokerSegments;
+  protected int _numLoadingThreads;
+  protected volatile double _loadingProgress;
+
+  @Override
+  public void configure(Map<String, ?> config) {
+    Path dir = Paths.get(KafkaCruiseControlUtils.getRequiredConfig(config, FILE_SAMPLE_STORE_DIR_CONFIG));
+    String numLoadingThreadsString = (String) config.get(NUM_SAMPLE_LOADING_THREADS_CONFIG);
+    _numLoadingThreads = numLoadingThreadsString == null || numLoadingThreadsString.isEmpty()
+                         ? DEFAULT_NUM_SAMPLE_LOADING_THREADS : Integer.parseInt(numLoadingThreadsString);
+    // Retain the windows kept by the metric sample aggregators, including the current window.
+    _partitionSegments = new Segments(dir.resolve(PARTITION_SEGMENT_DIR),
+                                      (Long) config.get(MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG),
+                                      (Integer) config.get(MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG) + 1);
+    _brokerSegments = new Segments(dir.resolve(BROKER_SEGMENT_DIR),
+                                   (Long) config.get(MonitorConfig.BROKER_METRICS_WINDOW_MS_CONFIG),
+                                   (Integer) config.get(MonitorConfig.NUM_BROKER_METRICS_WINDOWS_CONFIG) + 1);
+    _loadingProgress = -1.0;
+  }
+
+  @Override
+  public void storeSamples(MetricSampler.Samples samples) {
+    Map<Long, List<byte[]>> partitionRecords = new HashMap<>();
+    for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
+      partitionRecords.computeIfAbsent(_partitionSegments.windowIndex(sample.sampleTime()), w -> new ArrayList<>())
+                      .add(sample.toBytes());
+    }
+    Map<Long, List<byte[]>> brokerRecords = new HashMap<>();
+    for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
+      brokerRecords.computeIfAbsent(_brokerSegments.windowIndex(sample.sampleTime()), w -> new ArrayList<>())
+                   .add(sample.toBytes());
+    }
+    try {
+      _partitionSegments.append(partitionRecords);
+      _brokerSegments.append(brokerRecords);
+    } catch (IOException ioe) {
+      LOG.error("Failed to store {} partition metric samples and {} broker metric samples.",
+                samples.partitionMetricSamples().size(), samples.brokerMetricSamples().size(), ioe);
+      return;
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Stored {} partition metric samples and {} broker metric samples to segment files",
+                samples.partitionMetricSamples().size(), samples.brokerMetricSamples().size());
+    }
+  }
+
+  @Override
+  public void loadSamples(SampleLoader sampleLoader) {
+    LOG.info("Starting loading samples.");
+    long startMs = System.currentTimeMillis();
+    // Skip the segments of the windows that are too old for the metric sample aggregators to keep.
+    List<Path> segments = new ArrayList<>();
+    try {
+      segments.addAll(_partitionSegments.segmentsSince(startMs - sampleLoader.partitionMonitoringPeriodMs()));
+      segments.addAll(_brokerSegments.segmentsSince(startMs - sampleLoader.brokerMonitoringPeriodMs()));
+    } catch (IOException ioe) {
+      LOG.error("Failed to list the segments to load samples from.", ioe);
+      return;
+    }
+    long totalBytes = 0L;
+    for (Path segment : segments) {
+      totalBytes += segment.toFile().length();
+    }
+    AtomicLong numLoadedBytes = new AtomicLong(0L);
+    AtomicLong numPartitionMetricSamples = new AtomicLong(0L);
+    AtomicLong numBrokerMetricSamples = new AtomicLong(0L);
+    _loadingProgress = totalBytes == 0L ? 1.0 : 0.0;
+    ExecutorService loadingExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(_numLoadingThreads, segments.size())),
+                                                                   new KafkaCruiseControlThreadFactory("FileSampleStoreLoader", true, LOG));
+    try {
+      List<Future<?>> futures = new ArrayList<>(segments.size());
+      for (Path segment : segments) {
+        boolean isPartitionSegment = segment.getParent().equals(_partitionSegments.dir());
+        long segmentTotalBytes = totalBytes;
+        futures.add(loadingExecutor.submit(() -> {
+          try {
+            long numSamples = loadSegment(segment, isPartitionSegment, sampleLoader);
+            (isPartitionSegment ? numPartitionMetricSamples : numBrokerMetricSamples).addAndGet(numSamples);
+          } finally {
+            _loadingProgress = (double) numLoadedBytes.addAndGet(segment.toFile().length()) / segmentTotalBytes;
+          }
+          return null;
+        }));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (ExecutionException ee) {
+          // A failed segment does not prevent loading the samples of the other segments.
+          LOG.error("Failed to load samples from segment {}, skipping it.", segments.get(i), ee.getCause());
+        }
+      }
+    } catch (InterruptedException ie) {
+      LOG.error("Interrupted while loading samples.", ie);
+      Thread.currentThread().interrupt();
+    } finally {
+      loadingExecutor.shutdownNow();
+    }
+    _loadingProgress = 1.0;
+    long endMs = System.currentTimeMillis();
+    long discardedPartitionMetricSamples = numPartitionMetricSamples.get() - sampleLoader.partitionSampleCount();
+    long discardedBrokerMetricSamples = numBrokerMetricSamples.get() - sampleLoader.brokerSampleCount();
+    LOG.info("Sample loading finished. Loaded {}{} partition metrics samples and {}{} broker metric samples from {} segments "
+             + "in {} ms.", sampleLoader.partitionSampleCount(),
+             discardedPartitionMetricSamples > 0 ? String.format("(%d discarded)", discardedPartitionMetricSamples) : "",
+             sampleLoader.brokerSampleCount(),
+             discardedBrokerMetricSamples > 0 ? String.format("(%d discarded)", discardedBrokerMetricSamples) : "",
+             segments.size(), endMs - startMs);
+  }
+
+  /**
+   * Load the samples of the given segment to the metric sample aggregators.
+   *
+   * @param segment The segment to load.
+   * @param isPartitionSegment {@code true} if the segment has partition metric samples, {@code false} if it has broker
+   *                           metric samples.
+   * @param sampleLoader The sample loader to load the samples with.
+   * @return The number of samples read from the segment.
+   */
+  protected long loadSegment(Path segment, boolean isPartitionSegment, SampleLoader sampleLoader) throws IOException {
+    long numSamples = 0L;
+    Set<PartitionMetricSample> partitionMetricSamples = new HashSet<>();
+    Set<BrokerMetricSample> brokerMetricSamples = new HashSet<>();
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      // Samples appended after the segment is mapped are not loaded, they are also added to the aggregators by sampling.
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      byte[] record;
+      while ((record = nextRecord(buffer)) != null) {
+        try {
+          if (isPartitionSegment) {
+            partitionMetricSamples.add(PartitionMetricSample.fromBytes(record));
+          } else {
+            brokerMetricSamples.add(BrokerMetricSample.fromBytes(record));
+          }
+          numSamples++;
+        } catch (UnknownVersionException e) {
+          LOG.warn("Ignoring sample due to", e);
+        }
+        if (partitionMetricSamples.size() + brokerMetricSamples.size() == SAMPLE_LOADING_BATCH_SIZE) {
+          sampleLoader.loadSamples(new MetricSampler.Samples(partitionMetricSamples, brokerMetricSamples));
+          partitionMetricSamples = new HashSet<>();
+          brokerMetricSamples = new HashSet<>();
+        }
+      }
+      if (buffer.hasRemaining()) {
+        LOG.warn("Ignoring {} bytes of a partially written sample at the end of segment {}.", buffer.remaining(), segment);
+      }
+    }
+    if (!partitionMetricSamples.isEmpty() || !brokerMetricSamples.isEmpty()) {
+      sampleLoader.loadSamples(new MetricSampler.Samples(partitionMetricSamples, brokerMetricSamples));
+    }
+    LOG.debug("Loaded {} samples from segment {}.", numSamples, segment);
+    return numSamples;
+  }
+
+  /**
+   * Read the next record from the given buffer.
+   *
+   * @param buffer The buffer positioned at the length of a record.
+   * @return The next record, or {@code null} if the buffer has no complete record left, in which case the position of the
+   * buffer is left at the start of the incomplete record.
+   */
+  static byte[] nextRecord(ByteBuffer buffer) {
+    if (buffer.remaining() < Integer.BYTES) {
+      return null;
+    }
+    int length = buffer.getInt(buffer.position());
+    if (length <= 0 || length > buffer.remaining() - Integer.BYTES) {
+      return null;
+    }
+    byte[] record = new byte[length];
+    buffer.position(buffer.position() + Integer.BYTES);
+    buffer.get(record);
+    return record;
+  }
+
+  @Override
+  public double sampleLoadingProgress() {
+    return _loadingProgress;
+  }
+
+  @Override
+  public void evictSamplesBefore(long timestamp) {
+    try {
+      _partitionSegments.deleteSegmentsBefore(_partitionSegments.windowIndex(timestamp));
+      _brokerSegments.deleteSegmentsBefore(_brokerSegments.windowIndex(timestamp));
+    } catch (IOException ioe) {
+      LOG.warn("Failed to evict the samples before {}.", timestamp, ioe);
+    }
+  }
+
+  @Override
+  public void close() {
+    _partitionSegments.close();
+    _brokerSegments.close();
+  }
+
+  /**
+   * The segments of a sample type, one per window. The segments of the retained windows are kept open for appends.
+   */
+  protected static class Segments {
+    private final Path _dir;
+    private final long _windowMs;
+    private final int _numWindowsToRetain;
+    // The open segments by window index.
+    private final TreeMap<Long, FileChannel> _openSegments;
+    private long _latestWindowIndex;
+
+    Segments(Path dir, long windowMs, int numWindowsToRetain) {
+      try {
+        Files.createDirectories(dir);
+      } catch (IOException ioe) {
+        throw new UncheckedIOException("Failed to create the sample store directory " + dir, ioe);
+      }
+      _dir = dir;
+      _windowMs = windowMs;
+      _numWindowsToRetain = numWindowsToRetain;
+      _openSegments = new TreeMap<>();
+      _latestWindowIndex = -1L;
+    }
+
+    Path dir() {
+      return _dir;
+    }
+
+    long windowIndex(long timeMs) {
+      return timeMs / _windowMs;
+    }
+
+    /**
+     * Append the given records to the segments of their windows, and delete the segments of the windows that are no
+     * longer retained.
+     *
+     * @param recordsByWindowIndex The serialized samples by window index.
+     */
+    synchronized void append(Map<Long, List<byte[]>> recordsByWindowIndex) throws IOException {
+      for (Map.Entry<Long, List<byte[]>> entry : recordsByWindowIndex.entrySet()) {
+        long windowIndex = entry.getKey();
+        if (windowIndex <= _latestWindowIndex - _numWindowsToRetain) {
+          continue;
+        }
+        int numBytes = 0;
+        for (byte[] record : entry.getValue()) {
+          numBytes += Integer.BYTES + record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(numBytes);
+        for (byte[] record : entry.getValue()) {
+          buffer.putInt(record.length).put(record);
+        }
+        buffer.flip();
+        FileChannel channel = openForAppend(windowIndex);
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        if (windowIndex > _latestWindowIndex) {
+          _latestWindowIndex = windowIndex;
+          deleteSegmentsBefore(_latestWindowIndex - _numWindowsToRetain + 1);
+        }
+      }
+    }
+
+    private FileChannel openForAppend(long windowIndex) throws IOException {
+      FileChannel channel = _openSegments.get(windowIndex);
+      if (channel == null) {
+        channel = FileChannel.open(segment(windowIndex), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        // Drop a partially written record at the end of an existing segment, which would otherwise hide the appends.
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        while (nextRecord(buffer) != null) {
+          // Skip to the end of the complete records.
+        }
+        if (buffer.hasRemaining()) {
+          LOG.warn("Truncating {} bytes of a partially written sample at the end of segment {}.", buffer.remaining(),
+                   segment(windowIndex));
+          channel.truncate(buffer.position());
+        }
+        channel.position(buffer.position());
+        _openSegments.put(windowIndex, channel);
+      }
+      return channel;
+    }
+
+    /**
+     * Delete the segments of the windows before the given window index.
+     *
+     * @param windowIndex The oldest window index to retain.
+     */
+    synchronized void deleteSegmentsBefore(long windowIndex) throws IOException {
+      Iterator<Map.Entry<Long, FileChannel>> iterator = _openSegments.headMap(windowIndex).entrySet().iterator();
+      while (iterator.hasNext()) {
+        iterator.next().getValue().close();
+        iterator.remove();
+      }
+      for (Map.Entry<Long, Path> entry : segments().entrySet()) {
+        if (entry.getKey() < windowIndex) {
+          Files.deleteIfExists(entry.getValue());
+        }
+      }
+    }
+
+    /**
+     * @param timeMs The time to get the segments since.
+     * @return The segments of the windows that end after the given time, from the oldest to the latest window.
+     */
+    synchronized List<Path> segmentsSince(long timeMs) throws IOException {
+      return new ArrayList<>(segments().tailMap(windowIndex(timeMs)).values());
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+      TreeMap<Long, Path> segments = new TreeMap<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(_dir, "*" + SEGMENT_FILE_SUFFIX)) {
+        for (Path segment : stream) {
+          String fileName = segment.getFileName().toString();
+          try {
+            segments.put(Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_FILE_SUFFIX.length())), segment);
+          } catch (NumberFormatException nfe) {
+            LOG.warn("Ignoring unexpected file {} in the sample store directory.", segment);
+          }
+        }
+      }
+      return segments;
+    }
+
+    private Path segment(long windowIndex) {
+      return _dir.resolve(windowIndex + SEGMENT_FILE_SUFFIX);
+    }
+
+    synchronized void close() {
+      for (FileChannel channel : _openSegments.values()) {
+        try {
+          channel.close();
+        } catch (IOException ioe) {
+          LOG.warn("Failed to close a segment of the sample store.", ioe);
+        }
+      }
+      _openSegments.clear();
+    }
+  }
+}
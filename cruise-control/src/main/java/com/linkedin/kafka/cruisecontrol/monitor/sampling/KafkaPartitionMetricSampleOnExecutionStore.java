@@ -29,6 +29,8 @@ import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.LO
  *   partition sample store topic, default value is set to {@link #DEFAULT_PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT}.</li>
  *   <li>{@link #PARTITION_METRIC_SAMPLE_STORE_ON_EXECUTION_TOPIC_RETENTION_TIME_MS_CONFIG}: The config for the minimal retention time for
  *   Kafka partition sample store topic, default value is set to {@link #DEFAULT_PARTITION_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS}.</li>
+ *   <li>{@link #PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG}: The config for the version to serialize the partition metric samples
+ *   with, default value is set to {@link #DEFAULT_PARTITION_METRIC_SAMPLE_WRITER_VERSION}.</li>
  * </ul>
  */
 public class KafkaPartitionMetricSampleOnExecutionStore extends AbstractKafkaSampleStore {
@@ -67,6 +69,7 @@ public class KafkaPartitionMetricSampleOnExecutionStore extends AbstractKafkaSam
                                                     ? DEFAULT_PARTITION_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS
                                                     : Long.parseLong(sampleStoreTopicRetentionTimeMsString);
 
+    _partitionMetricSampleWriterVersion = partitionMetricSampleWriterVersion(config);
     createProducer(config, PRODUCER_CLIENT_ID);
     ensureTopicCreated(config, partitionSampleStoreTopicPartitionCount, partitionSampleStoreTopicRetentionTimeMs);
   }
@@ -88,7 +91,8 @@ public class KafkaPartitionMetricSampleOnExecutionStore extends AbstractKafkaSam
 
   @Override
   public void storeSamples(MetricSampler.Samples samples) {
-    AtomicInteger metricSampleCount = storePartitionMetricSamples(samples, _producer, _partitionMetricSampleStoreTopic, LOG);
+    AtomicInteger metricSampleCount = storePartitionMetricSamples(samples, _producer, _partitionMetricSampleStoreTopic,
+                                                                  _partitionMetricSampleWriterVersion, LOG);
     _producer.flush();
     if (LOG.isDebugEnabled()) {
       LOG.debug("Stored {} partition metric samples to Kafka", metricSampleCount.get());
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling;
 
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
@@ -18,6 +19,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -63,6 +67,8 @@ import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.LO
  *   store topic, default value is set to {@link #DEFAULT_MIN_PARTITION_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS}.</li>
  *   <li>{@link #MIN_BROKER_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS_CONFIG}: The config for the minimal retention time for Kafka broker sample store
  *   topic, default value is set to {@link #DEFAULT_MIN_BROKER_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS}.</li>
+ *   <li>{@link #PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG}: The config for the version to serialize the partition metric samples with,
+ *   default value is set to {@link #DEFAULT_PARTITION_METRIC_SAMPLE_WRITER_VERSION}.</li>
  * </ul>
  */
 public class KafkaSampleStore extends AbstractKafkaSampleStore {
@@ -72,6 +78,10 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
   protected static final int ADDITIONAL_WINDOW_TO_RETAIN_FACTOR = 2;
   protected static final ConsumerRecords<byte[], byte[]> SHUTDOWN_RECORDS = new ConsumerRecords<>(Collections.emptyMap());
   protected static final Duration SAMPLE_POLL_TIMEOUT = Duration.ofMillis(1000L);
+  // The number of batches of deserialized samples a shard of the sample loading pipeline queues before blocking the deserializers.
+  protected static final int SAMPLE_LOADING_SHARD_QUEUE_CAPACITY = 4;
+  protected static final MetricSampler.Samples END_OF_SAMPLES = new MetricSampler.Samples(Collections.emptySet(), Collections.emptySet());
+  protected static final long SAMPLE_LOADING_THROUGHPUT_LOG_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
 
   protected static final int DEFAULT_NUM_SAMPLE_LOADING_THREADS = 8;
   protected static final int DEFAULT_BROKER_SAMPLE_STORE_TOPIC_PARTITION_COUNT = 32;
@@ -137,6 +147,7 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
       _consumers.add(createSampleStoreConsumer(config, CONSUMER_CLIENT_ID_PREFIX));
     }
 
+    _partitionMetricSampleWriterVersion = partitionMetricSampleWriterVersion(config);
     createProducer(config, PRODUCER_CLIENT_ID);
     _loadingProgress = LOADING_PROGRESS;
 
@@ -176,7 +187,8 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
 
   @Override
   public void storeSamples(MetricSampler.Samples samples) {
-    AtomicInteger metricSampleCount = storePartitionMetricSamples(samples, _producer, _partitionMetricSampleStoreTopic, LOG);
+    AtomicInteger metricSampleCount = storePartitionMetricSamples(samples, _producer, _partitionMetricSampleStoreTopic,
+                                                                  _partitionMetricSampleWriterVersion, LOG);
 
     final AtomicInteger brokerMetricSampleCount = new AtomicInteger(0);
     for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
@@ -203,24 +215,38 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
   public void loadSamples(SampleLoader sampleLoader) {
     LOG.info("Starting loading samples.");
     long startMs = System.currentTimeMillis();
-    AtomicLong numPartitionMetricSamples = new AtomicLong(0L);
-    AtomicLong numBrokerMetricSamples = new AtomicLong(0L);
-    AtomicLong totalSamples = new AtomicLong(0L);
-    AtomicLong numLoadedSamples = new AtomicLong(0L);
+    int numStageThreads = Runtime.getRuntime().availableProcessors();
+    SampleLoadingPipeline pipeline = new SampleLoadingPipeline(sampleLoader, numStageThreads, numStageThreads);
+    ExecutorService stageExecutor =
+        Executors.newFixedThreadPool(2 * numStageThreads, new KafkaCruiseControlThreadFactory("SampleLoadingPipeline", true, LOG));
+    boolean loaded = false;
     try {
       prepareConsumers();
 
       for (Consumer<byte[], byte[]> consumer : _consumers) {
-        _metricProcessorExecutor.execute(
-            new MetricLoader(consumer, sampleLoader, numLoadedSamples, numPartitionMetricSamples, numBrokerMetricSamples,
-                             totalSamples));
+        _metricProcessorExecutor.execute(new MetricLoader(consumer, pipeline));
       }
-      // Blocking waiting for the metric loading to finish.
+      for (int i = 0; i < numStageThreads; i++) {
+        stageExecutor.execute(pipeline::deserialize);
+        final int shard = i;
+        stageExecutor.execute(() -> pipeline.apply(shard));
+      }
+      // Blocking waiting for each stage of the metric loading to finish, then end the next stage.
       _metricProcessorExecutor.shutdown();
-      _metricProcessorExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      pipeline.awaitStage(pipeline._fetchersDone);
+      pipeline.endDeserialization();
+      pipeline.awaitStage(pipeline._deserializersDone);
+      pipeline.endApplication();
+      pipeline.awaitStage(pipeline._appliersDone);
+      loaded = true;
     } catch (Exception e) {
       LOG.error("Received exception when loading samples", e);
     } finally {
+      if (!loaded) {
+        // Unblock the stages waiting on the bounded queues.
+        _metricProcessorExecutor.shutdownNow();
+      }
+      stageExecutor.shutdownNow();
       _consumers.forEach(Consumer::close);
       try {
         _metricProcessorExecutor.awaitTermination(30000, TimeUnit.MILLISECONDS);
@@ -231,14 +257,15 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
     long endMs = System.currentTimeMillis();
     long addedPartitionSampleCount = sampleLoader.partitionSampleCount();
     long addedBrokerSampleCount = sampleLoader.brokerSampleCount();
-    long discardedPartitionMetricSamples = numPartitionMetricSamples.get() - addedPartitionSampleCount;
-    long discardedBrokerMetricSamples = numBrokerMetricSamples.get() - addedBrokerSampleCount;
+    long discardedPartitionMetricSamples = pipeline._numPartitionMetricSamples.get() - addedPartitionSampleCount;
+    long discardedBrokerMetricSamples = pipeline._numBrokerMetricSamples.get() - addedBrokerSampleCount;
     LOG.info("Sample loading finished. Loaded {}{} partition metrics samples and {}{} broker metric samples in {} ms.",
              addedPartitionSampleCount,
              discardedPartitionMetricSamples > 0 ? String.format("(%d discarded)", discardedPartitionMetricSamples) : "",
              sampleLoader.brokerSampleCount(),
              discardedBrokerMetricSamples > 0 ? String.format("(%d discarded)", discardedBrokerMetricSamples) : "",
              endMs - startMs);
+    pipeline.logThroughput();
   }
 
   @Override
@@ -272,26 +299,211 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
     }
   }
 
-  protected class MetricLoader implements Runnable {
+  /**
+   * The pipeline of the sample loading, which keeps all the cores busy instead of having each consumer thread deserialize
+   * its records and add the samples to the aggregators in-line:
+   * <ol>
+   *   <li>Fetch: the {@link MetricLoader}s consume the records of the sample store topics.</li>
+   *   <li>Deserialize: the records are deserialized in parallel, and the samples are grouped by the shards of their entities.</li>
+   *   <li>Apply: each shard of the samples is added to the aggregators by its own thread, hence the samples of an entity
+   *   are never added concurrently.</li>
+   * </ol>
+   * The stages are connected by bounded queues, so a fast stage blocks rather than buffering the samples that a slower
+   * stage cannot keep up with.
+   */
+  protected class SampleLoadingPipeline {
     protected final SampleLoader _sampleLoader;
-    protected final AtomicLong _numLoadedSamples;
+    protected final BlockingQueue<ConsumerRecords<byte[], byte[]>> _recordQueue;
+    protected final List<BlockingQueue<MetricSampler.Samples>> _shardQueues;
+    protected final int _numDeserializers;
+    protected final CountDownLatch _fetchersDone;
+    protected final CountDownLatch _deserializersDone;
+    protected final CountDownLatch _appliersDone;
+    protected final long _startMs;
+    protected final AtomicLong _totalRecords;
+    protected final AtomicLong _numFetchedRecords;
+    protected final AtomicLong _numDeserializedRecords;
     protected final AtomicLong _numPartitionMetricSamples;
     protected final AtomicLong _numBrokerMetricSamples;
-    protected final AtomicLong _totalSamples;
+    protected final AtomicLong _numAppliedSamples;
+
+    SampleLoadingPipeline(SampleLoader sampleLoader, int numDeserializers, int numShards) {
+      _sampleLoader = sampleLoader;
+      // Each consumer may fetch one batch of records ahead of the deserializers.
+      _recordQueue = new ArrayBlockingQueue<>(_consumers.size());
+      _shardQueues = new ArrayList<>(numShards);
+      for (int i = 0; i < numShards; i++) {
+        _shardQueues.add(new ArrayBlockingQueue<>(SAMPLE_LOADING_SHARD_QUEUE_CAPACITY));
+      }
+      _numDeserializers = numDeserializers;
+      _fetchersDone = new CountDownLatch(_consumers.size());
+      _deserializersDone = new CountDownLatch(numDeserializers);
+      _appliersDone = new CountDownLatch(numShards);
+      _startMs = System.currentTimeMillis();
+      _totalRecords = new AtomicLong(0L);
+      _numFetchedRecords = new AtomicLong(0L);
+      _numDeserializedRecords = new AtomicLong(0L);
+      _numPartitionMetricSamples = new AtomicLong(0L);
+      _numBrokerMetricSamples = new AtomicLong(0L);
+      _numAppliedSamples = new AtomicLong(0L);
+    }
+
+    /**
+     * Hand over the fetched records to the deserializers, blocking while they are behind.
+     *
+     * @param consumerRecords The fetched records.
+     * @return {@code true} if the records are handed over, {@code false} if no deserializer is alive to take them.
+     */
+    protected boolean fetched(ConsumerRecords<byte[], byte[]> consumerRecords) throws InterruptedException {
+      if (!handOver(consumerRecords)) {
+        return false;
+      }
+      _numFetchedRecords.addAndGet(consumerRecords.count());
+      return true;
+    }
+
+    /**
+     * Put the given records to the record queue, as long as any deserializer is alive to take them from the queue.
+     *
+     * @param consumerRecords The records to put to the record queue.
+     * @return {@code true} if the records are put to the queue, {@code false} if no deserializer is alive.
+     */
+    private boolean handOver(ConsumerRecords<byte[], byte[]> consumerRecords) throws InterruptedException {
+      while (!_recordQueue.offer(consumerRecords, SAMPLE_POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+        if (_deserializersDone.getCount() == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Deserialize the fetched records until the end of the deserialization.
+     */
+    protected void deserialize() {
+      try {
+        int numShards = _shardQueues.size();
+        ConsumerRecords<byte[], byte[]> consumerRecords;
+        while ((consumerRecords = _recordQueue.take()) != SHUTDOWN_RECORDS) {
+          List<MetricSampler.Samples> shards = new ArrayList<>(numShards);
+          for (int i = 0; i < numShards; i++) {
+            shards.add(new MetricSampler.Samples(new HashSet<>(), new HashSet<>()));
+          }
+          for (ConsumerRecord<byte[], byte[]> record : consumerRecords) {
+            try {
+              if (record.topic().equals(_partitionMetricSampleStoreTopic)) {
+                // A record has either a single sample of an earlier version or a batch of samples.
+                List<PartitionMetricSample> samples = PartitionMetricSample.fromBatchBytes(record.value());
+                for (PartitionMetricSample sample : samples) {
+                  shards.get(Math.floorMod(sample.entity().hashCode(), numShards)).partitionMetricSamples().add(sample);
+                }
+                _numPartitionMetricSamples.addAndGet(samples.size());
+                LOG.trace("Loaded partition metric samples {}", samples);
+              } else if (record.topic().equals(_brokerMetricSampleStoreTopic)) {
+                BrokerMetricSample sample = BrokerMetricSample.fromBytes(record.value());
+                // For some legacy BrokerMetricSample, there is no timestamp in the broker samples. In this case
+                // we use the record timestamp as the broker metric timestamp.
+                sample.close(record.timestamp());
+                shards.get(Math.floorMod(sample.entity().hashCode(), numShards)).brokerMetricSamples().add(sample);
+                _numBrokerMetricSamples.incrementAndGet();
+                LOG.trace("Loaded broker metric sample {}", sample);
+              }
+            } catch (UnknownVersionException | RuntimeException e) {
+              // Skip the bad record rather than the rest of the records.
+              LOG.warn("Ignoring the record at offset {} of {} due to", record.offset(),
+                       new TopicPartition(record.topic(), record.partition()), e);
+            }
+          }
+          for (int i = 0; i < numShards; i++) {
+            MetricSampler.Samples shard = shards.get(i);
+            if (!shard.partitionMetricSamples().isEmpty() || !shard.brokerMetricSamples().isEmpty()) {
+              _shardQueues.get(i).put(shard);
+            }
+          }
+          _loadingProgress = (double) _numDeserializedRecords.addAndGet(consumerRecords.count()) / _totalRecords.get();
+        }
+      } catch (InterruptedException ie) {
+        LOG.warn("Interrupted during deserializing the samples.");
+      } catch (Throwable t) {
+        LOG.warn("Encountered error when deserializing the samples.", t);
+      } finally {
+        _deserializersDone.countDown();
+      }
+    }
+
+    /**
+     * Add the deserialized samples of the given shard to the aggregators until the end of the application.
+     *
+     * @param shard The shard of the samples to add.
+     */
+    protected void apply(int shard) {
+      try {
+        BlockingQueue<MetricSampler.Samples> shardQueue = _shardQueues.get(shard);
+        MetricSampler.Samples samples;
+        while ((samples = shardQueue.take()) != END_OF_SAMPLES) {
+          try {
+            _sampleLoader.loadSamples(samples);
+          } catch (Exception e) {
+            LOG.error("Metric loader received exception:", e);
+          }
+          _numAppliedSamples.addAndGet(samples.partitionMetricSamples().size() + samples.brokerMetricSamples().size());
+        }
+      } catch (InterruptedException ie) {
+        LOG.warn("Interrupted during adding the samples.");
+      } finally {
+        _appliersDone.countDown();
+      }
+    }
+
+    protected void endDeserialization() throws InterruptedException {
+      for (int i = 0; i < _numDeserializers; i++) {
+        if (!handOver(SHUTDOWN_RECORDS)) {
+          return;
+        }
+      }
+    }
+
+    protected void endApplication() throws InterruptedException {
+      for (BlockingQueue<MetricSampler.Samples> shardQueue : _shardQueues) {
+        shardQueue.put(END_OF_SAMPLES);
+      }
+    }
+
+    /**
+     * Wait for the given stage to finish, logging the throughput of the stages periodically meanwhile.
+     *
+     * @param stageDone The latch of the threads of the stage.
+     */
+    protected void awaitStage(CountDownLatch stageDone) throws InterruptedException {
+      while (!stageDone.await(SAMPLE_LOADING_THROUGHPUT_LOG_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        logThroughput();
+      }
+    }
+
+    protected void logThroughput() {
+      double elapsedSec = Math.max(1L, System.currentTimeMillis() - _startMs) / 1000.0;
+      long numDeserializedSamples = _numPartitionMetricSamples.get() + _numBrokerMetricSamples.get();
+      LOG.info("Sample loading throughput: fetched {} records ({} records/s), deserialized {} samples ({} samples/s), "
+               + "added {} samples ({} samples/s), {} record batches and {} sample batches queued.",
+               _numFetchedRecords.get(), String.format("%.1f", _numFetchedRecords.get() / elapsedSec),
+               numDeserializedSamples, String.format("%.1f", numDeserializedSamples / elapsedSec),
+               _numAppliedSamples.get(), String.format("%.1f", _numAppliedSamples.get() / elapsedSec),
+               _recordQueue.size(), _shardQueues.stream().mapToInt(BlockingQueue::size).sum());
+    }
+  }
+
+  /**
+   * The fetch stage of the {@link SampleLoadingPipeline}.
+   */
+  protected class MetricLoader implements Runnable {
+    protected final SampleLoadingPipeline _pipeline;
+    protected final SampleLoader _sampleLoader;
     protected final Consumer<byte[], byte[]> _consumer;
 
-    MetricLoader(Consumer<byte[], byte[]> consumer,
-                 SampleLoader sampleLoader,
-                 AtomicLong numLoadedSamples,
-                 AtomicLong numPartitionMetricSamples,
-                 AtomicLong numBrokerMetricSamples,
-                 AtomicLong totalSamples) {
+    MetricLoader(Consumer<byte[], byte[]> consumer, SampleLoadingPipeline pipeline) {
       _consumer = consumer;
-      _sampleLoader = sampleLoader;
-      _numLoadedSamples = numLoadedSamples;
-      _numPartitionMetricSamples = numPartitionMetricSamples;
-      _numBrokerMetricSamples = numBrokerMetricSamples;
-      _totalSamples = totalSamples;
+      _pipeline = pipeline;
+      _sampleLoader = pipeline._sampleLoader;
     }
 
     @Override
@@ -302,8 +514,7 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
         Map<TopicPartition, Long> endOffsets = _consumer.endOffsets(_consumer.assignment());
         LOG.debug("Loading beginning offsets: {}, loading end offsets: {}", beginningOffsets, endOffsets);
         for (Map.Entry<TopicPartition, Long> entry : beginningOffsets.entrySet()) {
-          _totalSamples.addAndGet(endOffsets.get(entry.getKey()) - entry.getValue());
-          _loadingProgress = (double) _numLoadedSamples.get() / _totalSamples.get();
+          _pipeline._totalRecords.addAndGet(endOffsets.get(entry.getKey()) - entry.getValue());
         }
         while (!sampleLoadingFinished(endOffsets)) {
           try {
@@ -312,31 +523,9 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
               LOG.trace("Metric loader received empty records");
               return;
             }
-            Set<PartitionMetricSample> partitionMetricSamples = new HashSet<>();
-            Set<BrokerMetricSample> brokerMetricSamples = new HashSet<>();
-            for (ConsumerRecord<byte[], byte[]> record : consumerRecords) {
-              try {
-                if (record.topic().equals(_partitionMetricSampleStoreTopic)) {
-                  PartitionMetricSample sample = PartitionMetricSample.fromBytes(record.value());
-                  partitionMetricSamples.add(sample);
-                  LOG.trace("Loaded partition metric sample {}", sample);
-                } else if (record.topic().equals(_brokerMetricSampleStoreTopic)) {
-                  BrokerMetricSample sample = BrokerMetricSample.fromBytes(record.value());
-                  // For some legacy BrokerMetricSample, there is no timestamp in the broker samples. In this case
-                  // we use the record timestamp as the broker metric timestamp.
-                  sample.close(record.timestamp());
-                  brokerMetricSamples.add(sample);
-                  LOG.trace("Loaded broker metric sample {}", sample);
-                }
-              } catch (UnknownVersionException e) {
-                LOG.warn("Ignoring sample due to", e);
-              }
-            }
-            if (!partitionMetricSamples.isEmpty() || !brokerMetricSamples.isEmpty()) {
-              _sampleLoader.loadSamples(new MetricSampler.Samples(partitionMetricSamples, brokerMetricSamples));
-              _numPartitionMetricSamples.getAndAdd(partitionMetricSamples.size());
-              _numBrokerMetricSamples.getAndAdd(brokerMetricSamples.size());
-              _loadingProgress = (double) _numLoadedSamples.addAndGet(consumerRecords.count()) / _totalSamples.get();
+            if (!consumerRecords.isEmpty() && !_pipeline.fetched(consumerRecords)) {
+              LOG.error("Metric loader stopped since no deserializer is alive to take the records.");
+              return;
             }
           } catch (KafkaException ke) {
             if (ke.getMessage().toLowerCase().contains("record is corrupt")) {
@@ -349,6 +538,9 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
             } else {
               LOG.error("Metric loader received exception:", ke);
             }
+          } catch (InterruptedException ie) {
+            LOG.warn("Metric loader interrupted during handing over the records.");
+            return;
           } catch (Exception e) {
             if (_shutdown) {
               return;
@@ -360,6 +552,8 @@ public class KafkaSampleStore extends AbstractKafkaSampleStore {
         LOG.info("Metric loader finished loading samples.");
       } catch (Throwable t) {
         LOG.warn("Encountered error when loading sample from Kafka.", t);
+      } finally {
+        _pipeline._fetchersDone.countDown();
       }
     }
 
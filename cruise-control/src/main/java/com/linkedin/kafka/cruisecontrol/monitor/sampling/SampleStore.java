@@ -55,24 +55,50 @@ public interface SampleStore extends CruiseControlConfigurable {
   class SampleLoader {
     private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
     private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
+    private final long _partitionCheckpointMs;
+    private final long _brokerCheckpointMs;
 
     public SampleLoader(KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
                         KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator) {
+      this(partitionMetricSampleAggregator, brokerMetricSampleAggregator, -1L, -1L);
+    }
+
+    /**
+     * A sample loader for metric sample aggregators restored from their checkpoints, which only loads the samples
+     * added after the checkpoints.
+     *
+     * @param partitionMetricSampleAggregator The partition metric sample aggregator.
+     * @param brokerMetricSampleAggregator The broker metric sample aggregator.
+     * @param partitionCheckpointMs The checkpoint time of the partition metric sample aggregator, or -1 if it was not restored.
+     * @param brokerCheckpointMs The checkpoint time of the broker metric sample aggregator, or -1 if it was not restored.
+     */
+    public SampleLoader(KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
+                        KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
+                        long partitionCheckpointMs,
+                        long brokerCheckpointMs) {
       _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
       _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
+      _partitionCheckpointMs = partitionCheckpointMs;
+      _brokerCheckpointMs = brokerCheckpointMs;
     }
 
     /**
-     * Load the given samples to the relevant metric sample aggregators.
+     * Load the given samples to the relevant metric sample aggregators. The samples that are already in the checkpoint
+     * of an aggregator, i.e. the samples up to its checkpoint time, are skipped, but all the broker samples are used as the
+     * observations of the linear regression model.
      *
      * @param samples Samples to load.
      */
     public void loadSamples(MetricSampler.Samples samples) {
       for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
-        _partitionMetricSampleAggregator.addSample(sample, false);
+        if (sample.sampleTime() > _partitionCheckpointMs) {
+          _partitionMetricSampleAggregator.addSample(sample, false);
+        }
       }
       for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
-        _brokerMetricSampleAggregator.addSample(sample);
+        if (sample.sampleTime() > _brokerCheckpointMs) {
+          _brokerMetricSampleAggregator.addSample(sample);
+        }
       }
       ModelParameters.addMetricObservation(samples.brokerMetricSamples());
     }
@@ -85,12 +111,25 @@ public interface SampleStore extends CruiseControlConfigurable {
       return _brokerMetricSampleAggregator.numSamples();
     }
 
+    /**
+     * @return The period to load the partition samples of, which only covers the time after the checkpoint of the partition
+     * metric sample aggregator if it was restored.
+     */
     public long partitionMonitoringPeriodMs() {
-      return _partitionMetricSampleAggregator.monitoringPeriodMs();
+      return periodToLoadMs(_partitionMetricSampleAggregator.monitoringPeriodMs(), _partitionCheckpointMs);
     }
 
+    /**
+     * @return The period to load the broker samples of, which only covers the time after the checkpoint of the broker
+     * metric sample aggregator if it was restored.
+     */
     public long brokerMonitoringPeriodMs() {
-      return _brokerMetricSampleAggregator.monitoringPeriodMs();
+      return periodToLoadMs(_brokerMetricSampleAggregator.monitoringPeriodMs(), _brokerCheckpointMs);
+    }
+
+    private static long periodToLoadMs(long monitoringPeriodMs, long checkpointMs) {
+      return checkpointMs < 0 ? monitoringPeriodMs
+                              : Math.min(monitoringPeriodMs, Math.max(0L, System.currentTimeMillis() - checkpointMs));
     }
   }
 }
@@ -8,10 +8,15 @@ import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregationOptions;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregationResult;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregator;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregatorCheckpoint;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +33,19 @@ public class KafkaBrokerMetricSampleAggregator extends MetricSampleAggregator<St
   private static final double MIN_VALID_GROUP_RATIO = 0.0;
   private static final int MIN_VALID_WINDOWS = 1;
   private static final boolean INCLUDE_INVALID_ENTITIES = false;
+  private static final MetricSampleAggregatorCheckpoint.EntitySerde<BrokerEntity> ENTITY_SERDE =
+      new MetricSampleAggregatorCheckpoint.EntitySerde<BrokerEntity>() {
+        @Override
+        public void write(BrokerEntity entity, DataOutput out) throws IOException {
+          out.writeUTF(entity.host());
+          out.writeInt(entity.brokerId());
+        }
+
+        @Override
+        public BrokerEntity read(DataInput in) throws IOException {
+          return new BrokerEntity(in.readUTF(), in.readInt());
+        }
+      };
 
   private final int _maxAllowedExtrapoloationsPerBroker;
   /**
@@ -68,4 +86,28 @@ public class KafkaBrokerMetricSampleAggregator extends MetricSampleAggregator<St
                                                  completeness(-1, System.currentTimeMillis(), aggregationOptions));
     }
   }
+
+  /**
+   * Write a checkpoint of the state of this aggregator to the given file. No sample may be added to this aggregator
+   * while the checkpoint is written.
+   *
+   * @param file The file to write the checkpoint to.
+   * @param checkpointMs The checkpoint time, up to which all the samples have been added to this aggregator.
+   * @return The checkpoint time.
+   * @throws IOException If the checkpoint fails to be written.
+   */
+  public long checkpoint(Path file, long checkpointMs) throws IOException {
+    return MetricSampleAggregatorCheckpoint.write(this, ENTITY_SERDE, file, checkpointMs);
+  }
+
+  /**
+   * Restore the state of this aggregator, which must not have any sample, from the checkpoint in the given file.
+   *
+   * @param file The file to read the checkpoint from.
+   * @return The checkpoint time, or -1 if there is no checkpoint to restore.
+   * @throws IOException If the checkpoint is corrupt or fails to be read.
+   */
+  public long restore(Path file) throws IOException {
+    return MetricSampleAggregatorCheckpoint.restore(this, ENTITY_SERDE, file);
+  }
 }
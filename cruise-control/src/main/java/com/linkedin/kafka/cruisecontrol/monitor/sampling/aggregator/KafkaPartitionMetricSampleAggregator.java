@@ -9,6 +9,7 @@ import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregationOptions
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregationResult;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleCompleteness;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregator;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregatorCheckpoint;
 import com.linkedin.kafka.cruisecontrol.async.progress.OperationProgress;
 import com.linkedin.kafka.cruisecontrol.async.progress.RetrievingMetrics;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
@@ -17,13 +18,19 @@ import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionEntity;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Predicate;
 import org.apache.kafka.clients.Metadata;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.Node;
@@ -44,6 +51,19 @@ import org.slf4j.LoggerFactory;
  */
 public class KafkaPartitionMetricSampleAggregator extends MetricSampleAggregator<String, PartitionEntity> {
   private static final Logger LOG = LoggerFactory.getLogger(KafkaPartitionMetricSampleAggregator.class);
+  private static final MetricSampleAggregatorCheckpoint.EntitySerde<PartitionEntity> ENTITY_SERDE =
+      new MetricSampleAggregatorCheckpoint.EntitySerde<PartitionEntity>() {
+        @Override
+        public void write(PartitionEntity entity, DataOutput out) throws IOException {
+          out.writeUTF(entity.tp().topic());
+          out.writeInt(entity.tp().partition());
+        }
+
+        @Override
+        public PartitionEntity read(DataInput in) throws IOException {
+          return new PartitionEntity(new TopicPartition(in.readUTF(), in.readInt()));
+        }
+      };
   private final int _maxAllowedExtrapolationsPerPartition;
   private final Metadata _metadata;
 
@@ -58,7 +78,12 @@ public class KafkaPartitionMetricSampleAggregator extends MetricSampleAggregator
           config.getLong(MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG),
           config.getInt(MonitorConfig.MIN_SAMPLES_PER_PARTITION_METRICS_WINDOW_CONFIG).byteValue(),
           config.getInt(MonitorConfig.PARTITION_METRIC_SAMPLE_AGGREGATOR_COMPLETENESS_CACHE_SIZE_CONFIG),
-          KafkaMetricDef.commonMetricDef());
+          KafkaMetricDef.commonMetricDef(),
+          config.getBoolean(MonitorConfig.PARTITION_METRIC_SAMPLE_AGGREGATOR_SLAB_ENABLED_CONFIG),
+          config.getInt(MonitorConfig.NUM_PARTITION_METRIC_SAMPLE_AGGREGATION_THREADS_CONFIG),
+          config.getInt(MonitorConfig.PARTITION_METRIC_SAMPLE_AGGREGATION_SHARD_SIZE_CONFIG),
+          config.getBoolean(MonitorConfig.PARTITION_METRIC_SAMPLE_AGGREGATION_SHARED_BUFFERS_ENABLED_CONFIG),
+          config.getBoolean(MonitorConfig.PARTITION_METRIC_SAMPLE_AGGREGATOR_WINDOW_SUMMARY_ENABLED_CONFIG));
     _metadata = metadata;
     _maxAllowedExtrapolationsPerPartition =
         config.getInt(MonitorConfig.MAX_ALLOWED_EXTRAPOLATIONS_PER_PARTITION_CONFIG);
@@ -66,6 +91,30 @@ public class KafkaPartitionMetricSampleAggregator extends MetricSampleAggregator
 
   }
 
+  /**
+   * Write a checkpoint of the state of this aggregator to the given file. No sample may be added to this aggregator
+   * while the checkpoint is written.
+   *
+   * @param file The file to write the checkpoint to.
+   * @param checkpointMs The checkpoint time, up to which all the samples have been added to this aggregator.
+   * @return The checkpoint time.
+   * @throws IOException If the checkpoint fails to be written.
+   */
+  public long checkpoint(Path file, long checkpointMs) throws IOException {
+    return MetricSampleAggregatorCheckpoint.write(this, ENTITY_SERDE, file, checkpointMs);
+  }
+
+  /**
+   * Restore the state of this aggregator, which must not have any sample, from the checkpoint in the given file.
+   *
+   * @param file The file to read the checkpoint from.
+   * @return The checkpoint time, or -1 if there is no checkpoint to restore.
+   * @throws IOException If the checkpoint is corrupt or fails to be read.
+   */
+  public long restore(Path file) throws IOException {
+    return MetricSampleAggregatorCheckpoint.restore(this, ENTITY_SERDE, file);
+  }
+
   /**
    * Add a sample to the metric aggregator. This method is thread safe.
    *
@@ -154,6 +203,40 @@ public class KafkaPartitionMetricSampleAggregator extends MetricSampleAggregator
     }
   }
 
+  /**
+   * Collect the aggregated metrics of the topic partitions for a time window, except for the partitions that have not
+   * been updated since the given generation. See
+   * {@link MetricSampleAggregator#aggregate(long, long, AggregationOptions, long, List, Predicate)}.
+   *
+   * @param cluster Kafka cluster.
+   * @param from the start of the time window
+   * @param to the end of the time window
+   * @param requirements the {@link ModelCompletenessRequirements} for the aggregation result.
+   * @param operationProgress to report the operation progress.
+   * @param unchangedSinceGeneration the generation since which the unchanged partitions are not aggregated.
+   * @param unchangedWindows the windows of the aggregation upon the given generation.
+   * @param mustAggregate the predicate of the partitions to aggregate even if they have not been updated.
+   * @return The {@link MetricSampleAggregationResult} for the changed partitions.
+   */
+  public MetricSampleAggregationResult<String, PartitionEntity> aggregate(Cluster cluster,
+                                                                          long from,
+                                                                          long to,
+                                                                          ModelCompletenessRequirements requirements,
+                                                                          OperationProgress operationProgress,
+                                                                          long unchangedSinceGeneration,
+                                                                          List<Long> unchangedWindows,
+                                                                          Predicate<PartitionEntity> mustAggregate)
+      throws NotEnoughValidWindowsException {
+    RetrievingMetrics step = new RetrievingMetrics();
+    try {
+      operationProgress.addStep(step);
+      return aggregate(from, to, toAggregationOptions(cluster, requirements), unchangedSinceGeneration, unchangedWindows,
+                       mustAggregate);
+    } finally {
+      step.done();
+    }
+  }
+
   /**
    * Get the metric sample completeness for a given period.
    *
@@ -5,12 +5,19 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
 
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import org.apache.kafka.common.TopicPartition;
 import java.util.Map;
+import org.apache.kafka.common.utils.ByteUtils;
 
 import static com.linkedin.cruisecontrol.CruiseControlUtils.utcDateFor;
 import static com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef.CPU_USAGE;
@@ -30,7 +37,13 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class PartitionMetricSample extends MetricSample<String, PartitionEntity> {
   static final byte MIN_SUPPORTED_VERSION = 0;
-  static final byte LATEST_SUPPORTED_VERSION = 1;
+  public static final byte LATEST_SUPPORTED_VERSION = 2;
+  // The versions up to this one serialize a single sample, the later versions serialize a batch of samples.
+  public static final byte LATEST_SINGLE_SAMPLE_VERSION = 1;
+  // The metrics in the order of their columns in a serialized batch of samples.
+  private static final KafkaMetricDef[] BATCH_METRICS = {CPU_USAGE, DISK_USAGE, LEADER_BYTES_IN, LEADER_BYTES_OUT, PRODUCE_RATE,
+                                                         FETCH_RATE, MESSAGE_IN_RATE, REPLICATION_BYTES_IN_RATE,
+                                                         REPLICATION_BYTES_OUT_RATE};
 
   private final int _brokerId;
 
@@ -69,7 +82,7 @@ public class PartitionMetricSample extends MetricSample<String, PartitionEntity>
     byte[] topicStringBytes = entity().group().getBytes(UTF_8);
     // Allocate memory:
     ByteBuffer buffer = ByteBuffer.allocate(89 + topicStringBytes.length);
-    buffer.put(LATEST_SUPPORTED_VERSION);
+    buffer.put(LATEST_SINGLE_SAMPLE_VERSION);
     buffer.putInt(_brokerId);
     buffer.putDouble(_valuesByMetricId.get(metricDef.metricInfo(CPU_USAGE.name()).id()));
     buffer.putDouble(_valuesByMetricId.get(metricDef.metricInfo(DISK_USAGE.name()).id()));
@@ -101,6 +114,128 @@ public class PartitionMetricSample extends MetricSample<String, PartitionEntity>
         return readV0(buffer);
       case 1:
         return readV1(buffer);
+      default:
+        throw new UnknownVersionException("Unsupported deserialization version: " + version + " (Latest: "
+                                          + LATEST_SINGLE_SAMPLE_VERSION + ", Minimum: " + MIN_SUPPORTED_VERSION + ")");
+    }
+  }
+
+  /**
+   * This method serializes a batch of metric samples column by column.
+   * 1 byte  - version
+   * varint  - number of distinct topics T
+   * T times - varint topic string length followed by the topic string bytes
+   * varint  - number of samples N
+   * 8 bytes - sample time of the first sample
+   * N times - varint index of the topic in the topics above
+   * N times - varint partition id
+   * N times - varint brokerId
+   * N times - varlong sample time delta from the previous sample
+   * For each of CPU Utilization, DISK Utilization, Network Inbound Utilization, Network Outbound Utilization, Produce Request
+   * Rate, Fetch Request Rate, Messages In Per Sec, Replication Bytes In Per Sec and Replication Bytes Out Per Sec:
+   * (N + 7) / 8 bytes - bitmap of the samples with a non-zero value
+   * 4 bytes           - float value, for each sample with a non-zero value
+   *
+   * The values are serialized as floats, which is the precision the metric sample aggregator keeps them with.
+   *
+   * @param samples The samples to serialize.
+   * @return Serialized bytes.
+   */
+  public static byte[] toBatchBytes(Collection<PartitionMetricSample> samples) {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    List<PartitionMetricSample> sampleList = new ArrayList<>(samples);
+    int numSamples = sampleList.size();
+    Map<String, Integer> topicIndices = new HashMap<>();
+    List<byte[]> topicStringBytes = new ArrayList<>();
+    int[] topicIndexColumn = new int[numSamples];
+    int size = Byte.BYTES + ByteUtils.sizeOfUnsignedVarint(numSamples) + Long.BYTES;
+    long baseSampleTimeMs = numSamples == 0 ? 0L : sampleList.get(0)._sampleTimeMs;
+    long previousSampleTimeMs = baseSampleTimeMs;
+    for (int i = 0; i < numSamples; i++) {
+      PartitionMetricSample sample = sampleList.get(i);
+      String topic = sample.entity().group();
+      Integer topicIndex = topicIndices.get(topic);
+      if (topicIndex == null) {
+        topicIndex = topicStringBytes.size();
+        topicIndices.put(topic, topicIndex);
+        byte[] bytes = topic.getBytes(UTF_8);
+        topicStringBytes.add(bytes);
+        size += ByteUtils.sizeOfUnsignedVarint(bytes.length) + bytes.length;
+      }
+      topicIndexColumn[i] = topicIndex;
+      size += ByteUtils.sizeOfUnsignedVarint(topicIndex)
+              + ByteUtils.sizeOfUnsignedVarint(sample.entity().tp().partition())
+              + ByteUtils.sizeOfVarint(sample._brokerId)
+              + ByteUtils.sizeOfVarlong(sample._sampleTimeMs - previousSampleTimeMs);
+      previousSampleTimeMs = sample._sampleTimeMs;
+    }
+    size += ByteUtils.sizeOfUnsignedVarint(topicStringBytes.size());
+
+    // Collect the metric values column by column to size the non-zero values.
+    float[][] metricColumns = new float[BATCH_METRICS.length][numSamples];
+    for (int m = 0; m < BATCH_METRICS.length; m++) {
+      short metricId = metricDef.metricInfo(BATCH_METRICS[m].name()).id();
+      size += (numSamples + 7) / 8;
+      for (int i = 0; i < numSamples; i++) {
+        metricColumns[m][i] = sampleList.get(i)._valuesByMetricId.get(metricId).floatValue();
+        if (metricColumns[m][i] != 0.0f) {
+          size += Float.BYTES;
+        }
+      }
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.put(LATEST_SUPPORTED_VERSION);
+    ByteUtils.writeUnsignedVarint(topicStringBytes.size(), buffer);
+    for (byte[] bytes : topicStringBytes) {
+      ByteUtils.writeUnsignedVarint(bytes.length, buffer);
+      buffer.put(bytes);
+    }
+    ByteUtils.writeUnsignedVarint(numSamples, buffer);
+    buffer.putLong(baseSampleTimeMs);
+    for (int i = 0; i < numSamples; i++) {
+      ByteUtils.writeUnsignedVarint(topicIndexColumn[i], buffer);
+    }
+    for (PartitionMetricSample sample : sampleList) {
+      ByteUtils.writeUnsignedVarint(sample.entity().tp().partition(), buffer);
+    }
+    for (PartitionMetricSample sample : sampleList) {
+      ByteUtils.writeVarint(sample._brokerId, buffer);
+    }
+    previousSampleTimeMs = baseSampleTimeMs;
+    for (PartitionMetricSample sample : sampleList) {
+      ByteUtils.writeVarlong(sample._sampleTimeMs - previousSampleTimeMs, buffer);
+      previousSampleTimeMs = sample._sampleTimeMs;
+    }
+    for (float[] metricColumn : metricColumns) {
+      int bitmapPosition = buffer.position();
+      buffer.position(bitmapPosition + (numSamples + 7) / 8);
+      for (int i = 0; i < numSamples; i++) {
+        if (metricColumn[i] != 0.0f) {
+          buffer.put(bitmapPosition + i / 8, (byte) (buffer.get(bitmapPosition + i / 8) | (1 << (i % 8))));
+          buffer.putFloat(metricColumn[i]);
+        }
+      }
+    }
+    return buffer.array();
+  }
+
+  /**
+   * Deserialize given byte array into partition metric samples. The byte array is either a batch of samples serialized by
+   * {@link #toBatchBytes(Collection)}, or a single sample serialized by {@link #toBytes()} of any earlier version.
+   *
+   * @param bytes Byte array for a batch of partition metric samples or a single partition metric sample.
+   * @return Partition metric samples.
+   */
+  public static List<PartitionMetricSample> fromBatchBytes(byte[] bytes) throws UnknownVersionException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte version = buffer.get();
+    switch (version) {
+      case 0:
+      case 1:
+        return Collections.singletonList(fromBytes(bytes));
+      case 2:
+        return readV2(buffer);
       default:
         throw new UnknownVersionException("Unsupported deserialization version: " + version + " (Latest: "
                                           + LATEST_SUPPORTED_VERSION + ", Minimum: " + MIN_SUPPORTED_VERSION + ")");
@@ -153,4 +288,55 @@ public class PartitionMetricSample extends MetricSample<String, PartitionEntity>
     sample.close(buffer.getLong());
     return sample;
   }
+
+  private static List<PartitionMetricSample> readV2(ByteBuffer buffer) {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    String[] topics = new String[ByteUtils.readUnsignedVarint(buffer)];
+    for (int t = 0; t < topics.length; t++) {
+      int length = ByteUtils.readUnsignedVarint(buffer);
+      topics[t] = new String(buffer.array(), buffer.position(), length, UTF_8);
+      buffer.position(buffer.position() + length);
+    }
+    int numSamples = ByteUtils.readUnsignedVarint(buffer);
+    long sampleTimeMs = buffer.getLong();
+    int[] topicIndexColumn = new int[numSamples];
+    for (int i = 0; i < numSamples; i++) {
+      topicIndexColumn[i] = ByteUtils.readUnsignedVarint(buffer);
+    }
+    int[] partitionColumn = new int[numSamples];
+    for (int i = 0; i < numSamples; i++) {
+      partitionColumn[i] = ByteUtils.readUnsignedVarint(buffer);
+    }
+    List<PartitionMetricSample> samples = new ArrayList<>(numSamples);
+    for (int i = 0; i < numSamples; i++) {
+      samples.add(new PartitionMetricSample(ByteUtils.readVarint(buffer),
+                                            new TopicPartition(topics[topicIndexColumn[i]], partitionColumn[i])));
+    }
+    long[] sampleTimeColumn = new long[numSamples];
+    for (int i = 0; i < numSamples; i++) {
+      sampleTimeMs += ByteUtils.readVarlong(buffer);
+      sampleTimeColumn[i] = sampleTimeMs;
+    }
+    MetricInfo[] metricInfos = new MetricInfo[BATCH_METRICS.length];
+    float[][] metricColumns = new float[BATCH_METRICS.length][numSamples];
+    for (int m = 0; m < BATCH_METRICS.length; m++) {
+      metricInfos[m] = metricDef.metricInfo(BATCH_METRICS[m].name());
+      int bitmapPosition = buffer.position();
+      buffer.position(bitmapPosition + (numSamples + 7) / 8);
+      for (int i = 0; i < numSamples; i++) {
+        if ((buffer.get(bitmapPosition + i / 8) & (1 << (i % 8))) != 0) {
+          metricColumns[m][i] = buffer.getFloat();
+        }
+      }
+    }
+    // Record the values sample by sample once the columns are read.
+    for (int i = 0; i < numSamples; i++) {
+      PartitionMetricSample sample = samples.get(i);
+      for (int m = 0; m < BATCH_METRICS.length; m++) {
+        sample.record(metricInfos[m], metricColumns[m][i]);
+      }
+      sample.close(sampleTimeColumn[i]);
+    }
+    return samples;
+  }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.task;
+
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The task responsible for writing the checkpoints of the metric sample aggregators to the local disk, which are restored
+ * by the {@link SampleLoadingTask} on restart. This task runs periodically.
+ */
+class AggregatorCheckpointTask implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(AggregatorCheckpointTask.class);
+  static final String PARTITION_CHECKPOINT_FILE = "partition-metric-sample-aggregator.checkpoint";
+  static final String BROKER_CHECKPOINT_FILE = "broker-metric-sample-aggregator.checkpoint";
+  private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
+  private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
+  private final Path _checkpointDir;
+  private final LoadMonitorTaskRunner _loadMonitorTaskRunner;
+
+  AggregatorCheckpointTask(KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
+                           KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
+                           Path checkpointDir,
+                           LoadMonitorTaskRunner loadMonitorTaskRunner) {
+    _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
+    _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
+    _checkpointDir = checkpointDir;
+    _loadMonitorTaskRunner = loadMonitorTaskRunner;
+  }
+
+  @Override
+  public void run() {
+    // Checkpoint only between the sampling rounds, and never in the middle of loading or bootstrapping the samples,
+    // since the samples added after the checkpoint time are the only samples loaded after restoring the checkpoint.
+    // The checkpointing state keeps the other tasks from adding samples until the checkpoint is written, and the
+    // operations leaving the running state meanwhile wait for the checkpoint to finish. Paused load monitor does not add
+    // samples, hence it is checkpointed after resuming.
+    if (!_loadMonitorTaskRunner.compareAndSetState(LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.RUNNING,
+                                                   LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.CHECKPOINTING)) {
+      LOG.debug("Skip checkpointing the metric sample aggregators since load monitor is in {} state.",
+                _loadMonitorTaskRunner.state());
+      return;
+    }
+    try {
+      checkpoint();
+    } finally {
+      _loadMonitorTaskRunner.finishCheckpointing();
+    }
+  }
+
+  /**
+   * Write the checkpoints of the metric sample aggregators. The caller must ensure that no sample is added to the
+   * aggregators meanwhile.
+   */
+  void checkpoint() {
+    try {
+      Files.createDirectories(_checkpointDir);
+      long startMs = System.currentTimeMillis();
+      // Take the checkpoint time before the state of the aggregators.
+      long checkpointMs = _loadMonitorTaskRunner.sampledUntilMs();
+      _partitionMetricSampleAggregator.checkpoint(_checkpointDir.resolve(PARTITION_CHECKPOINT_FILE), checkpointMs);
+      _brokerMetricSampleAggregator.checkpoint(_checkpointDir.resolve(BROKER_CHECKPOINT_FILE), checkpointMs);
+      LOG.debug("Checkpointed the metric sample aggregators to {} in {} ms.", _checkpointDir,
+                System.currentTimeMillis() - startMs);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to checkpoint the metric sample aggregators to {}.", _checkpointDir, e);
+    }
+  }
+}
@@ -16,6 +16,8 @@ import com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricSampler;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.SampleStore;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +35,9 @@ import static com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunne
 public class LoadMonitorTaskRunner {
   private static final Logger LOG = LoggerFactory.getLogger(LoadMonitorTaskRunner.class);
   public static final MetricSampler.SamplingMode DEFAULT_SAMPLING_MODE = MetricSampler.SamplingMode.ALL;
+  // The maximum time to wait for an ongoing checkpoint of the metric sample aggregators to finish before leaving the
+  // running state.
+  private static final long MAX_CHECKPOINT_WAIT_MS = TimeUnit.SECONDS.toMillis(30);
   private final Time _time;
   private final MetricFetcherManager _metricFetcherManager;
   private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
@@ -42,6 +47,9 @@ public class LoadMonitorTaskRunner {
   private final SampleStore _sampleStoreForPartitionMetricOnExecution;
   private final ScheduledExecutorService _samplingScheduler;
   private final long _samplingIntervalMs;
+  // The directory of the checkpoints of the metric sample aggregators, or null if checkpointing is disabled.
+  private final Path _checkpointDir;
+  private final long _checkpointIntervalMs;
   // The following two configuration is actually for MetricSampleAggregator, the MetricFetcherManager uses it to
   // check if a bootstrap is done or not.
   private final int _configuredNumWindows;
@@ -53,9 +61,10 @@ public class LoadMonitorTaskRunner {
   // The reason for pausing or resuming metric sampling.
   private volatile String _reasonOfLatestPauseOrResume;
   private volatile MetricSampler.SamplingMode _samplingMode;
+  private volatile SamplingTask _samplingTask;
 
   public enum LoadMonitorTaskRunnerState {
-    NOT_STARTED, RUNNING, PAUSED, SAMPLING, BOOTSTRAPPING, TRAINING, LOADING
+    NOT_STARTED, RUNNING, PAUSED, SAMPLING, BOOTSTRAPPING, TRAINING, LOADING, CHECKPOINTING
   }
 
   /**
@@ -116,6 +125,9 @@ public class LoadMonitorTaskRunner {
     _samplingScheduler =
         Executors.newScheduledThreadPool(2, new KafkaCruiseControlThreadFactory("SamplingScheduler", true, LOG));
     _samplingIntervalMs = samplingIntervalMs;
+    String checkpointDir = config.getString(MonitorConfig.METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG);
+    _checkpointDir = checkpointDir.isEmpty() ? null : Paths.get(checkpointDir);
+    _checkpointIntervalMs = config.getLong(MonitorConfig.METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG);
     _configuredNumWindows = config.getInt(MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG);
     _configuredWindowMs = config.getLong(MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG);
 
@@ -136,7 +148,7 @@ public class LoadMonitorTaskRunner {
    */
   public void bootstrap(long startMs, long endMs, boolean clearMetrics) {
 
-    if (_state.compareAndSet(RUNNING, BOOTSTRAPPING)) {
+    if (compareAndSetStateFromRunning(BOOTSTRAPPING)) {
       _samplingScheduler.execute(new BootstrapTask(startMs, endMs, clearMetrics, _metadataClient,
           _partitionMetricSampleAggregator,
                                                   this, _metricFetcherManager, _sampleStore, _configuredNumWindows,
@@ -155,7 +167,7 @@ public class LoadMonitorTaskRunner {
    */
   public void bootstrap(long startMs, boolean clearMetrics) {
 
-    if (_state.compareAndSet(RUNNING, BOOTSTRAPPING)) {
+    if (compareAndSetStateFromRunning(BOOTSTRAPPING)) {
       _samplingScheduler.execute(new BootstrapTask(startMs, clearMetrics, _metadataClient,
           _partitionMetricSampleAggregator,
                                                   this, _metricFetcherManager, _sampleStore, _configuredNumWindows,
@@ -172,7 +184,7 @@ public class LoadMonitorTaskRunner {
    * @param clearMetrics clear the existing metric samples.
    */
   public void bootstrap(boolean clearMetrics) {
-    if (_state.compareAndSet(RUNNING, BOOTSTRAPPING)) {
+    if (compareAndSetStateFromRunning(BOOTSTRAPPING)) {
       _samplingScheduler.execute(new BootstrapTask(clearMetrics, _metadataClient, _partitionMetricSampleAggregator,
                                                   this, _metricFetcherManager, _sampleStore, _configuredNumWindows,
                                                   _configuredWindowMs, _samplingIntervalMs, _time));
@@ -192,11 +204,12 @@ public class LoadMonitorTaskRunner {
    * Load the samples from sample store. This task has to be executed before the load monitor actually starts.
    */
   private void loadSamples() {
-    if (_state.compareAndSet(RUNNING, LOADING)) {
+    if (compareAndSetStateFromRunning(LOADING)) {
       _samplingScheduler.execute(new SampleLoadingTask(_sampleStore,
                                                       _partitionMetricSampleAggregator,
                                                       _brokerMetricSampleAggregator,
-                                                      this));
+                                                      this,
+                                                      _checkpointDir));
     } else {
       throw new IllegalStateException("Cannot load samples because the load monitor is in "
                                           + _state.get() + " state.");
@@ -213,7 +226,7 @@ public class LoadMonitorTaskRunner {
    * @param endMs the end time of the training period.
    */
   public void train(long startMs, long endMs) {
-    if (_state.compareAndSet(RUNNING, TRAINING)) {
+    if (compareAndSetStateFromRunning(TRAINING)) {
       _samplingScheduler.execute(new TrainingTask(_time, this, _metricFetcherManager, _sampleStore,
                                                  _configuredWindowMs, _samplingIntervalMs, startMs, endMs));
     } else {
@@ -242,12 +255,30 @@ public class LoadMonitorTaskRunner {
     if (!skipLoadingSamples) {
       loadSamples();
     }
-    _samplingScheduler.scheduleAtFixedRate(new SamplingTask(_samplingIntervalMs, _metadataClient,
-                                                            this, _metricFetcherManager, _sampleStore,
-                                                            _sampleStoreForPartitionMetricOnExecution, _time),
+    _samplingTask = new SamplingTask(_samplingIntervalMs, _metadataClient, this, _metricFetcherManager, _sampleStore,
+                                     _sampleStoreForPartitionMetricOnExecution, _time);
+    _samplingScheduler.scheduleAtFixedRate(_samplingTask,
                                            0L,
                                            _samplingIntervalMs,
                                            TimeUnit.MILLISECONDS);
+    if (_checkpointDir != null) {
+      _samplingScheduler.scheduleAtFixedRate(newCheckpointTask(), _checkpointIntervalMs, _checkpointIntervalMs,
+                                             TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private AggregatorCheckpointTask newCheckpointTask() {
+    return new AggregatorCheckpointTask(_partitionMetricSampleAggregator, _brokerMetricSampleAggregator, _checkpointDir, this);
+  }
+
+  /**
+   * @return The time up to which the samples have been added to the metric sample aggregators, i.e. the end time of the
+   * latest sampling period, or the current time if the metric sampling has not started.
+   */
+  long sampledUntilMs() {
+    SamplingTask samplingTask = _samplingTask;
+    long nowMs = _time.milliseconds();
+    return samplingTask == null ? nowMs : Math.min(nowMs, samplingTask.lastSamplingPeriodEndTimeMs());
   }
 
   /**
@@ -265,6 +296,11 @@ public class LoadMonitorTaskRunner {
     } catch (InterruptedException e) {
       LOG.warn("Interrupted while waiting for metric fetcher manager to shutdown.");
     }
+    LoadMonitorTaskRunnerState state = _state.get();
+    if (_checkpointDir != null && _samplingScheduler.isTerminated() && (state == RUNNING || state == PAUSED)) {
+      // Checkpoint the latest samples so that the restart does not need to load them. No task adds samples anymore.
+      newCheckpointTask().checkpoint();
+    }
     _metricFetcherManager.shutdown();
     try {
       _sampleStore.close();
@@ -287,7 +323,7 @@ public class LoadMonitorTaskRunner {
       LOG.info("Skip pause sampling since load monitor is in loading state");
       return;
     }
-    if (_state.get() != PAUSED && !_state.compareAndSet(RUNNING, PAUSED)) {
+    if (_state.get() != PAUSED && !compareAndSetStateFromRunning(PAUSED)) {
       _awaitingPauseSampling = forcePauseSampling;
       throw new IllegalStateException("Cannot pause the load monitor because it is in " + _state.get() + " state.");
     } else {
@@ -307,7 +343,9 @@ public class LoadMonitorTaskRunner {
       LOG.info("Skip resume sampling since load monitor is in loading state");
       return;
     }
-    if (_state.get() != RUNNING && !_state.compareAndSet(PAUSED, RUNNING)) {
+    // The load monitor keeps running while the metric sample aggregators are checkpointed.
+    LoadMonitorTaskRunnerState state = _state.get();
+    if (state != RUNNING && state != CHECKPOINTING && !_state.compareAndSet(PAUSED, RUNNING)) {
       throw new IllegalStateException("Cannot resume the load monitor because it is in " + _state.get() + " state");
     }
     setReasonOfLatestPauseOrResume(reason);
@@ -351,6 +389,40 @@ public class LoadMonitorTaskRunner {
     return _state.compareAndSet(expectedState, newState);
   }
 
+  /**
+   * Set the state from {@link LoadMonitorTaskRunnerState#RUNNING} to the given state. If the metric sample aggregators are
+   * being checkpointed, wait up to {@link #MAX_CHECKPOINT_WAIT_MS} for the checkpoint to finish.
+   *
+   * @param newState The state to set.
+   * @return {@code true} if the state is set, {@code false} if the load monitor is neither running nor checkpointing, or
+   * the checkpoint did not finish in time.
+   */
+  private synchronized boolean compareAndSetStateFromRunning(LoadMonitorTaskRunnerState newState) {
+    long deadlineMs = System.currentTimeMillis() + MAX_CHECKPOINT_WAIT_MS;
+    while (!_state.compareAndSet(RUNNING, newState)) {
+      long remainingMs = deadlineMs - System.currentTimeMillis();
+      if (_state.get() != CHECKPOINTING || remainingMs <= 0) {
+        return false;
+      }
+      try {
+        wait(remainingMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Set the state from {@link LoadMonitorTaskRunnerState#CHECKPOINTING} back to {@link LoadMonitorTaskRunnerState#RUNNING},
+   * and wake up the operations waiting for the checkpoint to finish.
+   */
+  synchronized void finishCheckpointing() {
+    _state.compareAndSet(CHECKPOINTING, RUNNING);
+    notifyAll();
+  }
+
   void setBootstrapProgress(double progress) {
     _bootstrapProgress = progress;
   }
@@ -8,28 +8,59 @@ import com.linkedin.kafka.cruisecontrol.model.ModelParameters;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.SampleStore;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.linkedin.kafka.cruisecontrol.monitor.task.AggregatorCheckpointTask.BROKER_CHECKPOINT_FILE;
+import static com.linkedin.kafka.cruisecontrol.monitor.task.AggregatorCheckpointTask.PARTITION_CHECKPOINT_FILE;
 
 public class SampleLoadingTask implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(SampleLoadingTask.class);
   private final SampleStore _sampleStore;
   private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
   private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
   private final LoadMonitorTaskRunner _loadMonitorTaskRunner;
+  // The directory of the checkpoints of the metric sample aggregators to restore, or null if checkpointing is disabled.
+  private final Path _checkpointDir;
 
   SampleLoadingTask(SampleStore sampleStore,
                     KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
                     KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
-                    LoadMonitorTaskRunner loadMonitorTaskRunner) {
+                    LoadMonitorTaskRunner loadMonitorTaskRunner,
+                    Path checkpointDir) {
     _sampleStore = sampleStore;
     _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
     _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
     _loadMonitorTaskRunner = loadMonitorTaskRunner;
+    _checkpointDir = checkpointDir;
   }
 
   @Override
   public void run() {
     try {
+      long partitionCheckpointMs = -1L;
+      long brokerCheckpointMs = -1L;
+      if (_checkpointDir != null) {
+        // Restore the metric sample aggregators from their checkpoints so that only the samples after the checkpoints are loaded.
+        Path partitionCheckpoint = _checkpointDir.resolve(PARTITION_CHECKPOINT_FILE);
+        try {
+          partitionCheckpointMs = _partitionMetricSampleAggregator.restore(partitionCheckpoint);
+        } catch (IOException | RuntimeException e) {
+          LOG.warn("Failed to restore the partition metric sample aggregator from {}, loading all the samples.", partitionCheckpoint, e);
+        }
+        Path brokerCheckpoint = _checkpointDir.resolve(BROKER_CHECKPOINT_FILE);
+        try {
+          brokerCheckpointMs = _brokerMetricSampleAggregator.restore(brokerCheckpoint);
+        } catch (IOException | RuntimeException e) {
+          LOG.warn("Failed to restore the broker metric sample aggregator from {}, loading all the samples.", brokerCheckpoint, e);
+        }
+      }
       _sampleStore.loadSamples(new SampleStore.SampleLoader(_partitionMetricSampleAggregator,
-                                                            _brokerMetricSampleAggregator));
+                                                            _brokerMetricSampleAggregator,
+                                                            partitionCheckpointMs,
+                                                            brokerCheckpointMs));
       ModelParameters.updateModelCoefficient();
     } finally {
       // The sample loading task is run before the load monitor starts regardless of any ongoing execution.
@@ -25,7 +25,7 @@ class SamplingTask implements Runnable {
   private final MetricFetcherManager _metricFetcherManager;
   private final SampleStore _sampleStore;
   private final SampleStore _sampleStoreForPartitionMetricOnExecution;
-  private long _lastSamplingPeriodEndTimeMs;
+  private volatile long _lastSamplingPeriodEndTimeMs;
 
   SamplingTask(long samplingIntervalMs,
                MetadataClient metadataClient,
@@ -87,8 +87,17 @@ class SamplingTask implements Runnable {
       LOG.info("Skip sampling because the load monitor is in {} state{}.", _loadMonitorTaskRunner.state(),
                String.format(reason == null ? "" : " due to %s.", reason));
       // Something else is in progress, we advance the end time to avoid a big metric fetch after bootstrap finishes.
-      // Otherwise we may see some memory issue.
-      _lastSamplingPeriodEndTimeMs = now - _samplingIntervalMs;
+      // Otherwise we may see some memory issue. A checkpoint is short, hence the next sampling catches up instead.
+      if (_loadMonitorTaskRunner.state() != LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.CHECKPOINTING) {
+        _lastSamplingPeriodEndTimeMs = now - _samplingIntervalMs;
+      }
     }
   }
+
+  /**
+   * @return The end time of the latest sampling period, up to which the samples have been fetched.
+   */
+  long lastSamplingPeriodEndTimeMs() {
+    return _lastSamplingPeriodEndTimeMs;
+  }
 }
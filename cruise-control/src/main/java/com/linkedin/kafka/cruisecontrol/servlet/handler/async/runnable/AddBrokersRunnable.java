@@ -53,11 +53,13 @@ public class AddBrokersRunnable extends GoalBasedOperationRunnable {
                             boolean allowCapacityEstimation,
                             boolean excludeRecentlyDemotedBrokers,
                             boolean excludeRecentlyRemovedBrokers,
+                            Long optimizationTimeoutMs,
                             String anomalyId,
                             Supplier<String> reasonSupplier,
                             boolean stopOngoingExecution) {
     super(kafkaCruiseControl, new OperationFuture("Broker Addition for Self-Healing"), selfHealingGoals, allowCapacityEstimation,
-          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, anomalyId, reasonSupplier, stopOngoingExecution);
+          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, optimizationTimeoutMs, anomalyId, reasonSupplier,
+          stopOngoingExecution);
     _brokerIds = brokerIds;
     _throttleAddedBrokers = false;
     _concurrentInterBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
@@ -112,7 +114,8 @@ public class AddBrokersRunnable extends GoalBasedOperationRunnable {
                                                                          _excludedTopics,
                                                                          Collections.emptySet(),
                                                                          false,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
 
     OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
     if (!_dryRun) {
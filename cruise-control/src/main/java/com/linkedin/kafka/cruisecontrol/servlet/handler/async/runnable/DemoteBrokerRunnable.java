@@ -72,13 +72,14 @@ public class DemoteBrokerRunnable extends GoalBasedOperationRunnable {
                               Set<Integer> demotedBrokerIds,
                               boolean allowCapacityEstimation,
                               boolean excludeRecentlyDemotedBrokers,
+                              Long optimizationTimeoutMs,
                               String anomalyId,
                               Supplier<String> reasonSupplier,
                               boolean stopOngoingExecution) {
     super(kafkaCruiseControl, new OperationFuture("Broker Demotion for Self-Healing"), SELF_HEALING_DRYRUN, null,
           stopOngoingExecution, null, true, null,
           allowCapacityEstimation, excludeRecentlyDemotedBrokers, false, anomalyId, reasonSupplier,
-          SELF_HEALING_IS_TRIGGERED_BY_USER_REQUEST, SELF_HEALING_FAST_MODE);
+          SELF_HEALING_IS_TRIGGERED_BY_USER_REQUEST, SELF_HEALING_FAST_MODE, optimizationTimeoutMs);
     _brokerIds = demotedBrokerIds;
     _clusterLeaderMovementConcurrency = SELF_HEALING_CONCURRENT_MOVEMENTS;
     _brokerLeaderMovementConcurrency = SELF_HEALING_CONCURRENT_MOVEMENTS;
@@ -98,7 +99,7 @@ public class DemoteBrokerRunnable extends GoalBasedOperationRunnable {
     super(kafkaCruiseControl, future, parameters.dryRun(), null,
           parameters.stopOngoingExecution(), null, true, null,
           parameters.allowCapacityEstimation(), parameters.excludeRecentlyDemotedBrokers(), false,
-          uuid, parameters::reason, true, false);
+          uuid, parameters::reason, true, false, null);
     _brokerIds = parameters.brokerIds();
     _clusterLeaderMovementConcurrency = parameters.clusterLeaderMovementConcurrency();
     _brokerLeaderMovementConcurrency = parameters.brokerLeaderMovementConcurrency();
@@ -176,7 +177,8 @@ public class DemoteBrokerRunnable extends GoalBasedOperationRunnable {
                                                                          _excludedTopics,
                                                                          Collections.emptySet(),
                                                                          false,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
 
     OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
     if (!_dryRun) {
@@ -43,11 +43,13 @@ public class FixOfflineReplicasRunnable extends GoalBasedOperationRunnable {
                                     boolean allowCapacityEstimation,
                                     boolean excludeRecentlyDemotedBrokers,
                                     boolean excludeRecentlyRemovedBrokers,
+                                  Long optimizationTimeoutMs,
                                     String anomalyId,
                                     Supplier<String> reasonSupplier,
                                     boolean stopOngoingExecution) {
     super(kafkaCruiseControl, new OperationFuture("Fixing Offline Replicas for Self-Healing"), selfHealingGoals, allowCapacityEstimation,
-          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, anomalyId, reasonSupplier, stopOngoingExecution);
+          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, optimizationTimeoutMs, anomalyId, reasonSupplier,
+          stopOngoingExecution);
     _concurrentInterBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
     _maxInterBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
     _clusterLeaderMovementConcurrency = SELF_HEALING_CONCURRENT_MOVEMENTS;
@@ -96,7 +98,8 @@ public class FixOfflineReplicasRunnable extends GoalBasedOperationRunnable {
                                                                          _excludedTopics,
                                                                          Collections.emptySet(),
                                                                          false,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
 
     OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
     if (!_dryRun) {
@@ -50,6 +50,7 @@ public abstract class GoalBasedOperationRunnable extends OperationRunnable {
   protected final Supplier<String> _reasonSupplier;
   protected final boolean _isTriggeredByUserRequest;
   protected final boolean _fastMode;
+  protected final Long _optimizationTimeoutMs;
   protected OperationProgress _operationProgress;
   // Combined completeness requirements to be used after initialization.
   protected ModelCompletenessRequirements _combinedCompletenessRequirements;
@@ -70,7 +71,7 @@ public abstract class GoalBasedOperationRunnable extends OperationRunnable {
          parameters.modelCompletenessRequirements(), skipHardGoalCheck, parameters.excludedTopics(),
          parameters.allowCapacityEstimation(), parameters.excludeRecentlyDemotedBrokers(),
          parameters.excludeRecentlyRemovedBrokers(), uuid, reasonSupplier, !SELF_HEALING_IS_TRIGGERED_BY_USER_REQUEST,
-         parameters.fastMode());
+         parameters.fastMode(), parameters.optimizationTimeoutMs());
   }
 
   /**
@@ -82,13 +83,14 @@ public abstract class GoalBasedOperationRunnable extends OperationRunnable {
                                     boolean allowCapacityEstimation,
                                     boolean excludeRecentlyDemotedBrokers,
                                     boolean excludeRecentlyRemovedBrokers,
+                                    Long optimizationTimeoutMs,
                                     String uuid,
                                     Supplier<String> reasonSupplier,
                                     boolean stopOngoingExecution) {
     this(kafkaCruiseControl, future, SELF_HEALING_DRYRUN, goals, stopOngoingExecution,
          SELF_HEALING_MODEL_COMPLETENESS_REQUIREMENTS, SELF_HEALING_SKIP_HARD_GOAL_CHECK, SELF_HEALING_EXCLUDED_TOPICS,
          allowCapacityEstimation, excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, uuid, reasonSupplier,
-         SELF_HEALING_IS_TRIGGERED_BY_USER_REQUEST, SELF_HEALING_FAST_MODE);
+         SELF_HEALING_IS_TRIGGERED_BY_USER_REQUEST, SELF_HEALING_FAST_MODE, optimizationTimeoutMs);
   }
 
   public GoalBasedOperationRunnable(KafkaCruiseControl kafkaCruiseControl,
@@ -105,7 +107,8 @@ public abstract class GoalBasedOperationRunnable extends OperationRunnable {
                                     String uuid,
                                     Supplier<String> reasonSupplier,
                                     boolean isTriggeredByUserRequest,
-                                    boolean fastMode) {
+                                    boolean fastMode,
+                                    Long optimizationTimeoutMs) {
     super(kafkaCruiseControl, future);
     _goals = goals;
     _modelCompletenessRequirements = modelCompletenessRequirements;
@@ -123,6 +126,7 @@ public abstract class GoalBasedOperationRunnable extends OperationRunnable {
     _combinedCompletenessRequirements = null;
     _goalsByPriority = null;
     _fastMode = fastMode;
+    _optimizationTimeoutMs = optimizationTimeoutMs;
   }
 
   /**
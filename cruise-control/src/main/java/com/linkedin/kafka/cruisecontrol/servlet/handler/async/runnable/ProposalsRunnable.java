@@ -8,6 +8,7 @@ import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
 import com.linkedin.kafka.cruisecontrol.analyzer.OptimizerResult;
+import com.linkedin.kafka.cruisecontrol.analyzer.ProposalCache;
 import com.linkedin.kafka.cruisecontrol.exception.KafkaCruiseControlException;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
 import com.linkedin.kafka.cruisecontrol.servlet.parameters.ProposalsParameters;
@@ -32,6 +33,8 @@ public class ProposalsRunnable extends GoalBasedOperationRunnable {
   protected final Set<Integer> _destinationBrokerIds;
   protected final boolean _isRebalanceDiskMode;
   protected final boolean _isTriggeredByGoalViolation;
+  protected ProposalCache.Key _proposalCacheKey;
+  protected OptimizerResult _cachedResult;
   // This runnable does not start or modify executions. Hence, it ignores execution-related parameters, including hard
   // goal check (i.e. to evaluate any combination of goals). Unless specified otherwise, it is not triggered by goal violation.
   protected static final boolean PROPOSALS_DRYRUN = true;
@@ -58,15 +61,18 @@ public class ProposalsRunnable extends GoalBasedOperationRunnable {
                            boolean isRebalanceDiskMode,
                            boolean skipHardGoalCheck,
                            boolean isTriggeredByGoalViolation,
-                           boolean fastMode) {
+                           boolean fastMode,
+                           Long optimizationTimeoutMs) {
     super(kafkaCruiseControl, future, PROPOSALS_DRYRUN, goals, PROPOSALS_STOP_ONGOING_EXECUTION,
           modelCompletenessRequirements, skipHardGoalCheck, excludedTopics, allowCapacityEstimation,
           excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, PROPOSALS_UUID, PROPOSALS_REASON_SUPPLIER,
-          PROPOSALS_IS_TRIGGERED_BY_USER_REQUEST, fastMode);
+          PROPOSALS_IS_TRIGGERED_BY_USER_REQUEST, fastMode, optimizationTimeoutMs);
     _ignoreProposalCache = ignoreProposalCache;
     _destinationBrokerIds = destinationBrokerIds;
     _isRebalanceDiskMode = isRebalanceDiskMode;
     _isTriggeredByGoalViolation = isTriggeredByGoalViolation;
+    _proposalCacheKey = null;
+    _cachedResult = null;
   }
 
   public ProposalsRunnable(KafkaCruiseControl kafkaCruiseControl, OperationFuture future, ProposalsParameters parameters) {
@@ -76,6 +82,8 @@ public class ProposalsRunnable extends GoalBasedOperationRunnable {
     _destinationBrokerIds = parameters.destinationBrokerIds();
     _isRebalanceDiskMode = parameters.isRebalanceDiskMode();
     _isTriggeredByGoalViolation = PROPOSALS_IS_TRIGGERED_BY_GOAL_VIOLATION;
+    _proposalCacheKey = null;
+    _cachedResult = null;
   }
 
   @Override
@@ -109,25 +117,49 @@ public class ProposalsRunnable extends GoalBasedOperationRunnable {
                                                                          _excludedTopics,
                                                                          _destinationBrokerIds,
                                                                          false,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
 
-    return _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
+    OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null,
+                                                               optimizationOptions);
+    if (_proposalCacheKey != null) {
+      _kafkaCruiseControl.cacheOptimizations(_proposalCacheKey, result);
+    }
+    return result;
   }
 
   @Override
   protected OptimizerResult workWithoutClusterModel() throws KafkaCruiseControlException {
+    if (_cachedResult != null) {
+      return _cachedResult;
+    }
     return _kafkaCruiseControl.getProposals(_operationProgress, _allowCapacityEstimation);
   }
 
+  /**
+   * Work without a cluster model if the request can be served either from the cached best proposals, or from the cached
+   * result of an earlier request with the same non-default goals and options.
+   *
+   * @return {@code true} to generate an optimizer result with {@link #workWithClusterModel()}, and {@code false} to generate an
+   * optimizer result with {@link #workWithoutClusterModel()}.
+   */
   @Override
   protected boolean shouldWorkWithClusterModel() {
-    return _kafkaCruiseControl.ignoreProposalCache(_goals,
-                                                   _combinedCompletenessRequirements,
-                                                   _excludedTopics,
-                                                   _excludeRecentlyDemotedBrokers || _excludeRecentlyRemovedBrokers,
-                                                   _ignoreProposalCache,
-                                                   _isTriggeredByGoalViolation,
-                                                   _destinationBrokerIds,
-                                                   _isRebalanceDiskMode);
+    if (!_kafkaCruiseControl.canUseProposalCache(_excludeRecentlyDemotedBrokers || _excludeRecentlyRemovedBrokers,
+                                                 _ignoreProposalCache,
+                                                 _isTriggeredByGoalViolation)) {
+      return true;
+    }
+    if (_kafkaCruiseControl.isDefaultProposalRequest(_goals,
+                                                     _combinedCompletenessRequirements,
+                                                     _excludedTopics,
+                                                     _destinationBrokerIds,
+                                                     _isRebalanceDiskMode)) {
+      return false;
+    }
+    _proposalCacheKey = new ProposalCache.Key(_goals, _combinedCompletenessRequirements, _excludedTopics, _destinationBrokerIds,
+                                              _isRebalanceDiskMode, _fastMode);
+    _cachedResult = _kafkaCruiseControl.cachedOptimizations(_proposalCacheKey, _allowCapacityEstimation);
+    return _cachedResult == null;
   }
 }
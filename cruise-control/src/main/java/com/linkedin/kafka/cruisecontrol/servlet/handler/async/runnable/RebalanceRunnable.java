@@ -51,11 +51,13 @@ public class RebalanceRunnable extends GoalBasedOperationRunnable {
                            boolean allowCapacityEstimation,
                            boolean excludeRecentlyDemotedBrokers,
                            boolean excludeRecentlyRemovedBrokers,
+                           Long optimizationTimeoutMs,
                            String anomalyId,
                            Supplier<String> reasonSupplier,
                            boolean stopOngoingExecution) {
     super(kafkaCruiseControl, new OperationFuture("Rebalance for Self-Healing"), selfHealingGoals, allowCapacityEstimation,
-          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, anomalyId, reasonSupplier, stopOngoingExecution);
+          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, optimizationTimeoutMs, anomalyId, reasonSupplier,
+          stopOngoingExecution);
     _concurrentInterBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
     _maxInterBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
     _concurrentIntraBrokerPartitionMovements = SELF_HEALING_CONCURRENT_MOVEMENTS;
@@ -117,7 +119,7 @@ public class RebalanceRunnable extends GoalBasedOperationRunnable {
                                                                 _allowCapacityEstimation, _excludedTopics, _excludeRecentlyDemotedBrokers,
                                                                 _excludeRecentlyRemovedBrokers, _ignoreProposalCache, _destinationBrokerIds,
                                                                 _isRebalanceDiskMode, _skipHardGoalCheck, !_isTriggeredByUserRequest,
-                                                                _fastMode);
+                                                                _fastMode, _optimizationTimeoutMs);
     OptimizerResult result = proposalsRunnable.computeResult();
     if (!_dryRun) {
       _kafkaCruiseControl.executeProposals(result.goalProposals(), Collections.emptySet(), isKafkaAssignerMode(_goals),
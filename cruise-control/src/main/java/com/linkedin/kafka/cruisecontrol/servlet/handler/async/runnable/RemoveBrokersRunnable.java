@@ -53,11 +53,13 @@ public class RemoveBrokersRunnable extends GoalBasedOperationRunnable {
                                boolean allowCapacityEstimation,
                                boolean excludeRecentlyDemotedBrokers,
                                boolean excludeRecentlyRemovedBrokers,
+                               Long optimizationTimeoutMs,
                                String anomalyId,
                                Supplier<String> reasonSupplier,
                                boolean stopOngoingExecution) {
     super(kafkaCruiseControl, new OperationFuture("Broker Removal for Self-Healing"), selfHealingGoals, allowCapacityEstimation,
-          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, anomalyId, reasonSupplier, stopOngoingExecution);
+          excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, optimizationTimeoutMs, anomalyId, reasonSupplier,
+          stopOngoingExecution);
     _removedBrokerIds = removedBrokerIds;
     _throttleRemovedBrokers = false;
     _destinationBrokerIds = SELF_HEALING_DESTINATION_BROKER_IDS;
@@ -115,7 +117,8 @@ public class RemoveBrokersRunnable extends GoalBasedOperationRunnable {
                                                                          _excludedTopics,
                                                                          _destinationBrokerIds,
                                                                          false,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
 
     OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
     if (!_dryRun) {
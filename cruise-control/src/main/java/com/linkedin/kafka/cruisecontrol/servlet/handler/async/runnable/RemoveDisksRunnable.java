@@ -102,7 +102,8 @@ public class RemoveDisksRunnable extends GoalBasedOperationRunnable {
                 _excludedTopics,
                 Collections.emptySet(),
                 false,
-                _fastMode
+                _fastMode,
+                _optimizationTimeoutMs
         );
 
         OptimizerResult result = _kafkaCruiseControl.optimizations(clusterModel, _goalsByPriority, _operationProgress, null, optimizationOptions);
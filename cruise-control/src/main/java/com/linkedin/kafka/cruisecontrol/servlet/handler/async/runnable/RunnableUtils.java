@@ -31,6 +31,7 @@ import java.util.stream.Collectors;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.Node;
 import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -270,6 +271,7 @@ public final class RunnableUtils {
    *                                      these brokers (if empty, no explicit filter is enforced -- cannot be null).
    * @param onlyMoveImmigrantReplicas {@code true} to move only immigrant replicas, {@code false} otherwise.
    * @param fastMode {@code true} to compute proposals in fast mode, {@code false} otherwise.
+   * @param optimizationTimeoutMs The timeout in milliseconds of goal optimizations, or {@code null} if not bounded.
    * @return Computed optimization options.
    */
   public static OptimizationOptions computeOptimizationOptions(ClusterModel clusterModel,
@@ -282,7 +284,8 @@ public final class RunnableUtils {
                                                                Pattern excludedTopicsPattern,
                                                                Set<Integer> requestedDestinationBrokerIds,
                                                                boolean onlyMoveImmigrantReplicas,
-                                                               boolean fastMode) {
+                                                               boolean fastMode,
+                                                               Long optimizationTimeoutMs) {
 
     // Update recently removed and demoted brokers.
     RecentBrokers recentBrokers = maybeDropFromRecentBrokers(kafkaCruiseControl, brokersToDrop, dryRun);
@@ -295,8 +298,18 @@ public final class RunnableUtils {
 
     Set<String> excludedTopics = kafkaCruiseControl.excludedTopics(clusterModel, excludedTopicsPattern);
     LOG.debug("Topics excluded from partition movement: {}", excludedTopics);
+    if (optimizationTimeoutMs == null) {
+      return new OptimizationOptions(excludedTopics, excludedBrokersForLeadership, excludedBrokersForReplicaMove,
+                                     isTriggeredByGoalViolation, requestedDestinationBrokerIds, onlyMoveImmigrantReplicas, fastMode);
+    }
+    // The deadline is tracked by the same clock as the goal optimizer of Cruise Control.
+    Time time = kafkaCruiseControl.time();
+    long nowMs = time.milliseconds();
+    // Saturate the deadline, so a very large timeout does not overflow into a deadline in the past.
+    long optimizationDeadlineMs = optimizationTimeoutMs > Long.MAX_VALUE - nowMs ? Long.MAX_VALUE : nowMs + optimizationTimeoutMs;
     return new OptimizationOptions(excludedTopics, excludedBrokersForLeadership, excludedBrokersForReplicaMove,
-                                   isTriggeredByGoalViolation, requestedDestinationBrokerIds, onlyMoveImmigrantReplicas, fastMode);
+                                   isTriggeredByGoalViolation, requestedDestinationBrokerIds, onlyMoveImmigrantReplicas, fastMode,
+                                   optimizationDeadlineMs, time);
   }
 
   /**
@@ -130,12 +130,14 @@ public class UpdateTopicConfigurationRunnable extends GoalBasedOperationRunnable
                                           boolean allowCapacityEstimation,
                                           boolean excludeRecentlyDemotedBrokers,
                                           boolean excludeRecentlyRemovedBrokers,
+                                          Long optimizationTimeoutMs,
                                           String anomalyId,
                                           Supplier<String> reasonSupplier,
                                           boolean stopOngoingExecution,
                                           boolean skipRackAwarenessCheck) {
     super(kafkaCruiseControl, new OperationFuture("Updating Topic Replication Factor for Self-Healing."), selfHealingGoals,
-          allowCapacityEstimation, excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, anomalyId, reasonSupplier, stopOngoingExecution);
+          allowCapacityEstimation, excludeRecentlyDemotedBrokers, excludeRecentlyRemovedBrokers, optimizationTimeoutMs, anomalyId, reasonSupplier,
+          stopOngoingExecution);
     // Initialize common parameters
     _cluster = null;
 
@@ -195,7 +197,8 @@ public class UpdateTopicConfigurationRunnable extends GoalBasedOperationRunnable
                                                                          _excludedTopics,
                                                                          Collections.emptySet(),
                                                                          true,
-                                                                         _fastMode);
+                                                                         _fastMode,
+                                                                         _optimizationTimeoutMs);
     populateRackInfoForReplicationFactorChange(_topicsToChangeByReplicationFactor, _cluster,
                                                _skipRackAwarenessCheck, brokersByRack, rackByBroker);
     Map<TopicPartition, List<ReplicaPlacementInfo>> initReplicaDistribution = clusterModel.getReplicaDistribution();
@@ -130,6 +130,7 @@ public final class ParameterUtils {
   public static final String FETCH_COMPLETED_TASK_PARAM = "fetch_completed_task";
   public static final String FORCE_STOP_PARAM = "force_stop";
   public static final String FAST_MODE_PARAM = "fast_mode";
+  public static final String OPTIMIZATION_TIMEOUT_MS_PARAM = "optimization_timeout_ms";
   public static final String STOP_EXTERNAL_AGENT_PARAM = "stop_external_agent";
   public static final String DEVELOPER_MODE_PARAM = "developer_mode";
   private static final int MAX_REASON_LENGTH = 50;
@@ -403,6 +404,14 @@ public final class ParameterUtils {
     return getBooleanParam(requestContext, FAST_MODE_PARAM, true);
   }
 
+  static Long optimizationTimeoutMs(CruiseControlRequestContext requestContext) {
+    Long value = getLongParam(requestContext, OPTIMIZATION_TIMEOUT_MS_PARAM, null);
+    if (value != null && value <= 0) {
+      throw new UserRequestException(String.format("Requested optimization timeout must be positive (Requested: %s).", value));
+    }
+    return value;
+  }
+
   static boolean getDryRun(CruiseControlRequestContext requestContext) {
     return getBooleanParam(requestContext, DRY_RUN_PARAM, true);
   }
@@ -6,23 +6,37 @@ package com.linkedin.kafka.cruisecontrol.analyzer;
 
 import com.codahale.metrics.MetricRegistry;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.Goal;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.RackAwareGoal;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.ReplicaCapacityGoal;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.ReplicaDistributionGoal;
+import com.linkedin.kafka.cruisecontrol.async.progress.OperationProgress;
+import com.linkedin.kafka.cruisecontrol.common.DeterministicCluster;
 import com.linkedin.kafka.cruisecontrol.common.TestConstants;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.AnalyzerConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.exception.KafkaCruiseControlException;
+import com.linkedin.kafka.cruisecontrol.exception.OptimizationFailureException;
 import com.linkedin.kafka.cruisecontrol.executor.Executor;
+import com.linkedin.kafka.cruisecontrol.model.Broker;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
 import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 import junit.framework.AssertionFailedError;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.common.utils.MockTime;
 import org.apache.kafka.common.utils.SystemTime;
+import org.apache.kafka.common.utils.Time;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
@@ -90,6 +104,137 @@ public class GoalOptimizerTest {
     EasyMock.verify(clusterModel);
   }
 
+  @Test
+  public void testSpeculativeGoalOptimizationIsAdopted() throws KafkaCruiseControlException {
+    // The replicas of the only partition already reside on different racks, so no goal relocates anything.
+    ClusterModel clusterModel = DeterministicCluster.rackAwareSatisfiable2();
+    RecordingReplicaCapacityGoal speculatedGoal = new RecordingReplicaCapacityGoal();
+    OptimizerResult result = optimizeWithSpeculation(clusterModel, speculatedGoal);
+
+    Assert.assertTrue(result.goalProposals().isEmpty());
+    // The goal is optimized only speculatively, on a copy of the cluster model.
+    Assert.assertEquals(1, speculatedGoal.optimizedClusterModels().size());
+    Assert.assertNotSame(clusterModel, speculatedGoal.optimizedClusterModels().get(0));
+    Assert.assertTrue(result.violatedGoalsAfterOptimization().isEmpty());
+  }
+
+  @Test
+  public void testSpeculativeGoalOptimizationIsRecomputed() throws KafkaCruiseControlException {
+    // Both replicas of the only partition reside on the same rack, so the rack aware goal relocates one of them.
+    ClusterModel clusterModel = DeterministicCluster.rackAwareSatisfiable();
+    RecordingReplicaCapacityGoal speculatedGoal = new RecordingReplicaCapacityGoal();
+    OptimizerResult result = optimizeWithSpeculation(clusterModel, speculatedGoal);
+
+    Assert.assertEquals(1, result.goalProposals().size());
+    // The speculative optimization is discarded, and the goal is optimized again on the modified cluster model.
+    Assert.assertEquals(2, speculatedGoal.optimizedClusterModels().size());
+    Assert.assertNotSame(clusterModel, speculatedGoal.optimizedClusterModels().get(0));
+    Assert.assertSame(clusterModel, speculatedGoal.optimizedClusterModels().get(1));
+    Assert.assertTrue(result.violatedGoalsAfterOptimization().isEmpty());
+  }
+
+  private static OptimizerResult optimizeWithSpeculation(ClusterModel clusterModel, Goal speculatedGoal)
+      throws KafkaCruiseControlException {
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(AnalyzerConfig.NUM_SPECULATIVE_GOAL_OPTIMIZATION_THREADS_CONFIG, "1");
+    KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(props);
+    Goal rackAwareGoal = new RackAwareGoal();
+    rackAwareGoal.configure(config.mergedConfigValues());
+    speculatedGoal.configure(config.mergedConfigValues());
+
+    GoalOptimizer goalOptimizer = new GoalOptimizer(config, null, new SystemTime(), new MetricRegistry(),
+                                                    EasyMock.mock(Executor.class), EasyMock.mock(AdminClient.class));
+    try {
+      return goalOptimizer.optimizations(clusterModel, Arrays.asList(rackAwareGoal, speculatedGoal), new OperationProgress());
+    } finally {
+      goalOptimizer.shutdown();
+    }
+  }
+
+  @Test
+  public void testSoftGoalSkippedAfterOptimizationDeadlineIsViolated() throws KafkaCruiseControlException {
+    MockTime time = new MockTime(0L, 0L, 0L);
+    Goal goal = new ReplicaDistributionGoal();
+    // The deadline has already passed, so the goal is not optimized at all.
+    OptimizerResult result = optimizeWithDeadline(DeterministicCluster.unbalanced(), goal, time.milliseconds(), time);
+
+    Assert.assertTrue(result.goalProposals().isEmpty());
+    Assert.assertEquals(Collections.singleton(goal.name()), result.cutShortGoals());
+    Assert.assertTrue(result.violatedGoalsAfterOptimization().contains(goal.name()));
+  }
+
+  @Test
+  public void testSoftGoalCutShortByOptimizationDeadlineIsViolated() throws KafkaCruiseControlException {
+    MockTime time = new MockTime(0L, 0L, 0L);
+    // The deadline passes after the goal rebalances the first broker.
+    Goal goal = new TimeAdvancingReplicaDistributionGoal(time);
+    OptimizerResult result = optimizeWithDeadline(DeterministicCluster.unbalanced(), goal, time.milliseconds() + 1, time);
+
+    Assert.assertEquals(Collections.singleton(goal.name()), result.cutShortGoals());
+    Assert.assertTrue(result.violatedGoalsAfterOptimization().contains(goal.name()));
+  }
+
+  @Test(expected = OptimizationFailureException.class)
+  public void testHardGoalSkippedAfterOptimizationDeadlineFails() throws KafkaCruiseControlException {
+    MockTime time = new MockTime(0L, 0L, 0L);
+    optimizeWithDeadline(DeterministicCluster.rackAwareSatisfiable(), new RackAwareGoal(), time.milliseconds(), time);
+  }
+
+  private static OptimizerResult optimizeWithDeadline(ClusterModel clusterModel, Goal goal, long optimizationDeadlineMs, Time time)
+      throws KafkaCruiseControlException {
+    KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties());
+    goal.configure(config.mergedConfigValues());
+    OptimizationOptions optimizationOptions = new OptimizationOptions(Collections.emptySet(), Collections.emptySet(),
+                                                                      Collections.emptySet(), false, Collections.emptySet(),
+                                                                      false, true, optimizationDeadlineMs, time);
+    GoalOptimizer goalOptimizer = new GoalOptimizer(config, null, new SystemTime(), new MetricRegistry(),
+                                                    EasyMock.mock(Executor.class), EasyMock.mock(AdminClient.class));
+    try {
+      return goalOptimizer.optimizations(clusterModel, Collections.singletonList(goal), new OperationProgress(), null,
+                                         optimizationOptions);
+    } finally {
+      goalOptimizer.shutdown();
+    }
+  }
+
+  /**
+   * A replica distribution goal that advances the time by a millisecond after rebalancing each broker.
+   */
+  private static class TimeAdvancingReplicaDistributionGoal extends ReplicaDistributionGoal {
+    private final MockTime _time;
+
+    TimeAdvancingReplicaDistributionGoal(MockTime time) {
+      _time = time;
+    }
+
+    @Override
+    protected void rebalanceForBroker(Broker broker,
+                                      ClusterModel clusterModel,
+                                      Set<Goal> optimizedGoals,
+                                      OptimizationOptions optimizationOptions) {
+      super.rebalanceForBroker(broker, clusterModel, optimizedGoals, optimizationOptions);
+      _time.sleep(1L);
+    }
+  }
+
+  /**
+   * A replica capacity goal that records the cluster models it has been optimized on.
+   */
+  private static class RecordingReplicaCapacityGoal extends ReplicaCapacityGoal {
+    private final List<ClusterModel> _optimizedClusterModels = new CopyOnWriteArrayList<>();
+
+    @Override
+    public boolean optimize(ClusterModel clusterModel, Set<Goal> optimizedGoals, OptimizationOptions optimizationOptions)
+        throws OptimizationFailureException {
+      _optimizedClusterModels.add(clusterModel);
+      return super.optimize(clusterModel, optimizedGoals, optimizationOptions);
+    }
+
+    List<ClusterModel> optimizedClusterModels() {
+      return _optimizedClusterModels;
+    }
+  }
+
   private GoalOptimizer createGoalOptimizer() {
     return createGoalOptimizer(new Properties());
   }
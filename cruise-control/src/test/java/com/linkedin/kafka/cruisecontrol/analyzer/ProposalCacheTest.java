@@ -0,0 +1,187 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.analyzer;
+
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
+import com.linkedin.kafka.cruisecontrol.monitor.ModelGeneration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link ProposalCache}.
+ */
+public class ProposalCacheTest {
+  private static final ModelGeneration GENERATION = new ModelGeneration(1, 10L);
+  private static final ModelGeneration NEXT_GENERATION = new ModelGeneration(3, 10L);
+  private static final ModelCompletenessRequirements REQUIREMENTS = new ModelCompletenessRequirements(1, 0.0, false);
+  private static final ProposalCache.Key KEY_A = key(List.of("RackAwareGoal"));
+  private static final ProposalCache.Key KEY_B = key(List.of("DiskUsageDistributionGoal"));
+  private static final ProposalCache.Key KEY_C = key(List.of("RackAwareGoal", "DiskUsageDistributionGoal"));
+
+  @Test
+  public void testGetCachedResult() {
+    ProposalCache cache = new ProposalCache(2, 100);
+    OptimizerResult result = result(GENERATION, 3, false, Collections.emptySet());
+    assertNull(cache.get(KEY_A, GENERATION, true));
+    cache.put(KEY_A, result);
+
+    assertSame(result, cache.get(key(List.of("RackAwareGoal")), GENERATION, true));
+    assertNull(cache.get(KEY_B, GENERATION, true));
+    assertNull(cache.get(new ProposalCache.Key(List.of("RackAwareGoal"), REQUIREMENTS, Pattern.compile("T.*"),
+                                               Collections.emptySet(), false, true), GENERATION, true));
+    assertEquals(3, cache.numProposals());
+  }
+
+  @Test
+  public void testStaleAndCapacityEstimatedResults() {
+    ProposalCache cache = new ProposalCache(2, 100);
+    cache.put(KEY_A, result(GENERATION, 3, true, Collections.emptySet()));
+    assertNull(cache.get(KEY_A, GENERATION, false));
+    assertEquals(3, cache.numProposals());
+
+    // A stale result is dropped, but the entry is retained to be warmed.
+    assertNull(cache.get(KEY_A, NEXT_GENERATION, true));
+    assertEquals(0, cache.numProposals());
+    assertEquals(1, cache.numEntries());
+  }
+
+  @Test
+  public void testResultsCutShortOrTooLargeAreNotCached() {
+    ProposalCache cache = new ProposalCache(2, 5);
+    cache.put(KEY_A, result(GENERATION, 3, false, Set.of("RackAwareGoal")));
+    cache.put(KEY_B, result(GENERATION, 6, false, Collections.emptySet()));
+    assertEquals(0, cache.numEntries());
+
+    ProposalCache disabledCache = new ProposalCache(0, 5);
+    disabledCache.put(KEY_A, result(GENERATION, 1, false, Collections.emptySet()));
+    assertEquals(0, disabledCache.numEntries());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() {
+    ProposalCache cache = new ProposalCache(2, 10);
+    OptimizerResult resultA = result(GENERATION, 4, false, Collections.emptySet());
+    cache.put(KEY_A, resultA);
+    cache.put(KEY_B, result(GENERATION, 4, false, Collections.emptySet()));
+    // Access A to make B the least recently used entry.
+    assertSame(resultA, cache.get(KEY_A, GENERATION, true));
+    cache.put(KEY_C, result(GENERATION, 1, false, Collections.emptySet()));
+
+    assertEquals(2, cache.numEntries());
+    assertEquals(5, cache.numProposals());
+    assertNull(cache.get(KEY_B, GENERATION, true));
+
+    // Exceeding the total number of proposals evicts the least recently used entries.
+    OptimizerResult resultB = result(GENERATION, 10, false, Collections.emptySet());
+    cache.put(KEY_B, resultB);
+    assertEquals(1, cache.numEntries());
+    assertEquals(10, cache.numProposals());
+    assertSame(resultB, cache.get(KEY_B, GENERATION, true));
+  }
+
+  @Test
+  public void testKeysToWarm() {
+    ProposalCache cache = new ProposalCache(3, 100);
+    cache.put(KEY_A, result(GENERATION, 1, false, Collections.emptySet()));
+    cache.put(KEY_B, result(GENERATION, 1, false, Collections.emptySet()));
+    cache.put(KEY_C, result(NEXT_GENERATION, 1, false, Collections.emptySet()));
+    for (int i = 0; i < 3; i++) {
+      cache.get(KEY_B, GENERATION, true);
+    }
+    cache.get(KEY_A, GENERATION, true);
+
+    // Only the stale results are warmed, starting from the most frequently requested one.
+    assertEquals(List.of(KEY_B, KEY_A), cache.keysToWarm(NEXT_GENERATION, 2));
+    // Keys that are being warmed are not warmed again.
+    assertTrue(cache.keysToWarm(NEXT_GENERATION, 2).isEmpty());
+    cache.finishWarming(KEY_A);
+    assertEquals(List.of(KEY_A), cache.keysToWarm(NEXT_GENERATION, 2));
+  }
+
+  @Test
+  public void testOnlyRequestsAreCounted() {
+    ProposalCache cache = new ProposalCache(3, 100);
+    // Requests that miss the cache are counted once, and caching their result does not count as a request.
+    assertNull(cache.get(KEY_A, GENERATION, true));
+    assertNull(cache.get(KEY_A, GENERATION, true));
+    cache.put(KEY_A, result(GENERATION, 1, false, Collections.emptySet()));
+    // A result cached by warming is not a request either.
+    cache.put(KEY_B, result(GENERATION, 1, false, Collections.emptySet()));
+    cache.get(KEY_B, GENERATION, true);
+    // Keys whose result has never been cached are not warmed.
+    for (int i = 0; i < 3; i++) {
+      assertNull(cache.get(KEY_C, GENERATION, true));
+    }
+
+    assertEquals(3, cache.numEntries());
+    assertEquals(List.of(KEY_A, KEY_B), cache.keysToWarm(NEXT_GENERATION, 3));
+  }
+
+  @Test
+  public void testEntriesWithoutResultAreEvictedFirst() {
+    ProposalCache cache = new ProposalCache(2, 100);
+    assertNull(cache.get(KEY_B, GENERATION, true));
+    OptimizerResult resultA = result(GENERATION, 1, false, Collections.emptySet());
+    cache.put(KEY_A, resultA);
+    assertNull(cache.get(KEY_C, GENERATION, true));
+
+    assertEquals(2, cache.numEntries());
+    assertSame(resultA, cache.get(KEY_A, GENERATION, true));
+  }
+
+  @Test
+  public void testMissesDoNotEvictResults() {
+    ProposalCache cache = new ProposalCache(2, 100);
+    OptimizerResult resultA = result(GENERATION, 1, false, Collections.emptySet());
+    OptimizerResult resultB = result(GENERATION, 2, false, Collections.emptySet());
+    cache.put(KEY_A, resultA);
+    cache.put(KEY_B, resultB);
+
+    // One-off requests that miss the full cache do not evict the cached results.
+    assertNull(cache.get(KEY_C, GENERATION, true));
+    assertNull(cache.get(new ProposalCache.Key(List.of("RackAwareGoal"), REQUIREMENTS, null, Set.of(1), false, true),
+                         GENERATION, true));
+    assertEquals(2, cache.numEntries());
+    assertEquals(3, cache.numProposals());
+    assertSame(resultA, cache.get(KEY_A, GENERATION, true));
+    assertSame(resultB, cache.get(KEY_B, GENERATION, true));
+
+    // Caching the result of a missed key still evicts the least recently used result.
+    cache.put(KEY_C, result(GENERATION, 1, false, Collections.emptySet()));
+    assertEquals(2, cache.numEntries());
+    assertNull(cache.get(KEY_A, GENERATION, true));
+  }
+
+  private static ProposalCache.Key key(List<String> goals) {
+    return new ProposalCache.Key(goals, REQUIREMENTS, null, Collections.emptySet(), false, true);
+  }
+
+  private static OptimizerResult result(ModelGeneration generation, int numProposals, boolean isCapacityEstimated,
+                                        Set<String> cutShortGoals) {
+    Set<ExecutionProposal> proposals = new HashSet<>();
+    for (int i = 0; i < numProposals; i++) {
+      proposals.add(EasyMock.mock(ExecutionProposal.class));
+    }
+    OptimizerResult result = EasyMock.mock(OptimizerResult.class);
+    EasyMock.expect(result.modelGeneration()).andReturn(generation).anyTimes();
+    EasyMock.expect(result.goalProposals()).andReturn(proposals).anyTimes();
+    EasyMock.expect(result.isCapacityEstimated()).andReturn(isCapacityEstimated).anyTimes();
+    EasyMock.expect(result.cutShortGoals()).andReturn(cutShortGoals).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+}
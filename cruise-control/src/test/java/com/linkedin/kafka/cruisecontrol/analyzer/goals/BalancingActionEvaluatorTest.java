@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.analyzer.goals;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.analyzer.BalancingConstraint;
+import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.BalancingActionEvaluator.Decision;
+import com.linkedin.kafka.cruisecontrol.analyzer.goals.BalancingActionEvaluator.Verdict;
+import com.linkedin.kafka.cruisecontrol.common.ClusterProperty;
+import com.linkedin.kafka.cruisecontrol.common.TestConstants;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.exception.OptimizationFailureException;
+import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
+import com.linkedin.kafka.cruisecontrol.model.RandomCluster;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+
+public class BalancingActionEvaluatorTest {
+  private static final List<Integer> CANDIDATES = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+  private static final int[] NUM_THREADS = {1, 2, 3, 8, 32};
+
+  @Test
+  public void testFirstDecisionIsIndependentOfNumThreads() {
+    // Candidates 7 and 13 are acceptable, 15 stops the evaluation.
+    Function<Integer, Verdict> evaluation = candidate -> candidate == 15 ? Verdict.STOP
+                                                                         : (candidate == 7 || candidate == 13 ? Verdict.ACCEPT
+                                                                                                              : Verdict.SKIP);
+    for (int numThreads : NUM_THREADS) {
+      Decision<Integer> decision = firstDecision(CANDIDATES, evaluation, numThreads);
+      assertEquals(7, decision.candidate().intValue());
+      assertEquals(Verdict.ACCEPT, decision.verdict());
+
+      decision = firstDecision(CANDIDATES, candidate -> candidate < 15 ? Verdict.SKIP : evaluation.apply(candidate), numThreads);
+      assertEquals(15, decision.candidate().intValue());
+      assertEquals(Verdict.STOP, decision.verdict());
+
+      assertNull(firstDecision(CANDIDATES, candidate -> Verdict.SKIP, numThreads));
+    }
+  }
+
+  @Test
+  public void testFailureAfterDecisionIsIgnored() {
+    Function<Integer, Verdict> evaluation = candidate -> {
+      if (candidate > 3) {
+        throw new IllegalArgumentException("Candidate " + candidate + " is not evaluable.");
+      }
+      return candidate == 3 ? Verdict.ACCEPT : Verdict.SKIP;
+    };
+    for (int numThreads : NUM_THREADS) {
+      assertEquals(3, firstDecision(CANDIDATES, evaluation, numThreads).candidate().intValue());
+    }
+  }
+
+  @Test
+  public void testFailureBeforeDecisionIsThrown() {
+    Function<Integer, Verdict> evaluation = candidate -> {
+      if (candidate == 2) {
+        throw new IllegalArgumentException("Candidate " + candidate + " is not evaluable.");
+      }
+      return candidate == 3 ? Verdict.ACCEPT : Verdict.SKIP;
+    };
+    for (int numThreads : NUM_THREADS) {
+      try {
+        firstDecision(CANDIDATES, evaluation, numThreads);
+        fail("Failure of candidate 2 was not thrown with " + numThreads + " threads.");
+      } catch (IllegalArgumentException iae) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testFirstDecisionOfRandomVerdictsIsIndependentOfNumThreads() {
+    Random random = new Random(31L);
+    for (int numThreads : NUM_THREADS) {
+      BalancingActionEvaluator evaluator = new BalancingActionEvaluator(numThreads);
+      try {
+        for (int i = 0; i < 1000; i++) {
+          // Each candidate is acceptable, stops the evaluation or fails to be evaluated with a low probability.
+          Map<Integer, Integer> outcomeByCandidate = new HashMap<>();
+          CANDIDATES.forEach(candidate -> outcomeByCandidate.put(candidate, random.nextInt(30)));
+          Function<Integer, Verdict> evaluation = candidate -> {
+            int outcome = outcomeByCandidate.get(candidate);
+            if (outcome == 0) {
+              throw new IllegalArgumentException("Candidate " + candidate + " is not evaluable.");
+            }
+            return outcome == 1 ? Verdict.ACCEPT : (outcome == 2 ? Verdict.STOP : Verdict.SKIP);
+          };
+          assertEquals(outcome(BalancingActionEvaluator.SEQUENTIAL, evaluation), outcome(evaluator, evaluation));
+        }
+      } finally {
+        evaluator.shutdown();
+      }
+    }
+  }
+
+  @Test
+  public void testGoalOptimizationIsIndependentOfNumThreads() throws Exception {
+    Map<ClusterProperty, Number> clusterProperties = new HashMap<>(TestConstants.BASE_PROPERTIES);
+    clusterProperties.put(ClusterProperty.NUM_BROKERS, 10);
+    clusterProperties.put(ClusterProperty.NUM_TOPICS, 200);
+    clusterProperties.put(ClusterProperty.NUM_REPLICAS, 3000);
+    ClusterModel clusterModel = RandomCluster.generate(clusterProperties);
+    RandomCluster.populate(clusterModel, clusterProperties, TestConstants.Distribution.EXPONENTIAL);
+    BalancingConstraint balancingConstraint =
+        new BalancingConstraint(new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+
+    ClusterModel sequentiallyOptimized = clusterModel.copy();
+    optimize(sequentiallyOptimized, balancingConstraint, BalancingActionEvaluator.SEQUENTIAL);
+    assertTrue(sequentiallyOptimized.isModified());
+    for (int numThreads : NUM_THREADS) {
+      ClusterModel optimized = clusterModel.copy();
+      BalancingActionEvaluator evaluator = new BalancingActionEvaluator(numThreads);
+      try {
+        optimize(optimized, balancingConstraint, evaluator);
+      } finally {
+        evaluator.shutdown();
+      }
+      assertEquals(sequentiallyOptimized.getReplicaDistribution(), optimized.getReplicaDistribution());
+      assertEquals(sequentiallyOptimized.getLeaderDistribution(), optimized.getLeaderDistribution());
+    }
+  }
+
+  /**
+   * Optimize a replica distribution goal and a disk usage distribution goal, which applies both replica movements and
+   * swaps, using the given evaluator.
+   *
+   * @param clusterModel The cluster model to optimize.
+   * @param balancingConstraint Balancing constraint of the goals.
+   * @param evaluator Evaluator of the candidates of the balancing actions of the goals.
+   */
+  private static void optimize(ClusterModel clusterModel,
+                               BalancingConstraint balancingConstraint,
+                               BalancingActionEvaluator evaluator) throws OptimizationFailureException {
+    OptimizationOptions optimizationOptions = new OptimizationOptions(Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+    Set<Goal> optimizedGoals = new HashSet<>();
+    for (AbstractGoal goal : Arrays.asList(new ReplicaDistributionGoal(balancingConstraint), new DiskUsageDistributionGoal(balancingConstraint))) {
+      goal.setBalancingActionEvaluator(evaluator);
+      goal.optimize(clusterModel, optimizedGoals, optimizationOptions);
+      optimizedGoals.add(goal);
+    }
+  }
+
+  private static String outcome(BalancingActionEvaluator evaluator, Function<Integer, Verdict> evaluation) {
+    try {
+      Decision<Integer> decision = evaluator.firstDecision(CANDIDATES, evaluation);
+      return decision == null ? "no decision" : decision.candidate() + " " + decision.verdict();
+    } catch (IllegalArgumentException iae) {
+      return iae.getMessage();
+    }
+  }
+
+  private static <T> Decision<T> firstDecision(List<T> candidates, Function<T, Verdict> evaluation, int numThreads) {
+    BalancingActionEvaluator evaluator = new BalancingActionEvaluator(numThreads);
+    try {
+      return evaluator.firstDecision(candidates, evaluation);
+    } finally {
+      evaluator.shutdown();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.analyzer.goals;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.analyzer.AnalyzerUtils;
+import com.linkedin.kafka.cruisecontrol.analyzer.BalancingConstraint;
+import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
+import com.linkedin.kafka.cruisecontrol.common.ClusterProperty;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
+import com.linkedin.kafka.cruisecontrol.common.Statistic;
+import com.linkedin.kafka.cruisecontrol.common.TestConstants;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.AnalyzerConfig;
+import com.linkedin.kafka.cruisecontrol.exception.BrokerCapacityResolutionException;
+import com.linkedin.kafka.cruisecontrol.exception.OptimizationFailureException;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
+import com.linkedin.kafka.cruisecontrol.model.ClusterModelStats;
+import com.linkedin.kafka.cruisecontrol.model.RandomCluster;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+
+public class ResourceDistributionGoalTest {
+  private static final double DELTA = 1E-9;
+
+  /**
+   * Optimizes the same cluster with and without swap candidate pruning. The cluster is subject to both rack (rack aware)
+   * and disk capacity limits, which the swaps of the disk usage distribution goal must respect. Pruning only skips the
+   * swaps that cannot succeed, hence both optimizations must yield the same proposals and balancedness.
+   */
+  @Test
+  public void testSwapCandidatePruningKeepsProposalsAndBalancedness() throws OptimizationFailureException, BrokerCapacityResolutionException {
+    Map<ClusterProperty, Number> clusterProperties = new HashMap<>(TestConstants.BASE_PROPERTIES);
+    clusterProperties.put(ClusterProperty.NUM_RACKS, 3);
+    clusterProperties.put(ClusterProperty.NUM_BROKERS, 10);
+    clusterProperties.put(ClusterProperty.NUM_TOPICS, 200);
+    clusterProperties.put(ClusterProperty.NUM_REPLICAS, 3000);
+    ClusterModel clusterModel = RandomCluster.generate(clusterProperties);
+    RandomCluster.populate(clusterModel, clusterProperties, TestConstants.Distribution.EXPONENTIAL);
+
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    // Keep the swaps clear of their wall-clock timeout, so that both optimizations attempt the same swaps.
+    props.setProperty(AnalyzerConfig.FAST_MODE_PER_BROKER_MOVE_TIMEOUT_MS_CONFIG, Long.toString(TimeUnit.HOURS.toMillis(1)));
+    BalancingConstraint balancingConstraint = new BalancingConstraint(new KafkaCruiseControlConfig(props));
+
+    Map<TopicPartition, List<ReplicaPlacementInfo>> initialReplicaDistribution = clusterModel.getReplicaDistribution();
+    Map<TopicPartition, ReplicaPlacementInfo> initialLeaderDistribution = clusterModel.getLeaderDistribution();
+
+    ClusterModel prunedClusterModel = clusterModel.copy();
+    optimize(prunedClusterModel, balancingConstraint, true);
+    ClusterModel unprunedClusterModel = clusterModel.copy();
+    optimize(unprunedClusterModel, balancingConstraint, false);
+
+    Set<ExecutionProposal> prunedProposals = AnalyzerUtils.getDiff(initialReplicaDistribution, initialLeaderDistribution,
+                                                                   prunedClusterModel);
+    Set<ExecutionProposal> unprunedProposals = AnalyzerUtils.getDiff(initialReplicaDistribution, initialLeaderDistribution,
+                                                                     unprunedClusterModel);
+    assertFalse(unprunedProposals.isEmpty());
+    assertEquals(unprunedProposals, prunedProposals);
+    assertEquals(unprunedClusterModel.getReplicaDistribution(), prunedClusterModel.getReplicaDistribution());
+    assertEquals(unprunedClusterModel.getLeaderDistribution(), prunedClusterModel.getLeaderDistribution());
+
+    ClusterModelStats prunedStats = prunedClusterModel.getClusterStats(balancingConstraint);
+    ClusterModelStats unprunedStats = unprunedClusterModel.getClusterStats(balancingConstraint);
+    assertEquals(unprunedStats.numBalancedBrokersByResource(), prunedStats.numBalancedBrokersByResource());
+    assertEquals(unprunedStats.numUnbalancedDisks(), prunedStats.numUnbalancedDisks());
+    assertEquals(unprunedStats.diskUtilizationStandardDeviation(), prunedStats.diskUtilizationStandardDeviation(), DELTA);
+    for (Statistic statistic : Statistic.cachedValues()) {
+      for (Resource resource : Resource.cachedValues()) {
+        assertEquals(unprunedStats.resourceUtilizationStats().get(statistic).get(resource),
+                     prunedStats.resourceUtilizationStats().get(statistic).get(resource), DELTA);
+      }
+    }
+  }
+
+  private static void optimize(ClusterModel clusterModel, BalancingConstraint balancingConstraint, boolean swapCandidatePruningEnabled)
+      throws OptimizationFailureException {
+    DiskUsageDistributionGoal diskUsageDistributionGoal = new DiskUsageDistributionGoal(balancingConstraint);
+    diskUsageDistributionGoal._swapCandidatePruningEnabled = swapCandidatePruningEnabled;
+    List<Goal> goals = Arrays.asList(new RackAwareGoal(balancingConstraint),
+                                     new DiskCapacityGoal(balancingConstraint),
+                                     diskUsageDistributionGoal);
+    Set<Goal> optimizedGoals = new HashSet<>();
+    for (Goal goal : goals) {
+      goal.optimize(clusterModel, optimizedGoals, new OptimizationOptions(Collections.emptySet(),
+                                                                          Collections.emptySet(),
+                                                                          Collections.emptySet()));
+      optimizedGoals.add(goal);
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.gson.Gson;
+import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorManager;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.TopicPartition;
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+
+import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils.waitUntilTrue;
+import static com.linkedin.kafka.cruisecontrol.executor.ExecutorTestUtils.EXECUTION_DEADLINE_MS;
+import static com.linkedin.kafka.cruisecontrol.executor.ExecutorTestUtils.EXECUTION_REGULAR_CHECK_MS;
+import static com.linkedin.kafka.cruisecontrol.executor.ExecutorTestUtils.RANDOM_UUID;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricSampler.SamplingMode.ALL;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricSampler.SamplingMode.ONGOING_EXECUTION;
+import static org.easymock.EasyMock.anyLong;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.isA;
+
+
+/**
+ * A simulator of the execution of proposals by the real {@link Executor} against a {@link SimulatedKafkaCluster}, which
+ * serves the admin client requests of the executor. So the simulation covers the task planning, the replica movement
+ * strategy, the concurrency and the concurrency adjuster, the replication throttle, and the handling of dead tasks of the
+ * executor, without a live Kafka cluster.
+ * <ul>
+ *   <li>Each progress check of the executor advances the simulated time by the simulated progress check interval, if
+ *   there are ongoing partition reassignments. The executor itself only waits for a few milliseconds between the checks.</li>
+ *   <li>The concurrency adjuster of the executor runs once per simulated concurrency adjuster interval, at the progress
+ *   checks, rather than on its wall-clock schedule.</li>
+ * </ul>
+ * The saved proposals of a simulation can be loaded with {@link #loadProposals(String)}.
+ */
+public class ExecutionSimulator {
+  private static final double MS_IN_SECOND = TimeUnit.SECONDS.toMillis(1);
+  private static final double BYTES_IN_MB = 1024.0 * 1024.0;
+  // The wall-clock interval between the progress checks of the executor.
+  private static final long EXECUTION_PROGRESS_CHECK_INTERVAL_MS = 5L;
+  private final Properties _executorProperties;
+  private final long _progressCheckIntervalMs;
+  private final long _concurrencyAdjusterIntervalMs;
+
+  /**
+   * @param executorProperties The properties that hold the executor configs to simulate.
+   * @param progressCheckIntervalMs The simulated interval in milliseconds between the progress checks of the executor.
+   * @param concurrencyAdjusterIntervalMs The simulated interval in milliseconds between the runs of the concurrency adjuster.
+   */
+  public ExecutionSimulator(Properties executorProperties, long progressCheckIntervalMs, long concurrencyAdjusterIntervalMs) {
+    _executorProperties = new Properties();
+    _executorProperties.putAll(executorProperties);
+    _executorProperties.setProperty(ExecutorConfig.EXECUTION_PROGRESS_CHECK_INTERVAL_MS_CONFIG, Long.toString(EXECUTION_PROGRESS_CHECK_INTERVAL_MS));
+    _executorProperties.setProperty(ExecutorConfig.MIN_EXECUTION_PROGRESS_CHECK_INTERVAL_MS_CONFIG,
+                                    Long.toString(EXECUTION_PROGRESS_CHECK_INTERVAL_MS));
+    // Keep the wall-clock schedule of the concurrency adjuster from running it; the simulation runs it instead.
+    _executorProperties.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_INTERVAL_MS_CONFIG, Long.toString(TimeUnit.DAYS.toMillis(1)));
+    _executorProperties.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_NUM_MIN_ISR_CHECK_CONFIG, "1");
+    _progressCheckIntervalMs = progressCheckIntervalMs;
+    _concurrencyAdjusterIntervalMs = concurrencyAdjusterIntervalMs;
+  }
+
+  /**
+   * Simulate the execution of the given proposals on the given cluster, which must contain the partitions of the proposals.
+   *
+   * @param cluster The simulated cluster to execute the proposals on.
+   * @param proposals The execution proposals to execute.
+   * @param replicaMovementStrategy The replica movement strategy, or {@code null} to use the default strategy.
+   * @param replicationThrottle The replication throttle in bytes per second, or {@code null} for no throttle.
+   * @return The result of the simulation.
+   */
+  public SimulationResult simulate(SimulatedKafkaCluster cluster,
+                                   Collection<ExecutionProposal> proposals,
+                                   ReplicaMovementStrategy replicaMovementStrategy,
+                                   Long replicationThrottle) throws OngoingExecutionException {
+    KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(_executorProperties);
+    AtomicReference<Executor> executorRef = new AtomicReference<>();
+    MetadataClient metadataClient = mockMetadataClient(cluster, executorRef);
+    LoadMonitor loadMonitor = mockLoadMonitor(cluster);
+    Capture<Boolean> completeWithError = EasyMock.newCapture();
+    AnomalyDetectorManager anomalyDetectorManager = EasyMock.mock(AnomalyDetectorManager.class);
+    anomalyDetectorManager.maybeClearOngoingAnomalyDetectionTimeMs();
+    expectLastCall().anyTimes();
+    anomalyDetectorManager.resetHasUnfixableGoals();
+    expectLastCall().anyTimes();
+    anomalyDetectorManager.markSelfHealingFinished(EasyMock.eq(RANDOM_UUID), EasyMock.captureBoolean(completeWithError));
+    expectLastCall().anyTimes();
+    EasyMock.replay(metadataClient, loadMonitor, anomalyDetectorManager);
+
+    Executor executor = new Executor(config, cluster.time(), new MetricRegistry(), metadataClient, cluster.adminClient(), null,
+                                     anomalyDetectorManager);
+    executorRef.set(executor);
+    try {
+      executor.setGeneratingProposalsForExecution(RANDOM_UUID, ExecutionSimulator.class::getSimpleName, false);
+      executor.executeProposals(proposals, Collections.emptySet(), null, loadMonitor, null, null, null, null, null, null,
+                                replicaMovementStrategy, replicationThrottle, false, RANDOM_UUID, false, false);
+      waitUntilTrue(() -> !executor.hasOngoingExecution() && executor.state().state() == ExecutorState.State.NO_TASK_IN_PROGRESS,
+                    "The simulated execution did not finish within the time limit", EXECUTION_DEADLINE_MS, EXECUTION_REGULAR_CHECK_MS);
+    } finally {
+      executor.shutdown();
+    }
+    return new SimulationResult(cluster, replicationThrottle, completeWithError.hasCaptured() && completeWithError.getValue());
+  }
+
+  private MetadataClient mockMetadataClient(SimulatedKafkaCluster cluster, AtomicReference<Executor> executorRef) {
+    AtomicLong lastConcurrencyAdjustmentMs = new AtomicLong(cluster.time().milliseconds());
+    MetadataClient metadataClient = EasyMock.mock(MetadataClient.class);
+    EasyMock.expect(metadataClient.refreshMetadata()).andAnswer(() -> {
+      if (cluster.hasOngoingReassignments()) {
+        cluster.awaitProgress(_progressCheckIntervalMs);
+      }
+      // Run the concurrency adjuster outside the simulated cluster, since it retrieves the broker metrics from the cluster.
+      while (cluster.time().milliseconds() - lastConcurrencyAdjustmentMs.get() >= _concurrencyAdjusterIntervalMs) {
+        lastConcurrencyAdjustmentMs.addAndGet(_concurrencyAdjusterIntervalMs);
+        executorRef.get().concurrencyAdjuster().run();
+      }
+      return new MetadataClient.ClusterAndGeneration(cluster.cluster(), 0);
+    }).anyTimes();
+    EasyMock.expect(metadataClient.cluster()).andAnswer(cluster::cluster).anyTimes();
+    metadataClient.close();
+    expectLastCall().anyTimes();
+    return metadataClient;
+  }
+
+  private static LoadMonitor mockLoadMonitor(SimulatedKafkaCluster cluster) {
+    LoadMonitor loadMonitor = EasyMock.mock(LoadMonitor.class);
+    EasyMock.expect(loadMonitor.samplingMode()).andReturn(ALL).anyTimes();
+    loadMonitor.pauseMetricSampling(isA(String.class), EasyMock.anyBoolean());
+    expectLastCall().anyTimes();
+    loadMonitor.setSamplingMode(ONGOING_EXECUTION);
+    expectLastCall().anyTimes();
+    loadMonitor.resumeMetricSampling(isA(String.class));
+    expectLastCall().anyTimes();
+    loadMonitor.setSamplingMode(ALL);
+    expectLastCall().anyTimes();
+    EasyMock.expect(loadMonitor.brokersWithReplicas(anyLong())).andAnswer(cluster::brokers).anyTimes();
+    EasyMock.expect(loadMonitor.deadBrokersWithReplicas(anyLong())).andAnswer(cluster::deadBrokers).anyTimes();
+    EasyMock.expect(loadMonitor.currentBrokerMetricValues()).andAnswer(cluster::currentBrokerMetricValues).anyTimes();
+    EasyMock.expect(loadMonitor.kafkaCluster()).andAnswer(cluster::cluster).anyTimes();
+    return loadMonitor;
+  }
+
+  /**
+   * Load the saved proposals of a simulation from the given JSON resource, which lists each proposal with its topic,
+   * partition, partition size in MB, and old and new replicas. The first replica is the leader.
+   *
+   * @param resourceName The name of the JSON resource of the proposals.
+   * @return The proposals in the given resource.
+   */
+  public static List<ExecutionProposal> loadProposals(String resourceName) throws IOException {
+    String fileName = Objects.requireNonNull(ExecutionSimulator.class.getClassLoader().getResource(resourceName)).getFile();
+    try (Reader reader = Files.newBufferedReader(Path.of(fileName), StandardCharsets.UTF_8)) {
+      SavedProposals savedProposals = new Gson().fromJson(reader, SavedProposals.class);
+      List<ExecutionProposal> proposals = new ArrayList<>(savedProposals.proposals.size());
+      for (SavedProposal proposal : savedProposals.proposals) {
+        List<ReplicaPlacementInfo> oldReplicas = proposal.oldReplicas.stream().map(ReplicaPlacementInfo::new).collect(Collectors.toList());
+        List<ReplicaPlacementInfo> newReplicas = proposal.newReplicas.stream().map(ReplicaPlacementInfo::new).collect(Collectors.toList());
+        proposals.add(new ExecutionProposal(new TopicPartition(proposal.topic, proposal.partition), proposal.partitionSizeInMB,
+                                            oldReplicas.get(0), oldReplicas, newReplicas));
+      }
+      return proposals;
+    }
+  }
+
+  private static class SavedProposals {
+    private List<SavedProposal> proposals;
+  }
+
+  private static class SavedProposal {
+    private String topic;
+    private int partition;
+    private long partitionSizeInMB;
+    private List<Integer> oldReplicas;
+    private List<Integer> newReplicas;
+  }
+
+  /**
+   * The result of a simulated execution.
+   */
+  public static class SimulationResult {
+    private final long _totalTimeMs;
+    private final int _numCompletedMovements;
+    private final int _numCancelledMovements;
+    private final boolean _completedWithError;
+    private final Map<Integer, Double> _capacityInMBPerMsByBroker;
+    private final Map<Integer, Double> _sentDataInMBByBroker;
+    private final Map<Integer, Double> _receivedDataInMBByBroker;
+    private final Map<Integer, Integer> _peakMovementsByBroker;
+    private final Map<Integer, Double> _movementTimeMsByBroker;
+
+    SimulationResult(SimulatedKafkaCluster cluster, Long replicationThrottle, boolean completedWithError) {
+      _totalTimeMs = cluster.time().milliseconds();
+      _numCompletedMovements = cluster.numCompletedMovements();
+      _numCancelledMovements = cluster.numCancelledMovements();
+      _completedWithError = completedWithError;
+      _capacityInMBPerMsByBroker = new TreeMap<>();
+      for (int brokerId : cluster.brokers()) {
+        double capacityInMBPerSec = cluster.bandwidthInMBPerSec(brokerId);
+        if (replicationThrottle != null) {
+          capacityInMBPerSec = Math.min(capacityInMBPerSec, replicationThrottle / BYTES_IN_MB);
+        }
+        _capacityInMBPerMsByBroker.put(brokerId, capacityInMBPerSec / MS_IN_SECOND);
+      }
+      _sentDataInMBByBroker = cluster.sentDataInMBByBroker();
+      _receivedDataInMBByBroker = cluster.receivedDataInMBByBroker();
+      _peakMovementsByBroker = cluster.peakMovementsByBroker();
+      _movementTimeMsByBroker = cluster.movementTimeMsByBroker();
+    }
+
+    /**
+     * @return The total simulated time in milliseconds of the execution.
+     */
+    public long totalTimeMs() {
+      return _totalTimeMs;
+    }
+
+    /**
+     * @return The number of inter-broker replica movements that completed.
+     */
+    public int numCompletedMovements() {
+      return _numCompletedMovements;
+    }
+
+    /**
+     * @return The number of inter-broker replica movements that the executor cancelled.
+     */
+    public int numCancelledMovements() {
+      return _numCancelledMovements;
+    }
+
+    /**
+     * @return {@code true} if the execution completed with an error, e.g. it was stopped due to dead tasks, {@code false} otherwise.
+     */
+    public boolean completedWithError() {
+      return _completedWithError;
+    }
+
+    /**
+     * @return The largest number of concurrent inter-broker replica movements of each broker.
+     */
+    public Map<Integer, Integer> peakMovementsByBroker() {
+      return Collections.unmodifiableMap(_peakMovementsByBroker);
+    }
+
+    /**
+     * @return The average number of concurrent inter-broker replica movements of each broker over the execution.
+     */
+    public Map<Integer, Double> averageMovementsByBroker() {
+      Map<Integer, Double> averageMovementsByBroker = new TreeMap<>();
+      _movementTimeMsByBroker.forEach((brokerId, movementTimeMs) -> averageMovementsByBroker.put(brokerId, movementTimeMs / _totalTimeMs));
+      return averageMovementsByBroker;
+    }
+
+    /**
+     * @return The utilization of each broker that moved data, i.e. the fraction of the total time that its bandwidth
+     * (capped by the replication throttle) would need to move its data in its busier direction.
+     */
+    public Map<Integer, Double> utilizationByBroker() {
+      Map<Integer, Double> utilizationByBroker = new TreeMap<>();
+      for (int brokerId : brokersWithMovedData()) {
+        utilizationByBroker.put(brokerId, busyTimeMs(brokerId) / _totalTimeMs);
+      }
+      return utilizationByBroker;
+    }
+
+    /**
+     * @return The throttle efficiency, i.e. the ratio of the shortest possible time for the busiest broker to move its
+     * data at its bandwidth (capped by the replication throttle) to the total time.
+     */
+    public double throttleEfficiency() {
+      double lowerBoundMs = 0.0;
+      for (int brokerId : brokersWithMovedData()) {
+        lowerBoundMs = Math.max(lowerBoundMs, busyTimeMs(brokerId));
+      }
+      return _totalTimeMs == 0 ? 1.0 : lowerBoundMs / _totalTimeMs;
+    }
+
+    private Set<Integer> brokersWithMovedData() {
+      Set<Integer> brokers = new TreeSet<>(_sentDataInMBByBroker.keySet());
+      brokers.addAll(_receivedDataInMBByBroker.keySet());
+      return brokers;
+    }
+
+    private double busyTimeMs(int brokerId) {
+      double dataInMB = Math.max(_sentDataInMBByBroker.getOrDefault(brokerId, 0.0), _receivedDataInMBByBroker.getOrDefault(brokerId, 0.0));
+      return dataInMB / _capacityInMBPerMsByBroker.get(brokerId);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{totalTimeMs: %d, completed: %d, cancelled: %d, completedWithError: %s, throttleEfficiency: %.3f, "
+                           + "utilizationByBroker: %s, peakMovementsByBroker: %s}",
+                           _totalTimeMs, _numCompletedMovements, _numCancelledMovements, _completedWithError, throttleEfficiency(),
+                           utilizationByBroker(), _peakMovementsByBroker);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeBottleneckBrokerReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeLargeReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeSmallReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link ExecutionSimulator}, which replays saved proposals through the real {@link Executor} against a
+ * {@link SimulatedKafkaCluster}. It also covers the replica movement strategies and the concurrency adjuster of the executor.
+ */
+public class ExecutionSimulatorTest {
+  private static final Logger LOG = LoggerFactory.getLogger(ExecutionSimulatorTest.class);
+  // Proposals that each move one of the two replicas of a partition, with a skew towards moving replicas out of broker 0
+  // and into broker 1, and partition sizes from a heavy-tailed distribution.
+  private static final String PROPOSALS_FILE = "simulatedExecutionProposals.json";
+  // Proposals whose makespan with one movement per broker depends on the order of the movements.
+  private static final String BOTTLENECK_PROPOSALS_FILE = "simulatedBottleneckProposals.json";
+  private static final int NUM_BROKERS = 8;
+  private static final int NUM_PARTITIONS = 200;
+  private static final double BANDWIDTH_IN_MB_PER_SEC = 100.0;
+  private static final long PROGRESS_CHECK_INTERVAL_MS = TimeUnit.SECONDS.toMillis(10);
+  private static final long CONCURRENCY_ADJUSTER_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+  private static final double DELTA = 1E-6;
+
+  @Test
+  public void testSimulationIsDeterministic() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    assertEquals(NUM_PARTITIONS, proposals.size());
+    ExecutionSimulator.SimulationResult result = simulator(executorProperties(2)).simulate(cluster(proposals, null), proposals, null, null);
+    assertEquals(NUM_PARTITIONS, result.numCompletedMovements());
+    assertEquals(0, result.numCancelledMovements());
+    assertFalse(result.completedWithError());
+    assertTrue(result.throttleEfficiency() > 0.0 && result.throttleEfficiency() <= 1.0 + DELTA);
+    result.utilizationByBroker().values().forEach(utilization -> assertTrue(utilization > 0.0 && utilization <= 1.0 + DELTA));
+
+    ExecutionSimulator.SimulationResult replayedResult = simulator(executorProperties(2)).simulate(cluster(proposals, null), proposals,
+                                                                                                   null, null);
+    assertEquals(result.totalTimeMs(), replayedResult.totalTimeMs());
+    assertEquals(result.utilizationByBroker(), replayedResult.utilizationByBroker());
+  }
+
+  @Test
+  public void testReplicationThrottle() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    long replicationThrottle = 10L * 1024L * 1024L;
+    ExecutionSimulator.SimulationResult result = simulator(executorProperties(2)).simulate(cluster(proposals, null), proposals, null, null);
+    ExecutionSimulator.SimulationResult throttledResult = simulator(executorProperties(2)).simulate(cluster(proposals, null), proposals,
+                                                                                                    null, replicationThrottle);
+    assertEquals(NUM_PARTITIONS, throttledResult.numCompletedMovements());
+    assertTrue(throttledResult.totalTimeMs() > result.totalTimeMs());
+  }
+
+  @Test
+  public void testBrokerFailure() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    SimulatedKafkaCluster cluster = cluster(proposals, null).failBroker(0, TimeUnit.MINUTES.toMillis(1));
+    ExecutionSimulator.SimulationResult result = simulator(executorProperties(2)).simulate(cluster, proposals, null, null);
+    // The executor stops the execution upon the movements to the failed broker.
+    assertTrue(result.completedWithError());
+    assertTrue(result.numCompletedMovements() < NUM_PARTITIONS);
+  }
+
+  @Test
+  public void testReplicaMovementStrategies() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    List<ReplicaMovementStrategy> strategies = Arrays.asList(null,
+                                                             new PrioritizeSmallReplicaMovementStrategy(),
+                                                             new PrioritizeLargeReplicaMovementStrategy(),
+                                                             new PrioritizeBottleneckBrokerReplicaMovementStrategy());
+    for (ReplicaMovementStrategy strategy : strategies) {
+      ExecutionSimulator.SimulationResult result = simulator(executorProperties(2)).simulate(cluster(proposals, null), proposals,
+                                                                                             strategy, null);
+      LOG.info("Simulated execution with {}: {}", strategy == null ? "the default strategy" : strategy.name(), result);
+      assertEquals(NUM_PARTITIONS, result.numCompletedMovements());
+      assertFalse(result.completedWithError());
+    }
+  }
+
+  @Test
+  public void testBottleneckStrategyShortensMakespan() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(BOTTLENECK_PROPOSALS_FILE);
+    ExecutionSimulator simulator = new ExecutionSimulator(executorProperties(1), TimeUnit.SECONDS.toMillis(1), CONCURRENCY_ADJUSTER_INTERVAL_MS);
+    ExecutionSimulator.SimulationResult baseResult = simulator.simulate(bottleneckCluster(proposals), proposals,
+                                                                        new BaseReplicaMovementStrategy(), null);
+    ExecutionSimulator.SimulationResult bottleneckResult = simulator.simulate(bottleneckCluster(proposals), proposals,
+                                                                              new PrioritizeBottleneckBrokerReplicaMovementStrategy(), null);
+    LOG.info("Simulated makespan with the base strategy: {}, with the bottleneck strategy: {}", baseResult, bottleneckResult);
+    assertEquals(proposals.size(), baseResult.numCompletedMovements());
+    assertEquals(proposals.size(), bottleneckResult.numCompletedMovements());
+    // With 1 MB/s per broker, the movements take 100 seconds in the order of the base strategy, and 70 seconds when the
+    // movements of the bottleneck broker 3 start first.
+    assertTrue(baseResult.totalTimeMs() >= TimeUnit.SECONDS.toMillis(100));
+    assertTrue(bottleneckResult.totalTimeMs() < TimeUnit.SECONDS.toMillis(100));
+  }
+
+  @Test
+  public void testConcurrencyAdjusterIncreasesConcurrency() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    // Cap the rate of each movement, so that a single movement per broker cannot use the bandwidth of the broker.
+    Double movementRateCapInMBPerSec = 10.0;
+    ExecutionSimulator.SimulationResult unadjustedResult = simulator(executorProperties(1))
+        .simulate(cluster(proposals, movementRateCapInMBPerSec), proposals, null, null);
+    Properties props = executorProperties(1);
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_INTER_BROKER_REPLICA_ENABLED_CONFIG, "true");
+    ExecutionSimulator.SimulationResult adjustedResult = simulator(props).simulate(cluster(proposals, movementRateCapInMBPerSec),
+                                                                                   proposals, null, null);
+    LOG.info("Simulated execution without the concurrency adjuster: {}, with the concurrency adjuster: {}", unadjustedResult, adjustedResult);
+    assertEquals(NUM_PARTITIONS, adjustedResult.numCompletedMovements());
+    assertEquals(1, (int) Collections.max(unadjustedResult.peakMovementsByBroker().values()));
+    // The request queue size of the brokers stays within the default limit, hence the concurrency adjuster increases the concurrency.
+    assertTrue(Collections.max(adjustedResult.peakMovementsByBroker().values()) > 1);
+    assertTrue(adjustedResult.totalTimeMs() < unadjustedResult.totalTimeMs());
+  }
+
+  @Test
+  public void testConcurrencyAdjusterDecreasesConcurrency() throws IOException, OngoingExecutionException {
+    List<ExecutionProposal> proposals = ExecutionSimulator.loadProposals(PROPOSALS_FILE);
+    ExecutionSimulator.SimulationResult unadjustedResult = simulator(executorProperties(6)).simulate(cluster(proposals, null), proposals,
+                                                                                                     null, null);
+    Properties props = executorProperties(6);
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_INTER_BROKER_REPLICA_ENABLED_CONFIG, "true");
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_LIMIT_REQUEST_QUEUE_SIZE_CONFIG, "2.0");
+    ExecutionSimulator.SimulationResult adjustedResult = simulator(props).simulate(cluster(proposals, null), proposals, null, null);
+    LOG.info("Simulated execution without the concurrency adjuster: {}, with the concurrency adjuster: {}", unadjustedResult, adjustedResult);
+    assertEquals(NUM_PARTITIONS, adjustedResult.numCompletedMovements());
+    // The request queue size of the busy brokers exceeds the limit, hence the concurrency adjuster decreases the concurrency.
+    assertTrue(Collections.max(adjustedResult.averageMovementsByBroker().values())
+               < Collections.max(unadjustedResult.averageMovementsByBroker().values()));
+  }
+
+  private static ExecutionSimulator simulator(Properties props) {
+    return new ExecutionSimulator(props, PROGRESS_CHECK_INTERVAL_MS, CONCURRENCY_ADJUSTER_INTERVAL_MS);
+  }
+
+  private static Properties executorProperties(int interBrokerPartitionMovementConcurrency) {
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(ExecutorConfig.NUM_CONCURRENT_PARTITION_MOVEMENTS_PER_BROKER_CONFIG,
+                      Integer.toString(interBrokerPartitionMovementConcurrency));
+    return props;
+  }
+
+  private static SimulatedKafkaCluster cluster(List<ExecutionProposal> proposals, Double movementRateCapInMBPerSec) {
+    Map<Integer, Double> bandwidthInMBPerSecByBroker = new TreeMap<>();
+    for (int brokerId = 0; brokerId < NUM_BROKERS; brokerId++) {
+      bandwidthInMBPerSecByBroker.put(brokerId, BANDWIDTH_IN_MB_PER_SEC);
+    }
+    return new SimulatedKafkaCluster(bandwidthInMBPerSecByBroker, movementRateCapInMBPerSec).addPartitions(proposals);
+  }
+
+  private static SimulatedKafkaCluster bottleneckCluster(List<ExecutionProposal> proposals) {
+    Map<Integer, Double> bandwidthInMBPerSecByBroker = new TreeMap<>();
+    for (int brokerId = 0; brokerId < 6; brokerId++) {
+      bandwidthInMBPerSecByBroker.put(brokerId, 1.0);
+    }
+    return new SimulatedKafkaCluster(bandwidthInMBPerSecByBroker, null).addPartitions(proposals);
+  }
+}
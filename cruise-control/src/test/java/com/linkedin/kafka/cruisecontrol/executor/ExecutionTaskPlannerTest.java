@@ -11,10 +11,12 @@ import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.executor.concurrency.ExecutionConcurrencyManager;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PostponeUrpReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeBottleneckBrokerReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeLargeReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeMinIsrWithOfflineReplicasStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeOneAboveMinIsrWithOfflineReplicasStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeSmallReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.StrategyOptions;
 import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
 import java.lang.reflect.Constructor;
@@ -42,6 +44,7 @@ import org.junit.Test;
 import static org.apache.kafka.common.KafkaFuture.completedFuture;
 import static org.easymock.EasyMock.anyObject;
 import static org.junit.Assert.assertEquals;
+import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC1;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC2;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC3;
@@ -189,6 +192,62 @@ public class ExecutionTaskPlannerTest {
     assertEquals(leaderMovementTasks.get(0).proposal(), _leaderMovement3);
   }
 
+  @Test
+  public void testGetLeaderMovementTasksWithoutReplicaMovement() {
+    List<ExecutionProposal> proposals = new ArrayList<>();
+    proposals.add(_leaderMovement1);
+    proposals.add(_partitionMovement0);
+    proposals.add(_leaderMovement4);
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(ExecutorConfig.DEFAULT_REPLICA_MOVEMENT_STRATEGIES_CONFIG, "");
+
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (ExecutionProposal proposal : proposals) {
+      partitions.add(generatePartitionInfo(proposal, false));
+    }
+
+    Cluster expectedCluster = new Cluster(null,
+                                          _expectedNodes,
+                                          partitions,
+                                          Collections.emptySet(),
+                                          Collections.emptySet());
+    StrategyOptions strategyOptions = new StrategyOptions.Builder(expectedCluster).build();
+    ExecutionConcurrencyManager manager = new ExecutionConcurrencyManager(new KafkaCruiseControlConfig(props));
+    manager.setExecutionConcurrencyForAllBrokersOrCluster(4, ConcurrencyType.LEADERSHIP_CLUSTER);
+    manager.setExecutionConcurrencyForBroker(0, MAX_BROKER_CONCURRENCY, ConcurrencyType.LEADERSHIP_BROKER);
+    manager.setExecutionConcurrencyForBroker(1, MAX_BROKER_CONCURRENCY, ConcurrencyType.LEADERSHIP_BROKER);
+    manager.setExecutionConcurrencyForBroker(2, MAX_BROKER_CONCURRENCY, ConcurrencyType.LEADERSHIP_BROKER);
+    manager.setExecutionConcurrencyForBroker(3, MAX_BROKER_CONCURRENCY, ConcurrencyType.LEADERSHIP_BROKER);
+
+    ExecutionTaskPlanner planner = new ExecutionTaskPlanner(null, new KafkaCruiseControlConfig(props));
+    planner.addExecutionProposals(proposals, strategyOptions, null);
+    // The partitions of the leader movements still have the old replica order, so each of them has a replica reorder task.
+    assertEquals(3, planner.remainingInterBrokerReplicaMovements().size());
+    assertEquals(3, planner.remainingLeadershipMovements().size());
+
+    // Replica reorders move no replica, and are handed out before the leadership movements of their partitions.
+    List<ExecutionTask> reorderTasks = planner.getInterBrokerReplicaReorderTasks(1);
+    assertEquals("The reorders should be capped by the max partition movements", 1, reorderTasks.size());
+    reorderTasks.addAll(planner.getInterBrokerReplicaReorderTasks(_defaultPartitionsMaxCap));
+    Set<ExecutionProposal> reorderedProposals = new HashSet<>();
+    reorderTasks.forEach(task -> reorderedProposals.add(task.proposal()));
+    assertEquals(new HashSet<>(Arrays.asList(_leaderMovement1, _leaderMovement4)), reorderedProposals);
+    assertEquals(0, planner.getInterBrokerReplicaReorderTasks(_defaultPartitionsMaxCap).size());
+    assertEquals(1, planner.remainingInterBrokerReplicaMovements().size());
+    assertEquals(_partitionMovement0, planner.remainingInterBrokerReplicaMovements().iterator().next().proposal());
+
+    // The leadership movement of the partition with an inter-broker partition movement should be left behind.
+    List<ExecutionTask> leaderMovementTasks = planner.getLeadershipMovementTasks(manager, true);
+    assertEquals("2 of the leader movements have no replica movement", 2, leaderMovementTasks.size());
+    assertEquals(leaderMovementTasks.get(0).proposal(), _leaderMovement1);
+    assertEquals(leaderMovementTasks.get(1).proposal(), _leaderMovement4);
+    assertEquals(0, planner.getLeadershipMovementTasks(manager, true).size());
+
+    leaderMovementTasks = planner.getLeadershipMovementTasks(manager);
+    assertEquals("1 of the leader movements should return in one batch", 1, leaderMovementTasks.size());
+    assertEquals(leaderMovementTasks.get(0).proposal(), _partitionMovement0);
+  }
+
   @Test
   public void testGetInterBrokerPartitionMovementTasks() {
     List<ExecutionProposal> proposals = new ArrayList<>();
@@ -317,6 +376,101 @@ public class ExecutionTaskPlannerTest {
     assertEquals("Fourth task", _partitionMovement3, partitionMovementTasks.get(3).proposal());
   }
 
+  @Test
+  public void testGetInterBrokerPartitionMovementTasksWithDataInFlightCap() {
+    List<ExecutionProposal> proposals = new ArrayList<>();
+    proposals.add(_partitionMovement0);
+    proposals.add(_partitionMovement1);
+    proposals.add(_partitionMovement2);
+    proposals.add(_partitionMovement3);
+    ExecutionTaskPlanner planner =
+        new ExecutionTaskPlanner(null, new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (ExecutionProposal proposal : proposals) {
+      partitions.add(generatePartitionInfo(proposal, false));
+    }
+    Cluster expectedCluster = new Cluster(null, _expectedNodes, partitions, Collections.emptySet(), Collections.emptySet());
+    StrategyOptions strategyOptions = new StrategyOptions.Builder(expectedCluster).build();
+    planner.addExecutionProposals(proposals, strategyOptions, null);
+
+    Map<Integer, Integer> readyBrokers = new HashMap<>();
+    readyBrokers.put(0, 14);
+    readyBrokers.put(1, 14);
+    readyBrokers.put(2, 14);
+    readyBrokers.put(3, 14);
+    // Broker 1 already has 25 MB in flight, so neither _partitionMovement0 (10 MB) nor _partitionMovement1 (30 MB) fits the cap.
+    Map<Integer, Long> dataInFlightInMBByBroker = new HashMap<>();
+    dataInFlightInMBByBroker.put(1, 25L);
+    List<ExecutionTask> partitionMovementTasks = planner.getInterBrokerReplicaMovementTasks(readyBrokers, Collections.emptySet(),
+                                                                                            _defaultPartitionsMaxCap,
+                                                                                            dataInFlightInMBByBroker, 30L);
+    Set<ExecutionProposal> executedProposals = new HashSet<>();
+    partitionMovementTasks.forEach(task -> executedProposals.add(task.proposal()));
+    assertEquals(new HashSet<>(Arrays.asList(_partitionMovement2, _partitionMovement3)), executedProposals);
+    assertEquals(25L, dataInFlightInMBByBroker.get(1).longValue());
+    assertEquals(30L, dataInFlightInMBByBroker.get(3).longValue());
+    assertEquals(2, planner.remainingInterBrokerReplicaMovements().size());
+
+    // An idle broker can always start a movement, even if the movement is larger than the cap.
+    dataInFlightInMBByBroker.clear();
+    partitionMovementTasks = planner.getInterBrokerReplicaMovementTasks(readyBrokers, Collections.emptySet(),
+                                                                        _defaultPartitionsMaxCap, dataInFlightInMBByBroker, 5L);
+    assertEquals(1, partitionMovementTasks.size());
+    assertEquals(partitionMovementTasks.get(0).proposal().dataToMoveInMB(), dataInFlightInMBByBroker.get(1).longValue());
+  }
+
+  @Test
+  public void testDataInFlightOfMovementToMultipleBrokers() {
+    // _rf4PartitionMovement0 moves a 10 MB partition from broker 0 to brokers 1 and 5.
+    ExecutionTaskPlanner planner =
+        new ExecutionTaskPlanner(null, new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+    Set<PartitionInfo> partitions = Collections.singleton(generatePartitionInfo(_rf4PartitionMovement0, false));
+    Cluster expectedCluster = new Cluster(null, _rf4ExpectedNodes, partitions, Collections.emptySet(), Collections.emptySet());
+    planner.addExecutionProposals(Collections.singletonList(_rf4PartitionMovement0), new StrategyOptions.Builder(expectedCluster).build(),
+                                  null);
+    // The source broker sends both replicas, each destination broker receives one.
+    Map<Integer, Long> remainingDataToMoveInMBByBroker = planner.remainingInterBrokerDataToMoveInMBByBroker();
+    assertEquals(20L, remainingDataToMoveInMBByBroker.get(0).longValue());
+    assertEquals(10L, remainingDataToMoveInMBByBroker.get(1).longValue());
+    assertEquals(10L, remainingDataToMoveInMBByBroker.get(5).longValue());
+
+    Map<Integer, Integer> readyBrokers = new HashMap<>();
+    for (int brokerId = 0; brokerId < 6; brokerId++) {
+      readyBrokers.put(brokerId, 5);
+    }
+    // Broker 1 already has 5 MB in flight, and its share of the movement still fits the cap.
+    Map<Integer, Long> dataInFlightInMBByBroker = new HashMap<>();
+    dataInFlightInMBByBroker.put(1, 5L);
+    List<ExecutionTask> partitionMovementTasks = planner.getInterBrokerReplicaMovementTasks(readyBrokers, Collections.emptySet(),
+                                                                                            _defaultPartitionsMaxCap,
+                                                                                            dataInFlightInMBByBroker, 15L);
+    assertEquals(1, partitionMovementTasks.size());
+    assertEquals(20L, dataInFlightInMBByBroker.get(0).longValue());
+    assertEquals(15L, dataInFlightInMBByBroker.get(1).longValue());
+    assertEquals(10L, dataInFlightInMBByBroker.get(5).longValue());
+  }
+
+  @Test
+  public void testBottleneckBrokerReplicaMovementStrategyMakespan() {
+    // Brokers 0, 3 and 5 each send or receive 70 MB, so no execution finishes before 70 MB are moved by these brokers.
+    List<ExecutionProposal> proposals = List.of(
+        new ExecutionProposal(new TopicPartition(TOPIC0, 0), 30, _r4, List.of(_r4), List.of(_r0)),
+        new ExecutionProposal(new TopicPartition(TOPIC0, 1), 40, _r2, List.of(_r2), List.of(_r5)),
+        new ExecutionProposal(new TopicPartition(TOPIC0, 2), 30, _r5, List.of(_r5), List.of(_r3)),
+        new ExecutionProposal(new TopicPartition(TOPIC0, 3), 40, _r0, List.of(_r0), List.of(_r3)));
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (ExecutionProposal proposal : proposals) {
+      partitions.add(generatePartitionInfo(proposal, false));
+    }
+    Cluster expectedCluster = new Cluster(null, _rf4ExpectedNodes, partitions, Collections.emptySet(), Collections.emptySet());
+
+    // The base strategy starts the movements from brokers 4 and 2 first. Then the movements to broker 3 wait for each other.
+    assertEquals(100L, simulatedMakespanInMB(proposals, expectedCluster, new BaseReplicaMovementStrategy()));
+    // Starting the largest movements of the bottleneck brokers first finishes the execution at the lower bound.
+    assertEquals(70L, simulatedMakespanInMB(proposals, expectedCluster, new PrioritizeBottleneckBrokerReplicaMovementStrategy()));
+  }
+
   @Test
   public void testGetInterBrokerPartitionMovementWithMinIsrTasks() {
     List<ExecutionProposal> proposals = new ArrayList<>();
@@ -502,6 +656,39 @@ public class ExecutionTaskPlannerTest {
     assertEquals(0, planner.remainingInterBrokerReplicaMovements().size());
   }
 
+  /**
+   * Simulate the inter-broker replica movements of the given proposals, where each broker runs one movement at a time and
+   * each movement takes as long as it takes to move its data at a constant rate.
+   *
+   * @return The total execution time, in the time it takes to move 1 MB.
+   */
+  private long simulatedMakespanInMB(List<ExecutionProposal> proposals, Cluster cluster, ReplicaMovementStrategy strategy) {
+    ExecutionTaskPlanner planner =
+        new ExecutionTaskPlanner(null, new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+    planner.addExecutionProposals(proposals, new StrategyOptions.Builder(cluster).build(), strategy);
+    Map<Integer, Integer> readyBrokers = new HashMap<>();
+    cluster.nodes().forEach(node -> readyBrokers.put(node.id(), 1));
+    Set<TopicPartition> inProgressPartitions = new HashSet<>();
+    Map<ExecutionTask, Long> finishTimeByTask = new HashMap<>();
+    long time = 0L;
+    while (!planner.remainingInterBrokerReplicaMovements().isEmpty() || !finishTimeByTask.isEmpty()) {
+      for (ExecutionTask task : planner.getInterBrokerReplicaMovementTasks(readyBrokers, inProgressPartitions, _defaultPartitionsMaxCap)) {
+        inProgressPartitions.add(task.proposal().topicPartition());
+        finishTimeByTask.put(task, time + task.proposal().dataToMoveInMB());
+      }
+      time = Collections.min(finishTimeByTask.values());
+      for (ExecutionTask task : new ArrayList<>(finishTimeByTask.keySet())) {
+        if (finishTimeByTask.get(task) == time) {
+          finishTimeByTask.remove(task);
+          inProgressPartitions.remove(task.proposal().topicPartition());
+          readyBrokers.merge(task.proposal().oldLeader().brokerId(), 1, Integer::sum);
+          task.proposal().replicasToAdd().forEach(r -> readyBrokers.merge(r.brokerId(), 1, Integer::sum));
+        }
+      }
+    }
+    return time;
+  }
+
   private Node[] generateExpectedReplicas(ExecutionProposal proposal) {
     int i = 0;
     Node[] expectedProposalReplicas = new Node[proposal.oldReplicas().size()];
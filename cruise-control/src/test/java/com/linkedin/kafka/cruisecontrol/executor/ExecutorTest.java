@@ -136,6 +136,26 @@ public class ExecutorTest extends CCKafkaClientsIntegrationTestHarness {
     }
   }
 
+  @Test
+  public void testReplicaReassignmentWithStreaming() throws InterruptedException, OngoingExecutionException {
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+                                                                              "ExecutorTestMetricGroup",
+                                                                              "ReplicaReassignmentWithStreaming",
+                                                                              false,
+                                                                              _zkClientConfig);
+    try {
+      List<ExecutionProposal> proposalsToExecute = new ArrayList<>();
+      List<ExecutionProposal> proposalsToCheck = new ArrayList<>();
+      populateProposals(proposalsToExecute, proposalsToCheck, 0);
+      Properties props = getExecutorProperties();
+      props.setProperty(ExecutorConfig.INTER_BROKER_REPLICA_MOVEMENT_STREAMING_ENABLED_CONFIG, "true");
+      props.setProperty(ExecutorConfig.INTER_BROKER_REPLICA_MOVEMENT_STREAMING_CHECK_INTERVAL_MS_CONFIG, "50");
+      executeAndVerifyProposals(kafkaZkClient, props, proposalsToExecute, proposalsToCheck, false, null, false, true);
+    } finally {
+      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(kafkaZkClient);
+    }
+  }
+
   @Test
   public void testBrokerDiesBeforeMovingPartition() throws Exception {
     KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
@@ -757,7 +777,20 @@ public class ExecutorTest extends CCKafkaClientsIntegrationTestHarness {
                                          boolean verifyProgress,
                                          boolean isTriggeredByUserRequest)
       throws OngoingExecutionException {
-    KafkaCruiseControlConfig configs = new KafkaCruiseControlConfig(getExecutorProperties());
+    executeAndVerifyProposals(kafkaZkClient, getExecutorProperties(), proposalsToExecute, proposalsToCheck, completeWithError,
+                              replicationThrottle, verifyProgress, isTriggeredByUserRequest);
+  }
+
+  private void executeAndVerifyProposals(KafkaZkClient kafkaZkClient,
+                                         Properties executorProperties,
+                                         Collection<ExecutionProposal> proposalsToExecute,
+                                         Collection<ExecutionProposal> proposalsToCheck,
+                                         boolean completeWithError,
+                                         Long replicationThrottle,
+                                         boolean verifyProgress,
+                                         boolean isTriggeredByUserRequest)
+      throws OngoingExecutionException {
+    KafkaCruiseControlConfig configs = new KafkaCruiseControlConfig(executorProperties);
     UserTaskManager.UserTaskInfo mockUserTaskInfo = getMockUserTaskInfo();
     UserTaskManager mockUserTaskManager = isTriggeredByUserRequest ? getMockUserTaskManager(RANDOM_UUID, mockUserTaskInfo,
                                                                                             Collections.singletonList(completeWithError))
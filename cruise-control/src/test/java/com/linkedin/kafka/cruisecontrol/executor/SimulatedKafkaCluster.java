@@ -0,0 +1,661 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.AlterConfigsResult;
+import org.apache.kafka.clients.admin.AlterPartitionReassignmentsResult;
+import org.apache.kafka.clients.admin.Config;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.DescribeConfigsResult;
+import org.apache.kafka.clients.admin.DescribeLogDirsResult;
+import org.apache.kafka.clients.admin.ElectLeadersResult;
+import org.apache.kafka.clients.admin.ListPartitionReassignmentsResult;
+import org.apache.kafka.clients.admin.ListTopicsResult;
+import org.apache.kafka.clients.admin.NewPartitionReassignment;
+import org.apache.kafka.clients.admin.PartitionReassignment;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.ElectionType;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.apache.kafka.common.protocol.Errors;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.apache.kafka.common.utils.MockTime;
+import org.easymock.EasyMock;
+
+import static com.linkedin.kafka.cruisecontrol.executor.ReplicationThrottleHelper.FOLLOWER_THROTTLED_RATE;
+import static com.linkedin.kafka.cruisecontrol.executor.ReplicationThrottleHelper.LEADER_THROTTLED_RATE;
+import static com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType.BROKER_REQUEST_QUEUE_SIZE;
+
+
+/**
+ * A simulated Kafka cluster, which serves the requests of the {@link Executor} through a mock {@link AdminClient}, so that
+ * the real executor can execute proposals without a live Kafka cluster. The simulation time is driven by a {@link MockTime},
+ * which only advances on {@link #awaitProgress(long)}, so a simulation of hours of movements takes seconds.
+ * <ul>
+ *   <li>Partition reassignments are started and cancelled by {@code alterPartitionReassignments}, and listed by
+ *   {@code listPartitionReassignments}. A reassignment to a dead broker fails with {@link Errors#INVALID_REPLICA_ASSIGNMENT},
+ *   as in Kafka.</li>
+ *   <li>Each adding replica copies the partition from the leader. Each broker sends and receives at its own bandwidth,
+ *   capped by its leader and follower replication throttled rates (if any), and shared equally between its ongoing
+ *   copies in each direction. Each copy can also be capped by a per-movement rate, which makes the number of concurrent
+ *   movements matter.</li>
+ *   <li>Preferred leader elections of {@code electLeaders} complete at once.</li>
+ *   <li>There are no intra-broker replica movements, hence {@code describeLogDirs} reports no logdirs.</li>
+ *   <li>A broker can be failed at a given time. It leaves the cluster metadata and the ISRs, and its leaderships move to
+ *   the first alive in-sync replica.</li>
+ *   <li>The request queue size of each broker is the number of ongoing partition reassignments involving the broker as
+ *   the leader or an adding replica, which is the broker metric that the concurrency adjuster checks.</li>
+ * </ul>
+ */
+public class SimulatedKafkaCluster {
+  private static final double MS_IN_SECOND = TimeUnit.SECONDS.toMillis(1);
+  private static final double BYTES_IN_MB = 1024.0 * 1024.0;
+  private static final double EPSILON_IN_MB = 1E-9;
+  private final MockTime _time;
+  private final Map<Integer, Double> _bandwidthInMBPerSecByBroker;
+  private final double _movementRateCapInMBPerSec;
+  private final Map<Integer, Node> _nodes;
+  private final Set<Integer> _aliveBrokers;
+  private final SortedMap<Long, Set<Integer>> _brokersToFailByTimeMs;
+  private final Map<TopicPartition, SimulatedPartition> _partitions;
+  private final Map<ConfigResource, Map<String, String>> _configs;
+  private final Map<Integer, Double> _sentDataInMBByBroker;
+  private final Map<Integer, Double> _receivedDataInMBByBroker;
+  private final Map<Integer, Double> _movementTimeMsByBroker;
+  private final Map<Integer, Integer> _peakMovementsByBroker;
+  private int _numCompletedMovements;
+  private int _numCancelledMovements;
+
+  /**
+   * @param bandwidthInMBPerSecByBroker The bandwidth in MB per second of each broker, in each direction.
+   * @param movementRateCapInMBPerSec The maximum rate in MB per second of copying a replica, or {@code null} for no cap.
+   */
+  public SimulatedKafkaCluster(Map<Integer, Double> bandwidthInMBPerSecByBroker, Double movementRateCapInMBPerSec) {
+    _time = new MockTime(0L, 0L, 0L);
+    _bandwidthInMBPerSecByBroker = new TreeMap<>(bandwidthInMBPerSecByBroker);
+    _movementRateCapInMBPerSec = movementRateCapInMBPerSec == null ? Double.MAX_VALUE : movementRateCapInMBPerSec;
+    _nodes = new TreeMap<>();
+    _bandwidthInMBPerSecByBroker.keySet().forEach(brokerId -> _nodes.put(brokerId, new Node(brokerId, "host" + brokerId, -1)));
+    _aliveBrokers = new TreeSet<>(_nodes.keySet());
+    _brokersToFailByTimeMs = new TreeMap<>();
+    _partitions = new LinkedHashMap<>();
+    _configs = new HashMap<>();
+    _sentDataInMBByBroker = new TreeMap<>();
+    _receivedDataInMBByBroker = new TreeMap<>();
+    _movementTimeMsByBroker = new TreeMap<>();
+    _peakMovementsByBroker = new TreeMap<>();
+    _numCompletedMovements = 0;
+    _numCancelledMovements = 0;
+  }
+
+  /**
+   * Add a partition with all its replicas in-sync and its first replica as the leader.
+   *
+   * @param tp The partition to add.
+   * @param sizeInMB The size of the partition in MB.
+   * @param replicas The brokers of the replicas of the partition.
+   * @return This cluster.
+   */
+  public synchronized SimulatedKafkaCluster addPartition(TopicPartition tp, double sizeInMB, List<Integer> replicas) {
+    _partitions.put(tp, new SimulatedPartition(sizeInMB, replicas));
+    return this;
+  }
+
+  /**
+   * Add the partitions of the given proposals as they are before the execution of the proposals.
+   *
+   * @param proposals The execution proposals to add the partitions of.
+   * @return This cluster.
+   */
+  public synchronized SimulatedKafkaCluster addPartitions(Collection<ExecutionProposal> proposals) {
+    for (ExecutionProposal proposal : proposals) {
+      List<Integer> replicas = new ArrayList<>(proposal.oldReplicas().size());
+      proposal.oldReplicas().forEach(r -> replicas.add(r.brokerId()));
+      addPartition(proposal.topicPartition(), proposal.interBrokerDataToMoveInMBPerDestination(), replicas);
+    }
+    return this;
+  }
+
+  /**
+   * Fail the given broker at the given time of the simulation.
+   *
+   * @param brokerId The broker to fail.
+   * @param timeMs The time in milliseconds since the start of the simulation to fail the broker.
+   * @return This cluster.
+   */
+  public synchronized SimulatedKafkaCluster failBroker(int brokerId, long timeMs) {
+    _brokersToFailByTimeMs.computeIfAbsent(timeMs, t -> new HashSet<>()).add(brokerId);
+    return this;
+  }
+
+  /**
+   * @return The time of the simulation.
+   */
+  public MockTime time() {
+    return _time;
+  }
+
+  /**
+   * @return All the brokers of the cluster, including the failed ones.
+   */
+  public Set<Integer> brokers() {
+    return Collections.unmodifiableSet(_bandwidthInMBPerSecByBroker.keySet());
+  }
+
+  /**
+   * @param brokerId The broker to get the bandwidth of.
+   * @return The bandwidth in MB per second of the given broker, in each direction.
+   */
+  public double bandwidthInMBPerSec(int brokerId) {
+    return _bandwidthInMBPerSecByBroker.get(brokerId);
+  }
+
+  /**
+   * @return The failed brokers of the cluster.
+   */
+  public synchronized Set<Integer> deadBrokers() {
+    Set<Integer> deadBrokers = new TreeSet<>(_bandwidthInMBPerSecByBroker.keySet());
+    deadBrokers.removeAll(_aliveBrokers);
+    return deadBrokers;
+  }
+
+  /**
+   * @return {@code true} if there is an ongoing partition reassignment, {@code false} otherwise.
+   */
+  public synchronized boolean hasOngoingReassignments() {
+    return _partitions.values().stream().anyMatch(SimulatedPartition::isBeingReassigned);
+  }
+
+  /**
+   * Advance the simulation by the given duration: copy the data of the ongoing reassignments, complete the reassignments
+   * whose adding replicas have all caught up, and fail the brokers that are scheduled to fail.
+   *
+   * @param durationMs The duration in milliseconds to advance the simulation by.
+   */
+  public synchronized void awaitProgress(long durationMs) {
+    long endMs = _time.milliseconds() + durationMs;
+    while (_time.milliseconds() < endMs) {
+      long nowMs = _time.milliseconds();
+      _brokersToFailByTimeMs.headMap(nowMs + 1).values().forEach(brokers -> brokers.forEach(this::maybeFailBroker));
+      // Find the rate of each copy and the time until the first one finishes or the next broker fails.
+      Map<SimulatedPartition, Map<Integer, Double>> rateInMBPerMsByPartition = copyRatesInMBPerMs();
+      long stepMs = endMs - nowMs;
+      for (Map.Entry<SimulatedPartition, Map<Integer, Double>> entry : rateInMBPerMsByPartition.entrySet()) {
+        for (Map.Entry<Integer, Double> rate : entry.getValue().entrySet()) {
+          double remainingDataInMB = entry.getKey()._remainingDataInMBByAddingReplica.get(rate.getKey());
+          stepMs = Math.min(stepMs, Math.max(1L, (long) Math.ceil(remainingDataInMB / rate.getValue())));
+        }
+      }
+      SortedMap<Long, Set<Integer>> nextFailures = _brokersToFailByTimeMs.tailMap(nowMs + 1);
+      if (!nextFailures.isEmpty()) {
+        stepMs = Math.min(stepMs, nextFailures.firstKey() - nowMs);
+      }
+      // Copy the data for the step.
+      for (Map.Entry<SimulatedPartition, Map<Integer, Double>> entry : rateInMBPerMsByPartition.entrySet()) {
+        SimulatedPartition partition = entry.getKey();
+        for (Map.Entry<Integer, Double> rate : entry.getValue().entrySet()) {
+          double remainingDataInMB = partition._remainingDataInMBByAddingReplica.get(rate.getKey());
+          double copiedDataInMB = Math.min(remainingDataInMB, rate.getValue() * stepMs);
+          if (remainingDataInMB - copiedDataInMB < EPSILON_IN_MB) {
+            copiedDataInMB = remainingDataInMB;
+          }
+          partition._remainingDataInMBByAddingReplica.put(rate.getKey(), remainingDataInMB - copiedDataInMB);
+          _sentDataInMBByBroker.merge(partition._leader, copiedDataInMB, Double::sum);
+          _receivedDataInMBByBroker.merge(rate.getKey(), copiedDataInMB, Double::sum);
+        }
+      }
+      final long elapsedMs = stepMs;
+      numMovementsByBroker().forEach((brokerId, numMovements) -> _movementTimeMsByBroker.merge(brokerId, (double) numMovements * elapsedMs,
+                                                                                               Double::sum));
+      _time.sleep(stepMs);
+      for (SimulatedPartition partition : _partitions.values()) {
+        if (partition.isBeingReassigned() && partition.hasCaughtUp()) {
+          partition.completeReassignment();
+          _numCompletedMovements++;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return The rate in MB per millisecond of each ongoing copy by the adding replica by partition.
+   */
+  private Map<SimulatedPartition, Map<Integer, Double>> copyRatesInMBPerMs() {
+    Map<Integer, Integer> numOutgoingCopiesByBroker = new HashMap<>();
+    Map<Integer, Integer> numIncomingCopiesByBroker = new HashMap<>();
+    for (SimulatedPartition partition : _partitions.values()) {
+      for (int addingReplica : partition.copyingReplicas()) {
+        numOutgoingCopiesByBroker.merge(partition._leader, 1, Integer::sum);
+        numIncomingCopiesByBroker.merge(addingReplica, 1, Integer::sum);
+      }
+    }
+    Map<SimulatedPartition, Map<Integer, Double>> rateInMBPerMsByPartition = new LinkedHashMap<>();
+    for (SimulatedPartition partition : _partitions.values()) {
+      for (int addingReplica : partition.copyingReplicas()) {
+        double rateInMBPerSec = Math.min(_movementRateCapInMBPerSec,
+                                         Math.min(capacityInMBPerSec(partition._leader, LEADER_THROTTLED_RATE)
+                                                  / numOutgoingCopiesByBroker.get(partition._leader),
+                                                  capacityInMBPerSec(addingReplica, FOLLOWER_THROTTLED_RATE)
+                                                  / numIncomingCopiesByBroker.get(addingReplica)));
+        rateInMBPerMsByPartition.computeIfAbsent(partition, p -> new HashMap<>()).put(addingReplica, rateInMBPerSec / MS_IN_SECOND);
+      }
+    }
+    return rateInMBPerMsByPartition;
+  }
+
+  private double capacityInMBPerSec(int brokerId, String throttledRateConfig) {
+    double capacityInMBPerSec = _bandwidthInMBPerSecByBroker.get(brokerId);
+    String throttledRate = brokerConfigs(brokerId).get(throttledRateConfig);
+    if (throttledRate != null) {
+      capacityInMBPerSec = Math.min(capacityInMBPerSec, Long.parseLong(throttledRate) / BYTES_IN_MB);
+    }
+    return capacityInMBPerSec;
+  }
+
+  private Map<String, String> brokerConfigs(int brokerId) {
+    return _configs.getOrDefault(new ConfigResource(ConfigResource.Type.BROKER, String.valueOf(brokerId)), Collections.emptyMap());
+  }
+
+  private void maybeFailBroker(int brokerId) {
+    if (_aliveBrokers.remove(brokerId)) {
+      _partitions.values().forEach(partition -> partition.onBrokerFailure(brokerId));
+    }
+  }
+
+  /**
+   * @return The number of ongoing partition reassignments involving each alive broker, i.e. as the leader or an adding
+   * replica, which is how the executor counts the movements of a broker against its concurrency.
+   */
+  private Map<Integer, Integer> numMovementsByBroker() {
+    Map<Integer, Integer> numMovementsByBroker = new TreeMap<>();
+    _aliveBrokers.forEach(brokerId -> numMovementsByBroker.put(brokerId, 0));
+    for (SimulatedPartition partition : _partitions.values()) {
+      if (partition.isBeingReassigned()) {
+        Set<Integer> involvedBrokers = new HashSet<>(partition._remainingDataInMBByAddingReplica.keySet());
+        if (partition._leader != null) {
+          involvedBrokers.add(partition._leader);
+        }
+        involvedBrokers.forEach(brokerId -> numMovementsByBroker.computeIfPresent(brokerId, (b, n) -> n + 1));
+      }
+    }
+    return numMovementsByBroker;
+  }
+
+  private void updatePeakMovements() {
+    numMovementsByBroker().forEach((brokerId, numMovements) -> _peakMovementsByBroker.merge(brokerId, numMovements, Math::max));
+  }
+
+  /**
+   * @return The current metadata of the cluster, which excludes the failed brokers.
+   */
+  public synchronized Cluster cluster() {
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (Map.Entry<TopicPartition, SimulatedPartition> entry : _partitions.entrySet()) {
+      SimulatedPartition partition = entry.getValue();
+      Node leader = partition._leader == null ? null : _nodes.get(partition._leader);
+      Node[] replicas = partition.allReplicas().stream().map(_nodes::get).toArray(Node[]::new);
+      Node[] isr = partition._isr.stream().map(_nodes::get).toArray(Node[]::new);
+      partitions.add(new PartitionInfo(entry.getKey().topic(), entry.getKey().partition(), leader, replicas, isr));
+    }
+    List<Node> aliveNodes = new ArrayList<>();
+    _aliveBrokers.forEach(brokerId -> aliveNodes.add(_nodes.get(brokerId)));
+    return new Cluster(null, aliveNodes, partitions, Collections.emptySet(), Collections.emptySet());
+  }
+
+  /**
+   * @return The current request queue size of each alive broker, as retrieved by the load monitor.
+   */
+  public synchronized Map<BrokerEntity, ValuesAndExtrapolations> currentBrokerMetricValues() {
+    short metricId = KafkaMetricDef.brokerMetricDef().metricInfo(BROKER_REQUEST_QUEUE_SIZE.name()).id();
+    Map<BrokerEntity, ValuesAndExtrapolations> currentMetrics = new HashMap<>();
+    for (Map.Entry<Integer, Integer> entry : numMovementsByBroker().entrySet()) {
+      MetricValues metricValues = new MetricValues(1);
+      metricValues.add(new double[] {entry.getValue()});
+      ValuesAndExtrapolations valuesAndExtrapolations =
+          new ValuesAndExtrapolations(new AggregatedMetricValues(Collections.singletonMap(metricId, metricValues)), null);
+      valuesAndExtrapolations.setWindows(Collections.singletonList(_time.milliseconds()));
+      currentMetrics.put(new BrokerEntity(_nodes.get(entry.getKey()).host(), entry.getKey()), valuesAndExtrapolations);
+    }
+    return currentMetrics;
+  }
+
+  /**
+   * @return A mock admin client, which serves the requests of the executor from this cluster.
+   */
+  public AdminClient adminClient() {
+    AdminClient adminClient = EasyMock.mock(AdminClient.class);
+    EasyMock.expect(adminClient.alterPartitionReassignments(EasyMock.anyObject()))
+            .andAnswer(() -> alterPartitionReassignments(EasyMock.getCurrentArgument(0)))
+            .anyTimes();
+    EasyMock.expect(adminClient.listPartitionReassignments()).andAnswer(this::listPartitionReassignments).anyTimes();
+    EasyMock.expect(adminClient.electLeaders(EasyMock.eq(ElectionType.PREFERRED), EasyMock.anyObject()))
+            .andAnswer(() -> electPreferredLeaders(EasyMock.getCurrentArgument(1)))
+            .anyTimes();
+    EasyMock.expect(adminClient.describeLogDirs(EasyMock.anyObject()))
+            .andAnswer(() -> describeLogDirs(EasyMock.getCurrentArgument(0)))
+            .anyTimes();
+    EasyMock.expect(adminClient.describeConfigs(EasyMock.anyObject()))
+            .andAnswer(() -> describeConfigs(EasyMock.getCurrentArgument(0)))
+            .anyTimes();
+    EasyMock.expect(adminClient.incrementalAlterConfigs(EasyMock.anyObject()))
+            .andAnswer(() -> incrementalAlterConfigs(EasyMock.getCurrentArgument(0)))
+            .anyTimes();
+    EasyMock.expect(adminClient.listTopics()).andAnswer(this::listTopics).anyTimes();
+    adminClient.close();
+    EasyMock.expectLastCall().anyTimes();
+    EasyMock.replay(adminClient);
+    return adminClient;
+  }
+
+  private synchronized AlterPartitionReassignmentsResult alterPartitionReassignments(
+      Map<TopicPartition, Optional<NewPartitionReassignment>> reassignments) {
+    Map<TopicPartition, KafkaFuture<Void>> futureByPartition = new HashMap<>();
+    for (Map.Entry<TopicPartition, Optional<NewPartitionReassignment>> entry : reassignments.entrySet()) {
+      SimulatedPartition partition = _partitions.get(entry.getKey());
+      Errors error = Errors.NONE;
+      if (partition == null) {
+        error = Errors.UNKNOWN_TOPIC_OR_PARTITION;
+      } else if (entry.getValue().isEmpty()) {
+        if (partition.isBeingReassigned()) {
+          partition.cancelReassignment();
+          _numCancelledMovements++;
+        } else {
+          error = Errors.NO_REASSIGNMENT_IN_PROGRESS;
+        }
+      } else if (!_aliveBrokers.containsAll(entry.getValue().get().targetReplicas())) {
+        error = Errors.INVALID_REPLICA_ASSIGNMENT;
+      } else {
+        partition.startReassignment(entry.getValue().get().targetReplicas());
+      }
+      futureByPartition.put(entry.getKey(), future(null, error));
+    }
+    updatePeakMovements();
+    AlterPartitionReassignmentsResult result = EasyMock.mock(AlterPartitionReassignmentsResult.class);
+    EasyMock.expect(result.values()).andReturn(futureByPartition).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private synchronized ListPartitionReassignmentsResult listPartitionReassignments() {
+    Map<TopicPartition, PartitionReassignment> reassignments = new HashMap<>();
+    for (Map.Entry<TopicPartition, SimulatedPartition> entry : _partitions.entrySet()) {
+      SimulatedPartition partition = entry.getValue();
+      if (partition.isBeingReassigned()) {
+        List<Integer> addingReplicas = new ArrayList<>(partition._targetReplicas);
+        addingReplicas.removeAll(partition._replicas);
+        List<Integer> removingReplicas = new ArrayList<>(partition._replicas);
+        removingReplicas.removeAll(partition._targetReplicas);
+        reassignments.put(entry.getKey(), new PartitionReassignment(partition.allReplicas(), addingReplicas, removingReplicas));
+      }
+    }
+    ListPartitionReassignmentsResult result = EasyMock.mock(ListPartitionReassignmentsResult.class);
+    EasyMock.expect(result.reassignments()).andReturn(KafkaFuture.completedFuture(reassignments)).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private synchronized ElectLeadersResult electPreferredLeaders(Set<TopicPartition> partitions) {
+    Map<TopicPartition, Optional<Throwable>> errorByPartition = new HashMap<>();
+    for (TopicPartition tp : partitions) {
+      SimulatedPartition partition = _partitions.get(tp);
+      Errors error = Errors.NONE;
+      if (partition == null) {
+        error = Errors.UNKNOWN_TOPIC_OR_PARTITION;
+      } else {
+        int preferredLeader = partition._replicas.get(0);
+        if (partition._leader != null && partition._leader == preferredLeader) {
+          error = Errors.ELECTION_NOT_NEEDED;
+        } else if (!partition._isr.contains(preferredLeader)) {
+          error = Errors.PREFERRED_LEADER_NOT_AVAILABLE;
+        } else {
+          partition._leader = preferredLeader;
+        }
+      }
+      errorByPartition.put(tp, error == Errors.NONE ? Optional.empty() : Optional.of(error.exception()));
+    }
+    // The constructor of the election result is not public.
+    try {
+      Constructor<ElectLeadersResult> constructor = ElectLeadersResult.class.getDeclaredConstructor(KafkaFuture.class);
+      constructor.setAccessible(true);
+      return constructor.newInstance(KafkaFuture.completedFuture(errorByPartition));
+    } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Unable to create the result of the preferred leader election.", e);
+    }
+  }
+
+  private synchronized DescribeLogDirsResult describeLogDirs(Collection<Integer> brokers) {
+    Map<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> logDirsByBroker = new HashMap<>();
+    for (int brokerId : brokers) {
+      logDirsByBroker.put(brokerId, KafkaFuture.completedFuture(Collections.emptyMap()));
+    }
+    DescribeLogDirsResult result = EasyMock.mock(DescribeLogDirsResult.class);
+    EasyMock.expect(result.values()).andReturn(logDirsByBroker).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private synchronized DescribeConfigsResult describeConfigs(Collection<ConfigResource> resources) {
+    Map<ConfigResource, Config> configByResource = new HashMap<>();
+    for (ConfigResource resource : resources) {
+      List<ConfigEntry> entries = new ArrayList<>();
+      _configs.getOrDefault(resource, Collections.emptyMap()).forEach((name, value) -> entries.add(new ConfigEntry(name, value)));
+      configByResource.put(resource, new Config(entries));
+    }
+    DescribeConfigsResult result = EasyMock.mock(DescribeConfigsResult.class);
+    EasyMock.expect(result.all()).andReturn(KafkaFuture.completedFuture(configByResource)).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private synchronized AlterConfigsResult incrementalAlterConfigs(Map<ConfigResource, Collection<AlterConfigOp>> opsByResource) {
+    for (Map.Entry<ConfigResource, Collection<AlterConfigOp>> entry : opsByResource.entrySet()) {
+      Map<String, String> configs = _configs.computeIfAbsent(entry.getKey(), r -> new HashMap<>());
+      for (AlterConfigOp op : entry.getValue()) {
+        switch (op.opType()) {
+          case SET:
+            configs.put(op.configEntry().name(), op.configEntry().value());
+            break;
+          case DELETE:
+            configs.remove(op.configEntry().name());
+            break;
+          default:
+            throw new IllegalArgumentException("Unsupported config operation " + op.opType());
+        }
+      }
+    }
+    AlterConfigsResult result = EasyMock.mock(AlterConfigsResult.class);
+    EasyMock.expect(result.all()).andReturn(KafkaFuture.completedFuture(null)).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private synchronized ListTopicsResult listTopics() {
+    Set<String> topics = new HashSet<>();
+    _partitions.keySet().forEach(tp -> topics.add(tp.topic()));
+    ListTopicsResult result = EasyMock.mock(ListTopicsResult.class);
+    EasyMock.expect(result.names()).andReturn(KafkaFuture.completedFuture(topics)).anyTimes();
+    EasyMock.replay(result);
+    return result;
+  }
+
+  private static <T> KafkaFuture<T> future(T value, Errors error) {
+    if (error == Errors.NONE) {
+      return KafkaFuture.completedFuture(value);
+    }
+    KafkaFutureImpl<T> future = new KafkaFutureImpl<>();
+    future.completeExceptionally(error.exception());
+    return future;
+  }
+
+  /**
+   * @return The data in MB sent by each broker, as the leader of the copied partitions.
+   */
+  public synchronized Map<Integer, Double> sentDataInMBByBroker() {
+    return new TreeMap<>(_sentDataInMBByBroker);
+  }
+
+  /**
+   * @return The data in MB received by each broker, as an adding replica of the copied partitions.
+   */
+  public synchronized Map<Integer, Double> receivedDataInMBByBroker() {
+    return new TreeMap<>(_receivedDataInMBByBroker);
+  }
+
+  /**
+   * @return The largest number of ongoing partition reassignments that involved each broker, as the leader or an adding
+   * replica, at the same time.
+   */
+  public synchronized Map<Integer, Integer> peakMovementsByBroker() {
+    return new TreeMap<>(_peakMovementsByBroker);
+  }
+
+  /**
+   * @return The sum over the simulation time of the number of ongoing partition reassignments that involved each broker.
+   */
+  public synchronized Map<Integer, Double> movementTimeMsByBroker() {
+    return new TreeMap<>(_movementTimeMsByBroker);
+  }
+
+  /**
+   * @return The number of partition reassignments that moved data and completed.
+   */
+  public synchronized int numCompletedMovements() {
+    return _numCompletedMovements;
+  }
+
+  /**
+   * @return The number of cancelled partition reassignments.
+   */
+  public synchronized int numCancelledMovements() {
+    return _numCancelledMovements;
+  }
+
+  /**
+   * A partition of the simulated cluster.
+   */
+  private class SimulatedPartition {
+    private final double _sizeInMB;
+    private List<Integer> _replicas;
+    private final Set<Integer> _isr;
+    private Integer _leader;
+    // The target replicas of the ongoing reassignment, or null if the partition is not being reassigned.
+    private List<Integer> _targetReplicas;
+    private final Map<Integer, Double> _remainingDataInMBByAddingReplica;
+
+    SimulatedPartition(double sizeInMB, List<Integer> replicas) {
+      _sizeInMB = sizeInMB;
+      _replicas = new ArrayList<>(replicas);
+      _isr = new LinkedHashSet<>(replicas);
+      _leader = replicas.get(0);
+      _targetReplicas = null;
+      _remainingDataInMBByAddingReplica = new TreeMap<>();
+    }
+
+    boolean isBeingReassigned() {
+      return _targetReplicas != null;
+    }
+
+    /**
+     * @return The current replicas as reported by Kafka, i.e. the target replicas followed by the replicas to remove, if
+     * the partition is being reassigned.
+     */
+    List<Integer> allReplicas() {
+      if (!isBeingReassigned()) {
+        return _replicas;
+      }
+      Set<Integer> allReplicas = new LinkedHashSet<>(_targetReplicas);
+      allReplicas.addAll(_replicas);
+      return new ArrayList<>(allReplicas);
+    }
+
+    /**
+     * @return The adding replicas that are copying data from an alive leader.
+     */
+    List<Integer> copyingReplicas() {
+      List<Integer> copyingReplicas = new ArrayList<>();
+      if (_leader != null) {
+        _remainingDataInMBByAddingReplica.forEach((brokerId, remainingDataInMB) -> {
+          if (remainingDataInMB > 0 && _aliveBrokers.contains(brokerId)) {
+            copyingReplicas.add(brokerId);
+          }
+        });
+      }
+      return copyingReplicas;
+    }
+
+    boolean hasCaughtUp() {
+      return _remainingDataInMBByAddingReplica.values().stream().allMatch(remainingDataInMB -> remainingDataInMB <= 0);
+    }
+
+    void startReassignment(List<Integer> targetReplicas) {
+      if (isBeingReassigned()) {
+        // A new reassignment overrides the ongoing one, as in Kafka.
+        cancelReassignment();
+      }
+      _targetReplicas = new ArrayList<>(targetReplicas);
+      for (int brokerId : _targetReplicas) {
+        if (!_replicas.contains(brokerId)) {
+          _remainingDataInMBByAddingReplica.put(brokerId, _sizeInMB);
+        }
+      }
+      if (_remainingDataInMBByAddingReplica.isEmpty()) {
+        // A reassignment that only changes the replica order completes at once.
+        completeReassignment();
+      }
+    }
+
+    void completeReassignment() {
+      _replicas = _targetReplicas;
+      _targetReplicas = null;
+      _remainingDataInMBByAddingReplica.clear();
+      _isr.clear();
+      _replicas.stream().filter(_aliveBrokers::contains).forEach(_isr::add);
+      if (_leader == null || !_isr.contains(_leader)) {
+        _leader = _isr.isEmpty() ? null : _isr.iterator().next();
+      }
+    }
+
+    void cancelReassignment() {
+      _isr.retainAll(_replicas);
+      _targetReplicas = null;
+      _remainingDataInMBByAddingReplica.clear();
+    }
+
+    void onBrokerFailure(int brokerId) {
+      _isr.remove(brokerId);
+      if (_leader != null && _leader == brokerId) {
+        _leader = _isr.isEmpty() ? null : _isr.iterator().next();
+      }
+    }
+  }
+}
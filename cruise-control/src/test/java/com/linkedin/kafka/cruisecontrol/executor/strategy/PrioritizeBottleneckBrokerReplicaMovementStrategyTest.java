@@ -0,0 +1,77 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor.strategy;
+
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionTask;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
+import static com.linkedin.kafka.cruisecontrol.executor.ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for the strategy of prioritizing the replica movements of the brokers with the most data to move.
+ */
+public class PrioritizeBottleneckBrokerReplicaMovementStrategyTest {
+  private static final long EXECUTION_ALERTING_THRESHOLD_MS = 100L;
+  private final ReplicaPlacementInfo _r0 = new ReplicaPlacementInfo(0);
+  private final ReplicaPlacementInfo _r1 = new ReplicaPlacementInfo(1);
+  private final ReplicaPlacementInfo _r2 = new ReplicaPlacementInfo(2);
+  private final ReplicaPlacementInfo _r3 = new ReplicaPlacementInfo(3);
+
+  // Moves 10 MB from broker 0 to broker 3.
+  private final ExecutionTask _task0 = task(0, 10, _r0, Arrays.asList(_r0, _r2), Arrays.asList(_r3, _r2));
+  // Moves 20 MB from broker 2 to broker 3.
+  private final ExecutionTask _task1 = task(1, 20, _r2, Arrays.asList(_r2, _r1), Arrays.asList(_r3, _r1));
+  // Moves 5 MB from broker 0 to broker 1.
+  private final ExecutionTask _task2 = task(2, 5, _r0, Arrays.asList(_r0, _r3), Arrays.asList(_r1, _r3));
+  // Moves 40 MB from broker 2 to broker 0.
+  private final ExecutionTask _task3 = task(3, 40, _r2, Arrays.asList(_r2, _r3), Arrays.asList(_r0, _r3));
+
+  @Test
+  public void testPrioritizeBottleneckBrokers() {
+    Map<Integer, Long> dataToMoveInMBByBrokerId = new HashMap<>();
+    dataToMoveInMBByBrokerId.put(0, 10L);
+    dataToMoveInMBByBrokerId.put(1, 100L);
+    dataToMoveInMBByBrokerId.put(2, 50L);
+    dataToMoveInMBByBrokerId.put(3, 5L);
+    StrategyOptions strategyOptions = new StrategyOptions.Builder(Cluster.empty()).dataToMoveInMBByBrokerId(dataToMoveInMBByBrokerId).build();
+
+    // The task of broker 1 goes first, then the largest tasks of broker 2.
+    assertEquals(Arrays.asList(_task2, _task3, _task1, _task0), sortedTasks(strategyOptions));
+  }
+
+  @Test
+  public void testPrioritizeLargeMovementsWithoutDataToMoveByBroker() {
+    StrategyOptions strategyOptions = new StrategyOptions.Builder(Cluster.empty()).build();
+
+    assertEquals(Arrays.asList(_task3, _task1, _task0, _task2), sortedTasks(strategyOptions));
+  }
+
+  private List<ExecutionTask> sortedTasks(StrategyOptions strategyOptions) {
+    ReplicaMovementStrategy strategy = new PrioritizeBottleneckBrokerReplicaMovementStrategy().chainBaseReplicaMovementStrategyIfAbsent();
+    List<ExecutionTask> tasks = new ArrayList<>(Arrays.asList(_task0, _task1, _task2, _task3));
+    tasks.sort(strategy.taskComparator(strategyOptions));
+    return tasks;
+  }
+
+  private static ExecutionTask task(int partition,
+                                    long partitionSize,
+                                    ReplicaPlacementInfo oldLeader,
+                                    List<ReplicaPlacementInfo> oldReplicas,
+                                    List<ReplicaPlacementInfo> newReplicas) {
+    ExecutionProposal proposal = new ExecutionProposal(new TopicPartition(TOPIC0, partition), partitionSize, oldLeader, oldReplicas, newReplicas);
+    return new ExecutionTask(partition, proposal, INTER_BROKER_REPLICA_ACTION, EXECUTION_ALERTING_THRESHOLD_MS);
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.model;
+
+import com.linkedin.kafka.cruisecontrol.common.DeterministicCluster;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
+import com.linkedin.kafka.cruisecontrol.common.TestConstants;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit tests for {@link ClusterModel#copy()} and {@link ClusterModel#removePartition(TopicPartition)}.
+ */
+public class ClusterModelCopyTest {
+  private static final Map<Resource, Double> BROKER_CAPACITY = Map.of(Resource.CPU, TestConstants.LARGE_BROKER_CAPACITY,
+                                                                      Resource.DISK, TestConstants.LARGE_BROKER_CAPACITY,
+                                                                      Resource.NW_IN, TestConstants.LARGE_BROKER_CAPACITY,
+                                                                      Resource.NW_OUT, TestConstants.MEDIUM_BROKER_CAPACITY);
+
+  @Test
+  public void testCopyHasSameReplicaDistributionAndLoad() {
+    ClusterModel clusterModel = DeterministicCluster.mediumClusterModel(BROKER_CAPACITY);
+    ClusterModel copy = clusterModel.copy();
+
+    copy.sanityCheck();
+    assertEquals(clusterModel.generation(), copy.generation());
+    assertEquals(clusterModel.getReplicaDistribution(), copy.getReplicaDistribution());
+    assertEquals(clusterModel.getLeaderDistribution(), copy.getLeaderDistribution());
+    assertEquals(clusterModel.maxReplicationFactor(), copy.maxReplicationFactor());
+    for (Resource resource : Resource.cachedValues()) {
+      assertEquals(clusterModel.capacityFor(resource), copy.capacityFor(resource), 0.0);
+      assertEquals(clusterModel.load().expectedUtilizationFor(resource), copy.load().expectedUtilizationFor(resource), 0.0);
+      for (Broker broker : clusterModel.brokers()) {
+        Broker copiedBroker = copy.broker(broker.id());
+        assertEquals(broker.load().expectedUtilizationFor(resource), copiedBroker.load().expectedUtilizationFor(resource), 0.0);
+        assertEquals(clusterModel.potentialLeadershipLoadFor(broker.id()).expectedUtilizationFor(resource),
+                     copy.potentialLeadershipLoadFor(broker.id()).expectedUtilizationFor(resource), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testCopyIsIndependentOfOriginal() {
+    ClusterModel clusterModel = DeterministicCluster.smallClusterModel(BROKER_CAPACITY);
+    ClusterModel copy = clusterModel.copy();
+    TopicPartition pInfoT10 = new TopicPartition(DeterministicCluster.T1, 0);
+    int sourceBrokerId = clusterModel.partition(pInfoT10).leader().broker().id();
+    int destinationBrokerId = clusterModel.partition(pInfoT10).followers().get(0).broker().id();
+
+    copy.relocateLeadership(pInfoT10, sourceBrokerId, destinationBrokerId);
+    assertTrue(copy.isModified());
+    assertFalse(clusterModel.isModified());
+    assertEquals(sourceBrokerId, clusterModel.partition(pInfoT10).leader().broker().id());
+    assertNotEquals(clusterModel.getLeaderDistribution(), copy.getLeaderDistribution());
+    clusterModel.sanityCheck();
+    copy.sanityCheck();
+  }
+
+  @Test
+  public void testCopyRetainsBrokerStates() {
+    ClusterModel clusterModel = DeterministicCluster.deadBroker(BROKER_CAPACITY);
+    ClusterModel copy = clusterModel.copy();
+
+    copy.sanityCheck();
+    assertEquals(1, copy.deadBrokers().size());
+    assertEquals(clusterModel.deadBrokers().first().id(), copy.deadBrokers().first().id());
+    assertEquals(clusterModel.aliveBrokers().size(), copy.aliveBrokers().size());
+    assertEquals(clusterModel.selfHealingEligibleReplicas().size(), copy.selfHealingEligibleReplicas().size());
+    assertEquals(clusterModel.capacityFor(Resource.DISK), copy.capacityFor(Resource.DISK), 0.0);
+  }
+
+  @Test
+  public void testRemoveAndRepopulatePartition() {
+    ClusterModel clusterModel = DeterministicCluster.mediumClusterModel(BROKER_CAPACITY);
+    ClusterModel copy = clusterModel.copy();
+    TopicPartition tp = new TopicPartition(DeterministicCluster.TOPIC_B, 0);
+    Partition partition = clusterModel.partition(tp);
+
+    assertTrue(copy.removePartition(tp));
+    assertFalse(copy.removePartition(tp));
+    assertFalse(copy.isModified());
+    assertEquals(clusterModel.numReplicas() - partition.replicas().size(), copy.numReplicas());
+    copy.sanityCheck();
+
+    // Repopulate the partition as it was.
+    for (int index = 0; index < partition.replicas().size(); index++) {
+      Replica replica = partition.replicas().get(index);
+      copy.createReplica(replica.broker().rack().id(), replica.broker().id(), tp, index, replica.isLeader());
+    }
+    for (Replica replica : partition.replicas()) {
+      copy.setReplicaLoad(replica.broker().rack().id(), replica.broker().id(), tp, replica.load().loadByWindows(),
+                          replica.load().windows());
+    }
+    copy.sanityCheck();
+    assertEquals(clusterModel.getReplicaDistribution(), copy.getReplicaDistribution());
+    for (Resource resource : Resource.cachedValues()) {
+      assertEquals(clusterModel.load().expectedUtilizationFor(resource), copy.load().expectedUtilizationFor(resource), 1E-6);
+      for (Broker broker : clusterModel.brokers()) {
+        assertEquals(clusterModel.potentialLeadershipLoadFor(broker.id()).expectedUtilizationFor(resource),
+                     copy.potentialLeadershipLoadFor(broker.id()).expectedUtilizationFor(resource), 1E-6);
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCopyModifiedClusterModel() {
+    ClusterModel clusterModel = DeterministicCluster.smallClusterModel(BROKER_CAPACITY);
+    clusterModel.relocateReplica(new TopicPartition(DeterministicCluster.T1, 0), 0, 1);
+    clusterModel.copy();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.model;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Unit test for the cached expected utilization of {@link Load}.
+ */
+public class LoadTest {
+  private static final List<Long> WINDOWS = Arrays.asList(3L, 2L, 1L);
+  private static final double DELTA = 1E-6;
+
+  @Test
+  public void testCachedUtilizationIsInvalidatedByLoadChanges() {
+    Load load = new Load();
+    load.initializeMetricValues(metricValues(1.0), WINDOWS);
+    assertUtilization(load, 1.0);
+    long hits = Load.numCachedUtilizationHits();
+    long misses = Load.numCachedUtilizationMisses();
+    assertUtilization(load, 1.0);
+    assertEquals(misses, Load.numCachedUtilizationMisses());
+    assertEquals(hits + 4 * Resource.cachedValues().size(), Load.numCachedUtilizationHits());
+
+    load.addLoad(metricValues(2.0));
+    assertUtilization(load, 3.0);
+
+    Load loadToSubtract = new Load();
+    loadToSubtract.initializeMetricValues(metricValues(0.5), WINDOWS);
+    load.subtractLoad(loadToSubtract);
+    assertUtilization(load, 2.5);
+
+    load.clearLoadFor(Resource.CPU);
+    assertEquals(0.0, load.expectedUtilizationFor(Resource.CPU), DELTA);
+    assertEquals(2.5 * KafkaMetricDef.resourceToMetricInfo(Resource.NW_IN).size(),
+                 load.expectedUtilizationFor(Resource.NW_IN), DELTA);
+
+    load.clearLoad();
+    for (Resource resource : Resource.cachedValues()) {
+      assertEquals(0.0, load.expectedUtilizationFor(resource), DELTA);
+      assertEquals(0.0, load.expectedUtilizationFor(resource, true, false), DELTA);
+    }
+  }
+
+  private static AggregatedMetricValues metricValues(double value) {
+    Map<Short, MetricValues> valuesByMetricId = new HashMap<>();
+    for (MetricInfo info : KafkaMetricDef.commonMetricDef().all()) {
+      MetricValues values = new MetricValues(WINDOWS.size());
+      for (int i = 0; i < WINDOWS.size(); i++) {
+        values.set(i, value);
+      }
+      valuesByMetricId.put(info.id(), values);
+    }
+    return new AggregatedMetricValues(valuesByMetricId);
+  }
+
+  private static void assertUtilization(Load load, double valuePerMetric) {
+    for (Resource resource : Resource.cachedValues()) {
+      double expected = valuePerMetric * KafkaMetricDef.resourceToMetricInfo(resource).size();
+      assertEquals(expected, load.expectedUtilizationFor(resource), DELTA);
+      assertEquals(expected, load.expectedUtilizationFor(resource, false, false), DELTA);
+      assertEquals(expected, load.expectedUtilizationFor(resource, true, false), DELTA);
+      assertEquals(expected, load.expectedUtilizationFor(resource, false, true), DELTA);
+    }
+  }
+}
@@ -6,6 +6,8 @@ package com.linkedin.kafka.cruisecontrol.model;
 
 import com.linkedin.kafka.cruisecontrol.common.TestConstants;
 import com.linkedin.kafka.cruisecontrol.config.BrokerCapacityInfo;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.SortedSet;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.Test;
@@ -13,6 +15,7 @@ import java.util.function.Function;
 
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -115,6 +118,41 @@ public class SortedReplicasTest {
     verifySortedReplicas(sr);
   }
 
+  @Test
+  public void testCloneAndRangeViews() {
+    Broker broker = generateBroker(NUM_REPLICAS);
+    new SortedReplicasHelper().addPriorityFunc(PRIORITY_FUNC)
+                              .setScoreFunc(SCORE_FUNC)
+                              .trackSortedReplicasFor(SORT_NAME, broker);
+    SortedReplicas sr = broker.trackedSortedReplicas(SORT_NAME);
+    SortedSet<Replica> sortedReplicas = sr.sortedReplicas(false);
+    List<Replica> replicas = new ArrayList<>(sortedReplicas);
+    Replica median = replicas.get(NUM_REPLICAS / 2);
+
+    // The range views and the comparator follow the same order as the iteration.
+    assertEquals(replicas.subList(0, NUM_REPLICAS / 2), new ArrayList<>(sortedReplicas.headSet(median)));
+    assertEquals(replicas.subList(NUM_REPLICAS / 2, NUM_REPLICAS), new ArrayList<>(sortedReplicas.tailSet(median)));
+    assertEquals(replicas.get(0), sortedReplicas.first());
+    assertEquals(replicas.get(NUM_REPLICAS - 1), sortedReplicas.last());
+    for (int i = 1; i < NUM_REPLICAS; i++) {
+      assertTrue(sortedReplicas.comparator().compare(replicas.get(i - 1), replicas.get(i)) < 0);
+    }
+
+    // Updating the clone does not affect the sorted replicas.
+    SortedSet<Replica> clone = sr.sortedReplicas(true);
+    clone.removeIf(r -> r.topicPartition().partition() % 2 == 0);
+    assertEquals(NUM_REPLICAS / 2, clone.size());
+    assertFalse(clone.contains(replicas.stream().filter(r -> r.topicPartition().partition() == 0).findFirst().get()));
+    assertEquals(NUM_REPLICAS, sortedReplicas.size());
+    assertTrue(sortedReplicas.containsAll(replicas));
+
+    // Removing a replica from the broker removes it from the sorted replicas.
+    broker.removeReplica(median.topicPartition());
+    assertEquals(NUM_REPLICAS - 1, sortedReplicas.size());
+    assertFalse(sortedReplicas.contains(median));
+    verifySortedReplicas(sr);
+  }
+
   private void verifySortedReplicas(SortedReplicas sr) {
     int lastPriority = -1;
     double lastScore = Double.NEGATIVE_INFINITY;
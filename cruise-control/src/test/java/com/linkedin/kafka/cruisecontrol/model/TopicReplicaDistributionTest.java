@@ -0,0 +1,65 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.model;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Unit test for {@link TopicReplicaDistribution}.
+ */
+public class TopicReplicaDistributionTest {
+  private static final int NUM_BROKERS = 6;
+  private static final String[] TOPICS = {"T0", "T1", "T2"};
+
+  @Test
+  public void testMatchesReplicaCountsOfBrokers() {
+    Random random = new Random(31);
+    TopicReplicaDistribution distribution = new TopicReplicaDistribution();
+    int[][] numReplicasByTopicAndBroker = new int[TOPICS.length][NUM_BROKERS];
+    for (int i = 0; i < 5000; i++) {
+      int topicIndex = random.nextInt(TOPICS.length);
+      int brokerId = random.nextInt(NUM_BROKERS);
+      int[] numReplicasByBroker = numReplicasByTopicAndBroker[topicIndex];
+      // Bias towards additions so that some brokers end up with many replicas of a topic.
+      if (numReplicasByBroker[brokerId] > 0 && random.nextInt(5) < 2) {
+        distribution.onReplicaRemoved(TOPICS[topicIndex], --numReplicasByBroker[brokerId]);
+      } else {
+        distribution.onReplicaAdded(TOPICS[topicIndex], ++numReplicasByBroker[brokerId]);
+      }
+      verify(distribution, TOPICS[topicIndex], numReplicasByBroker);
+    }
+
+    // Remove all replicas of a topic.
+    for (int brokerId = 0; brokerId < NUM_BROKERS; brokerId++) {
+      while (numReplicasByTopicAndBroker[0][brokerId] > 0) {
+        distribution.onReplicaRemoved(TOPICS[0], --numReplicasByTopicAndBroker[0][brokerId]);
+        verify(distribution, TOPICS[0], numReplicasByTopicAndBroker[0]);
+      }
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRemoveReplicaOfUnknownTopic() {
+    new TopicReplicaDistribution().onReplicaRemoved(TOPICS[0], 0);
+  }
+
+  private static void verify(TopicReplicaDistribution distribution, String topic, int[] numReplicasByBroker) {
+    long sumOfSquares = 0L;
+    int max = 0;
+    int min = Integer.MAX_VALUE;
+    for (int numReplicas : numReplicasByBroker) {
+      sumOfSquares += (long) numReplicas * numReplicas;
+      max = Math.max(max, numReplicas);
+      min = Math.min(min, numReplicas);
+    }
+    assertEquals(sumOfSquares, distribution.sumOfSquares(topic));
+    assertEquals(max, distribution.maxReplicasInBroker(topic));
+    assertEquals(min, distribution.minReplicasInBroker(topic, NUM_BROKERS));
+  }
+}
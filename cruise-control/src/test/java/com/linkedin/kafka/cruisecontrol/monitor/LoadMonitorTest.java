@@ -17,6 +17,7 @@ import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.exception.BrokerCapacityResolutionException;
+import com.linkedin.kafka.cruisecontrol.model.Broker;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
 import com.linkedin.kafka.cruisecontrol.model.ModelParameters;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
@@ -27,6 +28,7 @@ import com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutionException;
@@ -51,6 +53,7 @@ import org.junit.Test;
 
 import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils.waitUntilTrue;
 import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.CLUSTER_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils.LOAD_MONITOR_SENSOR;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC1;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.getMetadata;
@@ -61,6 +64,7 @@ import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -88,7 +92,10 @@ public class LoadMonitorTest {
   private static final long CHECK_MS = 10L;
   private static final long MONITOR_STATE_UPDATE_INTERVAL_MS = 100L;
   private static final long START_TIME_MS = 100L;
+  private static final String CLUSTER_MODEL_SNAPSHOT_HIT_RATE = MetricRegistry.name(LOAD_MONITOR_SENSOR, "cluster-model-snapshot-hit-rate");
   private Time _time;
+  private MetricRegistry _metricRegistry;
+  private int _clusterGeneration;
 
   @Test
   public void testStateWithOnlyActiveSnapshotWindow() {
@@ -282,6 +289,104 @@ public class LoadMonitorTest {
     assertEquals(13, clusterModel.partition(T0P0).leader().load().expectedUtilizationFor(Resource.DISK), 0.0);
   }
 
+  // Test serving the cluster model from the snapshot while it is up-to-date and populated with the same requirements.
+  @Test
+  public void testClusterModelSnapshot() throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
+    TestContext context = prepareContext(NUM_WINDOWS, false, true);
+    LoadMonitor loadMonitor = context.loadmonitor();
+    KafkaPartitionMetricSampleAggregator aggregator = context.aggregator();
+
+    CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, PE_T0P0, 0, WINDOW_MS, METRIC_DEF);
+    CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, PE_T0P1, 0, WINDOW_MS, METRIC_DEF);
+    CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, PE_T1P0, 0, WINDOW_MS, METRIC_DEF);
+    CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, PE_T1P1, 0, WINDOW_MS, METRIC_DEF);
+
+    ModelCompletenessRequirements requirements = new ModelCompletenessRequirements(2, 1.0, false);
+    ClusterModel clusterModel = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(0, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    // Changes to the returned cluster model must not leak into the snapshot.
+    clusterModel.setBrokerState(0, Broker.State.DEAD);
+
+    ClusterModel copy = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(1, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    assertNotSame(clusterModel, copy);
+    assertTrue(copy.broker(0).isAlive());
+    assertEquals(13, copy.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN), 0.0);
+
+    // A snapshot populated with different requirements is not served.
+    loadMonitor.clusterModel(Long.MAX_VALUE, new ModelCompletenessRequirements(1, 1.0, false), true, new OperationProgress());
+    assertEquals(1, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    loadMonitor.clusterModel(Long.MAX_VALUE, new ModelCompletenessRequirements(2, 1.0, true), true, new OperationProgress());
+    assertEquals(1, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+  }
+
+  // Test invalidating the cluster model snapshot upon a change of the cluster or the aggregator generation.
+  @Test
+  public void testClusterModelSnapshotInvalidation()
+      throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
+    TestContext context = prepareContext(NUM_WINDOWS, false, true);
+    LoadMonitor loadMonitor = context.loadmonitor();
+    KafkaPartitionMetricSampleAggregator aggregator = context.aggregator();
+    List<PartitionEntity> partitionEntities = Arrays.asList(PE_T0P0, PE_T0P1, PE_T1P0, PE_T1P1);
+
+    for (PartitionEntity partitionEntity : partitionEntities) {
+      CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, partitionEntity, 0, WINDOW_MS, METRIC_DEF);
+    }
+    ModelCompletenessRequirements requirements = new ModelCompletenessRequirements(2, 1.0, false);
+    loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+
+    // A new cluster generation invalidates the snapshot.
+    _clusterGeneration++;
+    loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(0, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(1, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+
+    // Rolling out a new window bumps up the aggregator generation, which invalidates the snapshot.
+    for (PartitionEntity partitionEntity : partitionEntities) {
+      CruiseControlUnitTestUtils.populateSampleAggregator(1, 4, aggregator, partitionEntity, 3, WINDOW_MS, METRIC_DEF);
+    }
+    ClusterModel clusterModel = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(1, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    assertTrue(clusterModel.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN) > 13);
+    ClusterModel copy = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(2, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    assertEquals(clusterModel.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN),
+                 copy.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN), 0.0);
+  }
+
+  // Test refreshing the cluster model snapshot with the load of a partition that has been updated since the snapshot.
+  @Test
+  public void testClusterModelSnapshotRefresh()
+      throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
+    TestContext context = prepareContext(NUM_WINDOWS, false, true);
+    LoadMonitor loadMonitor = context.loadmonitor();
+    KafkaPartitionMetricSampleAggregator aggregator = context.aggregator();
+    List<PartitionEntity> partitionEntities = Arrays.asList(PE_T0P0, PE_T0P1, PE_T1P0, PE_T1P1);
+
+    for (PartitionEntity partitionEntity : partitionEntities) {
+      CruiseControlUnitTestUtils.populateSampleAggregator(3, 4, aggregator, partitionEntity, 0, WINDOW_MS, METRIC_DEF);
+    }
+    ModelCompletenessRequirements requirements = new ModelCompletenessRequirements(2, 1.0, false);
+    ClusterModel clusterModel = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+
+    // A late sample updates the load of a partition in an existing window.
+    CruiseControlUnitTestUtils.populateSampleAggregator(1, 1, aggregator, PE_T0P0, 1, WINDOW_MS, METRIC_DEF);
+    ClusterModel refreshedClusterModel = loadMonitor.clusterModel(Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertEquals(0, _metricRegistry.meter(CLUSTER_MODEL_SNAPSHOT_HIT_RATE).getCount());
+    ClusterModel expectedClusterModel = loadMonitor.clusterModel(-1, Long.MAX_VALUE, requirements, true, new OperationProgress());
+    assertTrue(expectedClusterModel.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN)
+               != clusterModel.partition(T0P0).leader().load().expectedUtilizationFor(Resource.NW_IN));
+    for (TopicPartition tp : Arrays.asList(T0P0, T0P1, T1P0, T1P1)) {
+      for (Resource resource : Resource.cachedValues()) {
+        assertEquals(expectedClusterModel.partition(tp).leader().load().expectedUtilizationFor(resource),
+                     refreshedClusterModel.partition(tp).leader().load().expectedUtilizationFor(resource), 1E-6);
+        assertEquals(expectedClusterModel.partition(tp).followers().get(0).load().expectedUtilizationFor(resource),
+                     refreshedClusterModel.partition(tp).followers().get(0).load().expectedUtilizationFor(resource), 1E-6);
+      }
+    }
+  }
+
   // Test build cluster model for JBOD broker.
   @Test
   public void testJbodClusterModel() throws NotEnoughValidWindowsException, TimeoutException, BrokerCapacityResolutionException {
@@ -513,6 +618,10 @@ public class LoadMonitorTest {
   }
 
   private TestContext prepareContext(int numWindowToPreserve, boolean isClusterJBOD) {
+    return prepareContext(numWindowToPreserve, isClusterJBOD, false);
+  }
+
+  private TestContext prepareContext(int numWindowToPreserve, boolean isClusterJBOD, boolean useClusterModelSnapshot) {
     // Create mock metadata client.
     Metadata metadata = getMetadata(Arrays.asList(T0P0, T0P1, T1P0, T1P1));
     MetadataClient mockMetadataClient = EasyMock.mock(MetadataClient.class);
@@ -524,7 +633,7 @@ public class LoadMonitorTest {
             .anyTimes();
     EasyMock.expect(mockMetadataClient.metadata()).andReturn(metadata).anyTimes();
     EasyMock.expect(mockMetadataClient.refreshMetadata())
-            .andReturn(new MetadataClient.ClusterAndGeneration(metadata.fetch(), 0))
+            .andAnswer(() -> new MetadataClient.ClusterAndGeneration(metadata.fetch(), _clusterGeneration))
             .anyTimes();
     EasyMock.expect(mockMetadataClient.refreshMetadata(anyLong()))
             .andReturn(new MetadataClient.ClusterAndGeneration(metadata.fetch(), 0))
@@ -569,6 +678,7 @@ public class LoadMonitorTest {
     props.put(MonitorConfig.SAMPLE_PARTITION_METRIC_STORE_ON_EXECUTION_CLASS_CONFIG, NoopSampleStore.class.getName());
     props.put(ExecutorConfig.ZOOKEEPER_SECURITY_ENABLED_CONFIG, "false");
     props.put(MonitorConfig.MONITOR_STATE_UPDATE_INTERVAL_MS_CONFIG, MONITOR_STATE_UPDATE_INTERVAL_MS);
+    props.put(MonitorConfig.USE_CLUSTER_MODEL_SNAPSHOT_CONFIG, Boolean.toString(useClusterModelSnapshot));
     if (isClusterJBOD) {
       String capacityConfigFileJBOD =
           KafkaCruiseControlUnitTestUtils.class.getClassLoader().getResource("testCapacityConfigJBOD.json").getFile();
@@ -576,7 +686,8 @@ public class LoadMonitorTest {
     }
     KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(props);
     _time = new MockTime(0, START_TIME_MS, TimeUnit.NANOSECONDS.convert(START_TIME_MS, TimeUnit.MILLISECONDS));
-    LoadMonitor loadMonitor = new LoadMonitor(config, mockMetadataClient, mockAdminClient, _time, new MetricRegistry(), METRIC_DEF);
+    _metricRegistry = new MetricRegistry();
+    LoadMonitor loadMonitor = new LoadMonitor(config, mockMetadataClient, mockAdminClient, _time, _metricRegistry, METRIC_DEF);
 
     KafkaPartitionMetricSampleAggregator aggregator = loadMonitor.partitionSampleAggregator();
 
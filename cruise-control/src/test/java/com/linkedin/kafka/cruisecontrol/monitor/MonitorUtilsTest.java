@@ -129,4 +129,25 @@ public class MonitorUtilsTest {
     cluster = cluster.withPartitions(Collections.singletonMap(new TopicPartition(TOPIC1, 1), badPartition));
     assertTrue(MonitorUtils.hasPartitionsWithIsrGreaterThanReplicas(cluster));
   }
+
+  @Test
+  public void testPartitionPlacementChanged() {
+    Node[] nodesWithOrder1 = {NODE_0, NODE_1};
+    Node[] nodesWithOrder2 = {NODE_1, NODE_0};
+    Node[] noNodes = {};
+    Node[] singletonNode1 = {NODE_1};
+    PartitionInfo t0p0 = new PartitionInfo(TOPIC0, 0, NODE_0, nodesWithOrder1, nodesWithOrder1, noNodes);
+
+    // Verify: The same placement with a different ISR is unchanged.
+    assertFalse(MonitorUtils.partitionPlacementChanged(t0p0, new PartitionInfo(TOPIC0, 0, NODE_0, nodesWithOrder1, singletonNode1, noNodes)));
+    assertFalse(MonitorUtils.partitionPlacementChanged(null, null));
+    // Verify: A created or deleted partition has changed.
+    assertTrue(MonitorUtils.partitionPlacementChanged(null, t0p0));
+    assertTrue(MonitorUtils.partitionPlacementChanged(t0p0, null));
+    // Verify: A new leader, replica order or offline replica is a change.
+    assertTrue(MonitorUtils.partitionPlacementChanged(t0p0, new PartitionInfo(TOPIC0, 0, NODE_1, nodesWithOrder1, nodesWithOrder1, noNodes)));
+    assertTrue(MonitorUtils.partitionPlacementChanged(t0p0, new PartitionInfo(TOPIC0, 0, NODE_0, nodesWithOrder2, nodesWithOrder1, noNodes)));
+    assertTrue(MonitorUtils.partitionPlacementChanged(t0p0, new PartitionInfo(TOPIC0, 0, NODE_0, nodesWithOrder1, nodesWithOrder1,
+                                                                              singletonNode1)));
+  }
 }
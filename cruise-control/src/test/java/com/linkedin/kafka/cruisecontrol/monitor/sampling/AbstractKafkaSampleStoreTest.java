@@ -4,11 +4,20 @@
 
 package com.linkedin.kafka.cruisecontrol.monitor.sampling;
 
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.easymock.EasyMock;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,14 +25,19 @@ import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
@@ -97,6 +111,53 @@ public class AbstractKafkaSampleStoreTest {
         EasyMock.verify(adminClient, kafkaSampleStore, nodesFuture);
     }
 
+    @Test
+    public void testPartitionMetricSampleWriterVersion() {
+        assertEquals(PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION,
+                     AbstractKafkaSampleStore.partitionMetricSampleWriterVersion(Collections.emptyMap()));
+        assertEquals(PartitionMetricSample.LATEST_SUPPORTED_VERSION, AbstractKafkaSampleStore.partitionMetricSampleWriterVersion(
+                Collections.singletonMap(AbstractKafkaSampleStore.PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG, "2")));
+        assertThrows(ConfigException.class, () -> AbstractKafkaSampleStore.partitionMetricSampleWriterVersion(
+                Collections.singletonMap(AbstractKafkaSampleStore.PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG, "0")));
+        assertThrows(ConfigException.class, () -> AbstractKafkaSampleStore.partitionMetricSampleWriterVersion(
+                Collections.singletonMap(AbstractKafkaSampleStore.PARTITION_METRIC_SAMPLE_WRITER_VERSION_CONFIG, "latest")));
+    }
+
+    @Test
+    public void testStorePartitionMetricSamples() throws UnknownVersionException {
+        Set<PartitionMetricSample> partitionMetricSamples = new HashSet<>();
+        for (int partition = 0; partition < 3; partition++) {
+            PartitionMetricSample sample = new PartitionMetricSample(0, new TopicPartition("topic", partition));
+            for (MetricInfo info : KafkaMetricDef.commonMetricDef().all()) {
+                sample.record(info, partition);
+            }
+            sample.close(partition + 1);
+            partitionMetricSamples.add(sample);
+        }
+        MetricSampler.Samples samples = new MetricSampler.Samples(partitionMetricSamples, Collections.emptySet());
+        Logger log = LoggerFactory.getLogger(AbstractKafkaSampleStoreTest.class);
+
+        // The default version stores a sample per record.
+        MockProducer<byte[], byte[]> producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        AtomicInteger count = AbstractKafkaSampleStore.storePartitionMetricSamples(
+                samples, producer, "topic", PartitionMetricSample.LATEST_SINGLE_SAMPLE_VERSION, log);
+        assertEquals(3, count.get());
+        assertEquals(3, producer.history().size());
+        for (ProducerRecord<byte[], byte[]> record : producer.history()) {
+            PartitionMetricSample sample = PartitionMetricSample.fromBytes(record.value());
+            assertEquals(sample.sampleTime(), record.timestamp().longValue());
+        }
+
+        // The batch version stores all the samples in a single record.
+        producer = new MockProducer<>(true, new ByteArraySerializer(), new ByteArraySerializer());
+        count = AbstractKafkaSampleStore.storePartitionMetricSamples(
+                samples, producer, "topic", PartitionMetricSample.LATEST_SUPPORTED_VERSION, log);
+        assertEquals(3, count.get());
+        assertEquals(1, producer.history().size());
+        assertEquals(3, PartitionMetricSample.fromBatchBytes(producer.history().get(0).value()).size());
+        assertEquals(3L, producer.history().get(0).timestamp().longValue());
+    }
+
     private Map<String, Object> createFilledConfigMap() {
         Map<String, Object> config = new HashMap<>();
         config.put(MonitorConfig.FETCH_METRIC_SAMPLES_MAX_RETRY_COUNT_CONFIG, 2);
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link FileSampleStore}.
+ */
+public class FileSampleStoreTest {
+  private static final long WINDOW_MS = 3600000L;
+  private static final int NUM_WINDOWS = 3;
+  private Path _dir;
+
+  /**
+   * Setup the unit test.
+   */
+  @Before
+  public void setup() throws IOException {
+    _dir = Files.createTempDirectory("file-sample-store");
+  }
+
+  /**
+   * Cleanup the unit test.
+   */
+  @After
+  public void teardown() throws IOException {
+    try (Stream<Path> paths = Files.walk(_dir)) {
+      paths.sorted(Collections.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  @Test
+  public void testStoreAndLoadSamples() {
+    long now = System.currentTimeMillis();
+    FileSampleStore store = createStore();
+    store.storeSamples(samples(now - 2 * WINDOW_MS, 0, 1));
+    store.storeSamples(samples(now - WINDOW_MS, 1, 2));
+    store.storeSamples(samples(now, 2, 3));
+    store.close();
+
+    // A restarted store loads the samples of all the retained windows.
+    FileSampleStore restarted = createStore();
+    CollectingSampleLoader loader = new CollectingSampleLoader(WINDOW_MS * NUM_WINDOWS);
+    restarted.loadSamples(loader);
+    assertEquals(1.0, restarted.sampleLoadingProgress(), 0.0);
+    assertEquals(3, loader._partitionMetricSamples.size());
+    assertEquals(3, loader._brokerMetricSamples.size());
+    Set<Integer> brokerIds = new HashSet<>();
+    for (BrokerMetricSample sample : loader._brokerMetricSamples) {
+      brokerIds.add(sample.brokerId());
+    }
+    assertEquals(new HashSet<>(List.of(0, 1, 2)), brokerIds);
+
+    // A shorter monitoring period skips the segments of the older windows.
+    CollectingSampleLoader recentLoader = new CollectingSampleLoader(0L);
+    restarted.loadSamples(recentLoader);
+    assertEquals(1, recentLoader._partitionMetricSamples.size());
+    assertEquals(1, recentLoader._brokerMetricSamples.size());
+    restarted.close();
+  }
+
+  @Test
+  public void testSegmentsOfOldWindowsAreDeleted() {
+    FileSampleStore store = createStore();
+    for (int i = 0; i < 2 * NUM_WINDOWS; i++) {
+      store.storeSamples(samples(i * WINDOW_MS, i, i + 1));
+    }
+    // The current window and the windows kept by the aggregators are retained.
+    for (int i = 0; i < 2 * NUM_WINDOWS; i++) {
+      boolean retained = i >= NUM_WINDOWS - 1;
+      assertEquals(retained, Files.exists(segment(FileSampleStore.PARTITION_SEGMENT_DIR, i)));
+      assertEquals(retained, Files.exists(segment(FileSampleStore.BROKER_SEGMENT_DIR, i)));
+    }
+    // Samples of windows that are no longer retained are ignored.
+    store.storeSamples(samples(0, 0, 1));
+    assertFalse(Files.exists(segment(FileSampleStore.PARTITION_SEGMENT_DIR, 0)));
+
+    store.evictSamplesBefore(2 * NUM_WINDOWS * WINDOW_MS - 1);
+    assertFalse(Files.exists(segment(FileSampleStore.PARTITION_SEGMENT_DIR, 2 * NUM_WINDOWS - 2)));
+    assertTrue(Files.exists(segment(FileSampleStore.PARTITION_SEGMENT_DIR, 2 * NUM_WINDOWS - 1)));
+    store.close();
+  }
+
+  @Test
+  public void testPartiallyWrittenSampleIsSkippedAndTruncated() throws IOException {
+    long now = System.currentTimeMillis();
+    FileSampleStore store = createStore();
+    store.storeSamples(samples(now, 0, 2));
+    store.close();
+    // Emulate a crash in the middle of appending a sample.
+    Path segment = segment(FileSampleStore.PARTITION_SEGMENT_DIR, now / WINDOW_MS);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 1);
+    }
+
+    FileSampleStore restarted = createStore();
+    CollectingSampleLoader loader = new CollectingSampleLoader(WINDOW_MS);
+    restarted.loadSamples(loader);
+    assertEquals(1, loader._partitionMetricSamples.size());
+    assertEquals(2, loader._brokerMetricSamples.size());
+
+    // The partially written sample does not hide the samples appended after the restart.
+    restarted.storeSamples(samples(now, 2, 3));
+    restarted.close();
+    CollectingSampleLoader reloader = new CollectingSampleLoader(WINDOW_MS);
+    FileSampleStore reloaded = createStore();
+    reloaded.loadSamples(reloader);
+    assertEquals(2, reloader._partitionMetricSamples.size());
+    assertEquals(3, reloader._brokerMetricSamples.size());
+    reloaded.close();
+  }
+
+  @Test
+  public void testFailedSegmentDoesNotAbortLoading() {
+    long now = System.currentTimeMillis();
+    FileSampleStore store = createStore();
+    store.storeSamples(samples(now - 2 * WINDOW_MS, 0, 1));
+    store.storeSamples(samples(now - WINDOW_MS, 1, 2));
+    store.storeSamples(samples(now, 2, 3));
+    store.close();
+
+    // The samples of the other segments are loaded even if a segment fails to be loaded.
+    Path failedSegment = segment(FileSampleStore.PARTITION_SEGMENT_DIR, (now - 2 * WINDOW_MS) / WINDOW_MS);
+    FileSampleStore restarted = new FileSampleStore() {
+      @Override
+      protected long loadSegment(Path segment, boolean isPartitionSegment, SampleLoader sampleLoader) throws IOException {
+        if (segment.equals(failedSegment)) {
+          throw new IOException("Failed to read " + segment);
+        }
+        return super.loadSegment(segment, isPartitionSegment, sampleLoader);
+      }
+    };
+    restarted.configure(config());
+    CollectingSampleLoader loader = new CollectingSampleLoader(WINDOW_MS * NUM_WINDOWS);
+    restarted.loadSamples(loader);
+    assertEquals(1.0, restarted.sampleLoadingProgress(), 0.0);
+    assertEquals(2, loader._partitionMetricSamples.size());
+    assertEquals(3, loader._brokerMetricSamples.size());
+    restarted.close();
+  }
+
+  private FileSampleStore createStore() {
+    FileSampleStore store = new FileSampleStore();
+    store.configure(config());
+    return store;
+  }
+
+  private Map<String, Object> config() {
+    Map<String, Object> config = new HashMap<>();
+    config.put(FileSampleStore.FILE_SAMPLE_STORE_DIR_CONFIG, _dir.toString());
+    config.put(FileSampleStore.NUM_SAMPLE_LOADING_THREADS_CONFIG, "2");
+    config.put(MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG, WINDOW_MS);
+    config.put(MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG, NUM_WINDOWS);
+    config.put(MonitorConfig.BROKER_METRICS_WINDOW_MS_CONFIG, WINDOW_MS);
+    config.put(MonitorConfig.NUM_BROKER_METRICS_WINDOWS_CONFIG, NUM_WINDOWS);
+    return config;
+  }
+
+  private Path segment(String sampleType, long windowIndex) {
+    return _dir.resolve(sampleType).resolve(windowIndex + FileSampleStore.SEGMENT_FILE_SUFFIX);
+  }
+
+  private static MetricSampler.Samples samples(long sampleTime, int fromBrokerId, int toBrokerId) {
+    Set<PartitionMetricSample> partitionMetricSamples = new HashSet<>();
+    Set<BrokerMetricSample> brokerMetricSamples = new HashSet<>();
+    for (int brokerId = fromBrokerId; brokerId < toBrokerId; brokerId++) {
+      PartitionMetricSample partitionMetricSample = new PartitionMetricSample(brokerId, new TopicPartition("topic", brokerId));
+      for (MetricInfo info : KafkaMetricDef.commonMetricDef().all()) {
+        partitionMetricSample.record(info, brokerId);
+      }
+      partitionMetricSample.close(sampleTime);
+      partitionMetricSamples.add(partitionMetricSample);
+
+      BrokerMetricSample brokerMetricSample = new BrokerMetricSample("host", brokerId, BrokerMetricSample.LATEST_SUPPORTED_VERSION);
+      for (MetricInfo info : KafkaMetricDef.brokerMetricDef().all()) {
+        brokerMetricSample.record(info, brokerId);
+      }
+      brokerMetricSample.close(sampleTime);
+      brokerMetricSamples.add(brokerMetricSample);
+    }
+    return new MetricSampler.Samples(partitionMetricSamples, brokerMetricSamples);
+  }
+
+  /**
+   * A sample loader that collects the loaded samples instead of adding them to the metric sample aggregators.
+   */
+  private static class CollectingSampleLoader extends SampleStore.SampleLoader {
+    private final long _monitoringPeriodMs;
+    private final List<PartitionMetricSample> _partitionMetricSamples;
+    private final List<BrokerMetricSample> _brokerMetricSamples;
+
+    CollectingSampleLoader(long monitoringPeriodMs) {
+      super(null, null);
+      _monitoringPeriodMs = monitoringPeriodMs;
+      _partitionMetricSamples = new ArrayList<>();
+      _brokerMetricSamples = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void loadSamples(MetricSampler.Samples samples) {
+      _partitionMetricSamples.addAll(samples.partitionMetricSamples());
+      _brokerMetricSamples.addAll(samples.brokerMetricSamples());
+    }
+
+    @Override
+    public synchronized long partitionSampleCount() {
+      return _partitionMetricSamples.size();
+    }
+
+    @Override
+    public synchronized long brokerSampleCount() {
+      return _brokerMetricSamples.size();
+    }
+
+    @Override
+    public long partitionMonitoringPeriodMs() {
+      return _monitoringPeriodMs;
+    }
+
+    @Override
+    public long brokerMonitoringPeriodMs() {
+      return _monitoringPeriodMs;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2024 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for the sample loading pipeline of {@link KafkaSampleStore}.
+ */
+public class KafkaSampleStoreTest {
+  private static final String PARTITION_SAMPLE_TOPIC = "partition-samples";
+  private static final String BROKER_SAMPLE_TOPIC = "broker-samples";
+  private static final TopicPartition SAMPLE_TOPIC_PARTITION = new TopicPartition(PARTITION_SAMPLE_TOPIC, 0);
+
+  @Test
+  public void testBadRecordDoesNotStopDeserialization() throws InterruptedException {
+    KafkaSampleStore store = createStore();
+    CollectingSampleLoader loader = new CollectingSampleLoader();
+    KafkaSampleStore.SampleLoadingPipeline pipeline = store.new SampleLoadingPipeline(loader, 1, 1);
+    pipeline._totalRecords.set(4L);
+    ExecutorService stageExecutor = Executors.newFixedThreadPool(2);
+    try {
+      stageExecutor.execute(pipeline::deserialize);
+      stageExecutor.execute(() -> pipeline.apply(0));
+      // A record with a truncated sample among the valid records of both the single sample and the batch versions.
+      assertTrue(pipeline.fetched(records(record(0, sample(0).toBytes()),
+                                          record(1, Arrays.copyOf(sample(1).toBytes(), 10)),
+                                          record(2, PartitionMetricSample.toBatchBytes(List.of(sample(2), sample(3)))))));
+      assertTrue(pipeline.fetched(records(record(3, sample(4).toBytes()))));
+      pipeline.endDeserialization();
+      pipeline.awaitStage(pipeline._deserializersDone);
+      pipeline.endApplication();
+      pipeline.awaitStage(pipeline._appliersDone);
+    } finally {
+      stageExecutor.shutdownNow();
+    }
+    assertEquals(4, loader.partitionSampleCount());
+    assertEquals(4L, pipeline._numDeserializedRecords.get());
+  }
+
+  @Test
+  public void testFetchStopsWithoutDeserializers() throws InterruptedException {
+    KafkaSampleStore store = createStore();
+    KafkaSampleStore.SampleLoadingPipeline pipeline = store.new SampleLoadingPipeline(new CollectingSampleLoader(), 1, 1);
+    // Fill the record queue, then let the only deserializer die.
+    assertTrue(pipeline.fetched(records(record(0, sample(0).toBytes()))));
+    pipeline._deserializersDone.countDown();
+    assertFalse(pipeline.fetched(records(record(1, sample(1).toBytes()))));
+    assertEquals(1L, pipeline._numFetchedRecords.get());
+    // Ending the deserialization does not block either.
+    pipeline.endDeserialization();
+  }
+
+  private static KafkaSampleStore createStore() {
+    KafkaSampleStore store = new KafkaSampleStore();
+    store._partitionMetricSampleStoreTopic = PARTITION_SAMPLE_TOPIC;
+    store._brokerMetricSampleStoreTopic = BROKER_SAMPLE_TOPIC;
+    List<Consumer<byte[], byte[]>> consumers = new ArrayList<>();
+    consumers.add(new MockConsumer<>(OffsetResetStrategy.EARLIEST));
+    store._consumers = consumers;
+    return store;
+  }
+
+  private static PartitionMetricSample sample(int partition) {
+    PartitionMetricSample sample = new PartitionMetricSample(0, new TopicPartition("topic", partition));
+    for (MetricInfo info : KafkaMetricDef.commonMetricDef().all()) {
+      sample.record(info, partition);
+    }
+    sample.close(partition + 1);
+    return sample;
+  }
+
+  private static ConsumerRecord<byte[], byte[]> record(long offset, byte[] value) {
+    return new ConsumerRecord<>(PARTITION_SAMPLE_TOPIC, 0, offset, null, value);
+  }
+
+  @SafeVarargs
+  private static ConsumerRecords<byte[], byte[]> records(ConsumerRecord<byte[], byte[]>... records) {
+    Map<TopicPartition, List<ConsumerRecord<byte[], byte[]>>> recordsByPartition =
+        Collections.singletonMap(SAMPLE_TOPIC_PARTITION, Arrays.asList(records));
+    return new ConsumerRecords<>(recordsByPartition);
+  }
+
+  /**
+   * A sample loader that collects the loaded samples instead of adding them to the metric sample aggregators.
+   */
+  private static class CollectingSampleLoader extends SampleStore.SampleLoader {
+    private final List<PartitionMetricSample> _partitionMetricSamples;
+
+    CollectingSampleLoader() {
+      super(null, null);
+      _partitionMetricSamples = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void loadSamples(MetricSampler.Samples samples) {
+      _partitionMetricSamples.addAll(samples.partitionMetricSamples());
+    }
+
+    @Override
+    public synchronized long partitionSampleCount() {
+      return _partitionMetricSamples.size();
+    }
+
+    @Override
+    public long brokerSampleCount() {
+      return 0L;
+    }
+  }
+}
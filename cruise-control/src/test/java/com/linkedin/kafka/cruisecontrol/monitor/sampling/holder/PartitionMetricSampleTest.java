@@ -5,9 +5,12 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
 
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.Test;
 
@@ -85,4 +88,38 @@ public class PartitionMetricSampleTest {
     assertEquals(sample.sampleTime(), deserializedSample.sampleTime());
   }
 
+  @Test
+  public void testBatchSerde() throws UnknownVersionException {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    List<PartitionMetricSample> samples = new ArrayList<>();
+    for (int i = 0; i < 11; i++) {
+      PartitionMetricSample sample = new PartitionMetricSample(i % 3, new TopicPartition("topic" + (i % 2), i));
+      int j = 0;
+      for (MetricInfo info : metricDef.all()) {
+        // Leave some of the values zero to skip them in the columns.
+        sample.record(info, (i + j) % 4 == 0 ? 0.0 : i * 10.5 + j);
+        j++;
+      }
+      sample.close(1000L + (i % 5) * 100L);
+      samples.add(sample);
+    }
+    List<PartitionMetricSample> deserializedSamples = PartitionMetricSample.fromBatchBytes(PartitionMetricSample.toBatchBytes(samples));
+    assertEquals(samples.size(), deserializedSamples.size());
+    for (int i = 0; i < samples.size(); i++) {
+      PartitionMetricSample sample = samples.get(i);
+      PartitionMetricSample deserializedSample = deserializedSamples.get(i);
+      assertEquals(sample.brokerId(), deserializedSample.brokerId());
+      assertEquals(sample.entity().tp(), deserializedSample.entity().tp());
+      assertEquals(sample.sampleTime(), deserializedSample.sampleTime());
+      for (MetricInfo info : metricDef.all()) {
+        assertEquals(sample.metricValue(info.id()), deserializedSample.metricValue(info.id()), EPSILON);
+      }
+    }
+
+    // A single sample of an earlier version is still deserialized.
+    List<PartitionMetricSample> singleSample = PartitionMetricSample.fromBatchBytes(samples.get(1).toBytes());
+    assertEquals(1, singleSample.size());
+    assertEquals(samples.get(1).entity().tp(), singleSample.get(0).entity().tp());
+    assertEquals(samples.get(1).sampleTime(), singleSample.get(0).sampleTime());
+  }
 }
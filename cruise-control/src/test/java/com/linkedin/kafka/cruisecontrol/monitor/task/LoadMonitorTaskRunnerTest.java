@@ -22,6 +22,7 @@ import com.linkedin.kafka.cruisecontrol.monitor.sampling.NoopSampleStore;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner.LoadMonitorTaskRunnerState;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -32,6 +33,7 @@ import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import org.apache.kafka.clients.Metadata;
 import org.apache.kafka.clients.admin.AdminClient;
@@ -51,8 +53,10 @@ import org.junit.Test;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.METADATA_EXPIRY_MS;
 import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.METADATA_REFRESH_BACKOFF;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * The unit test for metric fetcher manager.
@@ -193,6 +197,51 @@ public class LoadMonitorTaskRunnerTest extends CCKafkaIntegrationTestHarness {
     fetcherManager.shutdown();
   }
 
+  @Test
+  public void testPauseSamplingWaitsForCheckpoint() throws InterruptedException {
+    KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(getLoadMonitorProperties());
+    Metadata metadata = new Metadata(METADATA_REFRESH_BACKOFF,
+                                     METADATA_EXPIRY_MS,
+                                     new LogContext(),
+                                     new ClusterResourceListeners());
+    MetadataClient metadataClient = new MetadataClient(config, metadata, -1L, TIME);
+    MockPartitionMetricSampleAggregator mockMetricSampleAggregator =
+        new MockPartitionMetricSampleAggregator(config, metadata);
+    KafkaBrokerMetricSampleAggregator mockBrokerMetricSampleAggregator =
+        EasyMock.mock(KafkaBrokerMetricSampleAggregator.class);
+    MetricFetcherManager fetcherManager =
+        new MetricFetcherManager(config, mockMetricSampleAggregator, mockBrokerMetricSampleAggregator, metadataClient,
+                                 METRIC_DEF, TIME, new MetricRegistry(), null, new MockSampler(0));
+    LoadMonitorTaskRunner loadMonitorTaskRunner =
+        new LoadMonitorTaskRunner(config, fetcherManager, mockMetricSampleAggregator, mockBrokerMetricSampleAggregator,
+                                  metadataClient, TIME);
+    // Put the load monitor in the middle of a checkpoint.
+    assertTrue(loadMonitorTaskRunner.compareAndSetState(LoadMonitorTaskRunnerState.NOT_STARTED, LoadMonitorTaskRunnerState.RUNNING));
+    assertTrue(loadMonitorTaskRunner.compareAndSetState(LoadMonitorTaskRunnerState.RUNNING, LoadMonitorTaskRunnerState.CHECKPOINTING));
+
+    AtomicReference<Throwable> pauseError = new AtomicReference<>();
+    Thread pauseThread = new Thread(() -> {
+      try {
+        loadMonitorTaskRunner.pauseSampling("test", false);
+      } catch (Throwable t) {
+        pauseError.set(t);
+      }
+    });
+    pauseThread.start();
+    // The pause waits for the checkpoint to finish.
+    pauseThread.join(100);
+    assertTrue(pauseThread.isAlive());
+    assertEquals(LoadMonitorTaskRunnerState.CHECKPOINTING, loadMonitorTaskRunner.state());
+
+    loadMonitorTaskRunner.finishCheckpointing();
+    pauseThread.join(10000);
+    assertFalse(pauseThread.isAlive());
+    assertNull(pauseError.get());
+    assertEquals(LoadMonitorTaskRunnerState.PAUSED, loadMonitorTaskRunner.state());
+    assertEquals("test", loadMonitorTaskRunner.reasonOfLatestPauseOrResume());
+    fetcherManager.shutdown();
+  }
+
   private Properties getLoadMonitorProperties() {
     Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
     props.setProperty(MonitorConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers());
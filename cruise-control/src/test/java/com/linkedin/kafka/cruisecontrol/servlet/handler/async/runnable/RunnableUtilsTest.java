@@ -4,6 +4,9 @@
 
 package com.linkedin.kafka.cruisecontrol.servlet.handler.async.runnable;
 
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
+import com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutorState;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -14,11 +17,16 @@ import java.util.Set;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.Node;
 import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.MockTime;
+import org.easymock.EasyMock;
 import org.junit.Test;
 
+import static com.linkedin.kafka.cruisecontrol.analyzer.OptimizationOptions.NO_OPTIMIZATION_DEADLINE_MS;
+import static com.linkedin.kafka.cruisecontrol.servlet.handler.async.runnable.RunnableUtils.computeOptimizationOptions;
 import static com.linkedin.kafka.cruisecontrol.servlet.handler.async.runnable.RunnableUtils.populateRackInfoForReplicationFactorChange;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 
 public class RunnableUtilsTest {
@@ -64,4 +72,30 @@ public class RunnableUtilsTest {
     assertEquals(2, brokersByRack.size());
     assertEquals(NODES.length, rackByBroker.size());
   }
+
+  @Test
+  public void testComputeOptimizationOptionsWithTimeout() {
+    MockTime time = new MockTime();
+    KafkaCruiseControl mockKafkaCruiseControl = EasyMock.mock(KafkaCruiseControl.class);
+    EasyMock.expect(mockKafkaCruiseControl.executorState())
+            .andReturn(ExecutorState.noTaskInProgress(Collections.emptySet(), Collections.emptySet())).anyTimes();
+    EasyMock.expect(mockKafkaCruiseControl.excludedTopics(EasyMock.anyObject(), EasyMock.anyObject()))
+            .andReturn(Collections.emptySet()).anyTimes();
+    EasyMock.expect(mockKafkaCruiseControl.time()).andReturn(time).anyTimes();
+    EasyMock.replay(mockKafkaCruiseControl);
+
+    // Expected: The deadline is the given timeout from now.
+    OptimizationOptions optimizationOptions = computeOptimizationOptions(null, false, mockKafkaCruiseControl, Collections.emptySet(),
+                                                                         true, false, false, null, Collections.emptySet(),
+                                                                         false, false, 1000L);
+    assertEquals(time.milliseconds() + 1000L, optimizationOptions.optimizationDeadlineMs());
+
+    // Expected: A timeout that would overflow the deadline saturates it, so the deadline never passes.
+    optimizationOptions = computeOptimizationOptions(null, false, mockKafkaCruiseControl, Collections.emptySet(), true, false, false,
+                                                     null, Collections.emptySet(), false, false, Long.MAX_VALUE);
+    assertEquals(NO_OPTIMIZATION_DEADLINE_MS, optimizationOptions.optimizationDeadlineMs());
+    time.sleep(1000L);
+    assertFalse(optimizationOptions.isOptimizationDeadlinePassed());
+    EasyMock.verify(mockKafkaCruiseControl);
+  }
 }
@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.servlet.parameters;
 import com.linkedin.cruisecontrol.http.CruiseControlRequestContext;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import com.linkedin.kafka.cruisecontrol.servlet.UserRequestException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -23,6 +24,8 @@ public class ParameterUtilsTest {
   private static final String REPLICATION_THROTTLE_STRING = "1000";
   private static final String DEFAULT_REPLICATION_THROTTLE_STRING = "2000";
   private static final String EXECUTION_PROGRESS_CHECK_INTERVAL_STRING = "1500";
+  private static final String OPTIMIZATION_TIMEOUT_STRING = "30000";
+  private static final String INVALID_OPTIMIZATION_TIMEOUT_STRING = "0";
 
   @Test
   public void testParseTimeRangeSet() {
@@ -166,4 +169,50 @@ public class ParameterUtilsTest {
     EasyMock.verify(mockRequest);
     Assert.assertEquals(Long.valueOf(EXECUTION_PROGRESS_CHECK_INTERVAL_STRING), executionProgressCheckIntervalMs);
   }
+
+  @Test
+  public void testParseOptimizationTimeoutMsNoValue() {
+    CruiseControlRequestContext mockRequest = EasyMock.mock(CruiseControlRequestContext.class);
+    EasyMock.expect(mockRequest.getParameterMap()).andReturn(Collections.emptyMap()).once();
+    EasyMock.replay(mockRequest);
+    Assert.assertNull(ParameterUtils.optimizationTimeoutMs(mockRequest));
+    EasyMock.verify(mockRequest);
+  }
+
+  @Test
+  public void testParseOptimizationTimeoutMsWithValue() {
+    CruiseControlRequestContext mockRequest = EasyMock.mock(CruiseControlRequestContext.class);
+
+    Map<String, String[]> paramMap = Collections.singletonMap(
+        ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM,
+        new String[]{ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM});
+
+    EasyMock.expect(mockRequest.getParameterMap()).andReturn(paramMap).once();
+    EasyMock.expect(mockRequest.getParameter(ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM))
+            .andReturn(OPTIMIZATION_TIMEOUT_STRING).once();
+
+    EasyMock.replay(mockRequest);
+
+    Long optimizationTimeoutMs = ParameterUtils.optimizationTimeoutMs(mockRequest);
+
+    EasyMock.verify(mockRequest);
+    Assert.assertEquals(Long.valueOf(OPTIMIZATION_TIMEOUT_STRING), optimizationTimeoutMs);
+  }
+
+  @Test(expected = UserRequestException.class)
+  public void testParseOptimizationTimeoutMsWithNonPositiveValue() {
+    CruiseControlRequestContext mockRequest = EasyMock.mock(CruiseControlRequestContext.class);
+
+    Map<String, String[]> paramMap = Collections.singletonMap(
+        ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM,
+        new String[]{ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM});
+
+    EasyMock.expect(mockRequest.getParameterMap()).andReturn(paramMap).once();
+    EasyMock.expect(mockRequest.getParameter(ParameterUtils.OPTIMIZATION_TIMEOUT_MS_PARAM))
+            .andReturn(INVALID_OPTIMIZATION_TIMEOUT_STRING).once();
+
+    EasyMock.replay(mockRequest);
+
+    ParameterUtils.optimizationTimeoutMs(mockRequest);
+  }
 }